@@ -0,0 +1,39 @@
+package viettel.dac.toolserviceregistry.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import viettel.dac.toolserviceregistry.graph.ParallelGraphAlgorithms;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configuration for parallel graph algorithms over the dependency graph.
+ */
+@Configuration
+@Slf4j
+public class GraphComputeConfig {
+
+    @Value("${tool.registry.graph.parallelism:0}")
+    private int parallelism;
+
+    @Value("${tool.registry.graph.parallel-threshold:50000}")
+    private int parallelThreshold;
+
+    /**
+     * Dedicated pool for graph analytics, so large traversals do not compete with the common pool.
+     * A parallelism of 0 uses all available processors.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool graphComputePool() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Graph compute pool configured with parallelism {} and threshold {} nodes", threads, parallelThreshold);
+        return new ForkJoinPool(threads);
+    }
+
+    @Bean
+    public ParallelGraphAlgorithms parallelGraphAlgorithms(ForkJoinPool graphComputePool) {
+        return new ParallelGraphAlgorithms(graphComputePool, parallelThreshold);
+    }
+}
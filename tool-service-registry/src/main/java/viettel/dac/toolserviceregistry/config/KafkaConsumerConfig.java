@@ -32,6 +32,9 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${tool.registry.plan-batch.max-size:500}")
+    private int maxBatchSize;
+
     private final KafkaTemplate<String, Object> kafkaTemplate;
 
     /**
@@ -41,18 +44,40 @@ public class KafkaConsumerConfig {
      */
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
+        Map<String, Object> props = consumerProperties();
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
+        props.put(JsonDeserializer.TRUSTED_PACKAGES, "viettel.dac.toolserviceregistry");
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    /**
+     * Creates the consumer factory for batch listeners, which parse the JSON records themselves.
+     * A poll returns at most one batch of execution plan requests.
+     *
+     * @return The configured consumer factory
+     */
+    @Bean
+    public ConsumerFactory<String, String> batchConsumerFactory() {
+        Map<String, Object> props = consumerProperties();
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxBatchSize);
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    /**
+     * Gets the consumer properties shared by all consumer factories.
+     */
+    private Map<String, Object> consumerProperties() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, 1024);
         props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, 500);
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500);
-        props.put(JsonDeserializer.TRUSTED_PACKAGES, "viettel.dac.toolserviceregistry");
-        return new DefaultKafkaConsumerFactory<>(props);
+        return props;
     }
 
     /**
@@ -80,4 +105,21 @@ public class KafkaConsumerConfig {
 
         return factory;
     }
+
+    /**
+     * Creates the listener container factory for batch listeners, which receive all records of a poll
+     * as one list and acknowledge them together.
+     *
+     * @return The configured listener container factory
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> batchKafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setConcurrency(3);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        return factory;
+    }
 }
@@ -25,6 +25,12 @@ public class KafkaTopicConfig {
     @Value("${kafka.topic.tool-events}")
     private String toolEventsTopic;
 
+    @Value("${kafka.topic.tool-dependency-events}")
+    private String toolDependencyEventsTopic;
+
+    @Value("${kafka.topic.tool-dependency-snapshots}")
+    private String toolDependencySnapshotsTopic;
+
     @Value("${kafka.topic.intent-analysis-events}")
     private String intentAnalysisEventsTopic;
 
@@ -34,6 +40,9 @@ public class KafkaTopicConfig {
     @Value("${kafka.topic.tool-registry-responses}")
     private String toolRegistryResponsesTopic;
 
+    @Value("${kafka.topic.execution-progress}")
+    private String executionProgressTopic;
+
     /**
      * Creates the tool events topic.
      */
@@ -46,6 +55,30 @@ public class KafkaTopicConfig {
                 .build();
     }
 
+    /**
+     * Creates the tool dependency events topic. Graph deltas share one key, so a single partition
+     * keeps them in version order.
+     */
+    @Bean
+    public NewTopic toolDependencyEventsTopic() {
+        return TopicBuilder.name(toolDependencyEventsTopic)
+                .partitions(1)
+                .replicas(2)
+                .build();
+    }
+
+    /**
+     * Creates the tool dependency snapshots topic.
+     */
+    @Bean
+    public NewTopic toolDependencySnapshotsTopic() {
+        return TopicBuilder.name(toolDependencySnapshotsTopic)
+                .partitions(1)
+                .replicas(2)
+                .compact() // Only the latest full graph is retained
+                .build();
+    }
+
     /**
      * Creates the intent analysis events topic.
      */
@@ -79,6 +112,18 @@ public class KafkaTopicConfig {
                 .build();
     }
 
+    /**
+     * Creates the execution progress topic. Events are keyed by execution ID, so the events of one
+     * run stay in order.
+     */
+    @Bean
+    public NewTopic executionProgressTopic() {
+        return TopicBuilder.name(executionProgressTopic)
+                .partitions(6)
+                .replicas(2)
+                .build();
+    }
+
     /**
      * Creates the dead letter queue topic for tool events.
      */
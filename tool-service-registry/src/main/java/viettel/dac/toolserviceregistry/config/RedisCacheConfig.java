@@ -99,12 +99,9 @@ public class RedisCacheConfig extends CachingConfigurerSupport {
         // Configure individual cache settings
         Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
 
-        // Tool graph cache - longer TTL
+        // Tool graph cache - shared tier of the in-memory dependency graph, longer TTL
         cacheConfigs.put("toolGraph", defaultConfig.entryTtl(Duration.ofMinutes(30)));
 
-        // Execution plans cache - shorter TTL
-        cacheConfigs.put("executionPlans", defaultConfig.entryTtl(Duration.ofMinutes(10)));
-
         // API response cache - even shorter TTL
         cacheConfigs.put("apiResponses", defaultConfig.entryTtl(Duration.ofMinutes(5)));
 
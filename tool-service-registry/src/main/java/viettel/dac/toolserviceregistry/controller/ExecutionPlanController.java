@@ -2,17 +2,23 @@ package viettel.dac.toolserviceregistry.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
 import viettel.dac.toolserviceregistry.model.dto.ParameterRequirement;
+import viettel.dac.toolserviceregistry.model.dto.PlanExecutionResult;
 import viettel.dac.toolserviceregistry.model.request.ExecutionPlanRequest;
 import viettel.dac.toolserviceregistry.service.ExecutionPlanService;
+import viettel.dac.toolserviceregistry.service.ExecutionProgressStreamService;
 import viettel.dac.toolserviceregistry.service.ParameterValidationService;
+import viettel.dac.toolserviceregistry.service.PlanExecutionService;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for advanced execution plan operations.
@@ -25,6 +31,8 @@ import java.util.Set;
 public class ExecutionPlanController {
     private final ExecutionPlanService executionPlanService;
     private final ParameterValidationService parameterValidationService;
+    private final PlanExecutionService planExecutionService;
+    private final ExecutionProgressStreamService progressStreamService;
 
     /**
      * Generates an execution plan for a set of tools.
@@ -43,6 +51,59 @@ public class ExecutionPlanController {
         return ResponseEntity.ok(plan);
     }
 
+    /**
+     * Generates execution plans for a batch of requests. Identical requests are planned once.
+     *
+     * @param requests The execution plan requests
+     * @return The generated execution plans, in the order of the requests
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ExecutionPlanView>> generateExecutionPlans(
+            @RequestBody List<ExecutionPlanRequest> requests) {
+        log.info("Generating {} execution plans", requests.size());
+
+        List<ExecutionPlanView> plans = executionPlanService.generateExecutionPlans(requests);
+
+        return ResponseEntity.ok(plans);
+    }
+
+    /**
+     * Generates an execution plan for a set of tools and runs it. The request thread is released
+     * while the plan runs.
+     *
+     * @param request The execution plan request
+     * @return The outcome of every tool in the plan
+     */
+    @PostMapping("/execute")
+    public CompletableFuture<ResponseEntity<PlanExecutionResult>> executeExecutionPlan(
+            @RequestBody ExecutionPlanRequest request) {
+        log.info("Executing execution plan for tools: {}", request.getToolIds());
+
+        ExecutionPlanView plan = executionPlanService.generateExecutionPlan(
+                request.getToolIds(), request.getProvidedParameters());
+
+        return planExecutionService.execute(plan, request.getProvidedParameters())
+                .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Generates an execution plan for a set of tools, runs it and streams its progress as
+     * server-sent events: PLAN_STARTED, TOOL_STARTED and TOOL_FINISHED per tool, and PLAN_COMPLETED
+     * with the outcome of every tool.
+     *
+     * @param request The execution plan request
+     * @return The event stream
+     */
+    @PostMapping(value = "/execute/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamExecutionPlan(@RequestBody ExecutionPlanRequest request) {
+        log.info("Streaming execution of execution plan for tools: {}", request.getToolIds());
+
+        ExecutionPlanView plan = executionPlanService.generateExecutionPlan(
+                request.getToolIds(), request.getProvidedParameters());
+
+        return progressStreamService.stream(plan, request.getProvidedParameters());
+    }
+
     /**
      * Gets a specific version of an execution plan.
      *
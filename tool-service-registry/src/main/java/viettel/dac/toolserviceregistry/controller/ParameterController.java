@@ -1,18 +1,24 @@
 // File: src/main/java/viettel/dac/toolserviceregistry/controller/ParameterController.java
 package viettel.dac.toolserviceregistry.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import viettel.dac.toolserviceregistry.model.dto.ToolParameterDTO;
 import viettel.dac.toolserviceregistry.model.dto.ValidationResult;
 import viettel.dac.toolserviceregistry.model.enums.ParameterSource;
 import viettel.dac.toolserviceregistry.model.enums.ParameterType;
+import viettel.dac.toolserviceregistry.service.CompiledParameterValidator;
+import viettel.dac.toolserviceregistry.service.ParameterStreamValidationService;
 import viettel.dac.toolserviceregistry.service.ParameterValidationService;
 import viettel.dac.toolserviceregistry.service.ToolParameterService;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -26,6 +32,7 @@ import java.util.stream.Collectors;
 public class ParameterController {
     private final ParameterValidationService validationService;
     private final ToolParameterService parameterService;
+    private final ParameterStreamValidationService streamValidationService;
 
     /**
      * Validates a parameter value.
@@ -40,8 +47,7 @@ public class ParameterController {
             @RequestBody Object value) {
         log.info("Validating parameter: {}", parameterId);
 
-        ToolParameterDTO parameter = parameterService.getParameter(parameterId);
-        ValidationResult result = validationService.validateParameterValue(parameter, value);
+        ValidationResult result = validationService.validateParameterValue(parameterId, value);
 
         return ResponseEntity.ok(result);
     }
@@ -78,12 +84,36 @@ public class ParameterController {
             @RequestBody Map<String, Object> values) {
         log.info("Validating parameters for tool: {}", toolId);
 
-        Map<String, ToolParameterDTO> parameters = parameterService.getParametersByToolId(toolId);
-        Map<String, ValidationResult> results = validationService.validateParameters(parameters, values);
+        Map<String, ValidationResult> results = validationService.validateParameters(toolId, values);
 
         return ResponseEntity.ok(results);
     }
 
+    /**
+     * Validates a stream of parameter rows for a tool. Each line of the NDJSON body holds the
+     * parameter values of one row; each line of the NDJSON response holds the result of one row, in
+     * input order, and the last line holds the summary with the counts by error type.
+     *
+     * @param toolId The ID of the tool
+     * @param body The NDJSON rows
+     * @param response The response to stream the results to
+     * @throws IOException If reading the rows or writing the results fails
+     */
+    @PostMapping(value = "/validate-stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void validateParameterStream(
+            @RequestParam String toolId,
+            InputStream body,
+            HttpServletResponse response) throws IOException {
+        log.info("Validating parameter stream for tool: {}", toolId);
+
+        // Resolve the tool before committing to a streamed response, so errors get a regular response
+        Map<String, CompiledParameterValidator> validators = streamValidationService.prepare(toolId);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        streamValidationService.validate(validators, body, response.getOutputStream());
+    }
+
     /**
      * Gets all parameter types.
      *
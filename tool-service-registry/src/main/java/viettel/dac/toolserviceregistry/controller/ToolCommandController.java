@@ -123,9 +123,6 @@ public class ToolCommandController {
         // Publish tool updated event
         commandService.publishToolEvent(savedTool, ToolEventType.TOOL_UPDATED);
 
-        // Publish graph update event
-        graphService.publishGraphUpdate(id);
-
         return savedTool.getVersion();
     }
 
@@ -242,4 +239,15 @@ public class ToolCommandController {
                 .message("Dependency removed successfully")
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Rebuilds the in-memory dependency graph from the database.
+     * Regular changes are applied incrementally; this is only needed to repair the graph.
+     */
+    @PostMapping("/dependency-graph/rebuild")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void rebuildDependencyGraph() {
+        log.info("Received request to rebuild dependency graph");
+        graphService.rebuildDependencyGraph();
+    }
+}
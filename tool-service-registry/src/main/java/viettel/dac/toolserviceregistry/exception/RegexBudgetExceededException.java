@@ -0,0 +1,11 @@
+package viettel.dac.toolserviceregistry.exception;
+
+/**
+ * Exception thrown when matching a regular expression exceeds its step or time budget.
+ * Thrown on hot paths and always handled, so it carries no stack trace.
+ */
+public class RegexBudgetExceededException extends RuntimeException {
+    public RegexBudgetExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
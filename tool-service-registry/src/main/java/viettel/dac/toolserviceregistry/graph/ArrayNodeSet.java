@@ -0,0 +1,54 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only set backed by an array of distinct nodes.
+ * Used to hand out adjacency lists without allocating a hash set per call;
+ * adjacency lists are short, so {@link #contains(Object)} is a linear scan.
+ */
+final class ArrayNodeSet<T> extends AbstractSet<T> {
+    private final Object[] nodes;
+
+    ArrayNodeSet(Object[] nodes) {
+        this.nodes = nodes;
+    }
+
+    @Override
+    public int size() {
+        return nodes.length;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        for (Object node : nodes) {
+            if (node.equals(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < nodes.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (position >= nodes.length) {
+                    throw new NoSuchElementException();
+                }
+                return (T) nodes[position++];
+            }
+        };
+    }
+}
@@ -0,0 +1,838 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Immutable compressed-sparse-row (CSR) representation of a directed graph.
+ * Nodes are interned to dense ids {@code 0..nodeCount-1}; forward and reverse adjacency
+ * are each stored as offset arrays plus a flat edge array, so traversals run over
+ * primitive arrays instead of hash sets.
+ * <p>
+ * Every edge carries a label. Within the range of each node, edges are ordered by label, so the
+ * edges up to a label form a prefix of every range. {@link #filtered(int)} uses this to give views
+ * that share the edge arrays and only have their own range ends.
+ */
+public final class CompactGraph<T> implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final NodeIndex<T> index;
+    final int[] outOffsets;
+    final int[] outEnds;
+    final int[] outTargets;
+    final byte[] outLabels;
+    final int[] inOffsets;
+    final int[] inEnds;
+    final int[] inSources;
+    final byte[] inLabels;
+    private final int edgeCount;
+    private final int maxLabel;
+
+    private transient volatile ReachabilityIndex reachability;
+    private transient volatile CompactGraph<T>[] views;
+
+    CompactGraph(NodeIndex<T> index, int[] outOffsets, int[] outTargets, byte[] outLabels,
+                 int[] inOffsets, int[] inSources, byte[] inLabels) {
+        this(index, outOffsets, Arrays.copyOfRange(outOffsets, 1, outOffsets.length), outTargets, outLabels,
+                inOffsets, Arrays.copyOfRange(inOffsets, 1, inOffsets.length), inSources, inLabels,
+                outTargets.length, Byte.MAX_VALUE);
+    }
+
+    private CompactGraph(NodeIndex<T> index, int[] outOffsets, int[] outEnds, int[] outTargets, byte[] outLabels,
+                         int[] inOffsets, int[] inEnds, int[] inSources, byte[] inLabels,
+                         int edgeCount, int maxLabel) {
+        this.index = index;
+        this.outOffsets = outOffsets;
+        this.outEnds = outEnds;
+        this.outTargets = outTargets;
+        this.outLabels = outLabels;
+        this.inOffsets = inOffsets;
+        this.inEnds = inEnds;
+        this.inSources = inSources;
+        this.inLabels = inLabels;
+        this.edgeCount = edgeCount;
+        this.maxLabel = maxLabel;
+    }
+
+    /**
+     * Gets the number of nodes in the graph.
+     *
+     * @return The number of nodes
+     */
+    public int nodeCount() {
+        return outEnds.length;
+    }
+
+    /**
+     * Gets the number of edges in the graph.
+     *
+     * @return The number of edges
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Gets the label of an outgoing edge.
+     *
+     * @param edge The position of the edge in the outgoing edge array
+     * @return The edge label
+     */
+    public int edgeLabel(int edge) {
+        return outLabels[edge];
+    }
+
+    /**
+     * Gets a view of the graph with only the edges whose label is at most {@code maxLabel}.
+     * The view has the same nodes and node ids and shares the edge arrays with this graph;
+     * views are cached per label.
+     *
+     * @param maxLabel The largest label to keep
+     * @return The filtered view, or this graph if no edge is filtered out
+     */
+    @SuppressWarnings("unchecked")
+    public CompactGraph<T> filtered(int maxLabel) {
+        if (maxLabel >= this.maxLabel) {
+            return this;
+        }
+        if (maxLabel < 0) {
+            maxLabel = -1;
+        }
+
+        CompactGraph<T>[] cached = views;
+        if (cached == null) {
+            synchronized (this) {
+                cached = views;
+                if (cached == null) {
+                    cached = new CompactGraph[Byte.MAX_VALUE + 1];
+                    views = cached;
+                }
+            }
+        }
+
+        int slot = maxLabel + 1;
+        CompactGraph<T> view = cached[slot];
+        if (view == null) {
+            int[] viewOutEnds = prefixEnds(outOffsets, outEnds, outLabels, maxLabel);
+            int[] viewInEnds = prefixEnds(inOffsets, inEnds, inLabels, maxLabel);
+            int count = 0;
+            for (int id = 0; id < viewOutEnds.length; id++) {
+                count += viewOutEnds[id] - outOffsets[id];
+            }
+            view = new CompactGraph<>(index, outOffsets, viewOutEnds, outTargets, outLabels,
+                    inOffsets, viewInEnds, inSources, inLabels, count, maxLabel);
+            // Racing threads build equal views, so the last write may win
+            cached[slot] = view;
+        }
+        return view;
+    }
+
+    /**
+     * Finds, per node, the end of the prefix of its range with labels up to {@code maxLabel}.
+     */
+    private static int[] prefixEnds(int[] offsets, int[] ends, byte[] labels, int maxLabel) {
+        int[] result = new int[ends.length];
+        for (int id = 0; id < ends.length; id++) {
+            int low = offsets[id];
+            int high = ends[id];
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (labels[middle] <= maxLabel) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            result[id] = low;
+        }
+        return result;
+    }
+
+    /**
+     * Gets the dense id of a node.
+     *
+     * @param node The node
+     * @return The id of the node, or -1 if the node is not in the graph
+     */
+    public int indexOf(T node) {
+        return index.indexOf(node);
+    }
+
+    /**
+     * Gets the node with the given dense id.
+     *
+     * @param id The node id
+     * @return The node
+     */
+    public T node(int id) {
+        return index.get(id);
+    }
+
+    public int outDegree(int id) {
+        return outEnds[id] - outOffsets[id];
+    }
+
+    public int inDegree(int id) {
+        return inEnds[id] - inOffsets[id];
+    }
+
+    /**
+     * Gets the ids of the successors of a node.
+     *
+     * @param id The node id
+     * @return Array of successor ids
+     */
+    public int[] successors(int id) {
+        return Arrays.copyOfRange(outTargets, outOffsets[id], outEnds[id]);
+    }
+
+    /**
+     * Gets the ids of the predecessors of a node.
+     *
+     * @param id The node id
+     * @return Array of predecessor ids
+     */
+    public int[] predecessors(int id) {
+        return Arrays.copyOfRange(inSources, inOffsets[id], inEnds[id]);
+    }
+
+    /**
+     * Converts a collection of nodes to a bit set of their ids. Unknown nodes are ignored.
+     *
+     * @param nodes The nodes
+     * @return Bit set with one bit per known node
+     */
+    public BitSet toBits(Collection<? extends T> nodes) {
+        BitSet bits = new BitSet(nodeCount());
+        for (T node : nodes) {
+            int id = index.indexOf(node);
+            if (id >= 0) {
+                bits.set(id);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Converts a bit set of node ids back to nodes.
+     *
+     * @param bits The node ids
+     * @return List of nodes in id order
+     */
+    public List<T> toNodes(BitSet bits) {
+        List<T> result = new ArrayList<>(bits.cardinality());
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            result.add(index.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the set of nodes reachable from any of the source nodes in a single breadth-first pass.
+     * A source is only part of the result if it can be reached from another source (or itself via a cycle).
+     *
+     * @param sources The ids of the source nodes
+     * @param reverse Whether to follow edges backwards (predecessors) instead of forwards
+     * @return Bit set of reachable node ids
+     */
+    public BitSet reachableFrom(BitSet sources, boolean reverse) {
+        return reachableFrom(sources, reverse, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the set of nodes reachable from any of the source nodes over at most {@code maxDepth} edges.
+     *
+     * @param sources The ids of the source nodes
+     * @param reverse Whether to follow edges backwards (predecessors) instead of forwards
+     * @param maxDepth The maximum number of edges to follow
+     * @return Bit set of reachable node ids
+     */
+    public BitSet reachableFrom(BitSet sources, boolean reverse, int maxDepth) {
+        int[] offsets = reverse ? inOffsets : outOffsets;
+        int[] ends = reverse ? inEnds : outEnds;
+        int[] edges = reverse ? inSources : outTargets;
+
+        BitSet reached = new BitSet(nodeCount());
+        int[] queue = new int[nodeCount()];
+        int head = 0;
+        int tail = 0;
+
+        for (int source = sources.nextSetBit(0); source >= 0; source = sources.nextSetBit(source + 1)) {
+            for (int e = offsets[source]; e < ends[source]; e++) {
+                int next = edges[e];
+                if (!reached.get(next)) {
+                    reached.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // The queue holds one level at a time between head and levelEnd
+        for (int depth = 1; depth < maxDepth && head < tail; depth++) {
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int current = queue[head++];
+                for (int e = offsets[current]; e < ends[current]; e++) {
+                    int next = edges[e];
+                    if (!reached.get(next)) {
+                        reached.set(next);
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+
+        return reached;
+    }
+
+    /**
+     * Computes a topological order of all nodes using Kahn's algorithm.
+     * Nodes without predecessors are emitted in id order, so the result is deterministic.
+     *
+     * @return Node ids in topological order
+     * @throws IllegalStateException if the graph contains a cycle
+     */
+    public int[] topologicalOrder() {
+        int n = nodeCount();
+        int[] remaining = new int[n];
+        int[] order = new int[n];
+        int head = 0;
+        int tail = 0;
+
+        for (int id = 0; id < n; id++) {
+            remaining[id] = inDegree(id);
+            if (remaining[id] == 0) {
+                order[tail++] = id;
+            }
+        }
+
+        while (head < tail) {
+            int current = order[head++];
+            for (int e = outOffsets[current]; e < outEnds[current]; e++) {
+                int next = outTargets[e];
+                if (--remaining[next] == 0) {
+                    order[tail++] = next;
+                }
+            }
+        }
+
+        if (tail != n) {
+            throw new IllegalStateException("Cycle detected in graph, cannot perform topological sort");
+        }
+
+        return order;
+    }
+
+    /**
+     * Computes a topological order of the subgraph induced by the given nodes.
+     * Edges from or to nodes outside the subset are ignored.
+     *
+     * @param subset The ids of the nodes to order
+     * @return Node ids in topological order
+     * @throws IllegalStateException if the subgraph contains a cycle
+     */
+    public int[] topologicalOrder(BitSet subset) {
+        int size = subset.cardinality();
+        int[] remaining = new int[nodeCount()];
+        int[] order = new int[size];
+        int head = 0;
+        int tail = 0;
+
+        for (int id = subset.nextSetBit(0); id >= 0; id = subset.nextSetBit(id + 1)) {
+            for (int e = inOffsets[id]; e < inEnds[id]; e++) {
+                if (subset.get(inSources[e])) {
+                    remaining[id]++;
+                }
+            }
+            if (remaining[id] == 0) {
+                order[tail++] = id;
+            }
+        }
+
+        while (head < tail) {
+            int current = order[head++];
+            for (int e = outOffsets[current]; e < outEnds[current]; e++) {
+                int next = outTargets[e];
+                if (subset.get(next) && --remaining[next] == 0) {
+                    order[tail++] = next;
+                }
+            }
+        }
+
+        if (tail != size) {
+            throw new IllegalStateException("Cycle detected in graph, cannot perform topological sort");
+        }
+
+        return order;
+    }
+
+    /**
+     * Checks if the graph contains any cycles.
+     *
+     * @return true if the graph contains a cycle, false otherwise
+     */
+    public boolean hasCycles() {
+        try {
+            topologicalOrder();
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Gets the reachability index of the graph, building it on first use.
+     *
+     * @return The reachability index
+     */
+    public ReachabilityIndex reachability() {
+        ReachabilityIndex index = reachability;
+        if (index == null) {
+            synchronized (this) {
+                index = reachability;
+                if (index == null) {
+                    index = new ReachabilityIndex(this);
+                    reachability = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Finds strongly connected components using Tarjan's single-pass algorithm with explicit stacks.
+     *
+     * @return Array mapping each node id to its component number; components are numbered
+     *         from 0 in topological order of the condensation, so an edge between two different
+     *         components always goes from a lower to a higher number
+     */
+    public int[] stronglyConnectedComponents() {
+        return stronglyConnectedComponents(null);
+    }
+
+    /**
+     * Finds the strongly connected components of the subgraph induced by a set of nodes.
+     *
+     * @param scope The ids of the nodes to include, or null for all nodes
+     * @return Array mapping each node id to its component number, or -1 for nodes outside the scope
+     */
+    int[] stronglyConnectedComponents(BitSet scope) {
+        int n = nodeCount();
+        int[] discovery = new int[n];
+        int[] low = new int[n];
+        int[] component = new int[n];
+        boolean[] onStack = new boolean[n];
+        int[] callStack = new int[n];
+        int[] edgeCursor = new int[n];
+        int[] sccStack = new int[n];
+        int sccTop = 0;
+        int time = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (discovery[root] != 0 || (scope != null && !scope.get(root))) {
+                continue;
+            }
+
+            int depth = 0;
+            callStack[depth++] = root;
+            discovery[root] = low[root] = ++time;
+            edgeCursor[root] = outOffsets[root];
+            sccStack[sccTop++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int current = callStack[depth - 1];
+                if (edgeCursor[current] < outEnds[current]) {
+                    int next = outTargets[edgeCursor[current]++];
+                    if (scope != null && !scope.get(next)) {
+                        continue;
+                    }
+                    if (discovery[next] == 0) {
+                        discovery[next] = low[next] = ++time;
+                        edgeCursor[next] = outOffsets[next];
+                        sccStack[sccTop++] = next;
+                        onStack[next] = true;
+                        callStack[depth++] = next;
+                    } else if (onStack[next]) {
+                        low[current] = Math.min(low[current], discovery[next]);
+                    }
+                    continue;
+                }
+
+                // All successors done: close the component if current is its root, then return to the caller
+                depth--;
+                if (low[current] == discovery[current]) {
+                    int member;
+                    do {
+                        member = sccStack[--sccTop];
+                        onStack[member] = false;
+                        component[member] = componentCount;
+                    } while (member != current);
+                    componentCount++;
+                }
+                if (depth > 0) {
+                    int caller = callStack[depth - 1];
+                    low[caller] = Math.min(low[caller], low[current]);
+                }
+            }
+        }
+
+        // Tarjan emits components sinks first; renumber so that edges go from lower to higher numbers
+        for (int id = 0; id < n; id++) {
+            component[id] = discovery[id] == 0 ? -1 : componentCount - 1 - component[id];
+        }
+
+        return component;
+    }
+
+    /**
+     * Finds articulation points with an explicit-stack depth-first search over outgoing edges.
+     * A node is an articulation point if it is the root of a search tree with more than one child,
+     * or a non-root node with a child whose subtree has no back edge above the node.
+     *
+     * @return Bit set of articulation point ids
+     */
+    public BitSet articulationPoints() {
+        int n = nodeCount();
+        int[] discovery = new int[n];
+        int[] low = new int[n];
+        int[] parent = new int[n];
+        int[] children = new int[n];
+        int[] edgeCursor = new int[n];
+        int[] stack = new int[n];
+        BitSet points = new BitSet(n);
+        int time = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (discovery[root] != 0) {
+                continue;
+            }
+
+            int depth = 0;
+            stack[depth++] = root;
+            parent[root] = -1;
+            discovery[root] = low[root] = ++time;
+            edgeCursor[root] = outOffsets[root];
+
+            while (depth > 0) {
+                int current = stack[depth - 1];
+                if (edgeCursor[current] < outEnds[current]) {
+                    int next = outTargets[edgeCursor[current]++];
+                    if (discovery[next] == 0) {
+                        parent[next] = current;
+                        children[current]++;
+                        discovery[next] = low[next] = ++time;
+                        edgeCursor[next] = outOffsets[next];
+                        stack[depth++] = next;
+                    } else if (next != parent[current]) {
+                        low[current] = Math.min(low[current], discovery[next]);
+                    }
+                    continue;
+                }
+
+                depth--;
+                int caller = parent[current];
+                if (caller >= 0) {
+                    low[caller] = Math.min(low[caller], low[current]);
+                    if (parent[caller] >= 0 && low[current] >= discovery[caller]) {
+                        points.set(caller);
+                    }
+                } else if (children[current] > 1) {
+                    points.set(current);
+                }
+            }
+        }
+
+        return points;
+    }
+
+    /**
+     * Enumerates the elementary cycles of the graph using Johnson's algorithm with explicit stacks.
+     * Each cycle is reported once, starting at its lowest node id. Enumeration stops as soon as the
+     * consumer returns false.
+     *
+     * @param consumer Receives each cycle as an array of node ids; returns whether to continue
+     * @return false if the consumer stopped the enumeration, true otherwise
+     */
+    public boolean forEachElementaryCycle(Predicate<int[]> consumer) {
+        BitSet scope = new BitSet(nodeCount());
+        scope.set(0, nodeCount());
+        return forEachElementaryCycle(scope, consumer);
+    }
+
+    /**
+     * Enumerates the elementary cycles that only use nodes of the given scope.
+     *
+     * @param scope The ids of the nodes cycles may use
+     * @param consumer Receives each cycle as an array of node ids; returns whether to continue
+     * @return false if the consumer stopped the enumeration, true otherwise
+     */
+    public boolean forEachElementaryCycle(BitSet scope, Predicate<int[]> consumer) {
+        BitSet remaining = (BitSet) scope.clone();
+        CycleSearch search = new CycleSearch(nodeCount());
+
+        while (!remaining.isEmpty()) {
+            // The next start is the lowest node that still lies on a cycle among the remaining nodes
+            int[] componentOf = stronglyConnectedComponents(remaining);
+            int start = lowestCyclicNode(remaining, componentOf);
+            if (start < 0) {
+                break;
+            }
+
+            int component = componentOf[start];
+            BitSet allowed = new BitSet(nodeCount());
+            for (int id = remaining.nextSetBit(start); id >= 0; id = remaining.nextSetBit(id + 1)) {
+                if (componentOf[id] == component) {
+                    allowed.set(id);
+                }
+            }
+
+            if (search.circuit(start, allowed, Integer.MAX_VALUE, 0L, consumer) != CycleSearchOutcome.COMPLETE) {
+                return false;
+            }
+
+            // All cycles through start are reported; drop it and everything before it
+            remaining.clear(0, start + 1);
+        }
+
+        return true;
+    }
+
+    /**
+     * Enumerates the elementary cycles that pass through one node, lazily and within limits.
+     * The search is confined to the strongly connected component of the node, since no cycle through
+     * it can leave that component. Each cycle is reported once, starting at the given node.
+     *
+     * @param node The node id every reported cycle contains
+     * @param maxLength The maximum number of nodes in a reported cycle
+     * @param deadlineNanos {@link System#nanoTime()} value after which the search is abandoned, or 0 for none
+     * @param consumer Receives each cycle as an array of node ids; returns whether to continue
+     * @return How the enumeration ended
+     */
+    public CycleSearchOutcome forEachCycleThrough(int node, int maxLength, long deadlineNanos, Predicate<int[]> consumer) {
+        ReachabilityIndex reachability = reachability();
+        if (!reachability.reaches(node, node)) {
+            return CycleSearchOutcome.COMPLETE;
+        }
+
+        int component = reachability.componentOf(node);
+        BitSet allowed = new BitSet(nodeCount());
+        for (int id = 0; id < nodeCount(); id++) {
+            if (reachability.componentOf(id) == component) {
+                allowed.set(id);
+            }
+        }
+
+        return new CycleSearch(nodeCount()).circuit(node, allowed, maxLength, deadlineNanos, consumer);
+    }
+
+    /**
+     * Finds the lowest node that is in a component with more than one node or has a self-loop.
+     */
+    private int lowestCyclicNode(BitSet scope, int[] componentOf) {
+        int[] componentSize = new int[nodeCount()];
+        for (int id = scope.nextSetBit(0); id >= 0; id = scope.nextSetBit(id + 1)) {
+            componentSize[componentOf[id]]++;
+        }
+
+        for (int id = scope.nextSetBit(0); id >= 0; id = scope.nextSetBit(id + 1)) {
+            if (componentSize[componentOf[id]] > 1) {
+                return id;
+            }
+            for (int e = outOffsets[id]; e < outEnds[id]; e++) {
+                if (outTargets[e] == id) {
+                    return id;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds all simple paths from one node to another with an explicit-stack depth-first search.
+     * A path ends at the first time it reaches the destination.
+     *
+     * @param from The source node id
+     * @param to The destination node id
+     * @return List of paths, each as an array of node ids from source to destination
+     */
+    public List<int[]> allPaths(int from, int to) {
+        List<int[]> paths = new ArrayList<>();
+        if (from == to) {
+            paths.add(new int[]{from});
+            return paths;
+        }
+
+        int n = nodeCount();
+        boolean[] onPath = new boolean[n];
+        int[] edgeCursor = new int[n];
+        int[] path = new int[n];
+        int depth = 0;
+        path[depth++] = from;
+        onPath[from] = true;
+        edgeCursor[from] = outOffsets[from];
+
+        while (depth > 0) {
+            int current = path[depth - 1];
+            if (edgeCursor[current] < outEnds[current]) {
+                int next = outTargets[edgeCursor[current]++];
+                if (onPath[next]) {
+                    continue;
+                }
+                if (next == to) {
+                    int[] found = Arrays.copyOf(path, depth + 1);
+                    found[depth] = to;
+                    paths.add(found);
+                    continue;
+                }
+                onPath[next] = true;
+                edgeCursor[next] = outOffsets[next];
+                path[depth++] = next;
+            } else {
+                onPath[current] = false;
+                depth--;
+            }
+        }
+
+        return paths;
+    }
+
+    /**
+     * State of Johnson's circuit search, reused across start nodes.
+     */
+    private final class CycleSearch {
+        private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+        private final boolean[] blocked;
+        private final int[][] blockedBy;
+        private final int[] blockedBySize;
+        private final int[] edgeCursor;
+        private final boolean[] found;
+        private final int[] path;
+        private int[] unblockStack;
+
+        CycleSearch(int n) {
+            blocked = new boolean[n];
+            blockedBy = new int[n][];
+            blockedBySize = new int[n];
+            edgeCursor = new int[n];
+            found = new boolean[n];
+            path = new int[n];
+            unblockStack = new int[n];
+        }
+
+        /**
+         * Reports every elementary cycle through start that only uses allowed nodes and has at most
+         * maxLength nodes. A node whose search was cut short by the length limit is treated as if it
+         * had reached the start, so it is never left blocked for cycles it may still close.
+         */
+        CycleSearchOutcome circuit(int start, BitSet allowed, int maxLength, long deadlineNanos, Predicate<int[]> consumer) {
+            for (int id = allowed.nextSetBit(0); id >= 0; id = allowed.nextSetBit(id + 1)) {
+                blocked[id] = false;
+                blockedBySize[id] = 0;
+            }
+
+            int depth = 0;
+            path[depth++] = start;
+            blocked[start] = true;
+            found[start] = false;
+            edgeCursor[start] = outOffsets[start];
+            int steps = 0;
+
+            while (depth > 0) {
+                if (deadlineNanos != 0 && ++steps % DEADLINE_CHECK_INTERVAL == 0
+                        && System.nanoTime() - deadlineNanos > 0) {
+                    return CycleSearchOutcome.TIMED_OUT;
+                }
+
+                int current = path[depth - 1];
+                if (edgeCursor[current] < outEnds[current]) {
+                    int next = outTargets[edgeCursor[current]++];
+                    if (!allowed.get(next)) {
+                        continue;
+                    }
+                    if (next == start) {
+                        found[current] = true;
+                        if (!consumer.test(Arrays.copyOf(path, depth))) {
+                            return CycleSearchOutcome.STOPPED;
+                        }
+                    } else if (depth >= maxLength) {
+                        found[current] = true;
+                    } else if (!blocked[next]) {
+                        blocked[next] = true;
+                        found[next] = false;
+                        edgeCursor[next] = outOffsets[next];
+                        path[depth++] = next;
+                    }
+                    continue;
+                }
+
+                depth--;
+                if (found[current]) {
+                    unblock(current);
+                } else {
+                    for (int e = outOffsets[current]; e < outEnds[current]; e++) {
+                        int next = outTargets[e];
+                        if (allowed.get(next)) {
+                            addBlocker(next, current);
+                        }
+                    }
+                }
+
+                if (depth > 0) {
+                    found[path[depth - 1]] |= found[current];
+                }
+            }
+
+            return CycleSearchOutcome.COMPLETE;
+        }
+
+        /**
+         * Unblocks a node and, transitively, everything waiting on it.
+         */
+        private void unblock(int node) {
+            int top = 0;
+            unblockStack[top++] = node;
+            while (top > 0) {
+                int current = unblockStack[--top];
+                if (!blocked[current]) {
+                    continue;
+                }
+                blocked[current] = false;
+                for (int i = 0; i < blockedBySize[current]; i++) {
+                    if (top == unblockStack.length) {
+                        unblockStack = Arrays.copyOf(unblockStack, top * 2);
+                    }
+                    unblockStack[top++] = blockedBy[current][i];
+                }
+                blockedBySize[current] = 0;
+            }
+        }
+
+        private void addBlocker(int node, int blocker) {
+            int[] list = blockedBy[node];
+            int size = blockedBySize[node];
+            if (list == null) {
+                list = new int[4];
+                blockedBy[node] = list;
+            }
+            for (int i = 0; i < size; i++) {
+                if (list[i] == blocker) {
+                    return;
+                }
+            }
+            if (size == list.length) {
+                list = Arrays.copyOf(list, size * 2);
+                blockedBy[node] = list;
+            }
+            list[size] = blocker;
+            blockedBySize[node] = size + 1;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Critical-path schedule of a set of nodes of a {@link CompactGraph}, where every node has a duration.
+ * <p>
+ * A single pass of Kahn's algorithm over the subgraph induced by the nodes assigns every node its layer
+ * (one after the last of its predecessors) and its earliest start (the latest finish of its predecessors).
+ * A backward pass over the same order gives the latest start that does not delay the whole schedule;
+ * the difference is the slack of the node. Nodes without slack form the critical path.
+ * <p>
+ * Layers are ordered by slack and then by descending duration, so the long poles of a layer come first.
+ * Nodes that are not in the graph have no dependencies. Instances are immutable.
+ *
+ * @param <T> The type of the nodes
+ */
+public final class CriticalPathSchedule<T> {
+    private final List<T> nodes;
+    private final long[] durations;
+    private final long[] earliestStarts;
+    private final long[] slacks;
+    private final int[][] layers;
+    private final int[] criticalPath;
+    private final long makespan;
+
+    private CriticalPathSchedule(List<T> nodes, long[] durations, long[] earliestStarts, long[] slacks,
+                                 int[][] layers, int[] criticalPath, long makespan) {
+        this.nodes = nodes;
+        this.durations = durations;
+        this.earliestStarts = earliestStarts;
+        this.slacks = slacks;
+        this.layers = layers;
+        this.criticalPath = criticalPath;
+        this.makespan = makespan;
+    }
+
+    /**
+     * Computes the schedule of the given nodes. Edges from or to nodes outside the list are ignored.
+     *
+     * @param graph The graph holding the dependencies between the nodes
+     * @param nodes The nodes to schedule, without duplicates
+     * @param durations The duration of each node, by position in {@code nodes}
+     * @return The schedule
+     * @throws IllegalStateException if the nodes depend on each other in a cycle
+     */
+    public static <T> CriticalPathSchedule<T> compute(CompactGraph<T> graph, List<T> nodes, long[] durations) {
+        int k = nodes.size();
+        if (durations.length != k) {
+            throw new IllegalArgumentException("Expected " + k + " durations but got " + durations.length);
+        }
+
+        // Map graph ids to positions in the node list
+        int[] ids = new int[k];
+        int[] positionOf = new int[graph.nodeCount()];
+        Arrays.fill(positionOf, -1);
+        for (int p = 0; p < k; p++) {
+            ids[p] = graph.indexOf(nodes.get(p));
+            if (ids[p] >= 0) {
+                positionOf[ids[p]] = p;
+            }
+        }
+
+        int[] remaining = new int[k];
+        int[] order = new int[k];
+        int head = 0;
+        int tail = 0;
+        for (int p = 0; p < k; p++) {
+            int id = ids[p];
+            if (id >= 0) {
+                for (int e = graph.inOffsets[id]; e < graph.inEnds[id]; e++) {
+                    if (positionOf[graph.inSources[e]] >= 0) {
+                        remaining[p]++;
+                    }
+                }
+            }
+            if (remaining[p] == 0) {
+                order[tail++] = p;
+            }
+        }
+
+        // Forward pass: a node is final once it leaves the queue
+        int[] layerOf = new int[k];
+        long[] earliestStarts = new long[k];
+        int layerCount = 0;
+        long makespan = 0;
+        while (head < tail) {
+            int p = order[head++];
+            long finish = earliestStarts[p] + durations[p];
+            makespan = Math.max(makespan, finish);
+            layerCount = Math.max(layerCount, layerOf[p] + 1);
+            int id = ids[p];
+            if (id < 0) {
+                continue;
+            }
+            for (int e = graph.outOffsets[id]; e < graph.outEnds[id]; e++) {
+                int next = positionOf[graph.outTargets[e]];
+                if (next < 0) {
+                    continue;
+                }
+                earliestStarts[next] = Math.max(earliestStarts[next], finish);
+                layerOf[next] = Math.max(layerOf[next], layerOf[p] + 1);
+                if (--remaining[next] == 0) {
+                    order[tail++] = next;
+                }
+            }
+        }
+
+        if (tail != k) {
+            throw new IllegalStateException("Cycle detected in graph, cannot compute schedule");
+        }
+
+        // Backward pass in reverse topological order
+        long[] latestFinishes = new long[k];
+        Arrays.fill(latestFinishes, makespan);
+        long[] slacks = new long[k];
+        for (int i = k - 1; i >= 0; i--) {
+            int p = order[i];
+            long latestStart = latestFinishes[p] - durations[p];
+            slacks[p] = latestStart - earliestStarts[p];
+            int id = ids[p];
+            if (id < 0) {
+                continue;
+            }
+            for (int e = graph.inOffsets[id]; e < graph.inEnds[id]; e++) {
+                int previous = positionOf[graph.inSources[e]];
+                if (previous >= 0) {
+                    latestFinishes[previous] = Math.min(latestFinishes[previous], latestStart);
+                }
+            }
+        }
+
+        return new CriticalPathSchedule<>(List.copyOf(nodes), durations.clone(), earliestStarts, slacks,
+                layers(layerOf, layerCount, slacks, durations),
+                criticalPath(graph, ids, positionOf, order, earliestStarts, slacks, durations), makespan);
+    }
+
+    /**
+     * Buckets the positions by layer, most urgent first within each layer.
+     */
+    private static int[][] layers(int[] layerOf, int layerCount, long[] slacks, long[] durations) {
+        int[] sizes = new int[layerCount];
+        for (int layer : layerOf) {
+            sizes[layer]++;
+        }
+        Integer[][] buckets = new Integer[layerCount][];
+        for (int layer = 0; layer < layerCount; layer++) {
+            buckets[layer] = new Integer[sizes[layer]];
+            sizes[layer] = 0;
+        }
+        for (int p = 0; p < layerOf.length; p++) {
+            buckets[layerOf[p]][sizes[layerOf[p]]++] = p;
+        }
+
+        int[][] layers = new int[layerCount][];
+        for (int layer = 0; layer < layerCount; layer++) {
+            Arrays.sort(buckets[layer], (a, b) -> {
+                int bySlack = Long.compare(slacks[a], slacks[b]);
+                if (bySlack != 0) {
+                    return bySlack;
+                }
+                int byDuration = Long.compare(durations[b], durations[a]);
+                return byDuration != 0 ? byDuration : Integer.compare(a, b);
+            });
+            layers[layer] = Arrays.stream(buckets[layer]).mapToInt(Integer::intValue).toArray();
+        }
+        return layers;
+    }
+
+    /**
+     * Follows zero-slack nodes from a source without predecessors to a node that finishes last.
+     */
+    private static int[] criticalPath(CompactGraph<?> graph, int[] ids, int[] positionOf, int[] order,
+                                      long[] earliestStarts, long[] slacks, long[] durations) {
+        int current = -1;
+        for (int p : order) {
+            if (slacks[p] == 0 && earliestStarts[p] == 0 && !hasPredecessor(graph, ids[p], positionOf)) {
+                current = p;
+                break;
+            }
+        }
+
+        List<Integer> path = new ArrayList<>();
+        while (current >= 0) {
+            path.add(current);
+            long finish = earliestStarts[current] + durations[current];
+            int id = ids[current];
+            int next = -1;
+            if (id >= 0) {
+                for (int e = graph.outOffsets[id]; e < graph.outEnds[id] && next < 0; e++) {
+                    int candidate = positionOf[graph.outTargets[e]];
+                    if (candidate >= 0 && slacks[candidate] == 0 && earliestStarts[candidate] == finish) {
+                        next = candidate;
+                    }
+                }
+            }
+            current = next;
+        }
+        return path.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean hasPredecessor(CompactGraph<?> graph, int id, int[] positionOf) {
+        if (id < 0) {
+            return false;
+        }
+        for (int e = graph.inOffsets[id]; e < graph.inEnds[id]; e++) {
+            if (positionOf[graph.inSources[e]] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the total duration of the schedule, i.e. the length of the critical path.
+     *
+     * @return The latest finish of any node
+     */
+    public long makespan() {
+        return makespan;
+    }
+
+    /**
+     * Gets the nodes per layer. The nodes of one layer do not depend on each other; within a layer,
+     * nodes with less slack come first and ties go to the longer node.
+     *
+     * @return Sets of nodes in iteration order, one per layer
+     */
+    public List<Set<T>> groups() {
+        List<Set<T>> result = new ArrayList<>(layers.length);
+        for (int[] layer : layers) {
+            Set<T> group = new LinkedHashSet<>();
+            for (int p : layer) {
+                group.add(nodes.get(p));
+            }
+            result.add(group);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the earliest start of every node, relative to the start of the schedule.
+     *
+     * @return Map of node to earliest start, in the order of the nodes
+     */
+    public Map<T, Long> earliestStartTimes() {
+        return toMap(earliestStarts);
+    }
+
+    /**
+     * Gets how long each node can be delayed past its earliest start without delaying the schedule.
+     *
+     * @return Map of node to slack, in the order of the nodes
+     */
+    public Map<T, Long> slackTimes() {
+        return toMap(slacks);
+    }
+
+    /**
+     * Gets the duration each node was scheduled with.
+     *
+     * @return Map of node to duration, in the order of the nodes
+     */
+    public Map<T, Long> durations() {
+        return toMap(durations);
+    }
+
+    /**
+     * Gets one longest chain of dependent nodes. Delaying any of them delays the whole schedule.
+     *
+     * @return The nodes of the critical path in execution order
+     */
+    public List<T> criticalPath() {
+        List<T> result = new ArrayList<>(criticalPath.length);
+        for (int p : criticalPath) {
+            result.add(nodes.get(p));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private Map<T, Long> toMap(long[] values) {
+        Map<T, Long> result = new LinkedHashMap<>();
+        for (int p = 0; p < values.length; p++) {
+            result.put(nodes.get(p), values[p]);
+        }
+        return result;
+    }
+}
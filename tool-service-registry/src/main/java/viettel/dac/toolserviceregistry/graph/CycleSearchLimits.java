@@ -0,0 +1,65 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.time.Duration;
+
+/**
+ * Limits for enumerating cycles, which can be exponential in number even in small graphs.
+ */
+public final class CycleSearchLimits {
+    private static final CycleSearchLimits UNBOUNDED =
+            new CycleSearchLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Duration.ZERO);
+
+    private final int maxCycles;
+    private final int maxLength;
+    private final Duration timeout;
+
+    /**
+     * Creates search limits.
+     *
+     * @param maxCycles The maximum number of cycles to report
+     * @param maxLength The maximum number of nodes in a reported cycle
+     * @param timeout The time budget of the search, or zero for none
+     */
+    public CycleSearchLimits(int maxCycles, int maxLength, Duration timeout) {
+        if (maxCycles < 0 || maxLength < 1 || timeout.isNegative()) {
+            throw new IllegalArgumentException("Invalid cycle search limits");
+        }
+        this.maxCycles = maxCycles;
+        this.maxLength = maxLength;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Gets limits that let the search run to completion.
+     *
+     * @return Unbounded limits
+     */
+    public static CycleSearchLimits unbounded() {
+        return UNBOUNDED;
+    }
+
+    public int getMaxCycles() {
+        return maxCycles;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Gets the deadline of a search starting now.
+     *
+     * @return A {@link System#nanoTime()} value, or 0 if there is no time budget
+     */
+    long deadlineNanos() {
+        if (timeout.isZero()) {
+            return 0L;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        return deadline == 0L ? 1L : deadline;
+    }
+}
@@ -0,0 +1,22 @@
+package viettel.dac.toolserviceregistry.graph;
+
+/**
+ * How a bounded cycle enumeration ended.
+ */
+public enum CycleSearchOutcome {
+    /** Every cycle within the length limit was reported. */
+    COMPLETE,
+    /** The consumer or the cycle count limit ended the enumeration early. */
+    STOPPED,
+    /** The time budget ran out before the enumeration finished. */
+    TIMED_OUT;
+
+    /**
+     * Checks whether cycles may have been left out.
+     *
+     * @return true unless the enumeration completed
+     */
+    public boolean isTruncated() {
+        return this != COMPLETE;
+    }
+}
@@ -4,19 +4,240 @@ import lombok.extern.slf4j.Slf4j;
 
 import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * A generic directed graph implementation for managing dependencies between nodes.
  * Enhanced with more algorithms and analysis features.
+ * <p>
+ * Nodes are interned to dense integer ids and adjacency is kept in per-node {@code int[]} lists,
+ * so an edge costs two ints instead of two hash set entries. Read-heavy algorithms run on a
+ * {@link CompactGraph} (CSR) snapshot that is built lazily and discarded on the next mutation.
+ * <p>
+ * {@link #snapshot()} returns an immutable version of the graph that shares its storage with this
+ * one. Later writes copy only what a snapshot can see: the slot tables once, and the adjacency
+ * list of each node an edge is removed from. Edges and nodes are otherwise appended beyond the
+ * part a snapshot reads, so snapshots can be read by any number of threads without locks.
+ * <p>
+ * Edges carry attributes in primitive side arrays that run parallel to the outgoing lists: a label
+ * (such as the ordinal of an edge type), a weight and a multiplicity (such as the number of parameter
+ * mappings an edge stands for). Labels are also kept on the incoming lists. {@link #filtered(int)}
+ * gives an immutable view that only sees the edges up to a label, without copying the graph.
  */
 @Slf4j
 public class DirectedGraph<T> implements Serializable {
-    private static final long serialVersionUID = 1L;
-
-    private final Map<T, Set<T>> outgoingEdges = new HashMap<>();
-    private final Map<T, Set<T>> incomingEdges = new HashMap<>();
+    private static final long serialVersionUID = 4L;
+
+    /** Largest edge label; labels range from 0 to this value. */
+    public static final int MAX_LABEL = Byte.MAX_VALUE;
+    public static final int DEFAULT_LABEL = 0;
+    public static final double DEFAULT_WEIGHT = 1.0;
+
+    private static final int[] NO_EDGES = new int[0];
+    private static final byte[] NO_LABELS = new byte[0];
+    private static final double[] NO_WEIGHTS = new double[0];
+
+    private final NodeIndex<T> index;
+    private int[][] outgoing;
+    private int[] outDegree;
+    private int[][] incoming;
+    private int[] inDegree;
+    // Edge attributes, indexed like outgoing (and incoming for inLabels)
+    private byte[][] outLabels;
+    private double[][] outWeights;
+    private int[][] outMultiplicities;
+    private byte[][] inLabels;
+    private int edgeCount;
     private final Map<String, Object> metadata = new HashMap<>();
+    private final boolean immutable;
+
+    // For a filtered view, the snapshot it filters and the largest label it shows
+    private final DirectedGraph<T> unfiltered;
+    private final int maxLabel;
+
+    // Slots below sharedSlots are visible to a snapshot through the slot tables;
+    // a set bit means a snapshot may read that slot's adjacency list
+    private int sharedSlots;
+    private final BitSet sharedOutgoing = new BitSet();
+    private final BitSet sharedIncoming = new BitSet();
+
+    private transient volatile CompactGraph<T> compact;
+
+    public DirectedGraph() {
+        this(16);
+    }
+
+    /**
+     * Creates a graph sized for the expected number of nodes.
+     *
+     * @param expectedNodes The expected number of nodes
+     */
+    public DirectedGraph(int expectedNodes) {
+        int capacity = Math.max(expectedNodes, 16);
+        this.index = new NodeIndex<>(capacity);
+        this.outgoing = new int[capacity][];
+        this.outDegree = new int[capacity];
+        this.incoming = new int[capacity][];
+        this.inDegree = new int[capacity];
+        this.outLabels = new byte[capacity][];
+        this.outWeights = new double[capacity][];
+        this.outMultiplicities = new int[capacity][];
+        this.inLabels = new byte[capacity][];
+        this.immutable = false;
+        this.unfiltered = null;
+        this.maxLabel = MAX_LABEL;
+    }
+
+    /**
+     * Creates an independent copy of another graph, including its metadata and edge attributes.
+     * Copying a filtered view copies only the edges the view shows.
+     *
+     * @param other The graph to copy
+     */
+    public DirectedGraph(DirectedGraph<T> other) {
+        int capacity = other.outgoing.length;
+        this.index = new NodeIndex<>(other.index);
+        this.outgoing = new int[capacity][];
+        this.outDegree = new int[capacity];
+        this.incoming = new int[capacity][];
+        this.inDegree = new int[capacity];
+        this.outLabels = new byte[capacity][];
+        this.outWeights = new double[capacity][];
+        this.outMultiplicities = new int[capacity][];
+        this.inLabels = new byte[capacity][];
+        this.metadata.putAll(other.metadata);
+        this.compact = other.unfiltered == null ? other.compact : null;
+        this.immutable = false;
+        this.unfiltered = null;
+        this.maxLabel = MAX_LABEL;
+
+        for (int slot = 0; slot < other.index.slotCount(); slot++) {
+            if (other.outgoing[slot] == null) {
+                continue;
+            }
+            int outSize = 0;
+            int[] targets = new int[other.outDegree[slot]];
+            byte[] labels = new byte[targets.length];
+            double[] weights = new double[targets.length];
+            int[] multiplicities = new int[targets.length];
+            for (int e = 0; e < other.outDegree[slot]; e++) {
+                if (other.visible(other.outLabels[slot][e])) {
+                    targets[outSize] = other.outgoing[slot][e];
+                    labels[outSize] = other.outLabels[slot][e];
+                    weights[outSize] = other.outWeights[slot][e];
+                    multiplicities[outSize++] = other.outMultiplicities[slot][e];
+                }
+            }
+            outgoing[slot] = outSize == 0 ? NO_EDGES : Arrays.copyOf(targets, outSize);
+            outLabels[slot] = outSize == 0 ? NO_LABELS : Arrays.copyOf(labels, outSize);
+            outWeights[slot] = outSize == 0 ? NO_WEIGHTS : Arrays.copyOf(weights, outSize);
+            outMultiplicities[slot] = outSize == 0 ? NO_EDGES : Arrays.copyOf(multiplicities, outSize);
+            outDegree[slot] = outSize;
+            edgeCount += outSize;
+
+            int inSize = 0;
+            int[] sources = new int[other.inDegree[slot]];
+            byte[] sourceLabels = new byte[sources.length];
+            for (int e = 0; e < other.inDegree[slot]; e++) {
+                if (other.visible(other.inLabels[slot][e])) {
+                    sources[inSize] = other.incoming[slot][e];
+                    sourceLabels[inSize++] = other.inLabels[slot][e];
+                }
+            }
+            incoming[slot] = inSize == 0 ? NO_EDGES : Arrays.copyOf(sources, inSize);
+            inLabels[slot] = inSize == 0 ? NO_LABELS : Arrays.copyOf(sourceLabels, inSize);
+            inDegree[slot] = inSize;
+        }
+    }
+
+    /**
+     * Creates an immutable snapshot that shares the storage of the source graph.
+     */
+    private DirectedGraph(DirectedGraph<T> source, NodeIndex<T> frozenIndex) {
+        this.index = frozenIndex;
+        this.outgoing = source.outgoing;
+        this.outDegree = source.outDegree;
+        this.incoming = source.incoming;
+        this.inDegree = source.inDegree;
+        this.outLabels = source.outLabels;
+        this.outWeights = source.outWeights;
+        this.outMultiplicities = source.outMultiplicities;
+        this.inLabels = source.inLabels;
+        this.edgeCount = source.edgeCount;
+        this.metadata.putAll(source.metadata);
+        this.compact = source.compact;
+        this.immutable = true;
+        this.unfiltered = null;
+        this.maxLabel = MAX_LABEL;
+    }
+
+    /**
+     * Creates a view of a snapshot that only shows the edges up to a label.
+     */
+    private DirectedGraph(DirectedGraph<T> snapshot, int maxLabel) {
+        this.index = snapshot.index;
+        this.outgoing = snapshot.outgoing;
+        this.outDegree = snapshot.outDegree;
+        this.incoming = snapshot.incoming;
+        this.inDegree = snapshot.inDegree;
+        this.outLabels = snapshot.outLabels;
+        this.outWeights = snapshot.outWeights;
+        this.outMultiplicities = snapshot.outMultiplicities;
+        this.inLabels = snapshot.inLabels;
+        this.edgeCount = -1;
+        this.metadata.putAll(snapshot.metadata);
+        this.immutable = true;
+        this.unfiltered = snapshot;
+        this.maxLabel = maxLabel;
+    }
+
+    /**
+     * Gets an immutable snapshot of the graph. The snapshot does not change when this graph is
+     * modified afterwards, and every mutating method of the snapshot throws
+     * {@link UnsupportedOperationException}. Taking a snapshot does not copy nodes or edges.
+     *
+     * @return The snapshot, or this graph if it is a snapshot itself
+     */
+    public DirectedGraph<T> snapshot() {
+        if (immutable) {
+            return this;
+        }
+
+        DirectedGraph<T> snapshot = new DirectedGraph<>(this, index.freeze());
+        sharedSlots = index.slotCount();
+        sharedOutgoing.set(0, sharedSlots);
+        sharedIncoming.set(0, sharedSlots);
+        return snapshot;
+    }
+
+    /**
+     * Gets an immutable view of the graph that only shows the edges whose label is at most
+     * {@code maxLabel}, e.g. only required dependencies. The view has the same nodes as the graph and
+     * is based on a {@link #snapshot()}, so it does not change when this graph is modified afterwards.
+     * Traversals run on a filtered view of the snapshot's {@link CompactGraph}; nothing is copied.
+     *
+     * @param maxLabel The largest label to show
+     * @return The filtered view
+     */
+    public DirectedGraph<T> filtered(int maxLabel) {
+        if (unfiltered != null) {
+            return maxLabel >= this.maxLabel ? this : unfiltered.filtered(maxLabel);
+        }
+        DirectedGraph<T> snapshot = snapshot();
+        if (maxLabel >= MAX_LABEL) {
+            return snapshot;
+        }
+        return new DirectedGraph<>(snapshot, Math.max(maxLabel, -1));
+    }
+
+    /**
+     * Checks whether this graph is an immutable snapshot.
+     *
+     * @return true if the graph cannot be modified
+     */
+    public boolean isImmutable() {
+        return immutable;
+    }
 
     /**
      * Adds a node to the graph if it doesn't already exist.
@@ -24,8 +245,8 @@ public class DirectedGraph<T> implements Serializable {
      * @param node The node to add
      */
     public void addNode(T node) {
-        outgoingEdges.putIfAbsent(node, new HashSet<>());
-        incomingEdges.putIfAbsent(node, new HashSet<>());
+        checkMutable();
+        slotFor(node);
     }
 
     /**
@@ -36,10 +257,115 @@ public class DirectedGraph<T> implements Serializable {
      * @param to The target node
      */
     public void addEdge(T from, T to) {
-        addNode(from);
-        addNode(to);
-        outgoingEdges.get(from).add(to);
-        incomingEdges.get(to).add(from);
+        checkMutable();
+        int source = slotFor(from);
+        int target = slotFor(to);
+
+        if (!containsEdge(source, target)) {
+            appendEdge(source, target, DEFAULT_LABEL, DEFAULT_WEIGHT, 0);
+        }
+    }
+
+    /**
+     * Adds a directed edge with attributes, or updates the attributes of an existing edge.
+     * Both nodes will be added if they don't already exist.
+     *
+     * @param from The source node
+     * @param to The target node
+     * @param label The edge label, between 0 and {@link #MAX_LABEL}
+     * @param weight The edge weight
+     * @param multiplicity The number of relations the edge stands for
+     */
+    public void addEdge(T from, T to, int label, double weight, int multiplicity) {
+        checkMutable();
+        if (label < 0 || label > MAX_LABEL) {
+            throw new IllegalArgumentException("Edge label must be between 0 and " + MAX_LABEL + ": " + label);
+        }
+        int source = slotFor(from);
+        int target = slotFor(to);
+
+        int position = indexOf(outgoing[source], outDegree[source], target);
+        if (position < 0) {
+            appendEdge(source, target, label, weight, multiplicity);
+            return;
+        }
+        if (outLabels[source][position] == label && outWeights[source][position] == weight
+                && outMultiplicities[source][position] == multiplicity) {
+            return;
+        }
+
+        // The attributes of a shared edge are visible to snapshots, so the lists are copied first
+        detachTables(source);
+        detachTables(target);
+        detachOutgoing(source);
+        outLabels[source][position] = (byte) label;
+        outWeights[source][position] = weight;
+        outMultiplicities[source][position] = multiplicity;
+        detachIncoming(target);
+        inLabels[target][indexOf(incoming[target], inDegree[target], source)] = (byte) label;
+        compact = null;
+    }
+
+    /**
+     * Checks whether a node is part of the graph.
+     *
+     * @param node The node
+     * @return true if the node is in the graph
+     */
+    public boolean containsNode(T node) {
+        return index.indexOf(node) >= 0;
+    }
+
+    /**
+     * Checks whether the graph has an edge between two nodes.
+     *
+     * @param from The source node
+     * @param to The target node
+     * @return true if the edge exists
+     */
+    public boolean containsEdge(T from, T to) {
+        if (unfiltered != null) {
+            return edgePosition(from, to) >= 0;
+        }
+        int source = index.indexOf(from);
+        int target = index.indexOf(to);
+        return source >= 0 && target >= 0 && containsEdge(source, target);
+    }
+
+    /**
+     * Gets the label of an edge.
+     *
+     * @param from The source node
+     * @param to The target node
+     * @return The edge label, or -1 if the edge does not exist
+     */
+    public int getEdgeLabel(T from, T to) {
+        int position = edgePosition(from, to);
+        return position < 0 ? -1 : outLabels[index.indexOf(from)][position];
+    }
+
+    /**
+     * Gets the weight of an edge.
+     *
+     * @param from The source node
+     * @param to The target node
+     * @return The edge weight, or {@link Double#NaN} if the edge does not exist
+     */
+    public double getEdgeWeight(T from, T to) {
+        int position = edgePosition(from, to);
+        return position < 0 ? Double.NaN : outWeights[index.indexOf(from)][position];
+    }
+
+    /**
+     * Gets the multiplicity of an edge.
+     *
+     * @param from The source node
+     * @param to The target node
+     * @return The number of relations the edge stands for, or 0 if the edge does not exist
+     */
+    public int getEdgeMultiplicity(T from, T to) {
+        int position = edgePosition(from, to);
+        return position < 0 ? 0 : outMultiplicities[index.indexOf(from)][position];
     }
 
     /**
@@ -49,7 +375,8 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of nodes that have an incoming edge from the given node
      */
     public Set<T> getOutgoingEdges(T node) {
-        return outgoingEdges.getOrDefault(node, Collections.emptySet());
+        int slot = index.indexOf(node);
+        return slot < 0 ? Collections.emptySet() : toNodeSet(outgoing[slot], outLabels[slot], outDegree[slot]);
     }
 
     /**
@@ -59,7 +386,8 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of nodes that have an outgoing edge to the given node
      */
     public Set<T> getIncomingEdges(T node) {
-        return incomingEdges.getOrDefault(node, Collections.emptySet());
+        int slot = index.indexOf(node);
+        return slot < 0 ? Collections.emptySet() : toNodeSet(incoming[slot], inLabels[slot], inDegree[slot]);
     }
 
     /**
@@ -68,7 +396,13 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of all nodes in the graph
      */
     public Set<T> getAllNodes() {
-        return new HashSet<>(outgoingEdges.keySet());
+        Set<T> nodes = new HashSet<>(index.size() * 4 / 3 + 1);
+        for (int slot = 0; slot < index.slotCount(); slot++) {
+            if (index.isLive(slot)) {
+                nodes.add(index.get(slot));
+            }
+        }
+        return nodes;
     }
 
     /**
@@ -77,7 +411,7 @@ public class DirectedGraph<T> implements Serializable {
      * @return The number of nodes
      */
     public int getNodeCount() {
-        return outgoingEdges.size();
+        return index.size();
     }
 
     /**
@@ -86,9 +420,30 @@ public class DirectedGraph<T> implements Serializable {
      * @return The number of edges
      */
     public int getEdgeCount() {
-        return outgoingEdges.values().stream()
-                .mapToInt(Set::size)
-                .sum();
+        return unfiltered != null ? compact().edgeCount() : edgeCount;
+    }
+
+    /**
+     * Gets the compact (CSR) form of the graph, building it if the graph changed since the last call.
+     * The returned instance is immutable and stays valid after later mutations of this graph.
+     *
+     * @return The compact graph
+     */
+    public CompactGraph<T> compact() {
+        if (unfiltered != null) {
+            return unfiltered.compact().filtered(maxLabel);
+        }
+        CompactGraph<T> snapshot = compact;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = compact;
+                if (snapshot == null) {
+                    snapshot = buildCompact();
+                    compact = snapshot;
+                }
+            }
+        }
+        return snapshot;
     }
 
     /**
@@ -97,7 +452,7 @@ public class DirectedGraph<T> implements Serializable {
      * @return The metadata map
      */
     public Map<String, Object> getMetadata() {
-        return metadata;
+        return immutable ? Collections.unmodifiableMap(metadata) : metadata;
     }
 
     /**
@@ -107,6 +462,7 @@ public class DirectedGraph<T> implements Serializable {
      * @param value The metadata value
      */
     public void setMetadata(String key, Object value) {
+        checkMutable();
         metadata.put(key, value);
     }
 
@@ -116,10 +472,12 @@ public class DirectedGraph<T> implements Serializable {
      * @return Map of node to in-degree
      */
     public Map<T, Integer> calculateInDegrees() {
-        Map<T, Integer> inDegrees = new HashMap<>();
+        Map<T, Integer> inDegrees = new HashMap<>(index.size() * 4 / 3 + 1);
 
-        for (T node : getAllNodes()) {
-            inDegrees.put(node, getIncomingEdges(node).size());
+        for (int slot = 0; slot < index.slotCount(); slot++) {
+            if (index.isLive(slot)) {
+                inDegrees.put(index.get(slot), visibleInDegree(slot));
+            }
         }
 
         return inDegrees;
@@ -131,10 +489,12 @@ public class DirectedGraph<T> implements Serializable {
      * @return Map of node to out-degree
      */
     public Map<T, Integer> calculateOutDegrees() {
-        Map<T, Integer> outDegrees = new HashMap<>();
+        Map<T, Integer> outDegrees = new HashMap<>(index.size() * 4 / 3 + 1);
 
-        for (T node : getAllNodes()) {
-            outDegrees.put(node, getOutgoingEdges(node).size());
+        for (int slot = 0; slot < index.slotCount(); slot++) {
+            if (index.isLive(slot)) {
+                outDegrees.put(index.get(slot), visibleOutDegree(slot));
+            }
         }
 
         return outDegrees;
@@ -146,9 +506,13 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of source nodes
      */
     public Set<T> findSourceNodes() {
-        return getAllNodes().stream()
-                .filter(node -> getIncomingEdges(node).isEmpty())
-                .collect(Collectors.toSet());
+        Set<T> sources = new HashSet<>();
+        for (int slot = 0; slot < index.slotCount(); slot++) {
+            if (index.isLive(slot) && visibleInDegree(slot) == 0) {
+                sources.add(index.get(slot));
+            }
+        }
+        return sources;
     }
 
     /**
@@ -157,9 +521,13 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of sink nodes
      */
     public Set<T> findSinkNodes() {
-        return getAllNodes().stream()
-                .filter(node -> getOutgoingEdges(node).isEmpty())
-                .collect(Collectors.toSet());
+        Set<T> sinks = new HashSet<>();
+        for (int slot = 0; slot < index.slotCount(); slot++) {
+            if (index.isLive(slot) && visibleOutDegree(slot) == 0) {
+                sinks.add(index.get(slot));
+            }
+        }
+        return sinks;
     }
 
     /**
@@ -168,9 +536,13 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of isolated nodes
      */
     public Set<T> findIsolatedNodes() {
-        return getAllNodes().stream()
-                .filter(node -> getIncomingEdges(node).isEmpty() && getOutgoingEdges(node).isEmpty())
-                .collect(Collectors.toSet());
+        Set<T> isolated = new HashSet<>();
+        for (int slot = 0; slot < index.slotCount(); slot++) {
+            if (index.isLive(slot) && visibleInDegree(slot) == 0 && visibleOutDegree(slot) == 0) {
+                isolated.add(index.get(slot));
+            }
+        }
+        return isolated;
     }
 
     /**
@@ -179,97 +551,20 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of articulation points
      */
     public Set<T> findArticulationPoints() {
-        Set<T> articulationPoints = new HashSet<>();
-        Map<T, Integer> discoveryTime = new HashMap<>();
-        Map<T, Integer> lowTime = new HashMap<>();
-        Map<T, T> parent = new HashMap<>();
-        Set<T> visited = new HashSet<>();
-
-        // Initialize discovery time, low time, and parent
-        for (T node : getAllNodes()) {
-            discoveryTime.put(node, -1);
-            lowTime.put(node, -1);
-            parent.put(node, null);
-        }
-
-        // Process each connected component
-        int time = 0;
-        for (T node : getAllNodes()) {
-            if (discoveryTime.get(node) == -1) {
-                // Find articulation points in DFS tree rooted at node
-                time = findArticulationPointsDFS(node, time, discoveryTime, lowTime, parent, visited, articulationPoints);
-            }
-        }
-
-        return articulationPoints;
-    }
-
-    /**
-     * DFS helper method for finding articulation points.
-     */
-    private int findArticulationPointsDFS(T node, int time, Map<T, Integer> discoveryTime, Map<T, Integer> lowTime,
-                                          Map<T, T> parent, Set<T> visited, Set<T> articulationPoints) {
-        // Count of children in DFS tree
-        int children = 0;
-
-        // Mark the current node as visited
-        visited.add(node);
-
-        // Initialize discovery time and low value
-        time++;
-        discoveryTime.put(node, time);
-        lowTime.put(node, time);
-
-        // Iterate through all adjacent vertices
-        for (T adjacent : getOutgoingEdges(node)) {
-            // If adjacent is not visited yet, then make it a child of node in DFS tree and recur for it
-            if (!visited.contains(adjacent)) {
-                children++;
-                parent.put(adjacent, node);
-
-                time = findArticulationPointsDFS(adjacent, time, discoveryTime, lowTime, parent, visited, articulationPoints);
-
-                // Check if the subtree rooted at adjacent has a connection to one of the ancestors of node
-                lowTime.put(node, Math.min(lowTime.get(node), lowTime.get(adjacent)));
-
-                // If node is not root and low value of one of its children is more than or equal to discovery value of node
-                if (parent.get(node) != null && lowTime.get(adjacent) >= discoveryTime.get(node)) {
-                    articulationPoints.add(node);
-                }
-            }
-            // Update low value of node for parent function calls
-            else if (!adjacent.equals(parent.get(node))) {
-                lowTime.put(node, Math.min(lowTime.get(node), discoveryTime.get(adjacent)));
-            }
-        }
-
-        // If node is root of DFS tree and has more than one child
-        if (parent.get(node) == null && children > 1) {
-            articulationPoints.add(node);
-        }
-
-        return time;
+        CompactGraph<T> graph = compact();
+        return toNodeSet(graph, graph.articulationPoints());
     }
 
     /**
      * Performs a topological sort of the graph.
+     * Every node appears after all nodes it has an incoming edge from (its dependencies).
      *
      * @return List of nodes in topological order
      * @throws IllegalStateException if the graph contains a cycle
      */
     public List<T> topologicalSort() {
-        Set<T> visited = new HashSet<>();
-        Set<T> temporaryMark = new HashSet<>();
-        List<T> result = new ArrayList<>();
-
-        for (T node : outgoingEdges.keySet()) {
-            if (!visited.contains(node)) {
-                topologicalSortVisit(node, visited, temporaryMark, result);
-            }
-        }
-
-        Collections.reverse(result);
-        return result;
+        CompactGraph<T> graph = compact();
+        return toNodeList(graph, graph.topologicalOrder());
     }
 
     /**
@@ -279,127 +574,50 @@ public class DirectedGraph<T> implements Serializable {
      * @throws IllegalStateException if the graph contains a cycle
      */
     public List<T> topologicalSortKahn() {
-        // Copy the graph to avoid modifying the original
-        Map<T, Set<T>> inEdges = new HashMap<>();
-        for (T node : getAllNodes()) {
-            inEdges.put(node, new HashSet<>(getIncomingEdges(node)));
-        }
-
-        // Find all nodes with no incoming edges
-        Queue<T> queue = new LinkedList<>();
-        for (T node : getAllNodes()) {
-            if (inEdges.get(node).isEmpty()) {
-                queue.add(node);
-            }
-        }
-
-        // Process nodes
-        List<T> result = new ArrayList<>();
-        while (!queue.isEmpty()) {
-            T node = queue.poll();
-            result.add(node);
-
-            // For each node that depends on this node
-            for (T outNode : new ArrayList<>(getOutgoingEdges(node))) {
-                // Remove the edge
-                inEdges.get(outNode).remove(node);
-
-                // If the node has no more incoming edges, add it to the queue
-                if (inEdges.get(outNode).isEmpty()) {
-                    queue.add(outNode);
-                }
-            }
-        }
-
-        // Check if all edges were processed (i.e., no cycles)
-        if (result.size() != getAllNodes().size()) {
-            throw new IllegalStateException("Cycle detected in graph, cannot perform topological sort");
-        }
-
-        return result;
+        return topologicalSort();
     }
 
     /**
-     * Finds strongly connected components using Kosaraju's algorithm.
+     * Finds strongly connected components using Tarjan's algorithm.
      *
      * @return List of sets of nodes, where each set is a strongly connected component
      */
     public List<Set<T>> findStronglyConnectedComponents() {
-        // First pass: fill the stack based on finishing times
-        Stack<T> stack = new Stack<>();
-        Set<T> visited = new HashSet<>();
+        CompactGraph<T> graph = compact();
+        int[] componentOf = graph.stronglyConnectedComponents();
 
-        for (T node : getAllNodes()) {
-            if (!visited.contains(node)) {
-                fillStack(node, visited, stack);
-            }
-        }
-
-        // Create the transpose of the graph
-        DirectedGraph<T> transposed = getTranspose();
-
-        // Reset visited
-        visited.clear();
-
-        // Second pass: process nodes in order of finishing times
         List<Set<T>> components = new ArrayList<>();
-        while (!stack.isEmpty()) {
-            T node = stack.pop();
-
-            if (!visited.contains(node)) {
-                Set<T> component = new HashSet<>();
-                transposed.collectSCC(node, visited, component);
-                components.add(component);
+        for (int id = 0; id < componentOf.length; id++) {
+            int component = componentOf[id];
+            while (components.size() <= component) {
+                components.add(new HashSet<>());
             }
+            components.get(component).add(graph.node(id));
         }
 
         return components;
     }
 
     /**
-     * Helper method for Kosaraju's algorithm to fill the stack.
-     */
-    private void fillStack(T node, Set<T> visited, Stack<T> stack) {
-        visited.add(node);
-
-        for (T adjacent : getOutgoingEdges(node)) {
-            if (!visited.contains(adjacent)) {
-                fillStack(adjacent, visited, stack);
-            }
-        }
-
-        stack.push(node);
-    }
-
-    /**
-     * Helper method for Kosaraju's algorithm to collect strongly connected components.
-     */
-    private void collectSCC(T node, Set<T> visited, Set<T> component) {
-        visited.add(node);
-        component.add(node);
-
-        for (T adjacent : getOutgoingEdges(node)) {
-            if (!visited.contains(adjacent)) {
-                collectSCC(adjacent, visited, component);
-            }
-        }
-    }
-
-    /**
-     * Creates the transpose of the graph (all edges reversed).
+     * Creates the transpose of the graph (all edges reversed), keeping edge attributes.
      *
      * @return The transposed graph
      */
     public DirectedGraph<T> getTranspose() {
-        DirectedGraph<T> transposed = new DirectedGraph<>();
+        DirectedGraph<T> transposed = new DirectedGraph<>(index.size());
 
-        for (T node : getAllNodes()) {
-            transposed.addNode(node);
+        for (int slot = 0; slot < index.slotCount(); slot++) {
+            if (index.isLive(slot)) {
+                transposed.addNode(index.get(slot));
+            }
         }
 
-        for (T node : getAllNodes()) {
-            for (T adjacent : getOutgoingEdges(node)) {
-                transposed.addEdge(adjacent, node);
+        for (int slot = 0; slot < index.slotCount(); slot++) {
+            for (int e = 0; e < outDegree[slot]; e++) {
+                if (visible(outLabels[slot][e])) {
+                    transposed.addEdge(index.get(outgoing[slot][e]), index.get(slot),
+                            outLabels[slot][e], outWeights[slot][e], outMultiplicities[slot][e]);
+                }
             }
         }
 
@@ -407,22 +625,28 @@ public class DirectedGraph<T> implements Serializable {
     }
 
     /**
-     * Creates a subgraph containing only the specified nodes and the edges between them.
+     * Creates a subgraph containing only the specified nodes and the edges between them, keeping edge attributes.
      *
      * @param nodes The nodes to include in the subgraph
      * @return A new DirectedGraph containing only the specified nodes
      */
     public DirectedGraph<T> subgraphWithNodes(Set<T> nodes) {
-        DirectedGraph<T> subgraph = new DirectedGraph<>();
+        DirectedGraph<T> subgraph = new DirectedGraph<>(nodes.size());
+        CompactGraph<T> graph = compact();
+        BitSet included = graph.toBits(nodes);
 
         for (T node : nodes) {
             subgraph.addNode(node);
         }
 
-        for (T from : nodes) {
-            for (T to : getOutgoingEdges(from)) {
-                if (nodes.contains(to)) {
-                    subgraph.addEdge(from, to);
+        for (int from = included.nextSetBit(0); from >= 0; from = included.nextSetBit(from + 1)) {
+            T source = graph.node(from);
+            for (int e = graph.outOffsets[from]; e < graph.outEnds[from]; e++) {
+                int to = graph.outTargets[e];
+                if (included.get(to)) {
+                    T target = graph.node(to);
+                    subgraph.addEdge(source, target, graph.outLabels[e], getEdgeWeight(source, target),
+                            getEdgeMultiplicity(source, target));
                 }
             }
         }
@@ -436,108 +660,49 @@ public class DirectedGraph<T> implements Serializable {
      * @return true if the graph contains a cycle, false otherwise
      */
     public boolean hasCycles() {
-        try {
-            topologicalSort();
-            return false;
-        } catch (IllegalStateException e) {
-            return true;
-        }
+        return compact().hasCycles();
     }
 
     /**
      * Finds all cycles in the graph using Johnson's algorithm.
+     * Each elementary cycle is reported once, starting from its earliest-added node.
      *
      * @return List of cycles, where each cycle is a list of nodes
      */
     public List<List<T>> findAllCycles() {
+        CompactGraph<T> graph = compact();
         List<List<T>> cycles = new ArrayList<>();
-        Set<T> blocked = new HashSet<>();
-        Map<T, Set<T>> blockedMap = new HashMap<>();
-
-        // Initialize blocked map
-        for (T node : getAllNodes()) {
-            blockedMap.put(node, new HashSet<>());
-        }
-
-        // Find strongly connected components
-        List<Set<T>> sccs = findStronglyConnectedComponents();
-
-        // Process each strongly connected component
-        for (Set<T> scc : sccs) {
-            if (scc.size() > 1) {
-                DirectedGraph<T> subgraph = subgraphWithNodes(scc);
-
-                // For each node in the SCC
-                for (T startNode : scc) {
-                    // Reset blocked and blockedMap for each start node
-                    blocked.clear();
-                    for (T node : scc) {
-                        blockedMap.put(node, new HashSet<>());
-                    }
-
-                    // Find cycles starting from this node
-                    findCycles(startNode, startNode, new ArrayList<>(), cycles, blocked, blockedMap, subgraph);
-                }
-            }
-        }
-
+        graph.forEachElementaryCycle(cycle -> cycles.add(toNodeList(graph, cycle)));
         return cycles;
     }
 
     /**
-     * Helper method for Johnson's algorithm to find cycles.
+     * Streams the elementary cycles that pass through a node, stopping at the given limits.
+     * Only the strongly connected component of the node is searched, and each cycle is built
+     * just before it is handed to the consumer, starting at the node.
+     *
+     * @param node The node every reported cycle contains
+     * @param limits The maximum number and length of cycles and the time budget
+     * @param consumer Receives each cycle as a list of nodes
+     * @return How the enumeration ended; anything but {@link CycleSearchOutcome#COMPLETE} means
+     *         more cycles may exist
      */
-    private boolean findCycles(T startNode, T currentNode, List<T> path, List<List<T>> cycles,
-                               Set<T> blocked, Map<T, Set<T>> blockedMap, DirectedGraph<T> subgraph) {
-        boolean foundCycle = false;
-
-        // Add current node to path
-        path.add(currentNode);
-        blocked.add(currentNode);
-
-        // Check outgoing edges
-        for (T neighbor : subgraph.getOutgoingEdges(currentNode)) {
-            if (neighbor.equals(startNode)) {
-                // Found a cycle
-                List<T> cycle = new ArrayList<>(path);
-                cycles.add(cycle);
-                foundCycle = true;
-            } else if (!blocked.contains(neighbor)) {
-                if (findCycles(startNode, neighbor, path, cycles, blocked, blockedMap, subgraph)) {
-                    foundCycle = true;
-                }
-            }
+    public CycleSearchOutcome forEachCycleThrough(T node, CycleSearchLimits limits, Consumer<List<T>> consumer) {
+        CompactGraph<T> graph = compact();
+        int id = graph.indexOf(node);
+        if (id < 0) {
+            return CycleSearchOutcome.COMPLETE;
         }
 
-        if (foundCycle) {
-            unblock(currentNode, blocked, blockedMap);
-        } else {
-            for (T neighbor : subgraph.getOutgoingEdges(currentNode)) {
-                blockedMap.get(neighbor).add(currentNode);
-            }
-        }
-
-        // Remove current node from path
-        path.remove(path.size() - 1);
-
-        return foundCycle;
-    }
-
-    /**
-     * Helper method for Johnson's algorithm to unblock nodes.
-     */
-    private void unblock(T node, Set<T> blocked, Map<T, Set<T>> blockedMap) {
-        blocked.remove(node);
-
-        Set<T> blockedNodes = blockedMap.get(node);
-        while (!blockedNodes.isEmpty()) {
-            T blockedNode = blockedNodes.iterator().next();
-            blockedNodes.remove(blockedNode);
-
-            if (blocked.contains(blockedNode)) {
-                unblock(blockedNode, blocked, blockedMap);
+        int[] reported = new int[1];
+        return graph.forEachCycleThrough(id, limits.getMaxLength(), limits.deadlineNanos(), cycle -> {
+            if (reported[0] >= limits.getMaxCycles()) {
+                return false;
             }
-        }
+            reported[0]++;
+            consumer.accept(toNodeList(graph, cycle));
+            return true;
+        });
     }
 
     /**
@@ -547,20 +712,7 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of all nodes reachable from the given node
      */
     public Set<T> getTransitiveClosure(T node) {
-        Set<T> result = new HashSet<>();
-        Queue<T> queue = new LinkedList<>();
-        queue.add(node);
-
-        while (!queue.isEmpty()) {
-            T current = queue.poll();
-            for (T adj : getOutgoingEdges(current)) {
-                if (result.add(adj)) {
-                    queue.add(adj);
-                }
-            }
-        }
-
-        return result;
+        return getTransitiveClosure(Collections.singleton(node));
     }
 
     /**
@@ -570,13 +722,8 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of all nodes reachable from any of the given nodes
      */
     public Set<T> getTransitiveClosure(Collection<T> nodes) {
-        Set<T> result = new HashSet<>();
-
-        for (T node : nodes) {
-            result.addAll(getTransitiveClosure(node));
-        }
-
-        return result;
+        CompactGraph<T> graph = compact();
+        return toNodeSet(graph, graph.reachability().descendants(graph.toBits(nodes)));
     }
 
     /**
@@ -586,20 +733,7 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of all nodes that can reach the given node
      */
     public Set<T> getReverseTransitiveClosure(T node) {
-        Set<T> result = new HashSet<>();
-        Queue<T> queue = new LinkedList<>();
-        queue.add(node);
-
-        while (!queue.isEmpty()) {
-            T current = queue.poll();
-            for (T adj : getIncomingEdges(current)) {
-                if (result.add(adj)) {
-                    queue.add(adj);
-                }
-            }
-        }
-
-        return result;
+        return getReverseTransitiveClosure(Collections.singleton(node));
     }
 
     /**
@@ -609,13 +743,106 @@ public class DirectedGraph<T> implements Serializable {
      * @return Set of all nodes that can reach any of the given nodes
      */
     public Set<T> getReverseTransitiveClosure(Collection<T> nodes) {
-        Set<T> result = new HashSet<>();
+        CompactGraph<T> graph = compact();
+        return toNodeSet(graph, graph.reachability().ancestors(graph.toBits(nodes)));
+    }
 
-        for (T node : nodes) {
-            result.addAll(getReverseTransitiveClosure(node));
-        }
+    /**
+     * Gets the size of the transitive closure of a node without materializing it.
+     *
+     * @param node The starting node
+     * @return The number of nodes reachable from the given node
+     */
+    public int getTransitiveClosureSize(T node) {
+        CompactGraph<T> graph = compact();
+        int id = graph.indexOf(node);
+        return id < 0 ? 0 : graph.reachability().descendantCount(id);
+    }
 
-        return result;
+    /**
+     * Gets the size of the reverse transitive closure of a node without materializing it.
+     *
+     * @param node The target node
+     * @return The number of nodes that can reach the given node
+     */
+    public int getReverseTransitiveClosureSize(T node) {
+        CompactGraph<T> graph = compact();
+        int id = graph.indexOf(node);
+        return id < 0 ? 0 : graph.reachability().ancestorCount(id);
+    }
+
+    /**
+     * Checks whether there is a path from one node to another.
+     *
+     * @param from The source node
+     * @param to The target node
+     * @return true if {@code to} can be reached from {@code from} over at least one edge
+     */
+    public boolean isReachable(T from, T to) {
+        CompactGraph<T> graph = compact();
+        int source = graph.indexOf(from);
+        int target = graph.indexOf(to);
+        return source >= 0 && target >= 0 && graph.reachability().reaches(source, target);
+    }
+
+    /**
+     * Gets a set of nodes as a bitset over the current node ids. Unknown nodes are ignored.
+     *
+     * @param nodes The nodes
+     * @return The node set
+     */
+    public NodeBitSet<T> nodeBits(Collection<T> nodes) {
+        CompactGraph<T> graph = compact();
+        return new NodeBitSet<>(graph, graph.toBits(nodes));
+    }
+
+    /**
+     * Gets the transitive closure of multiple nodes as a bitset, in one pass over the reachability index.
+     *
+     * @param nodes The starting nodes
+     * @return Set of all nodes reachable from any of the given nodes
+     */
+    public NodeBitSet<T> closureBits(Collection<T> nodes) {
+        CompactGraph<T> graph = compact();
+        return new NodeBitSet<>(graph, graph.reachability().descendants(graph.toBits(nodes)));
+    }
+
+    /**
+     * Gets the reverse transitive closure of multiple nodes as a bitset, in one pass over the reachability index.
+     *
+     * @param nodes The target nodes
+     * @return Set of all nodes that can reach any of the given nodes
+     */
+    public NodeBitSet<T> reverseClosureBits(Collection<T> nodes) {
+        CompactGraph<T> graph = compact();
+        return new NodeBitSet<>(graph, graph.reachability().ancestors(graph.toBits(nodes)));
+    }
+
+    /**
+     * Gets the nodes that can reach any of the given nodes over at most {@code maxDepth} edges.
+     *
+     * @param nodes The target nodes
+     * @param maxDepth The maximum path length
+     * @return Set of nodes within the given distance upstream of the nodes
+     */
+    public NodeBitSet<T> reverseClosureBits(Collection<T> nodes, int maxDepth) {
+        CompactGraph<T> graph = compact();
+        return new NodeBitSet<>(graph, graph.reachableFrom(graph.toBits(nodes), true, maxDepth));
+    }
+
+    /**
+     * Performs a topological sort of the subgraph induced by a node set, without building the subgraph.
+     *
+     * @param nodes The nodes to sort; must belong to the current version of this graph
+     * @return List of nodes in topological order
+     * @throws IllegalStateException if the nodes form a cycle
+     */
+    public List<T> topologicalSort(NodeBitSet<T> nodes) {
+        CompactGraph<T> graph = compact();
+        if (nodes.getGraph() != graph) {
+            throw new IllegalArgumentException("Node set belongs to a different graph version");
+        }
+        return toNodeList(graph, graph.topologicalOrder(nodes.bits()));
     }
 
     /**
@@ -627,11 +854,21 @@ public class DirectedGraph<T> implements Serializable {
      */
     public List<List<T>> getAllPaths(T from, T to) {
         List<List<T>> result = new ArrayList<>();
-        List<T> currentPath = new ArrayList<>();
-        currentPath.add(from);
+        if (from.equals(to)) {
+            result.add(new ArrayList<>(Collections.singletonList(from)));
+            return result;
+        }
 
-        findAllPaths(from, to, new HashSet<>(), currentPath, result);
+        CompactGraph<T> graph = compact();
+        int source = graph.indexOf(from);
+        int target = graph.indexOf(to);
+        if (source < 0 || target < 0) {
+            return result;
+        }
 
+        for (int[] path : graph.allPaths(source, target)) {
+            result.add(toNodeList(graph, path));
+        }
         return result;
     }
 
@@ -681,19 +918,34 @@ public class DirectedGraph<T> implements Serializable {
      * @param node The node to remove
      */
     public void removeNode(T node) {
-        Set<T> incoming = new HashSet<>(getIncomingEdges(node));
-        Set<T> outgoing = new HashSet<>(getOutgoingEdges(node));
+        checkMutable();
+        int slot = index.indexOf(node);
+        if (slot < 0) {
+            return;
+        }
 
-        for (T in : incoming) {
-            outgoingEdges.get(in).remove(node);
+        detachTables(slot);
+        for (int e = 0; e < outDegree[slot]; e++) {
+            removeIncoming(outgoing[slot][e], slot);
         }
 
-        for (T out : outgoing) {
-            incomingEdges.get(out).remove(node);
+        for (int e = 0; e < inDegree[slot]; e++) {
+            removeOutgoing(incoming[slot][e], slot);
         }
 
-        outgoingEdges.remove(node);
-        incomingEdges.remove(node);
+        edgeCount -= outDegree[slot] + inDegree[slot];
+        outgoing[slot] = null;
+        incoming[slot] = null;
+        outLabels[slot] = null;
+        outWeights[slot] = null;
+        outMultiplicities[slot] = null;
+        inLabels[slot] = null;
+        sharedOutgoing.clear(slot);
+        sharedIncoming.clear(slot);
+        outDegree[slot] = 0;
+        inDegree[slot] = 0;
+        index.remove(slot);
+        compact = null;
     }
 
     /**
@@ -703,13 +955,28 @@ public class DirectedGraph<T> implements Serializable {
      * @param to The target node
      */
     public void removeEdge(T from, T to) {
-        if (outgoingEdges.containsKey(from)) {
-            outgoingEdges.get(from).remove(to);
+        checkMutable();
+        int source = index.indexOf(from);
+        int target = index.indexOf(to);
+        if (source < 0 || target < 0 || !containsEdge(source, target)) {
+            return;
         }
 
-        if (incomingEdges.containsKey(to)) {
-            incomingEdges.get(to).remove(from);
-        }
+        detachTables(source);
+        detachTables(target);
+        removeOutgoing(source, target);
+        removeIncoming(target, source);
+        edgeCount--;
+        compact = null;
+    }
+
+    /**
+     * Finds a minimum spanning tree of the graph using Prim's algorithm and the stored edge weights.
+     *
+     * @return A new graph representing the minimum spanning tree
+     */
+    public DirectedGraph<T> minimumSpanningTree() {
+        return minimumSpanningTree(this::getEdgeWeight);
     }
 
     /**
@@ -766,6 +1033,17 @@ public class DirectedGraph<T> implements Serializable {
         return mst;
     }
 
+    /**
+     * Finds the shortest paths from a source node to all other nodes using Dijkstra's algorithm
+     * and the stored edge weights.
+     *
+     * @param source The source node
+     * @return A map of node to the distance from the source node
+     */
+    public Map<T, Double> shortestPathsFromSource(T source) {
+        return shortestPathsFromSource(source, this::getEdgeWeight);
+    }
+
     /**
      * Finds the shortest paths from a source node to all other nodes using Dijkstra's algorithm.
      *
@@ -816,47 +1094,350 @@ public class DirectedGraph<T> implements Serializable {
         return distances;
     }
 
+    // Slot-level access for algorithms in this package that maintain their own per-node arrays.
+    // These ignore label filters and are meant for mutable graphs.
+
+    int slotOf(Object node) {
+        return index.indexOf(node);
+    }
+
+    int slotCount() {
+        return index.slotCount();
+    }
+
+    T nodeAt(int slot) {
+        return index.get(slot);
+    }
+
     /**
-     * Helper method for the topological sort that visits a node and its dependencies recursively.
+     * Returns the raw successor list of a slot; only the first {@link #outDegreeOf(int)} entries are valid.
      */
-    private void topologicalSortVisit(T node, Set<T> visited, Set<T> temporaryMark, List<T> result) {
-        if (temporaryMark.contains(node)) {
-            throw new IllegalStateException("Cycle detected in graph, cannot perform topological sort");
+    int[] successorSlots(int slot) {
+        return outgoing[slot];
+    }
+
+    int outDegreeOf(int slot) {
+        return outDegree[slot];
+    }
+
+    /**
+     * Returns the raw predecessor list of a slot; only the first {@link #inDegreeOf(int)} entries are valid.
+     */
+    int[] predecessorSlots(int slot) {
+        return incoming[slot];
+    }
+
+    int inDegreeOf(int slot) {
+        return inDegree[slot];
+    }
+
+    /**
+     * Returns the slot of a node, interning it and growing the adjacency arrays if needed.
+     */
+    private int slotFor(T node) {
+        int slot = index.indexOf(node);
+        if (slot >= 0) {
+            return slot;
         }
 
-        if (!visited.contains(node)) {
-            temporaryMark.add(node);
+        slot = index.intern(node);
+        detachTables(slot);
+        if (slot >= outgoing.length) {
+            int capacity = Math.max(outgoing.length * 2, slot + 1);
+            outgoing = Arrays.copyOf(outgoing, capacity);
+            outDegree = Arrays.copyOf(outDegree, capacity);
+            incoming = Arrays.copyOf(incoming, capacity);
+            inDegree = Arrays.copyOf(inDegree, capacity);
+            outLabels = Arrays.copyOf(outLabels, capacity);
+            outWeights = Arrays.copyOf(outWeights, capacity);
+            outMultiplicities = Arrays.copyOf(outMultiplicities, capacity);
+            inLabels = Arrays.copyOf(inLabels, capacity);
+        }
+        outgoing[slot] = NO_EDGES;
+        incoming[slot] = NO_EDGES;
+        outLabels[slot] = NO_LABELS;
+        outWeights[slot] = NO_WEIGHTS;
+        outMultiplicities[slot] = NO_EDGES;
+        inLabels[slot] = NO_LABELS;
+        sharedOutgoing.clear(slot);
+        sharedIncoming.clear(slot);
+        compact = null;
+        return slot;
+    }
 
-            for (T dependency : getIncomingEdges(node)) {
-                topologicalSortVisit(dependency, visited, temporaryMark, result);
-            }
+    private void checkMutable() {
+        if (immutable) {
+            throw new UnsupportedOperationException("Graph snapshots are immutable");
+        }
+    }
 
-            visited.add(node);
-            temporaryMark.remove(node);
-            result.add(node);
+    /**
+     * Copies the slot tables before an entry that a snapshot can see is changed.
+     */
+    private void detachTables(int slot) {
+        if (slot < sharedSlots) {
+            outgoing = outgoing.clone();
+            outDegree = outDegree.clone();
+            incoming = incoming.clone();
+            inDegree = inDegree.clone();
+            outLabels = outLabels.clone();
+            outWeights = outWeights.clone();
+            outMultiplicities = outMultiplicities.clone();
+            inLabels = inLabels.clone();
+            sharedSlots = 0;
+        }
+    }
+
+    /**
+     * Appends an edge that does not exist yet.
+     */
+    private void appendEdge(int source, int target, int label, double weight, int multiplicity) {
+        // Appending writes past the degree a snapshot reads, so shared lists can be extended in place
+        detachTables(source);
+        detachTables(target);
+        int out = outDegree[source]++;
+        outgoing[source] = append(outgoing[source], out, target);
+        outLabels[source] = append(outLabels[source], out, (byte) label);
+        outWeights[source] = append(outWeights[source], out, weight);
+        outMultiplicities[source] = append(outMultiplicities[source], out, multiplicity);
+        int in = inDegree[target]++;
+        incoming[target] = append(incoming[target], in, source);
+        inLabels[target] = append(inLabels[target], in, (byte) label);
+        edgeCount++;
+        compact = null;
+    }
+
+    /**
+     * Removes a target from the outgoing list of a slot together with its attributes.
+     */
+    private void removeOutgoing(int slot, int target) {
+        detachOutgoing(slot);
+        int size = outDegree[slot];
+        int position = indexOf(outgoing[slot], size, target);
+        if (position < 0) {
+            return;
         }
+        int tail = size - position - 1;
+        System.arraycopy(outgoing[slot], position + 1, outgoing[slot], position, tail);
+        System.arraycopy(outLabels[slot], position + 1, outLabels[slot], position, tail);
+        System.arraycopy(outWeights[slot], position + 1, outWeights[slot], position, tail);
+        System.arraycopy(outMultiplicities[slot], position + 1, outMultiplicities[slot], position, tail);
+        outDegree[slot] = size - 1;
     }
 
     /**
-     * Helper method to find all paths between two nodes recursively.
+     * Removes a source from the incoming list of a slot together with its label.
      */
-    private void findAllPaths(T current, T destination, Set<T> visited, List<T> currentPath, List<List<T>> result) {
-        if (current.equals(destination)) {
-            result.add(new ArrayList<>(currentPath));
+    private void removeIncoming(int slot, int source) {
+        detachIncoming(slot);
+        int size = inDegree[slot];
+        int position = indexOf(incoming[slot], size, source);
+        if (position < 0) {
             return;
         }
+        int tail = size - position - 1;
+        System.arraycopy(incoming[slot], position + 1, incoming[slot], position, tail);
+        System.arraycopy(inLabels[slot], position + 1, inLabels[slot], position, tail);
+        inDegree[slot] = size - 1;
+    }
 
-        visited.add(current);
+    /**
+     * Makes the outgoing list of a slot and its attributes writable in place, copying them if a snapshot shares them.
+     */
+    private void detachOutgoing(int slot) {
+        if (sharedOutgoing.get(slot)) {
+            outgoing[slot] = outgoing[slot].clone();
+            outLabels[slot] = outLabels[slot].clone();
+            outWeights[slot] = outWeights[slot].clone();
+            outMultiplicities[slot] = outMultiplicities[slot].clone();
+            sharedOutgoing.clear(slot);
+        }
+    }
+
+    /**
+     * Makes the incoming list of a slot and its labels writable in place, copying them if a snapshot shares them.
+     */
+    private void detachIncoming(int slot) {
+        if (sharedIncoming.get(slot)) {
+            incoming[slot] = incoming[slot].clone();
+            inLabels[slot] = inLabels[slot].clone();
+            sharedIncoming.clear(slot);
+        }
+    }
+
+    /**
+     * Finds the position of a visible edge in the outgoing list of its source.
+     */
+    private int edgePosition(T from, T to) {
+        int source = index.indexOf(from);
+        int target = index.indexOf(to);
+        if (source < 0 || target < 0) {
+            return -1;
+        }
+        int position = indexOf(outgoing[source], outDegree[source], target);
+        return position >= 0 && visible(outLabels[source][position]) ? position : -1;
+    }
+
+    private boolean visible(byte label) {
+        return label <= maxLabel;
+    }
+
+    private int visibleOutDegree(int slot) {
+        return unfiltered == null ? outDegree[slot] : countVisible(outLabels[slot], outDegree[slot]);
+    }
+
+    private int visibleInDegree(int slot) {
+        return unfiltered == null ? inDegree[slot] : countVisible(inLabels[slot], inDegree[slot]);
+    }
+
+    private int countVisible(byte[] labels, int size) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (visible(labels[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks for an edge by scanning the shorter of the two adjacency lists involved.
+     */
+    private boolean containsEdge(int source, int target) {
+        if (outDegree[source] <= inDegree[target]) {
+            return indexOf(outgoing[source], outDegree[source], target) >= 0;
+        }
+        return indexOf(incoming[target], inDegree[target], source) >= 0;
+    }
+
+    private static int[] append(int[] list, int size, int value) {
+        if (size == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, size * 2));
+        }
+        list[size] = value;
+        return list;
+    }
+
+    private static byte[] append(byte[] list, int size, byte value) {
+        if (size == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, size * 2));
+        }
+        list[size] = value;
+        return list;
+    }
+
+    private static double[] append(double[] list, int size, double value) {
+        if (size == list.length) {
+            list = Arrays.copyOf(list, Math.max(4, size * 2));
+        }
+        list[size] = value;
+        return list;
+    }
+
+    private static int indexOf(int[] list, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (list[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Set<T> toNodeSet(int[] slots, byte[] labels, int size) {
+        if (size == 0) {
+            return Collections.emptySet();
+        }
+        Object[] nodes = new Object[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (visible(labels[i])) {
+                nodes[count++] = index.get(slots[i]);
+            }
+        }
+        if (count == 0) {
+            return Collections.emptySet();
+        }
+        return new ArrayNodeSet<>(count == size ? nodes : Arrays.copyOf(nodes, count));
+    }
+
+    private static <T> Set<T> toNodeSet(CompactGraph<T> graph, BitSet ids) {
+        Set<T> nodes = new HashSet<>(ids.cardinality() * 4 / 3 + 1);
+        for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+            nodes.add(graph.node(id));
+        }
+        return nodes;
+    }
+
+    private static <T> List<T> toNodeList(CompactGraph<T> graph, int[] ids) {
+        List<T> nodes = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            nodes.add(graph.node(id));
+        }
+        return nodes;
+    }
+
+    /**
+     * Builds the CSR form, renumbering live slots densely in insertion order. Edges are bucketed by
+     * label first, so every node's range is ordered by label and keeps insertion order within a label.
+     */
+    private CompactGraph<T> buildCompact() {
+        int slotCount = index.slotCount();
+        int nodeCount = index.size();
+        int[] denseId = new int[slotCount];
+        NodeIndex<T> denseIndex = new NodeIndex<>(nodeCount);
+
+        for (int slot = 0; slot < slotCount; slot++) {
+            denseId[slot] = index.isLive(slot) ? denseIndex.intern(index.get(slot)) : -1;
+        }
+
+        int[] outOffsets = new int[nodeCount + 1];
+        int[] inOffsets = new int[nodeCount + 1];
+        int[] labelOffsets = new int[MAX_LABEL + 2];
+        for (int slot = 0; slot < slotCount; slot++) {
+            int id = denseId[slot];
+            if (id < 0) {
+                continue;
+            }
+            outOffsets[id + 1] = outOffsets[id] + outDegree[slot];
+            inOffsets[id + 1] = inOffsets[id] + inDegree[slot];
+            for (int e = 0; e < outDegree[slot]; e++) {
+                labelOffsets[outLabels[slot][e] + 1]++;
+            }
+        }
+        for (int label = 0; label <= MAX_LABEL; label++) {
+            labelOffsets[label + 1] += labelOffsets[label];
+        }
+
+        // Counting sort of all edges by label, stable in slot and insertion order
+        int[] sources = new int[edgeCount];
+        int[] targets = new int[edgeCount];
+        int[] fill = Arrays.copyOf(labelOffsets, MAX_LABEL + 1);
+        for (int slot = 0; slot < slotCount; slot++) {
+            for (int e = 0; e < outDegree[slot]; e++) {
+                int position = fill[outLabels[slot][e]]++;
+                sources[position] = denseId[slot];
+                targets[position] = denseId[outgoing[slot][e]];
+            }
+        }
 
-        for (T neighbor : getOutgoingEdges(current)) {
-            if (!visited.contains(neighbor)) {
-                currentPath.add(neighbor);
-                findAllPaths(neighbor, destination, visited, currentPath, result);
-                currentPath.remove(currentPath.size() - 1);
+        int[] outTargets = new int[edgeCount];
+        byte[] outEdgeLabels = new byte[edgeCount];
+        int[] inSources = new int[edgeCount];
+        byte[] inEdgeLabels = new byte[edgeCount];
+        int[] outFill = Arrays.copyOf(outOffsets, nodeCount);
+        int[] inFill = Arrays.copyOf(inOffsets, nodeCount);
+        for (int label = 0; label <= MAX_LABEL; label++) {
+            for (int position = labelOffsets[label]; position < labelOffsets[label + 1]; position++) {
+                int source = sources[position];
+                int target = targets[position];
+                outTargets[outFill[source]] = target;
+                outEdgeLabels[outFill[source]++] = (byte) label;
+                inSources[inFill[target]] = source;
+                inEdgeLabels[inFill[target]++] = (byte) label;
             }
         }
 
-        visited.remove(current);
+        return new CompactGraph<>(denseIndex, outOffsets, outTargets, outEdgeLabels, inOffsets, inSources, inEdgeLabels);
     }
 
     /**
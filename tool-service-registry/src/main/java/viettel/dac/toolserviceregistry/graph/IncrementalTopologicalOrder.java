@@ -0,0 +1,285 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maintains a topological order of a {@link DirectedGraph} while edges are added, so that the
+ * question "would this edge close a cycle?" can be answered without traversing the whole graph.
+ * <p>
+ * Uses the Pearce-Kelly algorithm: every node has a rank with {@code rank(u) < rank(v)} for each
+ * edge {@code u -> v}. An edge that agrees with the ranks can never close a cycle. Otherwise only the
+ * nodes ranked between its endpoints are searched, and just those are re-ranked on insertion.
+ * <p>
+ * If the graph already contains a cycle, there is no valid order. In that case queries fall back to
+ * an unbounded search until {@link #reset()} finds the graph acyclic again.
+ * Not thread-safe; callers must serialize access.
+ */
+public class IncrementalTopologicalOrder<T> {
+    private final DirectedGraph<T> graph;
+    private int[] rank;
+    private int rankedSlots;
+    private int nextRank;
+    private boolean acyclic;
+
+    /**
+     * Creates an order for the given graph. Later mutations must go through this instance.
+     *
+     * @param graph The graph to maintain an order for
+     */
+    public IncrementalTopologicalOrder(DirectedGraph<T> graph) {
+        this.graph = graph;
+        reset();
+    }
+
+    /**
+     * Recomputes the order of the whole graph.
+     */
+    public void reset() {
+        rank = new int[Math.max(graph.slotCount(), 16)];
+        rankedSlots = graph.slotCount();
+        nextRank = 0;
+
+        CompactGraph<T> compact = graph.compact();
+        try {
+            for (int id : compact.topologicalOrder()) {
+                rank[graph.slotOf(compact.node(id))] = nextRank++;
+            }
+            acyclic = true;
+        } catch (IllegalStateException e) {
+            for (int slot = 0; slot < rankedSlots; slot++) {
+                rank[slot] = nextRank++;
+            }
+            acyclic = false;
+        }
+    }
+
+    /**
+     * Gets the graph this order is maintained for. The graph must not be mutated directly.
+     *
+     * @return The graph
+     */
+    public DirectedGraph<T> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Checks if the order is valid, i.e. the graph is known to be acyclic.
+     *
+     * @return true if the graph is acyclic
+     */
+    public boolean isAcyclic() {
+        return acyclic;
+    }
+
+    /**
+     * Checks whether adding an edge would create a cycle.
+     *
+     * @param from The source node
+     * @param to The target node
+     * @return true if the edge would close a cycle
+     */
+    public boolean wouldCreateCycle(T from, T to) {
+        return wouldCreateCycle(List.of(from), to);
+    }
+
+    /**
+     * Checks whether adding an edge from each of the given sources to a common target would create a cycle.
+     *
+     * @param sources The source nodes
+     * @param target The target node
+     * @return true if any of the edges would close a cycle
+     */
+    public boolean wouldCreateCycle(Collection<T> sources, T target) {
+        if (sources.contains(target)) {
+            return true;
+        }
+
+        int targetSlot = graph.slotOf(target);
+        if (targetSlot < 0) {
+            return false;
+        }
+        ensureRanked();
+
+        // Only sources ranked after the target can be reached from it
+        BitSet candidates = new BitSet();
+        int upperBound = Integer.MIN_VALUE;
+        for (T source : sources) {
+            int slot = graph.slotOf(source);
+            if (slot >= 0 && (!acyclic || rank[slot] > rank[targetSlot])) {
+                candidates.set(slot);
+                upperBound = Math.max(upperBound, rank[slot]);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        return search(targetSlot, true, acyclic ? upperBound : Integer.MAX_VALUE, new BitSet(), candidates);
+    }
+
+    /**
+     * Adds a node to the graph.
+     *
+     * @param node The node to add
+     */
+    public void addNode(T node) {
+        graph.addNode(node);
+    }
+
+    /**
+     * Adds an edge to the graph and updates the order. Adding an edge that closes a cycle is allowed,
+     * but invalidates the order until the next {@link #reset()}.
+     *
+     * @param from The source node
+     * @param to The target node
+     */
+    public void addEdge(T from, T to) {
+        if (graph.containsEdge(from, to)) {
+            return;
+        }
+        graph.addEdge(from, to);
+        if (!acyclic) {
+            return;
+        }
+        ensureRanked();
+
+        int source = graph.slotOf(from);
+        int target = graph.slotOf(to);
+        int lowerBound = rank[target];
+        int upperBound = rank[source];
+        if (upperBound < lowerBound) {
+            return;
+        }
+
+        // Nodes reachable from the target that are ranked up to the source
+        BitSet forward = new BitSet();
+        BitSet sourceOnly = new BitSet();
+        sourceOnly.set(source);
+        if (source == target || search(target, true, upperBound, forward, sourceOnly)) {
+            acyclic = false;
+            return;
+        }
+
+        // Nodes reaching the source that are ranked from the target on
+        BitSet backward = new BitSet();
+        search(source, false, lowerBound, backward, new BitSet());
+
+        reorder(backward, forward);
+    }
+
+    /**
+     * Removes an edge from the graph. Removing edges never invalidates the order.
+     *
+     * @param from The source node
+     * @param to The target node
+     */
+    public void removeEdge(T from, T to) {
+        graph.removeEdge(from, to);
+    }
+
+    /**
+     * Removes a node and its edges from the graph.
+     *
+     * @param node The node to remove
+     */
+    public void removeNode(T node) {
+        graph.removeNode(node);
+    }
+
+    /**
+     * Depth-first search restricted to nodes whose rank is within the bound
+     * (at most the bound going forward, at least the bound going backward).
+     *
+     * @return true as soon as one of the goal slots is reached
+     */
+    private boolean search(int start, boolean forward, int bound, BitSet visited, BitSet goals) {
+        int[] stack = new int[16];
+        int depth = 0;
+        stack[depth++] = start;
+        visited.set(start);
+
+        while (depth > 0) {
+            int current = stack[--depth];
+            int[] next = forward ? graph.successorSlots(current) : graph.predecessorSlots(current);
+            int degree = forward ? graph.outDegreeOf(current) : graph.inDegreeOf(current);
+
+            for (int e = 0; e < degree; e++) {
+                int slot = next[e];
+                if (visited.get(slot)) {
+                    continue;
+                }
+                if (goals.get(slot)) {
+                    return true;
+                }
+                if (forward ? rank[slot] > bound : rank[slot] < bound) {
+                    continue;
+                }
+                visited.set(slot);
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = slot;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Moves the backward set before the forward set, reusing the ranks both sets occupied.
+     */
+    private void reorder(BitSet backward, BitSet forward) {
+        int[] backwardSlots = sortedByRank(backward);
+        int[] forwardSlots = sortedByRank(forward);
+
+        int[] ranks = new int[backwardSlots.length + forwardSlots.length];
+        int i = 0;
+        for (int slot : backwardSlots) {
+            ranks[i++] = rank[slot];
+        }
+        for (int slot : forwardSlots) {
+            ranks[i++] = rank[slot];
+        }
+        Arrays.sort(ranks);
+
+        i = 0;
+        for (int slot : backwardSlots) {
+            rank[slot] = ranks[i++];
+        }
+        for (int slot : forwardSlots) {
+            rank[slot] = ranks[i++];
+        }
+    }
+
+    private int[] sortedByRank(BitSet slots) {
+        long[] keyed = new long[slots.cardinality()];
+        int i = 0;
+        for (int slot = slots.nextSetBit(0); slot >= 0; slot = slots.nextSetBit(slot + 1)) {
+            keyed[i++] = ((long) rank[slot] << 32) | slot;
+        }
+        Arrays.sort(keyed);
+
+        int[] sorted = new int[keyed.length];
+        for (i = 0; i < keyed.length; i++) {
+            sorted[i] = (int) keyed[i];
+        }
+        return sorted;
+    }
+
+    /**
+     * Appends nodes added since the last call to the end of the order.
+     */
+    private void ensureRanked() {
+        int slotCount = graph.slotCount();
+        if (slotCount > rank.length) {
+            rank = Arrays.copyOf(rank, Math.max(rank.length * 2, slotCount));
+        }
+        while (rankedSlots < slotCount) {
+            rank[rankedSlots++] = nextRank++;
+        }
+    }
+}
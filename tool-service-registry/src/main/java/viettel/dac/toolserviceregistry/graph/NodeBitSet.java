@@ -0,0 +1,132 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Set of nodes of a {@link CompactGraph}, stored as a bitset over the graph's dense node ids.
+ * Set operations between node sets of the same graph work on machine words, so closures of many
+ * nodes can be combined without building hash sets of nodes. Instances are immutable.
+ */
+public final class NodeBitSet<T> {
+    private final CompactGraph<T> graph;
+    private final BitSet bits;
+
+    NodeBitSet(CompactGraph<T> graph, BitSet bits) {
+        this.graph = graph;
+        this.bits = bits;
+    }
+
+    /**
+     * Gets the number of nodes in the set.
+     *
+     * @return The number of nodes
+     */
+    public int size() {
+        return bits.cardinality();
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    /**
+     * Checks whether a node is in the set.
+     *
+     * @param node The node
+     * @return true if the node is in the set
+     */
+    public boolean contains(T node) {
+        int id = graph.indexOf(node);
+        return id >= 0 && bits.get(id);
+    }
+
+    /**
+     * Returns the nodes that are in this set or the other set.
+     *
+     * @param other A node set of the same graph
+     * @return The union
+     */
+    public NodeBitSet<T> union(NodeBitSet<T> other) {
+        BitSet result = copyBits(other);
+        result.or(other.bits);
+        return new NodeBitSet<>(graph, result);
+    }
+
+    /**
+     * Returns the nodes that are in both this set and the other set.
+     *
+     * @param other A node set of the same graph
+     * @return The intersection
+     */
+    public NodeBitSet<T> intersection(NodeBitSet<T> other) {
+        BitSet result = copyBits(other);
+        result.and(other.bits);
+        return new NodeBitSet<>(graph, result);
+    }
+
+    /**
+     * Returns the nodes that are in this set but not in the other set.
+     *
+     * @param other A node set of the same graph
+     * @return The difference
+     */
+    public NodeBitSet<T> difference(NodeBitSet<T> other) {
+        BitSet result = copyBits(other);
+        result.andNot(other.bits);
+        return new NodeBitSet<>(graph, result);
+    }
+
+    /**
+     * Gets the graph the node ids of this set refer to.
+     *
+     * @return The compact graph
+     */
+    public CompactGraph<T> getGraph() {
+        return graph;
+    }
+
+    /**
+     * Gets a copy of the underlying node ids.
+     *
+     * @return Bit set of node ids of {@link #getGraph()}
+     */
+    public BitSet toBitSet() {
+        return (BitSet) bits.clone();
+    }
+
+    /**
+     * Materializes the set as a mutable set of nodes.
+     *
+     * @return Set of nodes
+     */
+    public Set<T> toSet() {
+        Set<T> nodes = new HashSet<>(bits.cardinality() * 4 / 3 + 1);
+        for (int id = bits.nextSetBit(0); id >= 0; id = bits.nextSetBit(id + 1)) {
+            nodes.add(graph.node(id));
+        }
+        return nodes;
+    }
+
+    /**
+     * Materializes the set as a list of nodes in id order.
+     *
+     * @return List of nodes
+     */
+    public List<T> toList() {
+        return graph.toNodes(bits);
+    }
+
+    BitSet bits() {
+        return bits;
+    }
+
+    private BitSet copyBits(NodeBitSet<T> other) {
+        if (other.graph != graph) {
+            throw new IllegalArgumentException("Node sets belong to different graph versions");
+        }
+        return (BitSet) bits.clone();
+    }
+}
@@ -0,0 +1,124 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns graph nodes to dense integer ids so adjacency can be stored in primitive arrays.
+ * Ids are assigned in insertion order and a node keeps its id for the lifetime of the index: a removed
+ * node leaves an empty slot, which is filled again if the same node is added back.
+ * <p>
+ * Because ids never change, a {@link #freeze() frozen} copy can share the id map and slot array with
+ * the index it was taken from. The writer copies the slot array before changing a slot the copy can
+ * see, and appends beyond it in place.
+ */
+final class NodeIndex<T> implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private Object[] nodes;
+    private final Map<T, Integer> ids;
+    private int slotCount;
+    private int size;
+    private int sharedSlots;
+
+    NodeIndex(int expectedSize) {
+        this.nodes = new Object[Math.max(expectedSize, 16)];
+        this.ids = new ConcurrentHashMap<>(Math.max(expectedSize * 4 / 3 + 1, 16));
+    }
+
+    NodeIndex(NodeIndex<T> other) {
+        this.nodes = Arrays.copyOf(other.nodes, other.nodes.length);
+        this.ids = new ConcurrentHashMap<>(other.ids);
+        this.slotCount = other.slotCount;
+        this.size = other.size;
+    }
+
+    private NodeIndex(Object[] nodes, Map<T, Integer> ids, int slotCount, int size) {
+        this.nodes = nodes;
+        this.ids = ids;
+        this.slotCount = slotCount;
+        this.size = size;
+    }
+
+    /**
+     * Returns a read-only copy of the index that shares its storage with this one.
+     */
+    NodeIndex<T> freeze() {
+        sharedSlots = slotCount;
+        return new NodeIndex<>(nodes, ids, slotCount, size);
+    }
+
+    /**
+     * Returns the id of the node, assigning a new one if the node is not indexed yet.
+     */
+    int intern(T node) {
+        Integer id = ids.get(node);
+        if (id != null) {
+            if (nodes[id] == null) {
+                detach(id);
+                nodes[id] = node;
+                size++;
+            }
+            return id;
+        }
+
+        if (slotCount == nodes.length) {
+            nodes = Arrays.copyOf(nodes, nodes.length * 2);
+        }
+
+        int newId = slotCount++;
+        nodes[newId] = node;
+        ids.put(node, newId);
+        size++;
+        return newId;
+    }
+
+    /**
+     * Returns the id of the node, or -1 if it is not indexed.
+     */
+    int indexOf(Object node) {
+        if (node == null) {
+            return -1;
+        }
+        Integer id = ids.get(node);
+        return id != null && id < slotCount && nodes[id] != null ? id : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(int id) {
+        return (T) nodes[id];
+    }
+
+    boolean isLive(int id) {
+        return nodes[id] != null;
+    }
+
+    void remove(int id) {
+        detach(id);
+        nodes[id] = null;
+        size--;
+    }
+
+    /**
+     * Number of slots handed out so far, including slots of removed nodes.
+     */
+    int slotCount() {
+        return slotCount;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Copies the slot array before a slot visible to a frozen copy is changed.
+     */
+    private void detach(int id) {
+        if (id < sharedSlots) {
+            nodes = nodes.clone();
+            sharedSlots = 0;
+        }
+    }
+}
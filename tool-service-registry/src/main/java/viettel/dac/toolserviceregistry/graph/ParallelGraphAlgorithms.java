@@ -0,0 +1,314 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Whole-graph algorithms over a {@link CompactGraph} that run on a {@link ForkJoinPool} once the
+ * graph reaches a node-count threshold. Smaller graphs are processed on the calling thread, where
+ * the cost of forking would outweigh the work.
+ * <p>
+ * Traversals are level-synchronous: all nodes of one frontier are expanded in parallel, and nodes
+ * are claimed for the next frontier with atomic operations, so each node is expanded exactly once.
+ * Results do not depend on the number of threads.
+ */
+public final class ParallelGraphAlgorithms {
+    /** Smallest number of frontier nodes or node ids handled by one task. */
+    private static final int GRAIN = 1024;
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Creates the algorithms on the given pool.
+     *
+     * @param pool The pool parallel work runs on
+     * @param threshold The node count from which graphs are processed in parallel
+     */
+    public ParallelGraphAlgorithms(ForkJoinPool pool, int threshold) {
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Gets the pool parallel work runs on.
+     *
+     * @return The pool
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Checks whether a graph is large enough to be processed in parallel.
+     *
+     * @param graph The graph
+     * @return true if the graph has at least the threshold number of nodes
+     */
+    public boolean isParallel(CompactGraph<?> graph) {
+        return pool.getParallelism() > 1 && graph.nodeCount() >= threshold;
+    }
+
+    /**
+     * Computes the in-degree or out-degree of every node.
+     *
+     * @param graph The graph
+     * @param incoming true for in-degrees, false for out-degrees
+     * @return Degree per node id
+     */
+    public int[] degrees(CompactGraph<?> graph, boolean incoming) {
+        int[] offsets = incoming ? graph.inOffsets : graph.outOffsets;
+        int[] ends = incoming ? graph.inEnds : graph.outEnds;
+        int[] degrees = new int[graph.nodeCount()];
+        RangeBody body = (from, to) -> {
+            for (int id = from; id < to; id++) {
+                degrees[id] = ends[id] - offsets[id];
+            }
+        };
+
+        if (isParallel(graph)) {
+            pool.invoke(new RangeAction(0, degrees.length, body));
+        } else {
+            body.process(0, degrees.length);
+        }
+        return degrees;
+    }
+
+    /**
+     * Breadth-first search from several sources, computing the distance of every reached node.
+     *
+     * @param graph The graph
+     * @param sources The ids of the source nodes, which are at level 0
+     * @param reverse Whether to follow edges backwards
+     * @param maxDepth The maximum level to explore, or 0 for no limit
+     * @return Level per node id, -1 for nodes that were not reached
+     */
+    public int[] levels(CompactGraph<?> graph, BitSet sources, boolean reverse, int maxDepth) {
+        int[] offsets = reverse ? graph.inOffsets : graph.outOffsets;
+        int[] ends = reverse ? graph.inEnds : graph.outEnds;
+        int[] edges = reverse ? graph.inSources : graph.outTargets;
+        int[] levels = new int[graph.nodeCount()];
+        Arrays.fill(levels, -1);
+        AtomicLongArray visited = new AtomicLongArray((graph.nodeCount() + 63) >>> 6);
+
+        int[] frontier = sources.stream().toArray();
+        for (int id : frontier) {
+            levels[id] = 0;
+            visited.set(id >>> 6, visited.get(id >>> 6) | (1L << id));
+        }
+
+        boolean parallel = isParallel(graph);
+        for (int level = 1; frontier.length > 0 && (maxDepth <= 0 || level <= maxDepth); level++) {
+            int current = level;
+            frontier = expand(frontier, parallel, (node, next) -> {
+                for (int e = offsets[node]; e < ends[node]; e++) {
+                    int neighbor = edges[e];
+                    if (claim(visited, neighbor)) {
+                        levels[neighbor] = current;
+                        next.add(neighbor);
+                    }
+                }
+            });
+        }
+
+        return levels;
+    }
+
+    /**
+     * Partitions the graph into layers with Kahn's algorithm. Layer 0 holds the nodes without incoming
+     * edges; every other node is in the layer after the last of its predecessors, so the nodes of one
+     * layer do not depend on each other.
+     *
+     * @param graph The graph
+     * @return Node ids per layer, each layer sorted by id
+     * @throws IllegalStateException if the graph contains a cycle
+     */
+    public int[][] layers(CompactGraph<?> graph) {
+        int n = graph.nodeCount();
+        AtomicIntegerArray remaining = new AtomicIntegerArray(degrees(graph, true));
+
+        IntBuffer sources = new IntBuffer();
+        for (int id = 0; id < n; id++) {
+            if (remaining.get(id) == 0) {
+                sources.add(id);
+            }
+        }
+
+        boolean parallel = isParallel(graph);
+        List<int[]> layers = new ArrayList<>();
+        int placed = 0;
+        int[] frontier = sources.toArray();
+        while (frontier.length > 0) {
+            Arrays.sort(frontier);
+            layers.add(frontier);
+            placed += frontier.length;
+            frontier = expand(frontier, parallel, (node, next) -> {
+                for (int e = graph.outOffsets[node]; e < graph.outEnds[node]; e++) {
+                    int target = graph.outTargets[e];
+                    if (remaining.decrementAndGet(target) == 0) {
+                        next.add(target);
+                    }
+                }
+            });
+        }
+
+        if (placed != n) {
+            throw new IllegalStateException("Cycle detected in graph, cannot perform topological sort");
+        }
+        return layers.toArray(new int[0][]);
+    }
+
+    /**
+     * Partitions the graph into layers of nodes, see {@link #layers(CompactGraph)}.
+     *
+     * @param graph The graph
+     * @return Nodes per layer
+     * @throws IllegalStateException if the graph contains a cycle
+     */
+    public <T> List<List<T>> nodeLayers(CompactGraph<T> graph) {
+        int[][] layers = layers(graph);
+        List<List<T>> result = new ArrayList<>(layers.length);
+        for (int[] layer : layers) {
+            List<T> nodes = new ArrayList<>(layer.length);
+            for (int id : layer) {
+                nodes.add(graph.node(id));
+            }
+            result.add(nodes);
+        }
+        return result;
+    }
+
+    /**
+     * Expands every node of a frontier and collects the nodes it claims into the next frontier.
+     */
+    private int[] expand(int[] frontier, boolean parallel, Expander expander) {
+        if (!parallel || frontier.length < 2 * GRAIN) {
+            IntBuffer next = new IntBuffer();
+            for (int node : frontier) {
+                expander.expand(node, next);
+            }
+            return next.toArray();
+        }
+        return pool.invoke(new FrontierTask(frontier, 0, frontier.length, expander)).toArray();
+    }
+
+    private static boolean claim(AtomicLongArray visited, int id) {
+        int word = id >>> 6;
+        long bit = 1L << id;
+        while (true) {
+            long current = visited.get(word);
+            if ((current & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, current, current | bit)) {
+                return true;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Expander {
+        void expand(int node, IntBuffer next);
+    }
+
+    /**
+     * Splits a frontier range in halves until it is small, then expands it sequentially.
+     */
+    private static final class FrontierTask extends RecursiveTask<IntBuffer> {
+        private final int[] frontier;
+        private final int from;
+        private final int to;
+        private final Expander expander;
+
+        FrontierTask(int[] frontier, int from, int to, Expander expander) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.expander = expander;
+        }
+
+        @Override
+        protected IntBuffer compute() {
+            if (to - from <= GRAIN) {
+                IntBuffer next = new IntBuffer();
+                for (int i = from; i < to; i++) {
+                    expander.expand(frontier[i], next);
+                }
+                return next;
+            }
+
+            int middle = (from + to) >>> 1;
+            FrontierTask left = new FrontierTask(frontier, from, middle, expander);
+            left.fork();
+            IntBuffer right = new FrontierTask(frontier, middle, to, expander).compute();
+            IntBuffer result = left.join();
+            result.addAll(right);
+            return result;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeBody {
+        void process(int from, int to);
+    }
+
+    /**
+     * Splits a range of node ids in halves until it is small, then processes it sequentially.
+     */
+    private static final class RangeAction extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final RangeBody body;
+
+        RangeAction(int from, int to, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                body.process(from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, middle, body), new RangeAction(middle, to, body));
+        }
+    }
+
+    /**
+     * Growable list of primitive ints.
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(IntBuffer other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
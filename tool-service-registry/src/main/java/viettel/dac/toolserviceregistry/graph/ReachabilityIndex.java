@@ -0,0 +1,269 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import java.util.BitSet;
+
+/**
+ * Reachability index over the condensation of a {@link CompactGraph}.
+ * <p>
+ * Strongly connected components are collapsed into single vertices of a DAG. For every component
+ * the set of components it reaches (descendants) and is reached from (ancestors) is stored as a
+ * bitset, computed in one pass over the components in topological order. Queries such as
+ * "does A reach B" and "how many nodes does A reach" are then a bit test or a lookup; closures are
+ * unions of precomputed words.
+ * <p>
+ * Each direction is computed on first use. Instances are immutable once computed and are cached by
+ * the {@link CompactGraph} they belong to, so they are rebuilt whenever the graph changes.
+ */
+public final class ReachabilityIndex {
+    private final CompactGraph<?> graph;
+    private final int[] componentOf;
+    private final int componentCount;
+    private final int[] memberOffsets;
+    private final int[] members;
+    private final boolean[] cyclic;
+
+    private volatile long[][] descendants;
+    private volatile int[] descendantCounts;
+    private volatile long[][] ancestors;
+    private volatile int[] ancestorCounts;
+
+    ReachabilityIndex(CompactGraph<?> graph) {
+        this.graph = graph;
+        this.componentOf = graph.stronglyConnectedComponents();
+
+        int count = 0;
+        for (int component : componentOf) {
+            count = Math.max(count, component + 1);
+        }
+        this.componentCount = count;
+
+        // Group node ids by component
+        memberOffsets = new int[componentCount + 1];
+        for (int component : componentOf) {
+            memberOffsets[component + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        members = new int[componentOf.length];
+        int[] fill = new int[componentCount];
+        for (int id = 0; id < componentOf.length; id++) {
+            int component = componentOf[id];
+            members[memberOffsets[component] + fill[component]++] = id;
+        }
+
+        // A component is cyclic if it has several nodes or a self-loop
+        cyclic = new boolean[componentCount];
+        for (int id = 0; id < componentOf.length; id++) {
+            int component = componentOf[id];
+            if (memberOffsets[component + 1] - memberOffsets[component] > 1) {
+                cyclic[component] = true;
+                continue;
+            }
+            for (int e = graph.outOffsets[id]; e < graph.outEnds[id]; e++) {
+                if (graph.outTargets[e] == id) {
+                    cyclic[component] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the component of a node.
+     *
+     * @param id The node id
+     * @return The component number
+     */
+    public int componentOf(int id) {
+        return componentOf[id];
+    }
+
+    /**
+     * Gets the number of strongly connected components.
+     *
+     * @return The number of components
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Checks whether there is a path of at least one edge from one node to another.
+     *
+     * @param from The source node id
+     * @param to The target node id
+     * @return true if {@code to} is reachable from {@code from}
+     */
+    public boolean reaches(int from, int to) {
+        int source = componentOf[from];
+        int target = componentOf[to];
+        if (source == target) {
+            return cyclic[source];
+        }
+        // Components are numbered in topological order, so a later component never reaches an earlier one
+        if (source > target) {
+            return false;
+        }
+        long[] words = descendantWords()[source];
+        return (words[target >>> 6] & (1L << target)) != 0;
+    }
+
+    /**
+     * Gets the number of nodes reachable from a node.
+     *
+     * @param id The node id
+     * @return The size of the transitive closure of the node
+     */
+    public int descendantCount(int id) {
+        int component = componentOf[id];
+        return descendantCounts()[component] + (cyclic[component] ? componentSize(component) : 0);
+    }
+
+    /**
+     * Gets the number of nodes that can reach a node.
+     *
+     * @param id The node id
+     * @return The size of the reverse transitive closure of the node
+     */
+    public int ancestorCount(int id) {
+        int component = componentOf[id];
+        return ancestorCounts()[component] + (cyclic[component] ? componentSize(component) : 0);
+    }
+
+    /**
+     * Gets all nodes reachable from any of the source nodes.
+     * Matches {@link CompactGraph#reachableFrom(BitSet, boolean)} with {@code reverse = false}.
+     *
+     * @param sources The ids of the source nodes
+     * @return Bit set of reachable node ids
+     */
+    public BitSet descendants(BitSet sources) {
+        return expand(sources, descendantWords());
+    }
+
+    /**
+     * Gets all nodes that can reach any of the target nodes.
+     * Matches {@link CompactGraph#reachableFrom(BitSet, boolean)} with {@code reverse = true}.
+     *
+     * @param targets The ids of the target nodes
+     * @return Bit set of node ids that reach a target
+     */
+    public BitSet ancestors(BitSet targets) {
+        return expand(targets, ancestorWords());
+    }
+
+    private BitSet expand(BitSet nodes, long[][] closure) {
+        long[] components = new long[words()];
+        for (int id = nodes.nextSetBit(0); id >= 0; id = nodes.nextSetBit(id + 1)) {
+            int component = componentOf[id];
+            long[] reached = closure[component];
+            for (int w = 0; w < components.length; w++) {
+                components[w] |= reached[w];
+            }
+            if (cyclic[component]) {
+                components[component >>> 6] |= 1L << component;
+            }
+        }
+
+        BitSet result = new BitSet(componentOf.length);
+        BitSet reachedComponents = BitSet.valueOf(components);
+        for (int c = reachedComponents.nextSetBit(0); c >= 0; c = reachedComponents.nextSetBit(c + 1)) {
+            for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                result.set(members[m]);
+            }
+        }
+        return result;
+    }
+
+    private int componentSize(int component) {
+        return memberOffsets[component + 1] - memberOffsets[component];
+    }
+
+    private int words() {
+        return (componentCount + 63) >>> 6;
+    }
+
+    private long[][] descendantWords() {
+        long[][] result = descendants;
+        if (result == null) {
+            synchronized (this) {
+                result = descendants;
+                if (result == null) {
+                    int[] counts = new int[componentCount];
+                    result = closure(false, counts);
+                    descendantCounts = counts;
+                    descendants = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private int[] descendantCounts() {
+        descendantWords();
+        return descendantCounts;
+    }
+
+    private long[][] ancestorWords() {
+        long[][] result = ancestors;
+        if (result == null) {
+            synchronized (this) {
+                result = ancestors;
+                if (result == null) {
+                    int[] counts = new int[componentCount];
+                    result = closure(true, counts);
+                    ancestorCounts = counts;
+                    ancestors = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private int[] ancestorCounts() {
+        ancestorWords();
+        return ancestorCounts;
+    }
+
+    /**
+     * Computes, per component, the set of strictly reachable components (excluding itself) and the
+     * number of nodes in them. Components are visited so that every neighbour is finished first.
+     */
+    private long[][] closure(boolean reverse, int[] counts) {
+        int[] offsets = reverse ? graph.inOffsets : graph.outOffsets;
+        int[] ends = reverse ? graph.inEnds : graph.outEnds;
+        int[] edges = reverse ? graph.inSources : graph.outTargets;
+        int words = words();
+        long[][] closure = new long[componentCount][];
+
+        for (int i = 0; i < componentCount; i++) {
+            int component = reverse ? i : componentCount - 1 - i;
+            long[] reached = new long[words];
+
+            for (int m = memberOffsets[component]; m < memberOffsets[component + 1]; m++) {
+                int id = members[m];
+                for (int e = offsets[id]; e < ends[id]; e++) {
+                    int next = componentOf[edges[e]];
+                    if (next == component || (reached[next >>> 6] & (1L << next)) != 0) {
+                        continue;
+                    }
+                    reached[next >>> 6] |= 1L << next;
+                    long[] nextReached = closure[next];
+                    for (int w = 0; w < words; w++) {
+                        reached[w] |= nextReached[w];
+                    }
+                }
+            }
+
+            closure[component] = reached;
+            int count = 0;
+            BitSet reachedComponents = BitSet.valueOf(reached);
+            for (int c = reachedComponents.nextSetBit(0); c >= 0; c = reachedComponents.nextSetBit(c + 1)) {
+                count += componentSize(c);
+            }
+            counts[component] = count;
+        }
+
+        return closure;
+    }
+}
@@ -25,6 +25,7 @@ public class DependencyAnalysisDTO {
     private boolean hasCycles;
     private int cyclesCount;
     private List<List<String>> cycles;
+    private boolean cyclesTruncated;
     private int requiredDependencyCount;
     private int optionalDependencyCount;
     private List<Map<String, Object>> criticalDependencies;
@@ -18,7 +18,7 @@ import java.util.*;
 @NoArgsConstructor
 @AllArgsConstructor
 public class ExecutionPlanView implements Serializable {
-    private static final long serialVersionUID = 2L;
+    private static final long serialVersionUID = 3L;
 
     /**
      * Ordered list of tool IDs to execute
@@ -49,6 +49,24 @@ public class ExecutionPlanView implements Serializable {
     @Builder.Default
     private List<Set<String>> parallelExecutionGroups = new ArrayList<>();
 
+    /**
+     * Map of tool ID to its earliest start in milliseconds after the plan starts
+     */
+    @Builder.Default
+    private Map<String, Long> earliestStartTimes = new HashMap<>();
+
+    /**
+     * Map of tool ID to how many milliseconds it can start late without delaying the plan
+     */
+    @Builder.Default
+    private Map<String, Long> slackTimes = new HashMap<>();
+
+    /**
+     * Longest chain of dependent tools, in execution order
+     */
+    @Builder.Default
+    private List<String> criticalPath = new ArrayList<>();
+
     /**
      * Version of the execution plan
      */
@@ -65,7 +83,7 @@ public class ExecutionPlanView implements Serializable {
     private boolean optimized;
 
     /**
-     * Estimated execution time in milliseconds
+     * Estimated execution time in milliseconds, i.e. the duration of the critical path
      */
     private long estimatedExecutionTime;
 
@@ -116,4 +134,58 @@ public class ExecutionPlanView implements Serializable {
         Set<ParameterRequirement> requirements = missingParameters.get(toolId);
         return requirements != null && !requirements.isEmpty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Creates a deep copy of the plan, so that changes to the copy do not affect a cached or stored plan.
+     *
+     * @return The copy
+     */
+    public ExecutionPlanView copy() {
+        Map<String, Set<ParameterRequirement>> missingCopy = new HashMap<>();
+        if (missingParameters != null) {
+            missingParameters.forEach((toolId, requirements) -> {
+                Set<ParameterRequirement> copies = new HashSet<>();
+                for (ParameterRequirement requirement : requirements) {
+                    copies.add(new ParameterRequirement(requirement.getName(), requirement.isRequired(),
+                            requirement.getPriority(), requirement.getDescription(), requirement.getExamples(),
+                            requirement.getDefaultValue()));
+                }
+                missingCopy.put(toolId, copies);
+            });
+        }
+
+        Map<String, List<ParameterMappingDTO>> mappingsCopy = new HashMap<>();
+        if (parameterMappings != null) {
+            parameterMappings.forEach((toolId, mappings) -> {
+                List<ParameterMappingDTO> copies = new ArrayList<>(mappings.size());
+                for (ParameterMappingDTO mapping : mappings) {
+                    copies.add(new ParameterMappingDTO(mapping.getId(), mapping.getSourceParameter(),
+                            mapping.getTargetParameter()));
+                }
+                mappingsCopy.put(toolId, copies);
+            });
+        }
+
+        List<Set<String>> groupsCopy = new ArrayList<>();
+        if (parallelExecutionGroups != null) {
+            for (Set<String> group : parallelExecutionGroups) {
+                groupsCopy.add(new LinkedHashSet<>(group));
+            }
+        }
+
+        return ExecutionPlanView.builder()
+                .toolsInOrder(toolsInOrder != null ? new ArrayList<>(toolsInOrder) : new ArrayList<>())
+                .missingParameters(missingCopy)
+                .parameterMappings(mappingsCopy)
+                .hasMissingRequiredParameters(hasMissingRequiredParameters)
+                .parallelExecutionGroups(groupsCopy)
+                .earliestStartTimes(earliestStartTimes != null ? new HashMap<>(earliestStartTimes) : new HashMap<>())
+                .slackTimes(slackTimes != null ? new HashMap<>(slackTimes) : new HashMap<>())
+                .criticalPath(criticalPath != null ? new ArrayList<>(criticalPath) : new ArrayList<>())
+                .version(version)
+                .generatedAt(generatedAt)
+                .optimized(optimized)
+                .estimatedExecutionTime(estimatedExecutionTime)
+                .build();
+    }
+}
@@ -0,0 +1,39 @@
+package viettel.dac.toolserviceregistry.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.toolserviceregistry.model.enums.ExecutionStatus;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * DTO representing the outcome of running an execution plan.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanExecutionResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String executionId;
+
+    private ExecutionStatus status;
+
+    /**
+     * Map of tool ID to its outcome, in the execution order of the plan
+     */
+    @Builder.Default
+    private Map<String, ToolExecutionResult> toolResults = new LinkedHashMap<>();
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime completedAt;
+
+    private long durationMs;
+}
@@ -0,0 +1,39 @@
+package viettel.dac.toolserviceregistry.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * DTO representing the validation outcome of one row of a validation stream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RowValidationResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Line number of the row in the input, starting at 1
+     */
+    private long row;
+
+    private boolean valid;
+
+    /**
+     * Map of parameter name to its failed validation, or null if the row is valid
+     */
+    private Map<String, ValidationResult> errors;
+
+    /**
+     * Failure of the row as a whole, such as a row that is not a JSON object
+     */
+    private ValidationResult rowError;
+}
@@ -0,0 +1,43 @@
+package viettel.dac.toolserviceregistry.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.toolserviceregistry.model.enums.ExecutionStatus;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * DTO representing the outcome of one tool in an execution plan run.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ToolExecutionResult implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String toolId;
+
+    private ExecutionStatus status;
+
+    /**
+     * HTTP status of the last call, if the tool was called
+     */
+    private Integer statusCode;
+
+    /**
+     * Parameters the tool passes on to its dependents: its inputs and the parameters extracted from its response
+     */
+    @Builder.Default
+    private Map<String, Object> outputs = new HashMap<>();
+
+    private String error;
+
+    private int attempts;
+
+    private long durationMs;
+}
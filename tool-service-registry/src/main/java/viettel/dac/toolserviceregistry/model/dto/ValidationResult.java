@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import viettel.dac.toolserviceregistry.model.enums.ValidationErrorType;
 
 import java.io.Serializable;
 
@@ -18,4 +19,5 @@ public class ValidationResult implements Serializable {
     private static final long serialVersionUID = 1L;
     private boolean valid;
     private String message;
+    private ValidationErrorType errorType;
 }
\ No newline at end of file
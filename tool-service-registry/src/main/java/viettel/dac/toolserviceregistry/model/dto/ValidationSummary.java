@@ -0,0 +1,36 @@
+package viettel.dac.toolserviceregistry.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.toolserviceregistry.model.enums.ValidationErrorType;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * DTO representing the totals of a validation stream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidationSummary implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private long rows;
+
+    private long validRows;
+
+    private long invalidRows;
+
+    /**
+     * Number of failed parameter validations by error type
+     */
+    @Builder.Default
+    private Map<ValidationErrorType, Long> errorCounts = new EnumMap<>(ValidationErrorType.class);
+
+    private long durationMs;
+}
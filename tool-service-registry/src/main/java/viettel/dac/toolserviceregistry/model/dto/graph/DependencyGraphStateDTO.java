@@ -0,0 +1,40 @@
+package viettel.dac.toolserviceregistry.model.dto.graph;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.toolserviceregistry.model.event.GraphEdge;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Source state of the dependency graph as shared between service instances through Redis:
+ * every tool, which of them are active, and every stored dependency.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DependencyGraphStateDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Graph generation the state was loaded at
+     */
+    private long generation;
+
+    @Builder.Default
+    private List<String> toolIds = new ArrayList<>();
+
+    @Builder.Default
+    private List<String> activeToolIds = new ArrayList<>();
+
+    /**
+     * Dependencies as edges from the dependency tool to the dependent tool
+     */
+    @Builder.Default
+    private List<GraphEdge> dependencies = new ArrayList<>();
+}
@@ -0,0 +1,11 @@
+package viettel.dac.toolserviceregistry.model.enums;
+
+/**
+ * Enum for the progress events of an execution plan run.
+ */
+public enum ExecutionProgressEventType {
+    PLAN_STARTED,
+    TOOL_STARTED,
+    TOOL_FINISHED,
+    PLAN_COMPLETED
+}
@@ -0,0 +1,13 @@
+package viettel.dac.toolserviceregistry.model.enums;
+
+/**
+ * Enum for the status of an execution plan run and of the tools in it.
+ */
+public enum ExecutionStatus {
+    PENDING,      // Waiting for its dependencies
+    RUNNING,      // Call in flight
+    SUCCEEDED,    // Call returned a successful response
+    FAILED,       // Call failed or returned an error status
+    SKIPPED,      // Not an API tool, so not executed by the registry; dependents still run
+    CANCELLED     // Not executed because a dependency failed
+}
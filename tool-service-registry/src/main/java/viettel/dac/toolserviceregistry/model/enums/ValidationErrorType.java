@@ -0,0 +1,16 @@
+package viettel.dac.toolserviceregistry.model.enums;
+
+/**
+ * Enum for the kind of failure of a parameter validation.
+ */
+public enum ValidationErrorType {
+    MISSING_REQUIRED,   // Required value is missing or empty
+    INVALID_TYPE,       // Value is not of the parameter type
+    INVALID_FORMAT,     // Value does not have the format of the parameter type
+    INVALID_LENGTH,     // Value is shorter or longer than allowed
+    OUT_OF_RANGE,       // Number is below the minimum or above the maximum
+    NOT_ALLOWED,        // Value is not one of the allowed values
+    PATTERN_MISMATCH,   // Value does not match the validation pattern
+    VALIDATION_ERROR,   // Validation itself failed, e.g. on an invalid pattern
+    MALFORMED_ROW       // Row of a validation stream is not a JSON object
+}
@@ -0,0 +1,58 @@
+package viettel.dac.toolserviceregistry.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.toolserviceregistry.model.dto.PlanExecutionResult;
+import viettel.dac.toolserviceregistry.model.dto.ToolExecutionResult;
+import viettel.dac.toolserviceregistry.model.enums.ExecutionProgressEventType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event reporting the progress of an execution plan run. The events of one run are emitted in
+ * sequence order and keyed by the execution ID.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionProgressEvent extends BaseEvent {
+    /**
+     * ID of the run
+     */
+    private String executionId;
+
+    /**
+     * Position of the event among the events of the run, starting at 0
+     */
+    private long sequence;
+
+    /**
+     * Tools of the plan in execution order, on PLAN_STARTED
+     */
+    private List<String> toolsInOrder = new ArrayList<>();
+
+    /**
+     * Outcome of a tool, on TOOL_STARTED and TOOL_FINISHED
+     */
+    private ToolExecutionResult toolResult;
+
+    /**
+     * Outcome of the run, on PLAN_COMPLETED
+     */
+    private PlanExecutionResult result;
+
+    /**
+     * Constructor for ExecutionProgressEvent.
+     *
+     * @param type The type of the event
+     * @param executionId The ID of the run
+     * @param sequence The position of the event in the run
+     */
+    public ExecutionProgressEvent(ExecutionProgressEventType type, String executionId, long sequence) {
+        super(type.name());
+        this.executionId = executionId;
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,58 @@
+package viettel.dac.toolserviceregistry.model.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event describing one change of the dependency graph as a delta against the previous version.
+ * Consumers apply deltas in version order; on a gap they resync from the latest {@link GraphSnapshotEvent}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphDeltaEvent extends BaseEvent {
+    /**
+     * ID of the tool whose change caused the delta
+     */
+    private String toolId;
+
+    /**
+     * ID of the service instance that applied the change
+     */
+    private String sourceInstanceId;
+
+    /**
+     * Monotonic graph version after the change, -1 if unknown
+     */
+    private long graphVersion;
+
+    private List<String> addedNodes = new ArrayList<>();
+
+    private List<String> removedNodes = new ArrayList<>();
+
+    /**
+     * Edges that were added or whose type changed
+     */
+    private List<GraphEdge> addedEdges = new ArrayList<>();
+
+    private List<GraphEdge> removedEdges = new ArrayList<>();
+
+    /**
+     * Whether the tool was deleted
+     */
+    private boolean toolDeleted;
+
+    /**
+     * Whether the tool is active after the change
+     */
+    private boolean toolActive;
+
+    /**
+     * All stored dependencies of the tool after the change, including those of an inactive tool
+     */
+    private List<GraphEdge> toolDependencies = new ArrayList<>();
+}
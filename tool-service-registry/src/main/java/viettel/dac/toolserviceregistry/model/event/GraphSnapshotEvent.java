@@ -1,7 +1,6 @@
 package viettel.dac.toolserviceregistry.model.event;
 
 import lombok.AllArgsConstructor;
-import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -9,18 +8,19 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Event representing a dependency graph update.
+ * Full dependency graph at a given version, published to a log-compacted topic under a single key
+ * so that the topic always retains the latest snapshot.
  */
 @Data
-@Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class GraphUpdateEvent extends BaseEvent {
-    private String toolId;
+public class GraphSnapshotEvent extends BaseEvent {
+    /**
+     * Graph version the snapshot corresponds to
+     */
+    private long graphVersion;
 
-    @Builder.Default
     private List<String> nodes = new ArrayList<>();
 
-    @Builder.Default
     private List<GraphEdge> edges = new ArrayList<>();
 }
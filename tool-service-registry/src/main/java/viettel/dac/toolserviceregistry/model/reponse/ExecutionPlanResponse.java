@@ -41,6 +41,29 @@ public class ExecutionPlanResponse extends BaseEvent {
     @Builder.Default
     private List<Set<String>> parallelExecutionGroups = new ArrayList<>();
 
+    /**
+     * Map of tool ID to its earliest start in milliseconds after the plan starts
+     */
+    @Builder.Default
+    private Map<String, Long> earliestStartTimes = new HashMap<>();
+
+    /**
+     * Map of tool ID to how many milliseconds it can start late without delaying the plan
+     */
+    @Builder.Default
+    private Map<String, Long> slackTimes = new HashMap<>();
+
+    /**
+     * Longest chain of dependent tools, in execution order
+     */
+    @Builder.Default
+    private List<String> criticalPath = new ArrayList<>();
+
+    /**
+     * Estimated execution time in milliseconds
+     */
+    private long estimatedExecutionTime;
+
     /**
      * Version of the execution plan
      */
@@ -50,4 +73,9 @@ public class ExecutionPlanResponse extends BaseEvent {
      * Flag indicating whether the plan has been optimized
      */
     private boolean optimized;
+
+    /**
+     * Error message if no plan could be generated for the request, in which case the plan fields are empty
+     */
+    private String error;
 }
\ No newline at end of file
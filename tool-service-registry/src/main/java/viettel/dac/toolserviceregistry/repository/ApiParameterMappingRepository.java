@@ -1,9 +1,12 @@
 package viettel.dac.toolserviceregistry.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import viettel.dac.toolserviceregistry.model.entity.ApiParameterMapping;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,6 +24,16 @@ public interface ApiParameterMappingRepository extends JpaRepository<ApiParamete
      */
     List<ApiParameterMapping> findByApiToolMetadataId(String apiMetadataId);
 
+    /**
+     * Find mappings for several API tool metadata, with their tool parameters.
+     *
+     * @param apiMetadataIds The IDs of the API metadata
+     * @return List of parameter mappings
+     */
+    @Query("SELECT m FROM ApiParameterMapping m JOIN FETCH m.toolParameter JOIN FETCH m.apiToolMetadata " +
+            "WHERE m.apiToolMetadata.id IN :apiMetadataIds")
+    List<ApiParameterMapping> findByApiToolMetadataIdIn(@Param("apiMetadataIds") Collection<String> apiMetadataIds);
+
     /**
      * Find mappings for a tool parameter.
      *
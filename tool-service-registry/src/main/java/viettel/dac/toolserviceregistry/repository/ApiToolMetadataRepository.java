@@ -4,6 +4,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import viettel.dac.toolserviceregistry.model.entity.ApiToolMetadata;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -19,4 +21,12 @@ public interface ApiToolMetadataRepository extends JpaRepository<ApiToolMetadata
      * @return An Optional containing the API metadata if found
      */
     Optional<ApiToolMetadata> findByToolId(String toolId);
+
+    /**
+     * Find API metadata for a set of tools.
+     *
+     * @param toolIds The IDs of the tools
+     * @return List of API metadata of the tools that have any
+     */
+    List<ApiToolMetadata> findByToolIdIn(Collection<String> toolIds);
 }
\ No newline at end of file
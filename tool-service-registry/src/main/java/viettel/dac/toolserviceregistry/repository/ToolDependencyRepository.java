@@ -1,9 +1,12 @@
 package viettel.dac.toolserviceregistry.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -20,6 +23,15 @@ public interface ToolDependencyRepository extends JpaRepository<ToolDependency,
      */
     List<ToolDependency> findByToolId(String toolId);
 
+    /**
+     * Find all dependencies of a set of tools with their parameter mappings eagerly loaded.
+     *
+     * @param toolIds The IDs of the tools
+     * @return List of dependencies of the tools
+     */
+    @Query("SELECT DISTINCT d FROM ToolDependency d LEFT JOIN FETCH d.parameterMappings WHERE d.tool.id IN :toolIds")
+    List<ToolDependency> findAllWithParameterMappingsByToolIdIn(@Param("toolIds") Collection<String> toolIds);
+
     /**
      * Find all dependencies that depend on a tool.
      *
@@ -1,11 +1,14 @@
 package viettel.dac.toolserviceregistry.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import viettel.dac.toolserviceregistry.model.entity.ToolParameter;
 import viettel.dac.toolserviceregistry.model.enums.ParameterSource;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for managing ToolParameter entities.
@@ -29,4 +32,13 @@ public interface ToolParameterRepository extends JpaRepository<ToolParameter, St
      * @return List of parameters for the tool with the given source
      */
     List<ToolParameter> findByToolIdAndParameterSource(String toolId, ParameterSource parameterSource);
-}
\ No newline at end of file
+
+    /**
+     * Find the ID of the tool a parameter belongs to.
+     *
+     * @param id The ID of the parameter
+     * @return An Optional containing the tool ID if the parameter exists
+     */
+    @Query("SELECT p.tool.id FROM ToolParameter p WHERE p.id = :id")
+    Optional<String> findToolIdById(@Param("id") String id);
+}
@@ -1,15 +1,21 @@
 package viettel.dac.toolserviceregistry.repository;
 
+import jakarta.persistence.QueryHint;
+import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import viettel.dac.toolserviceregistry.model.entity.Tool;
 import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for managing Tool entities.
@@ -41,6 +47,27 @@ public interface ToolRepository extends JpaRepository<Tool, String>, JpaSpecific
     @Query("SELECT t FROM Tool t JOIN FETCH t.parameters WHERE t.id = :id")
     Optional<Tool> findByIdWithParameters(@Param("id") String id);
 
+    /**
+     * Find tools with their parameters eagerly loaded.
+     *
+     * @param ids The IDs of the tools
+     * @return List of the tools that exist
+     */
+    @Query("SELECT DISTINCT t FROM Tool t LEFT JOIN FETCH t.parameters WHERE t.id IN :ids")
+    List<Tool> findAllWithParametersByIdIn(@Param("ids") Collection<String> ids);
+
+    /**
+     * Find tools with their dependencies and dependency tools eagerly loaded. Loaded in the same
+     * persistence context as {@link #findAllWithParametersByIdIn(Collection)}, this fills in the
+     * dependencies of the tools loaded there without a query per tool.
+     *
+     * @param ids The IDs of the tools
+     * @return List of the tools that exist
+     */
+    @Query("SELECT DISTINCT t FROM Tool t LEFT JOIN FETCH t.dependencies d LEFT JOIN FETCH d.dependencyTool " +
+            "WHERE t.id IN :ids")
+    List<Tool> findAllWithDependenciesByIdIn(@Param("ids") Collection<String> ids);
+
     /**
      * Find all dependencies across all tools.
      *
@@ -49,6 +76,23 @@ public interface ToolRepository extends JpaRepository<Tool, String>, JpaSpecific
     @Query("SELECT d FROM ToolDependency d")
     List<ToolDependency> findAllDependencies();
 
+    /**
+     * Stream the dependency graph of the whole registry as one row per dependency, with columns
+     * {@code toolId}, {@code dependencyToolId}, {@code dependencyType} and {@code active}.
+     * Tools without dependencies appear once with null dependency columns. No entities are loaded.
+     * The stream must be consumed within a transaction and closed.
+     *
+     * @return Stream of graph rows
+     */
+    @Query("SELECT t.id AS toolId, d.dependencyTool.id AS dependencyToolId, " +
+            "d.dependencyType AS dependencyType, t.active AS active " +
+            "FROM Tool t LEFT JOIN t.dependencies d")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Tuple> streamDependencyGraph();
+
     /**
      * Check if a tool exists with the given name, excluding the given ID.
      *
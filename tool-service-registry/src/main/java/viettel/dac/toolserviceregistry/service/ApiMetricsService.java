@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import viettel.dac.toolserviceregistry.model.dto.ApiToolMetadataDTO;
 import viettel.dac.toolserviceregistry.model.enums.HttpMethod;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -138,6 +139,30 @@ public class ApiMetricsService {
         return stats;
     }
 
+    /**
+     * Gets the observed mean call duration of each tool, over all endpoints, methods and statuses.
+     *
+     * @param toolIds The IDs of the tools
+     * @return Map of tool ID to mean duration in milliseconds, for the tools with at least one recorded call
+     */
+    public Map<String, Double> getMeanCallDurations(Collection<String> toolIds) {
+        Map<String, Double> result = new HashMap<>();
+
+        for (String toolId : toolIds) {
+            long count = 0;
+            double totalTimeMs = 0;
+            for (Timer timer : meterRegistry.find(METRIC_API_CALL_DURATION).tag(TAG_TOOL, toolId).timers()) {
+                count += timer.count();
+                totalTimeMs += timer.totalTime(TimeUnit.MILLISECONDS);
+            }
+            if (count > 0) {
+                result.put(toolId, totalTimeMs / count);
+            }
+        }
+
+        return result;
+    }
+
     /**
      * Gets or creates a timer for an API call.
      */
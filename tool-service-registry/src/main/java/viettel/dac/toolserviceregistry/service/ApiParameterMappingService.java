@@ -39,6 +39,7 @@ public class ApiParameterMappingService {
     private final ApiToolMetadataRepository apiToolMetadataRepository;
     private final ToolRepository toolRepository;
     private final ToolParameterRepository toolParameterRepository;
+    private final DependencyGraphStore graphStore;
 
     // Constants for error messages
     private static final String TOOL_TYPE_NOT_COMPATIBLE = "API_TOOL";
@@ -119,6 +120,7 @@ public class ApiParameterMappingService {
             parameter.setParameterSource(ParameterSource.API_RESPONSE);
             parameter.setExtractionPath(request.getResponseExtractionPath());
             toolParameterRepository.save(parameter);
+            parameterSourceChanged(parameter.getTool());
         }
 
         ApiParameterMapping savedMapping = apiParameterMappingRepository.save(mapping);
@@ -152,6 +154,7 @@ public class ApiParameterMappingService {
             parameter.setParameterSource(ParameterSource.API_RESPONSE);
             parameter.setExtractionPath(request.getResponseExtractionPath());
             toolParameterRepository.save(parameter);
+            parameterSourceChanged(parameter.getTool());
         }
 
         ApiParameterMapping savedMapping = apiParameterMappingRepository.save(mapping);
@@ -177,6 +180,7 @@ public class ApiParameterMappingService {
             parameter.setParameterSource(ParameterSource.USER_INPUT);
             parameter.setExtractionPath(null);
             toolParameterRepository.save(parameter);
+            parameterSourceChanged(parameter.getTool());
         }
 
         apiParameterMappingRepository.delete(mapping);
@@ -241,6 +245,18 @@ public class ApiParameterMappingService {
 
     }
 
+    /**
+     * Record a change to the source of a parameter of a tool. Response parameters are produced by the
+     * tool rather than asked for, so the missing parameters of plans with the tool are stale.
+     *
+     * @param tool The tool of the parameter
+     */
+    private void parameterSourceChanged(Tool tool) {
+        tool.setVersion(tool.getVersion() + 1);
+        toolRepository.save(tool);
+        graphStore.toolChanged(tool.getId());
+    }
+
     /**
      * Map an ApiParameterMapping entity to an ApiParameterMappingDTO.
      *
@@ -22,6 +22,8 @@ import viettel.dac.toolserviceregistry.model.enums.AuthenticationType;
 import viettel.dac.toolserviceregistry.repository.ApiParameterMappingRepository;
 
 import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,6 +31,10 @@ import java.util.stream.Collectors;
 @Slf4j
 @RequiredArgsConstructor
 public class ApiTestService {
+    /** Headers that {@link java.net.http.HttpClient} sets itself and rejects on requests. */
+    private static final Set<String> RESTRICTED_HEADERS = Set.of(
+            "connection", "content-length", "expect", "host", "upgrade");
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
     private final ApiToolService apiToolService;
@@ -104,6 +110,90 @@ public class ApiTestService {
         }
     }
 
+    /**
+     * Prepares the requests of several API tools, so that requests can then be built for any
+     * parameters without querying the database. Loads the parameter mappings of all tools at once
+     * and resolves their headers and authentication.
+     *
+     * @param apiMetadata The API metadata of the tools, keyed by tool ID
+     * @return The request templates, keyed by tool ID
+     */
+    public Map<String, HttpRequestTemplate> prepareHttpRequests(Map<String, ApiToolMetadataDTO> apiMetadata) {
+        Set<String> apiMetadataIds = apiMetadata.values().stream()
+                .map(ApiToolMetadataDTO::getId)
+                .collect(Collectors.toSet());
+        Map<String, List<ApiParameterMapping>> mappingsByMetadata = apiMetadataIds.isEmpty() ? Map.of()
+                : apiParameterMappingRepository.findByApiToolMetadataIdIn(apiMetadataIds).stream()
+                        .collect(Collectors.groupingBy(mapping -> mapping.getApiToolMetadata().getId()));
+
+        Map<String, HttpRequestTemplate> templates = new HashMap<>();
+        apiMetadata.forEach((toolId, metadata) -> templates.put(toolId, new HttpRequestTemplate(metadata,
+                mappingsByMetadata.getOrDefault(metadata.getId(), List.of()), prepareHeaders(metadata, Map.of()))));
+        return templates;
+    }
+
+    /**
+     * Builds a request for a non-blocking API call from a prepared template, using the same
+     * headers, authentication, URI and body as {@link #testApiCall(String, Map)}. Does not query
+     * the database.
+     *
+     * @param template The request template of the tool
+     * @param parameters Parameters to use for the API call
+     * @return The request
+     */
+    public HttpRequest buildHttpRequest(HttpRequestTemplate template, Map<String, Object> parameters) {
+        ApiToolMetadataDTO metadata = template.getMetadata();
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(buildUri(metadata, template.mappings, parameters));
+        template.headers.forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+
+        Object body = prepareRequestBody(template.mappings, parameters);
+        HttpRequest.BodyPublisher bodyPublisher;
+        try {
+            bodyPublisher = body != null
+                    ? HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))
+                    : HttpRequest.BodyPublishers.noBody();
+        } catch (JsonProcessingException e) {
+            throw new ApiCallException("Failed to serialize request body: " + e.getMessage(), e);
+        }
+        builder.method(metadata.getHttpMethod().name(), bodyPublisher);
+
+        if (metadata.getRequestTimeoutMs() != null && metadata.getRequestTimeoutMs() > 0) {
+            builder.timeout(Duration.ofMillis(metadata.getRequestTimeoutMs()));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * The parts of an API tool's requests that do not depend on the parameters: its metadata,
+     * parameter mappings and headers, including authentication.
+     */
+    public static final class HttpRequestTemplate {
+        private final ApiToolMetadataDTO metadata;
+        private final List<ApiParameterMapping> mappings;
+        private final HttpHeaders headers;
+
+        HttpRequestTemplate(ApiToolMetadataDTO metadata, List<ApiParameterMapping> mappings, HttpHeaders headers) {
+            this.metadata = metadata;
+            this.mappings = mappings;
+            this.headers = headers;
+        }
+
+        /**
+         * Gets the API metadata of the tool.
+         *
+         * @return The API metadata
+         */
+        public ApiToolMetadataDTO getMetadata() {
+            return metadata;
+        }
+    }
+
     /**
      * Prepares HTTP headers for the API call.
      */
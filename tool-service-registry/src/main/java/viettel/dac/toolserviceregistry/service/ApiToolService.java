@@ -39,6 +39,7 @@ public class ApiToolService {
     private final ToolParameterRepository toolParameterRepository;
     private final ApiParameterMappingRepository apiParameterMappingRepository;
     private final ApiResponseParser apiResponseParser;
+    private final DependencyGraphStore graphStore;
 
     // Cache for API responses
     private final ConcurrentHashMap<String, ApiResponseCacheEntry> responseCache = new ConcurrentHashMap<>();
@@ -128,6 +129,9 @@ public class ApiToolService {
         // Clear response cache for this tool
         clearApiResponseCache(toolId);
 
+        // Plans group API tools by base URL, so plans that include the tool are stale
+        graphStore.toolChanged(toolId);
+
         return mapToApiToolMetadataDTO(savedMetadata);
     }
 
@@ -317,6 +321,11 @@ public class ApiToolService {
 
             toolParameterRepository.save(parameter);
         }
+
+        // Response parameters are produced rather than asked for, so missing parameters are stale
+        tool.setVersion(tool.getVersion() + 1);
+        toolRepository.save(tool);
+        graphStore.toolChanged(toolId);
     }
 
     /**
@@ -334,6 +343,23 @@ public class ApiToolService {
                 .orElse(null);
     }
 
+    /**
+     * Gets API metadata for a set of tools with one query.
+     *
+     * @param toolIds The IDs of the tools
+     * @return Map of tool ID to API metadata DTO, for the tools that have API metadata
+     */
+    @Transactional
+    public Map<String, ApiToolMetadataDTO> getApiToolMetadataDTOs(Collection<String> toolIds) {
+        log.debug("Getting API metadata DTOs for {} tools", toolIds.size());
+
+        Map<String, ApiToolMetadataDTO> result = new HashMap<>();
+        for (ApiToolMetadata metadata : apiToolMetadataRepository.findByToolIdIn(toolIds)) {
+            result.put(metadata.getTool().getId(), mapToApiToolMetadataDTO(metadata));
+        }
+        return result;
+    }
+
     /**
      * Caches an API response.
      *
@@ -0,0 +1,377 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import viettel.dac.toolserviceregistry.exception.RegexBudgetExceededException;
+import viettel.dac.toolserviceregistry.model.dto.ToolParameterDTO;
+import viettel.dac.toolserviceregistry.model.dto.ValidationResult;
+import viettel.dac.toolserviceregistry.model.enums.ParameterType;
+import viettel.dac.toolserviceregistry.model.enums.ValidationErrorType;
+
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Validator of the values of one parameter, compiled from its definition.
+ * <p>
+ * Everything that depends only on the definition is done once, when the validator is compiled: the
+ * check for the parameter type is selected, numeric bounds are parsed, allowed values are put in a
+ * hash set, the validation pattern is compiled and the failure results are built. Validating a value
+ * then only runs the checks. Patterns are matched through a {@link RegexGuard}, so a pattern that
+ * backtracks catastrophically fails the value instead of holding the thread.
+ * <p>
+ * Validators are immutable and thread-safe. The results they return for fixed outcomes are shared
+ * between calls and must not be modified.
+ */
+@Slf4j
+public final class CompiledParameterValidator {
+    private static final Pattern DATE_PATTERN = Pattern.compile(
+            "^\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])$");
+    private static final Pattern DATETIME_PATTERN = Pattern.compile(
+            "^\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])[T ](0[0-9]|1[0-9]|2[0-3]):[0-5][0-9]:[0-5][0-9](\\.\\d+)?(Z|[+-]\\d{2}:?\\d{2})?$");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$");
+    private static final Pattern URL_PATTERN = Pattern.compile("^(https?|ftp)://[^\\s/$.?#].[^\\s]*$");
+
+    private static final ValidationResult VALID = new ValidationResult(true, null, null);
+    private static final ValidationResult MISSING =
+            invalid(ValidationErrorType.MISSING_REQUIRED, "Required parameter is missing");
+    private static final ValidationResult ABORTED =
+            invalid(ValidationErrorType.VALIDATION_ERROR, "Value could not be matched against the pattern in time");
+
+    private final String id;
+    private final String name;
+    private final ParameterType parameterType;
+    private final boolean required;
+    private final ObjectMapper objectMapper;
+    private final RegexGuard regexGuard;
+    private final Check check;
+
+    private final Integer minLength;
+    private final Integer maxLength;
+    private final Double minValue;
+    private final Double maxValue;
+    private final Set<String> allowedValues;
+    private final Pattern pattern;
+
+    private final ValidationResult tooShort;
+    private final ValidationResult tooLong;
+    private final ValidationResult belowMin;
+    private final ValidationResult aboveMax;
+    private final ValidationResult notAllowed;
+    private final ValidationResult patternMismatch;
+    private final ValidationResult patternInvalid;
+
+    private CompiledParameterValidator(ToolParameterDTO parameter, ObjectMapper objectMapper, RegexGuard regexGuard) {
+        this.id = parameter.getId();
+        this.name = parameter.getName();
+        this.parameterType = parameter.getParameterType();
+        this.required = parameter.isRequired();
+        this.objectMapper = objectMapper;
+        this.regexGuard = regexGuard;
+
+        this.minLength = parameter.getMinLength();
+        this.maxLength = parameter.getMaxLength();
+        this.minValue = parseBound(parameter.getMinValue(), "min");
+        this.maxValue = parseBound(parameter.getMaxValue(), "max");
+
+        List<String> allowed = parameter.getAllowedValues();
+        this.allowedValues = allowed != null && !allowed.isEmpty() ? new HashSet<>(allowed) : null;
+        this.notAllowed = allowedValues == null ? null
+                : invalid(ValidationErrorType.NOT_ALLOWED, "Value must be one of: " + String.join(", ", allowed));
+
+        String noun = parameterType == ParameterType.SECRET ? "Secret" : "Value";
+        this.tooShort = minLength == null ? null : invalid(ValidationErrorType.INVALID_LENGTH,
+                noun + " must be at least " + minLength + " characters long");
+        this.tooLong = maxLength == null ? null : invalid(ValidationErrorType.INVALID_LENGTH,
+                noun + " must be at most " + maxLength + " characters long");
+        this.belowMin = minValue == null ? null
+                : invalid(ValidationErrorType.OUT_OF_RANGE, "Value must be at least " + minValue);
+        this.aboveMax = maxValue == null ? null
+                : invalid(ValidationErrorType.OUT_OF_RANGE, "Value must be at most " + maxValue);
+
+        Pattern compiled = null;
+        ValidationResult compileFailure = null;
+        String validationPattern = parameter.getValidationPattern();
+        if (validationPattern != null && !validationPattern.isEmpty()) {
+            try {
+                compiled = Pattern.compile(validationPattern);
+            } catch (PatternSyntaxException e) {
+                log.warn("Invalid validation pattern for parameter {}: {}", name, e.getMessage());
+                compileFailure = invalid(ValidationErrorType.VALIDATION_ERROR, "Validation error: " + e.getMessage());
+            }
+        }
+        this.pattern = compiled;
+        this.patternInvalid = compileFailure;
+        this.patternMismatch = invalid(ValidationErrorType.PATTERN_MISMATCH, parameter.getValidationMessage() != null
+                ? parameter.getValidationMessage() : "Value does not match required pattern");
+
+        this.check = selectCheck();
+    }
+
+    /**
+     * Compiles the validator of a parameter.
+     *
+     * @param parameter The parameter definition
+     * @param objectMapper The object mapper used to check JSON values
+     * @param regexGuard The guard that bounds pattern matches
+     * @return The validator
+     */
+    public static CompiledParameterValidator compile(ToolParameterDTO parameter, ObjectMapper objectMapper,
+                                                     RegexGuard regexGuard) {
+        return new CompiledParameterValidator(parameter, objectMapper, regexGuard);
+    }
+
+    /**
+     * Gets the ID of the parameter.
+     *
+     * @return The parameter ID
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of the parameter.
+     *
+     * @return The parameter name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Validates a value of the parameter.
+     *
+     * @param value The value to validate
+     * @return Validation result
+     */
+    public ValidationResult validate(Object value) {
+        if (value == null || (value instanceof String && ((String) value).isEmpty())) {
+            if (required) {
+                return MISSING;
+            }
+            if (value == null) {
+                return VALID;
+            }
+        }
+
+        try {
+            return check.apply(value);
+        } catch (RegexBudgetExceededException e) {
+            return ABORTED;
+        } catch (Exception e) {
+            log.warn("Parameter validation error", e);
+            return invalid(ValidationErrorType.VALIDATION_ERROR, "Validation error: " + e.getMessage());
+        }
+    }
+
+    private Check selectCheck() {
+        if (parameterType == null) {
+            return this::checkPattern;
+        }
+        switch (parameterType) {
+            case STRING:
+                return this::checkString;
+            case NUMBER:
+                return this::checkNumber;
+            case BOOLEAN:
+                return this::checkBoolean;
+            case DATE:
+                return value -> checkFormat(value, DATE_PATTERN, "Date value must be a string",
+                        "Invalid date format. Expected format: YYYY-MM-DD");
+            case DATETIME:
+                return value -> checkFormat(value, DATETIME_PATTERN, "Date value must be a string",
+                        "Invalid date format. Expected format: YYYY-MM-DDTHH:MM:SS");
+            case EMAIL:
+                return value -> checkFormat(value, EMAIL_PATTERN, "Email must be a string", "Invalid email format");
+            case URL:
+                return value -> checkFormat(value, URL_PATTERN, "URL must be a string", "Invalid URL format");
+            case ENUM:
+                return this::checkEnum;
+            case ARRAY:
+                return this::checkArray;
+            case OBJECT:
+                return this::checkObject;
+            case JSON:
+                return this::checkJson;
+            case XML:
+                return this::checkXml;
+            case FILE:
+                // A file is only checked for presence
+                return value -> VALID;
+            case SECRET:
+                return this::checkString;
+            default:
+                return this::checkPattern;
+        }
+    }
+
+    private ValidationResult checkString(Object value) {
+        if (!(value instanceof String)) {
+            return invalid(ValidationErrorType.INVALID_TYPE,
+                    parameterType == ParameterType.SECRET ? "Secret must be a string" : "Value must be a string");
+        }
+
+        String stringValue = (String) value;
+        if (tooShort != null && stringValue.length() < minLength) {
+            return tooShort;
+        }
+        if (tooLong != null && stringValue.length() > maxLength) {
+            return tooLong;
+        }
+        if (parameterType == ParameterType.STRING && allowedValues != null && !allowedValues.contains(stringValue)) {
+            return notAllowed;
+        }
+        return checkPattern(value);
+    }
+
+    private ValidationResult checkNumber(Object value) {
+        double numValue;
+        if (value instanceof Number) {
+            numValue = ((Number) value).doubleValue();
+        } else if (value instanceof String) {
+            try {
+                numValue = Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                return invalid(ValidationErrorType.INVALID_TYPE, "Value must be a valid number");
+            }
+        } else {
+            return invalid(ValidationErrorType.INVALID_TYPE, "Value must be a number");
+        }
+
+        if (belowMin != null && numValue < minValue) {
+            return belowMin;
+        }
+        if (aboveMax != null && numValue > maxValue) {
+            return aboveMax;
+        }
+        return VALID;
+    }
+
+    private ValidationResult checkBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return VALID;
+        }
+        if (value instanceof String
+                && ("true".equalsIgnoreCase((String) value) || "false".equalsIgnoreCase((String) value))) {
+            return VALID;
+        }
+        return invalid(ValidationErrorType.INVALID_TYPE, "Value must be a boolean (true or false)");
+    }
+
+    private ValidationResult checkFormat(Object value, Pattern format, String notString, String mismatch) {
+        if (!(value instanceof String)) {
+            return invalid(ValidationErrorType.INVALID_TYPE, notString);
+        }
+        return matches(format, (String) value) ? VALID : invalid(ValidationErrorType.INVALID_FORMAT, mismatch);
+    }
+
+    private ValidationResult checkEnum(Object value) {
+        if (allowedValues == null) {
+            return invalid(ValidationErrorType.NOT_ALLOWED, "Enum parameter has no allowed values defined");
+        }
+        return allowedValues.contains(value.toString()) ? VALID : notAllowed;
+    }
+
+    private ValidationResult checkArray(Object value) {
+        if (value instanceof List || value instanceof Object[]) {
+            return VALID;
+        }
+
+        // A string is accepted as a JSON array or as comma-separated values, which only leaves
+        // strings made of nothing but commas
+        if (value instanceof String) {
+            String stringValue = (String) value;
+            for (int i = 0; i < stringValue.length(); i++) {
+                if (stringValue.charAt(i) != ',') {
+                    return VALID;
+                }
+            }
+            if (stringValue.isEmpty()) {
+                return VALID;
+            }
+        }
+        return invalid(ValidationErrorType.INVALID_TYPE, "Value must be an array");
+    }
+
+    private ValidationResult checkObject(Object value) {
+        if (value instanceof Map) {
+            return VALID;
+        }
+
+        if (value instanceof String) {
+            try {
+                if (objectMapper.readValue((String) value, Object.class) instanceof Map) {
+                    return VALID;
+                }
+            } catch (Exception e) {
+                // Not valid JSON
+            }
+        }
+        return invalid(ValidationErrorType.INVALID_TYPE, "Value must be a valid object");
+    }
+
+    private ValidationResult checkJson(Object value) {
+        if (!(value instanceof String)) {
+            return invalid(ValidationErrorType.INVALID_TYPE, "JSON must be a string");
+        }
+
+        try {
+            objectMapper.readValue((String) value, Object.class);
+            return VALID;
+        } catch (Exception e) {
+            return invalid(ValidationErrorType.INVALID_FORMAT, "Invalid JSON format: " + e.getMessage());
+        }
+    }
+
+    private ValidationResult checkXml(Object value) {
+        if (!(value instanceof String)) {
+            return invalid(ValidationErrorType.INVALID_TYPE, "XML must be a string");
+        }
+
+        String xmlString = ((String) value).trim();
+        if (!xmlString.startsWith("<") || !xmlString.endsWith(">")) {
+            return invalid(ValidationErrorType.INVALID_FORMAT, "Invalid XML format");
+        }
+        return VALID;
+    }
+
+    private ValidationResult checkPattern(Object value) {
+        if (patternInvalid != null) {
+            return patternInvalid;
+        }
+        if (pattern != null && !matches(pattern, value.toString())) {
+            return patternMismatch;
+        }
+        return VALID;
+    }
+
+    private boolean matches(Pattern regex, String value) {
+        return regexGuard.matches(regex, value);
+    }
+
+    private Double parseBound(String bound, String kind) {
+        if (bound == null || bound.isEmpty()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(bound);
+        } catch (NumberFormatException e) {
+            log.warn("Invalid {} value in definition of parameter {}", kind, name, e);
+            return null;
+        }
+    }
+
+    private static ValidationResult invalid(ValidationErrorType errorType, String message) {
+        return new ValidationResult(false, message, errorType);
+    }
+
+    /**
+     * The check for one parameter type.
+     */
+    @FunctionalInterface
+    private interface Check {
+        ValidationResult apply(Object value) throws Exception;
+    }
+}
@@ -0,0 +1,157 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * In-process cache of compiled execution plans.
+ * <p>
+ * A plan is keyed by the 128-bit hash of its canonical inputs: the sorted set of requested tool IDs,
+ * the sorted set of {@link #providedNames(Map) provided parameter names} and the version at which any
+ * tool in the plan's dependency closure last changed ({@link DependencyGraphStore#changeVersion(Collection)}).
+ * The order of the requested tools and the parameter values do not affect the key. A change to any
+ * tool of the closure, on this or another instance, moves the plan to a new key, and the stale entry
+ * ages out of the least recently used end of the cache.
+ * <p>
+ * The cache holds its own copies of the plans and hands out copies, so callers may change the plans
+ * they get.
+ */
+@Service
+@Slf4j
+public class CompiledPlanCache {
+    private static final int KEY_BYTES = 16;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tool.registry.plan-cache.max-entries:10000}")
+    private int maxEntries;
+
+    /** Access-ordered, so the eldest entry is the least recently used one. */
+    private final Map<String, ExecutionPlanView> plans = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ExecutionPlanView> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public CompiledPlanCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("execution.plan.cache.size", this, CompiledPlanCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Computes the cache key of a plan.
+     *
+     * @param toolIds The IDs of the requested tools, in any order
+     * @param parameterNames The names of the provided parameters
+     * @param changeVersion The version at which any tool in the plan's closure last changed
+     * @return The key as 32 hex digits
+     */
+    public static String key(Collection<String> toolIds, Collection<String> parameterNames, long changeVersion) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+
+        update(digest, new TreeSet<>(toolIds));
+        update(digest, new TreeSet<>(parameterNames));
+        digest.update(ByteBuffer.allocate(Long.BYTES).putLong(changeVersion).array());
+        return HexFormat.of().formatHex(digest.digest(), 0, KEY_BYTES);
+    }
+
+    /**
+     * Gets the names of the parameters that are provided with a value. A parameter with a null value
+     * counts as missing when a plan is compiled, so it must not be part of the key either.
+     *
+     * @param providedParameters The provided parameters
+     * @return The names of the parameters with a non-null value
+     */
+    public static Set<String> providedNames(Map<String, ?> providedParameters) {
+        Set<String> names = new HashSet<>();
+        providedParameters.forEach((name, value) -> {
+            if (value != null) {
+                names.add(name);
+            }
+        });
+        return names;
+    }
+
+    /**
+     * Feeds a sorted set into a digest, prefixing the set and every element with its length so that
+     * different sets never produce the same input.
+     */
+    private static void update(MessageDigest digest, SortedSet<String> values) {
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        digest.update(length.putInt(0, values.size()).array());
+        for (String value : values) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            digest.update(length.putInt(0, bytes.length).array());
+            digest.update(bytes);
+        }
+    }
+
+    /**
+     * Gets a cached plan.
+     *
+     * @param key The plan key
+     * @return A copy of the plan, or null on a miss
+     */
+    public ExecutionPlanView get(String key) {
+        ExecutionPlanView plan;
+        synchronized (plans) {
+            plan = plans.get(key);
+        }
+        meterRegistry.counter("execution.plan.cache.requests", "result", plan != null ? "hit" : "miss").increment();
+        return plan != null ? plan.copy() : null;
+    }
+
+    /**
+     * Caches a compiled plan.
+     *
+     * @param key The plan key
+     * @param plan The plan
+     */
+    public void put(String key, ExecutionPlanView plan) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        ExecutionPlanView copy = plan.copy();
+        synchronized (plans) {
+            plans.put(key, copy);
+        }
+    }
+
+    /**
+     * Removes all cached plans.
+     */
+    public void clear() {
+        synchronized (plans) {
+            plans.clear();
+        }
+        log.debug("Cleared compiled execution plan cache");
+    }
+
+    /**
+     * Gets the number of cached plans.
+     *
+     * @return The number of plans
+     */
+    public int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+}
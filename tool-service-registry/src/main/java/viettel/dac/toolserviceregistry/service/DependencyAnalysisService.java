@@ -2,8 +2,12 @@ package viettel.dac.toolserviceregistry.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.graph.CycleSearchLimits;
+import viettel.dac.toolserviceregistry.graph.CycleSearchOutcome;
 import viettel.dac.toolserviceregistry.graph.DirectedGraph;
+import viettel.dac.toolserviceregistry.graph.NodeBitSet;
 import viettel.dac.toolserviceregistry.model.dto.DependencyAnalysisDTO;
 import viettel.dac.toolserviceregistry.model.dto.ToolDependencyDTO;
 import viettel.dac.toolserviceregistry.model.entity.Tool;
@@ -11,6 +15,7 @@ import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
 import viettel.dac.toolserviceregistry.model.enums.DependencyType;
 import viettel.dac.toolserviceregistry.repository.ToolRepository;
 
+import java.time.Duration;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -24,6 +29,15 @@ public class DependencyAnalysisService {
     private final ToolRepository toolRepository;
     private final ToolDependencyGraphService graphService;
 
+    @Value("${tool.registry.analysis.max-cycles:100}")
+    private int maxCycles;
+
+    @Value("${tool.registry.analysis.max-cycle-length:20}")
+    private int maxCycleLength;
+
+    @Value("${tool.registry.analysis.cycle-search-timeout-ms:500}")
+    private long cycleSearchTimeoutMs;
+
     /**
      * Analyzes the dependencies of a tool.
      *
@@ -61,25 +75,22 @@ public class DependencyAnalysisService {
         Set<String> indirectDependents = new HashSet<>(allDependents);
         indirectDependents.removeAll(directDependents);
 
-        // Check for cycles
-        boolean hasCycles = false;
+        // Check for cycles, enumerating only those through this tool and within the configured limits
+        boolean hasCycles = graph.hasCycles();
         List<List<String>> cycles = new ArrayList<>();
-        if (graph.hasCycles()) {
-            // Try to find cycles involving this tool
-            hasCycles = true;
-
-            for (List<String> cycle : graph.findAllCycles()) {
-                if (cycle.contains(toolId)) {
-                    cycles.add(cycle);
-                }
+        boolean cyclesTruncated = false;
+        if (hasCycles) {
+            CycleSearchOutcome outcome = graph.forEachCycleThrough(toolId, cycleSearchLimits(), cycles::add);
+            cyclesTruncated = outcome.isTruncated();
+            if (outcome == CycleSearchOutcome.TIMED_OUT) {
+                log.warn("Cycle search for tool {} timed out after {} cycles", toolId, cycles.size());
             }
         }
 
         // Find critical dependencies (removing them would break many tools)
         Map<String, Integer> dependentCountMap = new HashMap<>();
         for (String dependency : allDependencies) {
-            int dependentCount = graph.getTransitiveClosure(Collections.singleton(dependency)).size();
-            dependentCountMap.put(dependency, dependentCount);
+            dependentCountMap.put(dependency, graph.getTransitiveClosureSize(dependency));
         }
 
         // Sort dependencies by dependent count
@@ -103,6 +114,7 @@ public class DependencyAnalysisService {
         analysis.setAllDependentCount(allDependents.size());
         analysis.setHasCycles(hasCycles);
         analysis.setCyclesCount(cycles.size());
+        analysis.setCyclesTruncated(cyclesTruncated);
         analysis.setCycles(formatCycles(cycles, toolsMap));
         analysis.setRequiredDependencyCount(countRequiredDependencies(tool.getDependencies()));
         analysis.setOptionalDependencyCount(countOptionalDependencies(tool.getDependencies()));
@@ -167,40 +179,33 @@ public class DependencyAnalysisService {
         // Build dependency graph
         DirectedGraph<String> graph = graphService.buildDependencyGraph(false);
 
-        // Get dependencies for each tool
-        Map<String, Set<String>> dependenciesByTool = new HashMap<>();
-        for (String toolId : toolIds) {
-            Set<String> dependencies = graph.getReverseTransitiveClosure(Collections.singleton(toolId));
-            dependencies.remove(toolId);  // Remove self
-            dependenciesByTool.put(toolId, dependencies);
+        // Get dependencies for each tool as bitsets over the same graph version
+        Map<String, NodeBitSet<String>> dependenciesByTool = new HashMap<>();
+        for (String toolId : new LinkedHashSet<>(toolIds)) {
+            NodeBitSet<String> self = graph.nodeBits(Collections.singleton(toolId));
+            dependenciesByTool.put(toolId, graph.reverseClosureBits(Collections.singleton(toolId)).difference(self));
         }
 
         // Find common dependencies
-        Set<String> commonDependencies = null;
-        for (Set<String> dependencies : dependenciesByTool.values()) {
-            if (commonDependencies == null) {
-                commonDependencies = new HashSet<>(dependencies);
-            } else {
-                commonDependencies.retainAll(dependencies);
-            }
+        NodeBitSet<String> commonBits = null;
+        NodeBitSet<String> allDependencyBits = null;
+        for (NodeBitSet<String> dependencies : dependenciesByTool.values()) {
+            commonBits = commonBits == null ? dependencies : commonBits.intersection(dependencies);
+            allDependencyBits = allDependencyBits == null ? dependencies : allDependencyBits.union(dependencies);
         }
 
-        if (commonDependencies == null) {
-            commonDependencies = Collections.emptySet();
-        }
+        Set<String> commonDependencies = commonBits != null ? commonBits.toSet() : Collections.emptySet();
 
         // Find unique dependencies for each tool
         Map<String, Set<String>> uniqueDependencies = new HashMap<>();
-        for (Map.Entry<String, Set<String>> entry : dependenciesByTool.entrySet()) {
-            Set<String> unique = new HashSet<>(entry.getValue());
-            unique.removeAll(commonDependencies);
-            uniqueDependencies.put(entry.getKey(), unique);
+        for (Map.Entry<String, NodeBitSet<String>> entry : dependenciesByTool.entrySet()) {
+            uniqueDependencies.put(entry.getKey(), entry.getValue().difference(commonBits).toSet());
         }
 
         // Fetch tool details
         Set<String> allToolIds = new HashSet<>(toolIds);
-        for (Set<String> dependencies : dependenciesByTool.values()) {
-            allToolIds.addAll(dependencies);
+        if (allDependencyBits != null) {
+            allToolIds.addAll(allDependencyBits.toSet());
         }
 
         Map<String, Tool> toolsMap = toolRepository.findAllById(allToolIds)
@@ -354,4 +359,13 @@ public class DependencyAnalysisService {
                 .sorted((m1, m2) -> ((String) m1.get("name")).compareTo((String) m2.get("name")))
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the limits for enumerating cycles during analysis.
+     *
+     * @return Cycle search limits
+     */
+    private CycleSearchLimits cycleSearchLimits() {
+        return new CycleSearchLimits(maxCycles, maxCycleLength, Duration.ofMillis(cycleSearchTimeoutMs));
+    }
+}
@@ -0,0 +1,66 @@
+package viettel.dac.toolserviceregistry.service;
+
+import jakarta.persistence.Tuple;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import viettel.dac.toolserviceregistry.model.dto.graph.DependencyGraphStateDTO;
+import viettel.dac.toolserviceregistry.model.enums.DependencyType;
+import viettel.dac.toolserviceregistry.model.event.GraphEdge;
+import viettel.dac.toolserviceregistry.repository.ToolRepository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Loads the dependency graph of the whole registry from the database in a single streamed
+ * projection query, without loading tool or dependency entities.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class DependencyGraphLoader {
+
+    private final ToolRepository toolRepository;
+
+    /**
+     * Loads the graph state of all tools and their typed dependencies.
+     *
+     * @param generation The graph generation the state is loaded for
+     * @return The graph state
+     */
+    @Transactional(readOnly = true)
+    public DependencyGraphStateDTO load(long generation) {
+        Set<String> toolIds = new LinkedHashSet<>();
+        Set<String> activeToolIds = new LinkedHashSet<>();
+        List<GraphEdge> dependencies = new ArrayList<>();
+
+        try (Stream<Tuple> rows = toolRepository.streamDependencyGraph()) {
+            rows.forEach(row -> {
+                String toolId = row.get("toolId", String.class);
+                if (toolIds.add(toolId) && Boolean.TRUE.equals(row.get("active", Boolean.class))) {
+                    activeToolIds.add(toolId);
+                }
+
+                String dependencyToolId = row.get("dependencyToolId", String.class);
+                if (dependencyToolId != null) {
+                    DependencyType type = row.get("dependencyType", DependencyType.class);
+                    dependencies.add(new GraphEdge(dependencyToolId, toolId,
+                            type != null ? type : DependencyType.REQUIRED));
+                }
+            });
+        }
+
+        log.debug("Loaded {} tools and {} dependencies for the dependency graph", toolIds.size(), dependencies.size());
+        return DependencyGraphStateDTO.builder()
+                .generation(generation)
+                .toolIds(new ArrayList<>(toolIds))
+                .activeToolIds(new ArrayList<>(activeToolIds))
+                .dependencies(dependencies)
+                .build();
+    }
+}
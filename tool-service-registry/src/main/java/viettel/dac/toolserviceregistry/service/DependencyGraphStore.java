@@ -0,0 +1,726 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import viettel.dac.toolserviceregistry.graph.DirectedGraph;
+import viettel.dac.toolserviceregistry.graph.IncrementalTopologicalOrder;
+import viettel.dac.toolserviceregistry.model.dto.graph.DependencyGraphStateDTO;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
+import viettel.dac.toolserviceregistry.model.enums.DependencyType;
+import viettel.dac.toolserviceregistry.model.event.GraphDeltaEvent;
+import viettel.dac.toolserviceregistry.model.event.GraphEdge;
+import viettel.dac.toolserviceregistry.model.event.GraphSnapshotEvent;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory dependency graph that is kept current by applying deltas from tool commands.
+ * <p>
+ * The store holds the dependencies of every tool (active or not) and maintains a live graph from
+ * them whose edges are labelled with the {@link DependencyType} ordinal. As with a graph built from the
+ * database, an active tool is always a node, and its dependencies are edges
+ * {@code dependency -> tool}; an inactive tool only stays as a node while an active tool depends on it.
+ * The required-only graph is a {@link DirectedGraph#filtered(int) filtered view} of the same storage.
+ * <p>
+ * A second graph holds every dependency regardless of active state, with an incrementally
+ * maintained topological order, to check new dependencies for cycles.
+ * <p>
+ * Readers never see the live graph. Every change publishes a new immutable {@link Snapshot} through an
+ * atomic reference, so readers get a consistent version without locks. Snapshots share storage with
+ * the live graph ({@link DirectedGraph#snapshot()}), so publishing one copies no nodes or edges.
+ * Deltas from a transaction are applied after it commits.
+ * <p>
+ * The published snapshot is the in-process tier of a two-level cache; {@link GraphSnapshotCache} is the
+ * shared Redis tier. After applying a local change the store advances the shared generation, which is
+ * the monotonic graph version, stores its state for that generation in Redis if it was current with
+ * the previous one, and announces the change as a {@link GraphDeltaEvent} on the
+ * tool-dependency-events topic. Other instances apply a delta in place if it is the next version,
+ * and otherwise {@link #reload() reload} from Redis, or from the database if Redis holds no state of
+ * the current version. An unconditional load from the database only happens on explicit
+ * {@link #rebuild() repair}.
+ * <p>
+ * Every few versions, and after a repair, the full graph is published as a {@link GraphSnapshotEvent}
+ * to a log-compacted topic, from which external consumers can resync.
+ * <p>
+ * The store also records the snapshot version at which each tool last changed, locally or on another
+ * instance, so that data derived from a set of tools can be keyed by {@link #changeVersion(Collection)}
+ * and goes stale exactly when one of those tools changes.
+ */
+@Service
+@Slf4j
+public class DependencyGraphStore {
+    private static final String GRAPH_DELTA = "GRAPH_DELTA";
+    private static final String GRAPH_SNAPSHOT = "GRAPH_SNAPSHOT";
+    /** Single message key, so that deltas and snapshots each stay in one ordered partition. */
+    private static final String GRAPH_KEY = "dependency-graph";
+
+    private final DependencyGraphLoader graphLoader;
+    private final GraphSnapshotCache graphCache;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${kafka.topic.tool-dependency-events}")
+    private String toolDependencyEventsTopic;
+
+    @Value("${kafka.topic.tool-dependency-snapshots}")
+    private String toolDependencySnapshotsTopic;
+
+    @Value("${tool.registry.graph.snapshot-interval:100}")
+    private long snapshotInterval;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong generation = new AtomicLong(-1L);
+
+    private final Object writeLock = new Object();
+    private final Set<String> activeTools = new HashSet<>();
+    private final Map<String, Map<String, DependencyType>> dependencies = new HashMap<>();
+    private DirectedGraph<String> allEdges = new DirectedGraph<>();
+    private IncrementalTopologicalOrder<String> registryOrder = new IncrementalTopologicalOrder<>(new DirectedGraph<>());
+    private long version;
+    private final Map<String, Long> toolVersions = new ConcurrentHashMap<>();
+    private volatile long resetVersion;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(
+            new Snapshot(0, new DirectedGraph<String>().snapshot()));
+    private volatile boolean loaded;
+
+    public DependencyGraphStore(DependencyGraphLoader graphLoader, GraphSnapshotCache graphCache,
+                                KafkaTemplate<String, Object> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.graphLoader = graphLoader;
+        this.graphCache = graphCache;
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("dependency.graph.nodes", this, store -> store.snapshot.get().getGraph(false).getNodeCount())
+                .register(meterRegistry);
+        Gauge.builder("dependency.graph.version", this, store -> store.snapshot.get().getVersion())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Immutable view of the dependency graph at a given version.
+     * The graphs are {@link DirectedGraph#isImmutable() immutable} and can be shared between threads.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final DirectedGraph<String> allEdges;
+        private final DirectedGraph<String> requiredEdges;
+
+        private Snapshot(long version, DirectedGraph<String> allEdges) {
+            this.version = version;
+            this.allEdges = allEdges;
+            this.requiredEdges = allEdges.filtered(DependencyType.REQUIRED.ordinal());
+        }
+
+        /**
+         * Gets the version of the snapshot. Versions increase with every applied change.
+         *
+         * @return The snapshot version
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the dependency graph.
+         *
+         * @param requiredOnly Flag to include only required dependencies
+         * @return The directed graph
+         */
+        public DirectedGraph<String> getGraph(boolean requiredOnly) {
+            return requiredOnly ? requiredEdges : allEdges;
+        }
+    }
+
+    /**
+     * Loads the graph when the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensureLoaded();
+    }
+
+    /**
+     * Gets the current snapshot of the graph without blocking writers.
+     *
+     * @return The current snapshot
+     */
+    public Snapshot snapshot() {
+        ensureLoaded();
+        return snapshot.get();
+    }
+
+    /**
+     * Loads the graph once. Concurrent first callers wait for a single load instead of each loading.
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (!loaded) {
+                reload();
+            }
+        }
+    }
+
+    /**
+     * Gets the ID of this service instance, used to recognize its own graph update events.
+     *
+     * @return The instance ID
+     */
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Gets the shared graph generation the in-memory graph is known to be current with.
+     *
+     * @return The generation, or -1 if unknown
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Loads the graph from the shared cache if it holds the current generation, otherwise from the database.
+     * Does nothing if the graph is already current. Loads run one at a time under the write lock; the
+     * database query runs in the {@link DependencyGraphLoader loader's} read-only transaction.
+     */
+    public void reload() {
+        synchronized (writeLock) {
+            long current = graphCache.currentGeneration();
+            if (loaded && current >= 0 && generation.get() == current) {
+                return;
+            }
+
+            DependencyGraphStateDTO state = graphCache.load(current);
+            if (state != null) {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                apply(state);
+                long elapsedTime = sample.stop(meterRegistry.timer("dependency.graph.build.time"));
+                log.info("Loaded dependency graph generation {} from cache with {} nodes in {}ms",
+                        current, allEdges.getNodeCount(), elapsedTime / 1_000_000);
+                return;
+            }
+
+            loadFromDatabase(current);
+        }
+    }
+
+    /**
+     * Rebuilds the graph from the database, replacing the in-memory state and the shared cache.
+     */
+    public void rebuild() {
+        Snapshot rebuilt;
+        long current;
+        synchronized (writeLock) {
+            current = graphCache.currentGeneration();
+            loadFromDatabase(current);
+            rebuilt = snapshot.get();
+        }
+        publishSnapshot(current, rebuilt);
+    }
+
+    /**
+     * Handles a graph delta announced by another instance. A delta for the next version is applied
+     * in place; older deltas are already reflected and skipped. After a gap, e.g. a missed or
+     * reordered event, the graph is reloaded, which also coalesces bursts of events into a single reload.
+     *
+     * @param event The graph delta event
+     */
+    public void onRemoteDelta(GraphDeltaEvent event) {
+        if (instanceId.equals(event.getSourceInstanceId())) {
+            return;
+        }
+
+        long changeGeneration = event.getGraphVersion();
+        synchronized (writeLock) {
+            long current = generation.get();
+            if (changeGeneration >= 0 && changeGeneration <= current) {
+                return;
+            }
+            if (loaded && current >= 0 && changeGeneration == current + 1) {
+                applyToolState(event);
+                revalidateOrder();
+                publish();
+                toolVersions.put(event.getToolId(), version);
+                generation.set(changeGeneration);
+                return;
+            }
+        }
+
+        log.debug("Dependency graph version {} from instance {} does not follow version {}, reloading",
+                changeGeneration, event.getSourceInstanceId(), generation.get());
+        reload();
+    }
+
+    /**
+     * Applies the state of the changed tool carried by a delta. Must hold the write lock.
+     */
+    private void applyToolState(GraphDeltaEvent event) {
+        if (event.isToolDeleted()) {
+            deleteTool(event.getToolId());
+            return;
+        }
+
+        Map<String, DependencyType> toolDependencies = new LinkedHashMap<>();
+        for (GraphEdge dep : event.getToolDependencies()) {
+            toolDependencies.put(dep.getFrom(), dep.getType());
+        }
+        saveTool(event.getToolId(), event.isToolActive(), toolDependencies);
+    }
+
+    private void loadFromDatabase(long current) {
+        log.info("Rebuilding dependency graph from database");
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        DependencyGraphStateDTO state = graphLoader.load(current);
+        apply(state);
+        graphCache.store(state);
+
+        long elapsedTime = sample.stop(meterRegistry.timer("dependency.graph.build.time"));
+        log.info("Rebuilt dependency graph with {} nodes in {}ms", allEdges.getNodeCount(), elapsedTime / 1_000_000);
+    }
+
+    /**
+     * Replaces the in-memory state with a full graph state.
+     */
+    private void apply(DependencyGraphStateDTO state) {
+        List<String> toolIds = state.getToolIds();
+
+        synchronized (writeLock) {
+            activeTools.clear();
+            activeTools.addAll(state.getActiveToolIds());
+            dependencies.clear();
+            for (GraphEdge dep : state.getDependencies()) {
+                dependencies.computeIfAbsent(dep.getTo(), id -> new LinkedHashMap<>())
+                        .put(dep.getFrom(), dep.getType());
+            }
+
+            allEdges = new DirectedGraph<>(toolIds.size());
+            DirectedGraph<String> registryGraph = new DirectedGraph<>(toolIds.size());
+            for (String toolId : toolIds) {
+                syncTool(toolId);
+                registryGraph.addNode(toolId);
+            }
+            for (GraphEdge dep : state.getDependencies()) {
+                registryGraph.addEdge(dep.getFrom(), dep.getTo());
+            }
+            registryOrder = new IncrementalTopologicalOrder<>(registryGraph);
+            if (!registryOrder.isAcyclic()) {
+                log.warn("Stored tool dependencies contain a cycle; cycle checks fall back to full traversal");
+            }
+            publish();
+            resetVersion = version;
+            toolVersions.clear();
+            generation.set(state.getGeneration());
+            loaded = true;
+        }
+    }
+
+    /**
+     * Records a created or updated tool together with its full set of dependencies.
+     *
+     * @param tool The tool entity
+     */
+    public void toolSaved(Tool tool) {
+        String toolId = tool.getId();
+        boolean active = tool.isActive();
+        Map<String, DependencyType> toolDependencies = new LinkedHashMap<>();
+        for (ToolDependency dep : tool.getDependencies()) {
+            toolDependencies.put(dep.getDependencyTool().getId(), dep.getDependencyType());
+        }
+
+        applyAfterCommit(toolId, () -> saveTool(toolId, active, toolDependencies));
+    }
+
+    /**
+     * Records a change of a tool's active state.
+     *
+     * @param toolId The ID of the tool
+     * @param active Whether the tool is active
+     */
+    public void toolActiveChanged(String toolId, boolean active) {
+        applyAfterCommit(toolId, () -> {
+            setActive(toolId, active);
+            syncTool(toolId);
+        });
+    }
+
+    /**
+     * Records a change of a tool that does not affect its dependencies, such as its parameters.
+     * Announcing it lets every instance drop data derived from the tool.
+     *
+     * @param toolId The ID of the tool
+     */
+    public void toolChanged(String toolId) {
+        applyAfterCommit(toolId, () -> { });
+    }
+
+    /**
+     * Records a deleted tool.
+     *
+     * @param toolId The ID of the tool
+     */
+    public void toolDeleted(String toolId) {
+        applyAfterCommit(toolId, () -> deleteTool(toolId));
+    }
+
+    /**
+     * Records a dependency added to a tool.
+     *
+     * @param toolId The ID of the dependent tool
+     * @param dependencyToolId The ID of the dependency tool
+     * @param type The dependency type
+     */
+    public void dependencyAdded(String toolId, String dependencyToolId, DependencyType type) {
+        applyAfterCommit(toolId, () -> {
+            dependencies.computeIfAbsent(toolId, id -> new LinkedHashMap<>()).put(dependencyToolId, type);
+            registryOrder.addEdge(dependencyToolId, toolId);
+            if (activeTools.contains(toolId)) {
+                addEdge(dependencyToolId, toolId, type);
+            }
+        });
+    }
+
+    /**
+     * Records a dependency removed from a tool.
+     *
+     * @param toolId The ID of the dependent tool
+     * @param dependencyToolId The ID of the dependency tool
+     */
+    public void dependencyRemoved(String toolId, String dependencyToolId) {
+        applyAfterCommit(toolId, () -> {
+            Map<String, DependencyType> toolDependencies = dependencies.get(toolId);
+            if (toolDependencies != null) {
+                toolDependencies.remove(dependencyToolId);
+            }
+            allEdges.removeEdge(dependencyToolId, toolId);
+            registryOrder.removeEdge(dependencyToolId, toolId);
+            pruneIfOrphan(dependencyToolId);
+        });
+    }
+
+    /**
+     * Checks whether making a tool depend on the given tools would create a cycle.
+     * Considers all stored dependencies, including those of inactive tools, and only searches the
+     * part of the graph ranked between the tool and its new dependencies.
+     *
+     * @param toolId The ID of the dependent tool
+     * @param dependencyToolIds The IDs of the new dependency tools
+     * @return true if any of the new dependencies would close a cycle
+     */
+    public boolean wouldCreateCycle(String toolId, Collection<String> dependencyToolIds) {
+        ensureLoaded();
+        synchronized (writeLock) {
+            return registryOrder.wouldCreateCycle(dependencyToolIds, toolId);
+        }
+    }
+
+    /**
+     * Gets the latest snapshot version at which any of the given tools changed. The result grows
+     * whenever one of the tools is saved, deleted or changes its dependencies, and after a full reload.
+     *
+     * @param toolIds The IDs of the tools
+     * @return The change version
+     */
+    public long changeVersion(Collection<String> toolIds) {
+        long result = resetVersion;
+        for (String toolId : toolIds) {
+            result = Math.max(result, toolVersions.getOrDefault(toolId, 0L));
+        }
+        return result;
+    }
+
+    /**
+     * Publishes the live graph as the next snapshot version. Must hold the write lock.
+     */
+    private void publish() {
+        version++;
+        snapshot.set(new Snapshot(version, allEdges.snapshot()));
+    }
+
+    /**
+     * Recomputes the registry order if a delta left it invalid, e.g. by adding a dependency that
+     * closed a cycle. Once a later delta breaks the cycle, cycle checks are bounded again. Must hold
+     * the write lock.
+     */
+    private void revalidateOrder() {
+        if (!registryOrder.isAcyclic()) {
+            registryOrder.reset();
+        }
+    }
+
+    private void saveTool(String toolId, boolean active, Map<String, DependencyType> toolDependencies) {
+        setActive(toolId, active);
+        dependencies.put(toolId, toolDependencies);
+        syncTool(toolId);
+        syncRegistry(toolId);
+    }
+
+    private void deleteTool(String toolId) {
+        activeTools.remove(toolId);
+        dependencies.remove(toolId);
+        syncTool(toolId);
+        registryOrder.removeNode(toolId);
+    }
+
+    private void setActive(String toolId, boolean active) {
+        if (active) {
+            activeTools.add(toolId);
+        } else {
+            activeTools.remove(toolId);
+        }
+    }
+
+    /**
+     * Replaces the incoming edges of a tool with its recorded dependencies. Must hold the write lock.
+     */
+    private void syncTool(String toolId) {
+        boolean active = activeTools.contains(toolId);
+        Map<String, DependencyType> toolDependencies = active ? dependencies.getOrDefault(toolId, Map.of()) : Map.of();
+
+        Set<String> removed = new HashSet<>(allEdges.getIncomingEdges(toolId));
+        removed.removeAll(toolDependencies.keySet());
+        for (String dependencyToolId : removed) {
+            allEdges.removeEdge(dependencyToolId, toolId);
+        }
+
+        if (active) {
+            allEdges.addNode(toolId);
+            for (Map.Entry<String, DependencyType> dep : toolDependencies.entrySet()) {
+                addEdge(dep.getKey(), toolId, dep.getValue());
+            }
+        } else {
+            pruneIfOrphan(toolId);
+        }
+
+        for (String dependencyToolId : removed) {
+            pruneIfOrphan(dependencyToolId);
+        }
+    }
+
+    /**
+     * Adds a dependency edge labelled with its type, or relabels an existing one. Must hold the write lock.
+     */
+    private void addEdge(String dependencyToolId, String toolId, DependencyType type) {
+        allEdges.addEdge(dependencyToolId, toolId, type.ordinal(), DirectedGraph.DEFAULT_WEIGHT, 0);
+    }
+
+    /**
+     * Replaces the incoming edges of a tool in the registry graph. Must hold the write lock.
+     */
+    private void syncRegistry(String toolId) {
+        Map<String, DependencyType> toolDependencies = dependencies.getOrDefault(toolId, Map.of());
+        for (String dependencyToolId : new ArrayList<>(registryOrder.getGraph().getIncomingEdges(toolId))) {
+            if (!toolDependencies.containsKey(dependencyToolId)) {
+                registryOrder.removeEdge(dependencyToolId, toolId);
+            }
+        }
+
+        registryOrder.addNode(toolId);
+        for (String dependencyToolId : toolDependencies.keySet()) {
+            registryOrder.addEdge(dependencyToolId, toolId);
+        }
+    }
+
+    /**
+     * Drops an inactive tool from a graph once no active tool depends on it anymore.
+     */
+    private void pruneIfOrphan(String toolId) {
+        if (activeTools.contains(toolId)) {
+            return;
+        }
+        if (allEdges.getOutgoingEdges(toolId).isEmpty() && allEdges.getIncomingEdges(toolId).isEmpty()) {
+            allEdges.removeNode(toolId);
+        }
+    }
+
+    /**
+     * Applies a delta to the in-memory state after commit, publishes the new snapshot and announces
+     * the change to the other instances.
+     */
+    private void applyAfterCommit(String toolId, Runnable delta) {
+        afterCommit(() -> {
+            GraphDeltaEvent event;
+            Snapshot after;
+            long next;
+            DependencyGraphStateDTO state = null;
+            synchronized (writeLock) {
+                Snapshot before = snapshot.get();
+                delta.run();
+                revalidateOrder();
+                publish();
+                toolVersions.put(toolId, version);
+                after = snapshot.get();
+                event = diff(toolId, before, after);
+
+                // Advanced under the lock, so no other local change can slip into the generation
+                next = graphCache.nextGeneration();
+                // Without changes from other instances in between, the graph is current with the new generation
+                if (next >= 0 && generation.compareAndSet(next - 1, next)) {
+                    state = currentState(next);
+                }
+            }
+            if (state != null) {
+                graphCache.store(state);
+            }
+            announce(event, after, next);
+        });
+    }
+
+    /**
+     * Captures the full in-memory state for the shared cache. Must hold the write lock.
+     */
+    private DependencyGraphStateDTO currentState(long stateGeneration) {
+        List<GraphEdge> edges = new ArrayList<>();
+        dependencies.forEach((toolId, toolDependencies) -> toolDependencies.forEach(
+                (dependencyToolId, type) -> edges.add(new GraphEdge(dependencyToolId, toolId, type))));
+
+        return DependencyGraphStateDTO.builder()
+                .generation(stateGeneration)
+                .toolIds(new ArrayList<>(registryOrder.getGraph().getAllNodes()))
+                .activeToolIds(new ArrayList<>(activeTools))
+                .dependencies(edges)
+                .build();
+    }
+
+    /**
+     * Computes the delta caused by a change of one tool. Only the tool's incoming edges and the
+     * nodes at their ends can change. Must hold the write lock.
+     */
+    private GraphDeltaEvent diff(String toolId, Snapshot before, Snapshot after) {
+        Map<String, DependencyType> oldEdges = incomingEdges(before, toolId);
+        Map<String, DependencyType> newEdges = incomingEdges(after, toolId);
+
+        GraphDeltaEvent event = new GraphDeltaEvent();
+        event.setToolId(toolId);
+        event.setSourceInstanceId(instanceId);
+
+        Set<String> candidates = new LinkedHashSet<>();
+        candidates.add(toolId);
+        candidates.addAll(oldEdges.keySet());
+        candidates.addAll(newEdges.keySet());
+        for (String node : candidates) {
+            boolean wasNode = before.getGraph(false).containsNode(node);
+            boolean isNode = after.getGraph(false).containsNode(node);
+            if (isNode && !wasNode) {
+                event.getAddedNodes().add(node);
+            } else if (wasNode && !isNode) {
+                event.getRemovedNodes().add(node);
+            }
+        }
+
+        for (Map.Entry<String, DependencyType> edge : newEdges.entrySet()) {
+            if (oldEdges.get(edge.getKey()) != edge.getValue()) {
+                event.getAddedEdges().add(new GraphEdge(edge.getKey(), toolId, edge.getValue()));
+            }
+        }
+        for (Map.Entry<String, DependencyType> edge : oldEdges.entrySet()) {
+            if (!newEdges.containsKey(edge.getKey())) {
+                event.getRemovedEdges().add(new GraphEdge(edge.getKey(), toolId, edge.getValue()));
+            }
+        }
+
+        // The tool's stored state lets other instances apply the delta to their full state
+        event.setToolDeleted(!registryOrder.getGraph().containsNode(toolId));
+        event.setToolActive(activeTools.contains(toolId));
+        for (Map.Entry<String, DependencyType> dep : dependencies.getOrDefault(toolId, Map.of()).entrySet()) {
+            event.getToolDependencies().add(new GraphEdge(dep.getKey(), toolId, dep.getValue()));
+        }
+        return event;
+    }
+
+    private static Map<String, DependencyType> incomingEdges(Snapshot snapshot, String toolId) {
+        DirectedGraph<String> graph = snapshot.getGraph(false);
+        Map<String, DependencyType> edges = new LinkedHashMap<>();
+        for (String dependencyToolId : graph.getIncomingEdges(toolId)) {
+            edges.put(dependencyToolId, DependencyType.values()[graph.getEdgeLabel(dependencyToolId, toolId)]);
+        }
+        return edges;
+    }
+
+    /**
+     * Sends the delta for a new shared generation. Every snapshot interval the full graph is
+     * published as well.
+     */
+    private void announce(GraphDeltaEvent event, Snapshot after, long next) {
+        event.setEventId(UUID.randomUUID().toString());
+        event.setEventType(GRAPH_DELTA);
+        event.setTimestamp(LocalDateTime.now());
+        event.setGraphVersion(next);
+
+        try {
+            kafkaTemplate.send(toolDependencyEventsTopic, GRAPH_KEY, event);
+            meterRegistry.counter("dependency.graph.publish.count").increment();
+        } catch (Exception e) {
+            log.error("Failed to announce dependency graph change for tool {}: {}",
+                    event.getToolId(), e.getMessage(), e);
+        }
+
+        if (next > 0 && snapshotInterval > 0 && next % snapshotInterval == 0) {
+            publishSnapshot(next, after);
+        }
+    }
+
+    /**
+     * Publishes the full graph of a snapshot to the compacted snapshots topic.
+     */
+    private void publishSnapshot(long graphVersion, Snapshot published) {
+        if (graphVersion < 0) {
+            return;
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        DirectedGraph<String> graph = published.getGraph(false);
+        GraphSnapshotEvent event = new GraphSnapshotEvent();
+        event.setEventId(UUID.randomUUID().toString());
+        event.setEventType(GRAPH_SNAPSHOT);
+        event.setTimestamp(LocalDateTime.now());
+        event.setGraphVersion(graphVersion);
+        event.setNodes(new ArrayList<>(graph.getAllNodes()));
+        for (String toolId : event.getNodes()) {
+            for (Map.Entry<String, DependencyType> edge : incomingEdges(published, toolId).entrySet()) {
+                event.getEdges().add(new GraphEdge(edge.getKey(), toolId, edge.getValue()));
+            }
+        }
+
+        try {
+            kafkaTemplate.send(toolDependencySnapshotsTopic, GRAPH_KEY, event);
+        } catch (Exception e) {
+            log.error("Failed to publish dependency graph snapshot {}: {}", graphVersion, e.getMessage(), e);
+        }
+
+        long elapsedTime = sample.stop(meterRegistry.timer("dependency.graph.publish.time"));
+        log.debug("Published dependency graph snapshot {} with {} edges in {}ms",
+                graphVersion, event.getEdges().size(), elapsedTime / 1_000_000);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -7,14 +7,13 @@ import viettel.dac.toolserviceregistry.exception.CyclicDependencyException;
 import viettel.dac.toolserviceregistry.exception.DependencyToolNotFoundException;
 import viettel.dac.toolserviceregistry.exception.InvalidParameterMappingException;
 import viettel.dac.toolserviceregistry.exception.ToolNotFoundException;
-import viettel.dac.toolserviceregistry.graph.DirectedGraph;
 import viettel.dac.toolserviceregistry.model.entity.Tool;
-import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
 import viettel.dac.toolserviceregistry.model.entity.ToolParameter;
 import viettel.dac.toolserviceregistry.model.request.ParameterMappingRequest;
 import viettel.dac.toolserviceregistry.model.request.ToolDependencyRequest;
 import viettel.dac.toolserviceregistry.repository.ToolRepository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -27,6 +26,7 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DependencyValidator {
     private final ToolRepository toolRepository;
+    private final DependencyGraphStore graphStore;
 
     /**
      * Validates that adding dependencies would not create a cycle.
@@ -41,13 +41,7 @@ public class DependencyValidator {
             return;
         }
 
-        // Build dependency graph
-        DirectedGraph<String> graph = new DirectedGraph<>();
-
-        // Add the current tool
-        graph.addNode(toolId);
-
-        // Add all direct dependencies
+        List<String> dependencyIds = new ArrayList<>(dependencies.size());
         for (ToolDependencyRequest dependency : dependencies) {
             String dependencyId = dependency.getDependencyToolId();
 
@@ -56,26 +50,11 @@ public class DependencyValidator {
                 throw new DependencyToolNotFoundException(dependencyId);
             }
 
-            // Add edge from dependency to tool (dependency -> tool)
-            graph.addNode(dependencyId);
-            graph.addEdge(dependencyId, toolId);
-        }
-
-        // Add all existing dependencies (except for this tool) to check for cycles
-        List<ToolDependency> allDependencies = toolRepository.findAllDependencies();
-        for (ToolDependency dep : allDependencies) {
-            // Skip dependencies of the current tool (we've already added them from the request)
-            if (dep.getTool().getId().equals(toolId)) {
-                continue;
-            }
-
-            graph.addNode(dep.getTool().getId());
-            graph.addNode(dep.getDependencyTool().getId());
-            graph.addEdge(dep.getDependencyTool().getId(), dep.getTool().getId());
+            dependencyIds.add(dependencyId);
         }
 
-        // Check for cycles
-        if (graph.hasCycles()) {
+        // Each new edge is dependency -> tool, so a cycle exists only if the tool already reaches a dependency
+        if (graphStore.wouldCreateCycle(toolId, dependencyIds)) {
             throw new CyclicDependencyException("Adding these dependencies would create a cycle");
         }
     }
@@ -1,15 +1,20 @@
 package viettel.dac.toolserviceregistry.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.Cacheable;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.exception.InvalidParameterException;
+import viettel.dac.toolserviceregistry.exception.ToolNotFoundException;
+import viettel.dac.toolserviceregistry.graph.CompactGraph;
+import viettel.dac.toolserviceregistry.graph.CriticalPathSchedule;
 import viettel.dac.toolserviceregistry.graph.DirectedGraph;
 import viettel.dac.toolserviceregistry.mapper.ParameterMappingMapper;
 import viettel.dac.toolserviceregistry.model.dto.*;
@@ -19,11 +24,9 @@ import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
 import viettel.dac.toolserviceregistry.model.enums.ToolType;
 import viettel.dac.toolserviceregistry.model.reponse.ExecutionPlanResponse;
 import viettel.dac.toolserviceregistry.model.request.ExecutionPlanRequest;
-import viettel.dac.toolserviceregistry.repository.ToolRepository;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -33,29 +36,37 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 @RequiredArgsConstructor
-@CacheConfig(cacheNames = "executionPlans")
 public class ExecutionPlanService {
     private final ToolDependencyGraphService graphService;
     private final ParameterValidationService parameterValidationService;
-    private final ToolRepository toolRepository;
     private final ParameterMappingMapper parameterMappingMapper;
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final MeterRegistry meterRegistry;
-    private final ApiToolService apiToolService;
+    private final ApiMetricsService apiMetricsService;
+    private final CompiledPlanCache compiledPlanCache;
+    private final ToolCatalog toolCatalog;
+    private final PlanVersionStore planVersionStore;
+    private final ObjectMapper objectMapper;
 
-    // Cache for storing versioned execution plans
-    private final ConcurrentHashMap<String, Map<Integer, ExecutionPlanView>> planVersionCache = new ConcurrentHashMap<>();
+    @Value("${tool.registry.scheduler.default-tool-duration-ms:100}")
+    private long defaultToolDurationMs;
 
-    private static final int MAX_PLAN_VERSIONS = 10;
+    @Value("${tool.registry.plan-batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${kafka.topic.execution-plan-responses}")
+    private String executionPlanResponsesTopic;
 
     /**
      * Generates an execution plan for a set of tools with support for parallelization and optimization.
+     * Plans are cached by {@link CompiledPlanCache} until a tool in their dependency closure changes.
+     * The closure, order and schedule of a plan all come from one snapshot of the dependency graph.
      *
      * @param toolIds The IDs of the tools to include in the plan
      * @param providedParameters The parameters that are already provided
      * @return The execution plan
+     * @throws ToolNotFoundException If a requested tool does not exist
      */
-    @Cacheable(key = "#toolIds.hashCode() + '-' + #providedParameters.keySet().hashCode()")
     public ExecutionPlanView generateExecutionPlan(
             List<String> toolIds,
             Map<String, Object> providedParameters) {
@@ -65,47 +76,43 @@ public class ExecutionPlanService {
 
         try {
             // Get dependency closure
-            Set<String> allToolIds = graphService.getDependencyClosure(toolIds);
+            DependencyGraphStore.Snapshot snapshot = graphService.getGraphSnapshot();
+            DirectedGraph<String> graph = snapshot.getGraph(true);
+            Set<String> allToolIds = graphService.getDependencyClosure(graph, toolIds);
+
+            // Reuse the compiled plan unless a tool in the closure changed since it was compiled
+            long changeVersion = graphService.getChangeVersion(allToolIds);
+            String planCacheKey = CompiledPlanCache.key(
+                    toolIds, CompiledPlanCache.providedNames(providedParameters), changeVersion);
+            ExecutionPlanView cachedPlan = compiledPlanCache.get(planCacheKey);
+            if (cachedPlan != null) {
+                sample.stop(meterRegistry.timer("execution.plan.generation.time"));
+                return cachedPlan;
+            }
 
             // Generate execution order using topological sort
-            List<String> toolsInOrder = graphService.topologicalSort(new ArrayList<>(allToolIds));
+            List<String> toolsInOrder = graphService.topologicalSort(graph, new ArrayList<>(allToolIds));
 
-            // Generate parallel execution groups
-            List<Set<String>> parallelExecutionGroups = identifyParallelExecutionGroups(toolsInOrder);
-
-            // Apply API context-aware optimization
-            optimizeExecutionPlanForApi(parallelExecutionGroups);
+            // Read the tools of the closure from the catalog
+            ToolCatalog.CatalogView catalog = toolCatalog.lookup(allToolIds);
+            requireTools(toolIds, catalog);
 
             // Identify missing parameters
-            Map<String, Set<ParameterRequirement>> missingParameters =
-                    parameterValidationService.identifyMissingParameters(toolsInOrder, providedParameters);
-
-            // Get parameter mappings
-            Map<String, List<ParameterMappingDTO>> parameterMappings =
-                    getParameterMappings(toolsInOrder);
-
-            // Determine if there are missing required parameters
-            boolean hasMissingRequiredParameters =
-                    parameterValidationService.hasRequiredParametersMissing(missingParameters);
-
-            // Create plan with version
-            ExecutionPlanView plan = ExecutionPlanView.builder()
-                    .toolsInOrder(toolsInOrder)
-                    .missingParameters(missingParameters)
-                    .parameterMappings(parameterMappings)
-                    .hasMissingRequiredParameters(hasMissingRequiredParameters)
-                    .parallelExecutionGroups(parallelExecutionGroups)
-                    .version(1)
-                    .generatedAt(LocalDateTime.now())
-                    .optimized(true)
-                    .build();
+            Map<String, Set<ParameterRequirement>> missingParameters = parameterValidationService
+                    .identifyMissingParameters(toolsInOrder, providedParameters, catalog.getTools());
+
+            ExecutionPlanView plan = buildPlan(toolsInOrder, missingParameters, graph, catalog);
 
             // Store versioned plan
             storePlanVersion(generatePlanKey(toolIds), plan);
 
+            if (isCacheable(snapshot, allToolIds, changeVersion)) {
+                compiledPlanCache.put(planCacheKey, plan);
+            }
+
             long elapsedTime = sample.stop(meterRegistry.timer("execution.plan.generation.time"));
             log.debug("Generated execution plan in {}ms with {} tools in order and {} parallel groups",
-                    elapsedTime / 1_000_000, toolsInOrder.size(), parallelExecutionGroups.size());
+                    elapsedTime / 1_000_000, toolsInOrder.size(), plan.getParallelGroupCount());
 
             return plan;
         } catch (Exception e) {
@@ -116,78 +123,274 @@ public class ExecutionPlanService {
     }
 
     /**
-     * Identifies groups of tools that can be executed in parallel.
+     * Generates execution plans for a batch of requests. Requests for the same set of tools and
+     * parameter names are planned once, all plans are computed on one snapshot of the dependency
+     * graph, and the tools of all plans that are not cached are read from the catalog together.
      *
-     * @param toolsInOrder The tools in topological order
-     * @return List of sets, where each set contains tools that can be executed in parallel
+     * @param requests The execution plan requests
+     * @return The execution plans, in the order of the requests
+     * @throws InvalidParameterException If the batch is larger than the maximum batch size
      */
-    List<Set<String>> identifyParallelExecutionGroups(List<String> toolsInOrder) {
-        DirectedGraph<String> graph = graphService.buildDependencyGraph(true);
-        List<Set<String>> parallelGroups = new ArrayList<>();
-
-        // Group 1: Tools with no dependencies (source nodes)
-        Set<String> sourceNodes = new HashSet<>();
-        for (String tool : toolsInOrder) {
-            if (graph.getIncomingEdges(tool).isEmpty()) {
-                sourceNodes.add(tool);
+    public List<ExecutionPlanView> generateExecutionPlans(List<ExecutionPlanRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new InvalidParameterException("requests", "a batch holds at most " + maxBatchSize + " plans");
+        }
+
+        List<BatchPlan> requestPlans = planBatch(requests);
+        List<ExecutionPlanView> plans = new ArrayList<>(requestPlans.size());
+        for (BatchPlan batchPlan : requestPlans) {
+            if (batchPlan.error != null) {
+                throw batchPlan.error;
+            }
+            plans.add(batchPlan.plan);
+        }
+        return plans;
+    }
+
+    /**
+     * Plans a batch of requests. A request that cannot be planned, e.g. because it names an unknown
+     * tool, records its error without affecting the other requests of the batch.
+     *
+     * @param requests The execution plan requests
+     * @return The plan or error of every request, in the order of the requests
+     */
+    private List<BatchPlan> planBatch(List<ExecutionPlanRequest> requests) {
+        log.debug("Generating {} execution plans", requests.size());
+        Timer.Sample sample = Timer.start(meterRegistry);
+
+        DependencyGraphStore.Snapshot snapshot = graphService.getGraphSnapshot();
+        DirectedGraph<String> graph = snapshot.getGraph(true);
+
+        // Deduplicate requests by their tool set and parameter names
+        Map<List<Set<String>>, BatchPlan> distinctPlans = new LinkedHashMap<>();
+        List<BatchPlan> requestPlans = new ArrayList<>(requests.size());
+        for (ExecutionPlanRequest request : requests) {
+            BatchPlan batchPlan = new BatchPlan(request);
+            requestPlans.add(distinctPlans.computeIfAbsent(batchPlan.canonicalKey(), k -> batchPlan));
+        }
+
+        // Reuse compiled plans and collect the tools of the remaining ones
+        Set<String> uncachedToolIds = new HashSet<>();
+        for (BatchPlan batchPlan : distinctPlans.values()) {
+            try {
+                batchPlan.closure = graphService.getDependencyClosure(graph, batchPlan.toolIds);
+                batchPlan.changeVersion = graphService.getChangeVersion(batchPlan.closure);
+                batchPlan.cacheKey = CompiledPlanCache.key(
+                        batchPlan.toolIds, CompiledPlanCache.providedNames(batchPlan.providedParameters),
+                        batchPlan.changeVersion);
+                batchPlan.plan = compiledPlanCache.get(batchPlan.cacheKey);
+                if (batchPlan.plan == null) {
+                    uncachedToolIds.addAll(batchPlan.closure);
+                }
+            } catch (RuntimeException e) {
+                batchPlan.error = e;
+            }
+        }
+
+        if (!uncachedToolIds.isEmpty()) {
+            compileBatch(snapshot, distinctPlans.values(), uncachedToolIds);
+        }
+
+        long failed = 0;
+        for (BatchPlan batchPlan : distinctPlans.values()) {
+            if (batchPlan.error != null) {
+                failed++;
+                log.warn("Failed to generate execution plan for tools {}: {}",
+                        batchPlan.toolIds, batchPlan.error.getMessage());
             }
         }
 
-        if (!sourceNodes.isEmpty()) {
-            parallelGroups.add(sourceNodes);
+        long elapsedTime = sample.stop(meterRegistry.timer("execution.plan.batch.generation.time"));
+        meterRegistry.counter("execution.plan.batch.deduplicated").increment(requests.size() - distinctPlans.size());
+        if (failed > 0) {
+            meterRegistry.counter("execution.plan.generation.error").increment(failed);
         }
+        log.debug("Generated {} execution plans ({} distinct, {} failed, {} tools loaded) in {}ms",
+                requests.size(), distinctPlans.size(), failed, uncachedToolIds.size(), elapsedTime / 1_000_000);
 
-        // Process remaining tools level by level
-        Set<String> processedTools = new HashSet<>(sourceNodes);
-        while (processedTools.size() < toolsInOrder.size()) {
-            Set<String> nextLevelTools = new HashSet<>();
+        return requestPlans;
+    }
 
-            for (String tool : toolsInOrder) {
-                if (processedTools.contains(tool)) {
-                    continue;
+    /**
+     * Compiles the plans of a batch that were not cached, using one catalog lookup of all their tools.
+     * A plan that fails to compile records its error.
+     *
+     * @param snapshot The dependency graph snapshot shared by the batch
+     * @param batchPlans The distinct plans of the batch
+     * @param toolIds The IDs of all tools in the closures of the plans to compile
+     */
+    private void compileBatch(DependencyGraphStore.Snapshot snapshot, Collection<BatchPlan> batchPlans,
+                              Set<String> toolIds) {
+        DirectedGraph<String> graph = snapshot.getGraph(true);
+        ToolCatalog.CatalogView catalog;
+        try {
+            catalog = toolCatalog.lookup(toolIds);
+        } catch (RuntimeException e) {
+            for (BatchPlan batchPlan : batchPlans) {
+                if (batchPlan.plan == null && batchPlan.error == null) {
+                    batchPlan.error = e;
                 }
+            }
+            return;
+        }
+
+        for (BatchPlan batchPlan : batchPlans) {
+            if (batchPlan.plan != null || batchPlan.error != null) {
+                continue;
+            }
+
+            try {
+                requireTools(batchPlan.toolIds, catalog);
+                List<String> toolsInOrder = graphService.topologicalSort(graph, new ArrayList<>(batchPlan.closure));
+                Map<String, Set<ParameterRequirement>> missingParameters = parameterValidationService
+                        .identifyMissingParameters(toolsInOrder, batchPlan.providedParameters, catalog.getTools());
 
-                // Check if all dependencies are processed
-                Set<String> dependencies = graph.getIncomingEdges(tool);
-                if (processedTools.containsAll(dependencies)) {
-                    nextLevelTools.add(tool);
+                ExecutionPlanView plan = buildPlan(toolsInOrder, missingParameters, graph, catalog);
+                storePlanVersion(generatePlanKey(batchPlan.toolIds), plan);
+
+                if (isCacheable(snapshot, batchPlan.closure, batchPlan.changeVersion)) {
+                    compiledPlanCache.put(batchPlan.cacheKey, plan);
                 }
+                batchPlan.plan = plan;
+            } catch (RuntimeException e) {
+                batchPlan.error = e;
             }
+        }
+    }
 
-            if (!nextLevelTools.isEmpty()) {
-                parallelGroups.add(nextLevelTools);
-                processedTools.addAll(nextLevelTools);
-            } else {
-                // Avoid infinite loop if there's a cycle
-                break;
+    /**
+     * Checks that the requested tools of a plan exist. The dependency graph only knows tools with
+     * dependencies, so the catalog decides.
+     *
+     * @param toolIds The IDs of the requested tools
+     * @param catalog The catalog entries of the plan's tools
+     * @throws ToolNotFoundException If a tool does not exist
+     */
+    private void requireTools(Collection<String> toolIds, ToolCatalog.CatalogView catalog) {
+        for (String toolId : toolIds) {
+            if (!catalog.getTools().containsKey(toolId)) {
+                throw new ToolNotFoundException(toolId);
             }
         }
+    }
 
-        return parallelGroups;
+    /**
+     * Checks if a plan compiled from a snapshot may be cached under a change version. The snapshot
+     * must already reflect the changes up to that version, and no tool of the closure may have changed
+     * while compiling.
+     *
+     * @param snapshot The snapshot the plan was compiled from
+     * @param closure The tools of the plan
+     * @param changeVersion The change version of the tools when compiling started
+     * @return true if the plan matches the change version
+     */
+    private boolean isCacheable(DependencyGraphStore.Snapshot snapshot, Set<String> closure, long changeVersion) {
+        return changeVersion <= snapshot.getVersion() && graphService.getChangeVersion(closure) == changeVersion;
+    }
+
+    /**
+     * Builds an execution plan from the ordered tools of its dependency closure.
+     *
+     * @param toolsInOrder The tools in topological order
+     * @param missingParameters Map of tool ID to its missing parameters
+     * @param graph The required dependency graph
+     * @param catalog The catalog entries of the tools
+     * @return The plan, with version 1
+     */
+    private ExecutionPlanView buildPlan(List<String> toolsInOrder,
+                                        Map<String, Set<ParameterRequirement>> missingParameters,
+                                        DirectedGraph<String> graph,
+                                        ToolCatalog.CatalogView catalog) {
+        // Schedule the tools along the critical path and generate parallel execution groups
+        CriticalPathSchedule<String> schedule = scheduleExecution(graph, toolsInOrder);
+        List<Set<String>> parallelExecutionGroups = schedule.groups();
+
+        // Apply API context-aware optimization
+        optimizeExecutionPlanForApi(parallelExecutionGroups, catalog.getTools(), catalog.getApiMetadata());
+
+        // Get parameter mappings
+        Map<String, List<ParameterMappingDTO>> parameterMappings = getParameterMappings(toolsInOrder, catalog.getTools());
+
+        // Determine if there are missing required parameters
+        boolean hasMissingRequiredParameters =
+                parameterValidationService.hasRequiredParametersMissing(missingParameters);
+
+        return ExecutionPlanView.builder()
+                .toolsInOrder(toolsInOrder)
+                .missingParameters(missingParameters)
+                .parameterMappings(parameterMappings)
+                .hasMissingRequiredParameters(hasMissingRequiredParameters)
+                .parallelExecutionGroups(parallelExecutionGroups)
+                .earliestStartTimes(schedule.earliestStartTimes())
+                .slackTimes(schedule.slackTimes())
+                .criticalPath(schedule.criticalPath())
+                .estimatedExecutionTime(schedule.makespan())
+                .version(1)
+                .generatedAt(LocalDateTime.now())
+                .optimized(true)
+                .build();
+    }
+
+    /**
+     * Identifies groups of tools that can be executed in parallel.
+     *
+     * @param toolsInOrder The tools in topological order
+     * @return List of sets, where each set contains tools that can be executed in parallel
+     */
+    List<Set<String>> identifyParallelExecutionGroups(List<String> toolsInOrder) {
+        return scheduleExecution(graphService.buildDependencyGraph(true), toolsInOrder).groups();
+    }
+
+    /**
+     * Schedules the tools of a plan using their observed mean call duration as their cost.
+     * Tools without observations, such as tools that are not API tools, get the default duration.
+     *
+     * @param requiredGraph The required dependency graph
+     * @param toolsInOrder The tools in topological order
+     * @return The schedule with earliest start times, slack and the critical path
+     */
+    CriticalPathSchedule<String> scheduleExecution(DirectedGraph<String> requiredGraph, List<String> toolsInOrder) {
+        CompactGraph<String> graph = requiredGraph.compact();
+        Map<String, Double> observedDurations = apiMetricsService.getMeanCallDurations(toolsInOrder);
+
+        long[] durations = new long[toolsInOrder.size()];
+        for (int i = 0; i < durations.length; i++) {
+            Double observed = observedDurations.get(toolsInOrder.get(i));
+            durations[i] = observed != null ? Math.round(observed) : defaultToolDurationMs;
+        }
+
+        CriticalPathSchedule<String> schedule = CriticalPathSchedule.compute(graph, toolsInOrder, durations);
+        log.debug("Scheduled {} tools with makespan {}ms along critical path {}",
+                toolsInOrder.size(), schedule.makespan(), schedule.criticalPath());
+        return schedule;
     }
 
     /**
      * Optimizes execution plan for API tools - grouping API calls to the same endpoints.
      *
      * @param parallelExecutionGroups The groups of tools that can be executed in parallel
+     * @param tools Map of tool ID to tool
+     * @param apiMetadata Map of tool ID to API metadata
      */
-    private void optimizeExecutionPlanForApi(List<Set<String>> parallelExecutionGroups) {
+    private void optimizeExecutionPlanForApi(List<Set<String>> parallelExecutionGroups,
+                                             Map<String, Tool> tools,
+                                             Map<String, ApiToolMetadataDTO> apiMetadata) {
         List<Set<String>> optimizedGroups = new ArrayList<>();
 
         for (Set<String> group : parallelExecutionGroups) {
-            // Group API tools by their base URL for optimization
-            Map<String, Set<String>> toolsByBaseUrl = new HashMap<>();
-            Set<String> nonApiTools = new HashSet<>();
+            // Group API tools by their base URL for optimization, keeping the most urgent tools first
+            Map<String, Set<String>> toolsByBaseUrl = new LinkedHashMap<>();
+            Set<String> nonApiTools = new LinkedHashSet<>();
 
             for (String toolId : group) {
-                Tool tool = toolRepository.findById(toolId).orElse(null);
+                Tool tool = tools.get(toolId);
                 if (tool == null) continue;
 
                 if (tool.getToolType() == ToolType.API_TOOL) {
-                    ApiToolMetadataDTO apiMetadata = apiToolService.getApiToolMetadataDTO(toolId);
-                    if (apiMetadata != null) {
-                        String baseUrl = apiMetadata.getBaseUrl();
-                        toolsByBaseUrl.computeIfAbsent(baseUrl, k -> new HashSet<>()).add(toolId);
+                    ApiToolMetadataDTO toolMetadata = apiMetadata.get(toolId);
+                    if (toolMetadata != null) {
+                        String baseUrl = toolMetadata.getBaseUrl();
+                        toolsByBaseUrl.computeIfAbsent(baseUrl, k -> new LinkedHashSet<>()).add(toolId);
                     } else {
                         nonApiTools.add(toolId);
                     }
@@ -212,69 +415,149 @@ public class ExecutionPlanService {
     }
 
     /**
-     * Handles execution plan requests from Kafka.
+     * Handles batches of execution plan requests from Kafka. Each request is answered with its own
+     * response, keyed by the request's record key, or by a new ID if the record has no key. Requests
+     * that cannot be read or planned are answered with an error response. Batches larger than the
+     * maximum batch size are planned in chunks.
      *
-     * @param request The execution plan request
-     * @param ack The acknowledgment
+     * @param records The execution plan request records, as JSON strings
+     * @param ack The acknowledgment for the whole batch
      */
-    @KafkaListener(topics = "${kafka.topic.execution-plan-requests}", groupId = "${spring.kafka.consumer.group-id}")
-    public void handleExecutionPlanRequest(ExecutionPlanRequest request, Acknowledgment ack) {
+    @KafkaListener(topics = "${kafka.topic.execution-plan-requests}", groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleExecutionPlanRequests(List<ConsumerRecord<String, String>> records, Acknowledgment ack) {
         Timer.Sample sample = Timer.start(meterRegistry);
-        String requestId = UUID.randomUUID().toString();
+        log.info("Received batch of {} execution plan requests", records.size());
+
+        List<PendingRequest> pending = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            String requestId = record.key() != null ? record.key() : UUID.randomUUID().toString();
+            try {
+                ExecutionPlanRequest request = objectMapper.readValue(record.value(), ExecutionPlanRequest.class);
+                pending.add(new PendingRequest(requestId, request));
+            } catch (Exception e) {
+                log.error("Unreadable execution plan request {} at offset {}: {}",
+                        requestId, record.offset(), e.getMessage());
+                sendError(requestId, "Unreadable execution plan request: " + e.getMessage());
+            }
+        }
+
+        int chunkSize = Math.max(1, maxBatchSize);
+        for (int from = 0; from < pending.size(); from += chunkSize) {
+            respond(pending.subList(from, Math.min(pending.size(), from + chunkSize)));
+        }
+
+        // Acknowledge even after failures, which were answered, to avoid reprocessing
+        ack.acknowledge();
+
+        long elapsedTime = sample.stop(meterRegistry.timer("execution.plan.request.processing.time"));
+        log.info("Processed batch of {} execution plan requests in {}ms", records.size(), elapsedTime / 1_000_000);
+    }
+
+    /**
+     * Plans a chunk of requests and sends the response of each.
+     *
+     * @param chunk The requests, at most the maximum batch size
+     */
+    private void respond(List<PendingRequest> chunk) {
+        List<ExecutionPlanRequest> requests = new ArrayList<>(chunk.size());
+        for (PendingRequest pendingRequest : chunk) {
+            requests.add(pendingRequest.request);
+        }
 
+        List<BatchPlan> plans;
         try {
-            log.info("Received execution plan request for tools: {}", request.getToolIds());
-
-            // Generate execution plan
-            ExecutionPlanView plan = generateExecutionPlan(
-                    request.getToolIds(), request.getProvidedParameters());
-
-            // Create response
-            ExecutionPlanResponse response = new ExecutionPlanResponse();
-            response.setRequestId(requestId);
-            response.setTimestamp(LocalDateTime.now());
-            response.setToolsInOrder(plan.getToolsInOrder());
-            response.setMissingParameters(convertToResponseParameterRequirements(plan.getMissingParameters()));
-            response.setParameterMappings(plan.getParameterMappings());
-            response.setHasMissingRequiredParameters(plan.isHasMissingRequiredParameters());
-            response.setParallelExecutionGroups(plan.getParallelExecutionGroups());
-            response.setVersion(plan.getVersion());
-            response.setOptimized(plan.isOptimized());
-
-            // Send response
-            kafkaTemplate.send("${kafka.topic.execution-plan-responses}", requestId, response);
-
-            // Acknowledge message
-            ack.acknowledge();
-
-            long elapsedTime = sample.stop(meterRegistry.timer("execution.plan.request.processing.time"));
-            log.info("Processed execution plan request {} in {}ms", requestId, elapsedTime / 1_000_000);
+            plans = planBatch(requests);
         } catch (Exception e) {
-            log.error("Failed to process execution plan request", e);
-            meterRegistry.counter("execution.plan.request.error").increment();
-            ack.acknowledge(); // Still acknowledge to avoid reprocessing
+            log.error("Failed to process batch of {} execution plan requests", chunk.size(), e);
+            for (PendingRequest pendingRequest : chunk) {
+                sendError(pendingRequest.requestId, e.getMessage());
+            }
+            return;
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            String requestId = chunk.get(i).requestId;
+            BatchPlan batchPlan = plans.get(i);
+            if (batchPlan.error != null) {
+                sendError(requestId, batchPlan.error.getMessage());
+            } else {
+                send(requestId, toResponse(requestId, batchPlan.plan));
+            }
         }
     }
 
+    /**
+     * Sends the error response of a request that could not be planned.
+     *
+     * @param requestId The ID of the request
+     * @param error The error message
+     */
+    private void sendError(String requestId, String error) {
+        meterRegistry.counter("execution.plan.request.error").increment();
+
+        ExecutionPlanResponse response = new ExecutionPlanResponse();
+        response.setRequestId(requestId);
+        response.setTimestamp(LocalDateTime.now());
+        response.setError(error != null ? error : "Failed to generate execution plan");
+        send(requestId, response);
+    }
+
+    private void send(String requestId, ExecutionPlanResponse response) {
+        try {
+            kafkaTemplate.send(executionPlanResponsesTopic, requestId, response);
+        } catch (Exception e) {
+            log.error("Failed to send execution plan response {}: {}", requestId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Creates the Kafka response for a plan.
+     *
+     * @param requestId The ID of the request
+     * @param plan The execution plan
+     * @return The response
+     */
+    private ExecutionPlanResponse toResponse(String requestId, ExecutionPlanView plan) {
+        ExecutionPlanResponse response = new ExecutionPlanResponse();
+        response.setRequestId(requestId);
+        response.setTimestamp(LocalDateTime.now());
+        response.setToolsInOrder(plan.getToolsInOrder());
+        response.setMissingParameters(convertToResponseParameterRequirements(plan.getMissingParameters()));
+        response.setParameterMappings(plan.getParameterMappings());
+        response.setHasMissingRequiredParameters(plan.isHasMissingRequiredParameters());
+        response.setParallelExecutionGroups(plan.getParallelExecutionGroups());
+        response.setEarliestStartTimes(plan.getEarliestStartTimes());
+        response.setSlackTimes(plan.getSlackTimes());
+        response.setCriticalPath(plan.getCriticalPath());
+        response.setEstimatedExecutionTime(plan.getEstimatedExecutionTime());
+        response.setVersion(plan.getVersion());
+        response.setOptimized(plan.isOptimized());
+        return response;
+    }
+
     /**
      * Gets parameter mappings for tools in the execution order.
      *
      * @param toolsInOrder The tools in execution order
+     * @param tools Map of tool ID to tool
      * @return Map of tool ID to list of parameter mappings
      */
-    private Map<String, List<ParameterMappingDTO>> getParameterMappings(List<String> toolsInOrder) {
+    private Map<String, List<ParameterMappingDTO>> getParameterMappings(List<String> toolsInOrder,
+                                                                        Map<String, Tool> tools) {
         Map<String, List<ParameterMappingDTO>> result = new HashMap<>();
+        Set<String> planTools = new HashSet<>(toolsInOrder);
 
         for (String toolId : toolsInOrder) {
             List<ParameterMappingDTO> mappings = new ArrayList<>();
 
             // Get tool's dependencies
-            Tool tool = toolRepository.findById(toolId).orElse(null);
+            Tool tool = tools.get(toolId);
             if (tool == null) continue;
 
             for (ToolDependency dependency : tool.getDependencies()) {
                 // Only consider dependencies that are in our execution order
-                if (toolsInOrder.contains(dependency.getDependencyTool().getId())) {
+                if (planTools.contains(dependency.getDependencyTool().getId())) {
                     for (ParameterMapping mapping : dependency.getParameterMappings()) {
                         mappings.add(parameterMappingMapper.toDto(mapping));
                     }
@@ -307,26 +590,13 @@ public class ExecutionPlanService {
     }
 
     /**
-     * Stores a versioned execution plan.
+     * Stores a copy of an execution plan as the next version of its key and sets the version on the plan.
      *
      * @param planKey The key for the plan
      * @param plan The execution plan
      */
     private void storePlanVersion(String planKey, ExecutionPlanView plan) {
-        Map<Integer, ExecutionPlanView> versions = planVersionCache.computeIfAbsent(planKey, k -> new HashMap<>());
-
-        // Determine next version number
-        int nextVersion = versions.keySet().stream().max(Integer::compare).orElse(0) + 1;
-        plan.setVersion(nextVersion);
-
-        // Store the plan
-        versions.put(nextVersion, plan);
-
-        // Prune old versions if needed
-        if (versions.size() > MAX_PLAN_VERSIONS) {
-            Integer oldestVersion = versions.keySet().stream().min(Integer::compare).orElse(1);
-            versions.remove(oldestVersion);
-        }
+        plan.setVersion(planVersionStore.append(planKey, plan.copy()));
     }
 
     /**
@@ -337,14 +607,7 @@ public class ExecutionPlanService {
      * @return The execution plan, or null if not found
      */
     public ExecutionPlanView getExecutionPlanVersion(List<String> toolIds, int version) {
-        String planKey = generatePlanKey(toolIds);
-        Map<Integer, ExecutionPlanView> versions = planVersionCache.get(planKey);
-
-        if (versions == null) {
-            return null;
-        }
-
-        return versions.get(version);
+        return planVersionStore.get(generatePlanKey(toolIds), version);
     }
 
     /**
@@ -354,8 +617,7 @@ public class ExecutionPlanService {
      * @return Map of version to execution plan
      */
     public Map<Integer, ExecutionPlanView> getAllExecutionPlanVersions(List<String> toolIds) {
-        String planKey = generatePlanKey(toolIds);
-        return planVersionCache.getOrDefault(planKey, Collections.emptyMap());
+        return planVersionStore.getAll(generatePlanKey(toolIds));
     }
 
     /**
@@ -367,4 +629,42 @@ public class ExecutionPlanService {
     private String generatePlanKey(List<String> toolIds) {
         return toolIds.stream().sorted().collect(Collectors.joining("-"));
     }
-}
\ No newline at end of file
+
+    /**
+     * A distinct plan of a batch, with the state computed for it along the way.
+     */
+    private static final class BatchPlan {
+        private final List<String> toolIds;
+        private final Map<String, Object> providedParameters;
+        private Set<String> closure;
+        private long changeVersion;
+        private String cacheKey;
+        private ExecutionPlanView plan;
+        private RuntimeException error;
+
+        private BatchPlan(ExecutionPlanRequest request) {
+            this.toolIds = request.getToolIds() != null ? request.getToolIds() : List.of();
+            this.providedParameters = request.getProvidedParameters() != null ? request.getProvidedParameters() : Map.of();
+        }
+
+        /**
+         * Gets the key that identifies requests for the same plan, independent of the order of the tools.
+         */
+        private List<Set<String>> canonicalKey() {
+            return List.of(new TreeSet<>(toolIds), new TreeSet<>(CompiledPlanCache.providedNames(providedParameters)));
+        }
+    }
+
+    /**
+     * A request read from a record, with the ID its response is keyed by.
+     */
+    private static final class PendingRequest {
+        private final String requestId;
+        private final ExecutionPlanRequest request;
+
+        private PendingRequest(String requestId, ExecutionPlanRequest request) {
+            this.requestId = requestId;
+            this.request = request;
+        }
+    }
+}
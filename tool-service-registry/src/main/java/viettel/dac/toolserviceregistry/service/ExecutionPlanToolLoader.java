@@ -0,0 +1,51 @@
+package viettel.dac.toolserviceregistry.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.repository.ToolDependencyRepository;
+import viettel.dac.toolserviceregistry.repository.ToolRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads the tools needed to compile a batch of execution plans with a fixed number of queries,
+ * independent of the number of tools: one for the tools with their parameters, one for their
+ * dependencies and one for the parameter mappings of those dependencies. The queries share one
+ * persistence context, so the returned tools have all three initialized.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ExecutionPlanToolLoader {
+
+    private final ToolRepository toolRepository;
+    private final ToolDependencyRepository dependencyRepository;
+
+    /**
+     * Loads tools with their parameters, dependencies and parameter mappings.
+     *
+     * @param toolIds The IDs of the tools
+     * @return Map of tool ID to tool, for the tools that exist
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Tool> load(Collection<String> toolIds) {
+        Map<String, Tool> tools = new HashMap<>();
+        if (toolIds.isEmpty()) {
+            return tools;
+        }
+
+        for (Tool tool : toolRepository.findAllWithParametersByIdIn(toolIds)) {
+            tools.put(tool.getId(), tool);
+        }
+        toolRepository.findAllWithDependenciesByIdIn(toolIds);
+        dependencyRepository.findAllWithParameterMappingsByToolIdIn(toolIds);
+
+        log.debug("Loaded {} tools for execution planning", tools.size());
+        return tools;
+    }
+}
@@ -0,0 +1,225 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
+import viettel.dac.toolserviceregistry.model.enums.ExecutionProgressEventType;
+import viettel.dac.toolserviceregistry.model.event.ExecutionProgressEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the progress of execution plan runs to clients as server-sent events.
+ * <p>
+ * Runs never wait for clients: each stream buffers at most a fixed number of events, and a stream
+ * whose client cannot keep up drops tool events and tells the client how many it missed. The final
+ * event, which carries the outcome of every tool, is always delivered. A small pool of sender threads
+ * hands the buffered events to writer threads a bounded batch at a time, so one slow client cannot
+ * monopolize a sender. A batch that is not written within the send timeout, e.g. because the client
+ * stopped reading, closes the stream, so a stalled client holds at most one writer and never a sender.
+ */
+@Service
+@Slf4j
+public class ExecutionProgressStreamService {
+    private static final int SEND_BATCH_SIZE = 32;
+
+    private final PlanExecutionService planExecutionService;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService senders;
+    private final ExecutorService writers;
+
+    @Value("${tool.registry.executor.progress-buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${tool.registry.executor.progress-timeout-ms:600000}")
+    private long timeoutMs;
+
+    @Value("${tool.registry.executor.progress-send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    public ExecutionProgressStreamService(PlanExecutionService planExecutionService,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${tool.registry.executor.progress-threads:4}") int threads) {
+        this.planExecutionService = planExecutionService;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "progress-sender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger writerCount = new AtomicInteger();
+        this.writers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "progress-writer-" + writerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        writers.shutdownNow();
+    }
+
+    /**
+     * Runs an execution plan and streams its progress.
+     *
+     * @param plan The execution plan
+     * @param providedParameters The parameters provided for the plan
+     * @return The emitter of the progress events, completed after the final event
+     */
+    public SseEmitter stream(ExecutionPlanView plan, Map<String, Object> providedParameters) {
+        return stream(plan, providedParameters, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter stream(ExecutionPlanView plan, Map<String, Object> providedParameters, SseEmitter emitter) {
+        ProgressStream stream = new ProgressStream(emitter);
+        emitter.onCompletion(stream::close);
+        emitter.onTimeout(stream::close);
+        emitter.onError(e -> stream.close());
+
+        planExecutionService.execute(plan, providedParameters, stream::offer);
+        return emitter;
+    }
+
+    /**
+     * The bounded buffer of one client. Guarded by its own monitor.
+     */
+    private final class ProgressStream {
+        private final SseEmitter emitter;
+        private final Deque<ExecutionProgressEvent> buffer = new ArrayDeque<>();
+        private long dropped;
+        private boolean draining;
+        private boolean closed;
+
+        private ProgressStream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Buffers an event without blocking. A full buffer drops the event, or, for the final event,
+         * the oldest buffered tool event.
+         */
+        private void offer(ExecutionProgressEvent event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= Math.max(1, bufferSize)) {
+                    if (!isFinal(event) || !dropOldestToolEvent()) {
+                        dropped++;
+                        meterRegistry.counter("execution.progress.events.dropped").increment();
+                        return;
+                    }
+                }
+                buffer.add(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            senders.execute(this::drain);
+        }
+
+        private boolean dropOldestToolEvent() {
+            Iterator<ExecutionProgressEvent> iterator = buffer.iterator();
+            while (iterator.hasNext()) {
+                if (!isFinal(iterator.next())) {
+                    iterator.remove();
+                    dropped++;
+                    meterRegistry.counter("execution.progress.events.dropped").increment();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Hands up to one batch of buffered events to a writer, and continues once it is written.
+         */
+        private void drain() {
+            List<ExecutionProgressEvent> batch = new ArrayList<>();
+            long missed;
+            synchronized (this) {
+                while (!closed && batch.size() < SEND_BATCH_SIZE && !buffer.isEmpty()) {
+                    batch.add(buffer.poll());
+                }
+                if (batch.isEmpty()) {
+                    draining = false;
+                    return;
+                }
+                missed = dropped;
+                dropped = 0;
+            }
+
+            CompletableFuture.runAsync(() -> write(batch, missed), writers)
+                    .orTimeout(sendTimeoutMs, TimeUnit.MILLISECONDS)
+                    .whenCompleteAsync((written, error) -> afterWrite(batch, error), senders);
+        }
+
+        /**
+         * Writes a batch of events to the client. May block while the client does not read.
+         */
+        private void write(List<ExecutionProgressEvent> batch, long missed) {
+            try {
+                if (missed > 0) {
+                    emitter.send(SseEmitter.event().name("dropped").data(Map.of("count", missed)));
+                }
+                for (ExecutionProgressEvent event : batch) {
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(event.getSequence()))
+                            .name(event.getEventType())
+                            .data(event));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Completes the stream after its final event or a failed write, and otherwise sends the next batch.
+         */
+        private void afterWrite(List<ExecutionProgressEvent> batch, Throwable error) {
+            ExecutionProgressEvent last = batch.get(batch.size() - 1);
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                if (cause instanceof TimeoutException) {
+                    meterRegistry.counter("execution.progress.streams.timed_out").increment();
+                    log.debug("Progress client of execution {} did not accept events within {}ms",
+                            last.getExecutionId(), sendTimeoutMs);
+                } else {
+                    log.debug("Progress client of execution {} went away: {}", last.getExecutionId(), cause.getMessage());
+                }
+                emitter.completeWithError(cause);
+                close();
+                return;
+            }
+            if (isFinal(last)) {
+                emitter.complete();
+                close();
+                return;
+            }
+            drain();
+        }
+
+        private synchronized void close() {
+            closed = true;
+            buffer.clear();
+        }
+
+        private boolean isFinal(ExecutionProgressEvent event) {
+            return ExecutionProgressEventType.PLAN_COMPLETED.name().equals(event.getEventType());
+        }
+    }
+}
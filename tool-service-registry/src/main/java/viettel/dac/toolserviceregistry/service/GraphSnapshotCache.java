@@ -0,0 +1,109 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.model.dto.graph.DependencyGraphStateDTO;
+
+/**
+ * Shared (Redis) tier of the dependency graph cache. The in-process tier is {@link DependencyGraphStore}.
+ * <p>
+ * Every committed graph change increments a generation counter in Redis. The cached state is only
+ * used if it was loaded at the current generation, so an instance that loaded from the database
+ * while another instance committed a change can never publish a stale state to its peers.
+ * Redis failures are logged and treated as a cache miss.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GraphSnapshotCache {
+    private static final String CACHE_NAME = "toolGraph";
+    private static final String STATE_KEY = "state";
+    private static final String GENERATION_KEY = "tool_registry:graph:generation";
+
+    private final CacheManager cacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tool.registry.enable-graph-caching:true}")
+    private boolean enabled;
+
+    /**
+     * Gets the current graph generation.
+     *
+     * @return The generation, or -1 if it cannot be read
+     */
+    public long currentGeneration() {
+        try {
+            Object value = redisTemplate.opsForValue().get(GENERATION_KEY);
+            return value == null ? 0L : Long.parseLong(value.toString());
+        } catch (Exception e) {
+            log.warn("Could not read dependency graph generation: {}", e.getMessage());
+            return -1L;
+        }
+    }
+
+    /**
+     * Advances the graph generation after a committed change, which invalidates the cached state.
+     *
+     * @return The new generation, or -1 if it cannot be updated
+     */
+    public long nextGeneration() {
+        try {
+            Long generation = redisTemplate.opsForValue().increment(GENERATION_KEY);
+            return generation != null ? generation : -1L;
+        } catch (Exception e) {
+            log.warn("Could not advance dependency graph generation: {}", e.getMessage());
+            return -1L;
+        }
+    }
+
+    /**
+     * Gets the cached graph state if it is current.
+     *
+     * @param generation The current generation
+     * @return The cached state, or null on a miss
+     */
+    public DependencyGraphStateDTO load(long generation) {
+        if (!enabled || generation < 0) {
+            return null;
+        }
+
+        DependencyGraphStateDTO state = null;
+        try {
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            state = cache != null ? cache.get(STATE_KEY, DependencyGraphStateDTO.class) : null;
+        } catch (Exception e) {
+            log.warn("Could not read cached dependency graph: {}", e.getMessage());
+        }
+
+        boolean hit = state != null && state.getGeneration() == generation;
+        meterRegistry.counter("dependency.graph.cache.requests", "result", hit ? "hit" : "miss").increment();
+        return hit ? state : null;
+    }
+
+    /**
+     * Stores the graph state for other instances.
+     *
+     * @param state The state, tagged with the generation it reflects
+     */
+    public void store(DependencyGraphStateDTO state) {
+        if (!enabled || state.getGeneration() < 0) {
+            return;
+        }
+
+        try {
+            Cache cache = cacheManager.getCache(CACHE_NAME);
+            if (cache != null) {
+                cache.put(STATE_KEY, state);
+            }
+        } catch (Exception e) {
+            log.warn("Could not cache dependency graph: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.model.event.GraphDeltaEvent;
+
+/**
+ * Consumer for graph update events from other instances of this service.
+ * Every instance uses its own consumer group, so each one sees every change and can apply it to
+ * its in-memory dependency graph.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class GraphUpdateEventConsumer {
+
+    private final DependencyGraphStore graphStore;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Consumes events from the tool-dependency-events topic.
+     *
+     * @param eventJson The event as a JSON string
+     * @param ack The acknowledgment object for manual ack
+     */
+    @KafkaListener(topics = "${kafka.topic.tool-dependency-events}",
+            groupId = "${spring.kafka.consumer.group-id}-graph-${random.uuid}",
+            containerFactory = "kafkaListenerContainerFactory",
+            properties = {"auto.offset.reset=latest"})
+    public void consumeGraphUpdateEvent(String eventJson, Acknowledgment ack) {
+        try {
+            GraphDeltaEvent event = objectMapper.readValue(eventJson, GraphDeltaEvent.class);
+            graphStore.onRemoteDelta(event);
+        } catch (Exception e) {
+            log.error("Error processing graph update event: {}", e.getMessage(), e);
+        }
+        // A delta that could not be applied leaves a version gap, so the next event reloads anyway
+        ack.acknowledge();
+    }
+}
@@ -3,7 +3,8 @@ package viettel.dac.toolserviceregistry.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import viettel.dac.toolserviceregistry.graph.DirectedGraph;
+import viettel.dac.toolserviceregistry.graph.CompactGraph;
+import viettel.dac.toolserviceregistry.graph.ParallelGraphAlgorithms;
 import viettel.dac.toolserviceregistry.model.dto.graph.GraphEdgeDTO;
 import viettel.dac.toolserviceregistry.model.dto.graph.GraphNodeDTO;
 import viettel.dac.toolserviceregistry.model.dto.graph.GraphVisualizationDTO;
@@ -25,6 +26,7 @@ import java.util.stream.Collectors;
 public class GraphVisualizationService {
     private final ToolRepository toolRepository;
     private final ToolDependencyGraphService dependencyGraphService;
+    private final ParallelGraphAlgorithms graphAlgorithms;
 
     /**
      * Generates visualization data for the complete dependency graph.
@@ -42,7 +44,10 @@ public class GraphVisualizationService {
             allTools = toolRepository.findAllByActiveTrue();
         }
 
-        return generateGraphForTools(allTools);
+        GraphVisualizationDTO graphData = generateGraphForTools(allTools);
+        addLayers(graphData);
+
+        return graphData;
     }
 
     /**
@@ -58,35 +63,32 @@ public class GraphVisualizationService {
         Set<String> toolIds = new HashSet<>();
         toolIds.add(toolId);
 
-        // Get dependency closure
-        if (depth <= 0) {
-            // Unlimited depth - get full closure
-            toolIds.addAll(dependencyGraphService.getDependencyClosure(Collections.singletonList(toolId)));
-        } else {
-            // Limited depth - get dependencies up to specified depth
-            Set<String> currentLevel = new HashSet<>(Collections.singleton(toolId));
-            DirectedGraph<String> graph = dependencyGraphService.buildDependencyGraph(false);
-
-            for (int i = 0; i < depth; i++) {
-                Set<String> nextLevel = new HashSet<>();
-                for (String id : currentLevel) {
-                    nextLevel.addAll(graph.getIncomingEdges(id));
-                }
-
-                toolIds.addAll(nextLevel);
-                currentLevel = nextLevel;
-
-                if (currentLevel.isEmpty()) {
-                    break;
+        // Get dependencies up to the specified depth (0 for unlimited) in one breadth-first pass,
+        // recording each one's distance from the central tool
+        Map<String, Integer> levels = new HashMap<>();
+        levels.put(toolId, 0);
+        CompactGraph<String> graph = dependencyGraphService.buildDependencyGraph(false).compact();
+        int centralId = graph.indexOf(toolId);
+        if (centralId >= 0) {
+            BitSet sources = new BitSet(graph.nodeCount());
+            sources.set(centralId);
+            int[] distances = graphAlgorithms.levels(graph, sources, true, Math.max(depth, 0));
+            for (int id = 0; id < distances.length; id++) {
+                if (distances[id] > 0) {
+                    levels.put(graph.node(id), distances[id]);
                 }
             }
         }
+        toolIds.addAll(levels.keySet());
 
         // Fetch all the tools
         List<Tool> tools = toolRepository.findAllById(toolIds);
 
         // Create the visualization
         GraphVisualizationDTO graphData = generateGraphForTools(tools);
+        for (GraphNodeDTO node : graphData.getNodes()) {
+            node.setLevel(levels.getOrDefault(node.getId(), 0));
+        }
 
         // Add metadata for the central tool
         graphData.getMetadata().put("centralToolId", toolId);
@@ -226,4 +228,40 @@ public class GraphVisualizationService {
 
         return graphData;
     }
-}
\ No newline at end of file
+
+    /**
+     * Sets the level of each node to its layer in the dependency graph: tools without dependencies
+     * are at level 0, every other tool is one level after its deepest dependency.
+     * Levels are left unset if the graph contains a cycle.
+     *
+     * @param graphData The graph visualization data
+     */
+    private void addLayers(GraphVisualizationDTO graphData) {
+        CompactGraph<String> graph = dependencyGraphService.buildDependencyGraph(false).compact();
+
+        int[][] layers;
+        try {
+            layers = graphAlgorithms.layers(graph);
+        } catch (IllegalStateException e) {
+            log.warn("Dependency graph contains a cycle, skipping layer computation");
+            return;
+        }
+
+        int[] layerOf = new int[graph.nodeCount()];
+        for (int layer = 0; layer < layers.length; layer++) {
+            for (int id : layers[layer]) {
+                layerOf[id] = layer;
+            }
+        }
+        int[] dependentCounts = graphAlgorithms.degrees(graph, false);
+
+        for (GraphNodeDTO node : graphData.getNodes()) {
+            int id = graph.indexOf(node.getId());
+            if (id >= 0) {
+                node.setLevel(layerOf[id]);
+                node.getMetadata().put("dependentCount", dependentCounts[id]);
+            }
+        }
+        graphData.getMetadata().put("layerCount", layers.length);
+    }
+}
@@ -0,0 +1,349 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.model.dto.ParameterRequirement;
+import viettel.dac.toolserviceregistry.model.entity.ParameterMapping;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
+import viettel.dac.toolserviceregistry.model.entity.ToolParameter;
+import viettel.dac.toolserviceregistry.model.enums.ParameterSource;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Memoized computation of the parameters missing for a sequence of tools.
+ * <p>
+ * The parameters of every tool are indexed once per {@link Tool#getVersion() tool version}: each
+ * parameter gets a bit, and the parameters missing for a tool are the bitmap of its input parameters
+ * with the bits of the available names cleared. Whole results are also remembered, keyed by the tool
+ * IDs in order and the set of provided parameter names, together with the versions of the tools they
+ * were computed from; a result computed from an older version of any of its tools is recomputed.
+ * Tool commands evict a changed tool right away.
+ * <p>
+ * Parameters that upstream tools will produce are not missing. The tools are walked in execution
+ * order, following the data flow of {@link PlanExecutionService}: a tool produces its inputs and its
+ * {@link ParameterSource#API_RESPONSE response parameters}, and its inputs are the provided parameters
+ * plus the targets of the {@link ParameterMapping parameter mappings} of its dependencies in the
+ * sequence whose sources those dependencies produce. A tool's own response parameters are outputs,
+ * never inputs, so they are not missing either.
+ */
+@Service
+@Slf4j
+public class MissingParameterIndex {
+    /** The suffix of the name made available by every executed tool. */
+    private static final String EXECUTED_SUFFIX = "_executed";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${tool.registry.missing-parameters.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, ToolRequirements> tools = new ConcurrentHashMap<>();
+
+    /** Access-ordered, so the eldest entry is the least recently used one. */
+    private final Map<ResultKey, Result> results = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ResultKey, Result> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public MissingParameterIndex(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("missing.parameters.cache.size", this, MissingParameterIndex::size).register(meterRegistry);
+    }
+
+    /**
+     * Identifies the parameters missing for a sequence of tools. A parameter is available when it is
+     * provided with a non-null value or mapped from a parameter that a dependency earlier in the
+     * sequence produces, and every tool makes {@code <tool name>_executed} available to the tools
+     * after it.
+     *
+     * @param toolsInOrder List of tool IDs in topological order
+     * @param providedParameters Map of parameters already provided
+     * @param toolLookup Function from tool ID to tool with its parameters loaded, or null if it does not exist
+     * @return Map of tool ID to set of missing parameters, owned by the caller
+     */
+    public Map<String, Set<ParameterRequirement>> identifyMissingParameters(
+            List<String> toolsInOrder,
+            Map<String, Object> providedParameters,
+            Function<String, Tool> toolLookup) {
+        Set<String> providedNames = new HashSet<>();
+        providedParameters.forEach((name, value) -> {
+            if (value != null) {
+                providedNames.add(name);
+            }
+        });
+
+        Tool[] resolved = new Tool[toolsInOrder.size()];
+        int[] versions = new int[resolved.length];
+        for (int i = 0; i < resolved.length; i++) {
+            resolved[i] = toolLookup.apply(toolsInOrder.get(i));
+            versions[i] = resolved[i] != null ? resolved[i].getVersion() : -1;
+        }
+
+        ResultKey key = new ResultKey(List.copyOf(toolsInOrder), Collections.unmodifiableSet(providedNames));
+        Result cached;
+        synchronized (results) {
+            cached = results.get(key);
+        }
+        if (cached != null && Arrays.equals(cached.versions, versions)) {
+            meterRegistry.counter("missing.parameters.cache.requests", "result", "hit").increment();
+            return copy(cached.missingParameters);
+        }
+        meterRegistry.counter("missing.parameters.cache.requests", "result", "miss").increment();
+
+        Map<String, Set<ParameterRequirement>> missingParameters = new HashMap<>();
+        List<String> executedNames = new ArrayList<>(resolved.length);
+        // Tool ID to the names the tool produces besides the provided parameters
+        Map<String, Set<String>> producedNames = new HashMap<>();
+        for (Tool tool : resolved) {
+            if (tool == null) {
+                continue;
+            }
+
+            ToolRequirements requirements = requirementsOf(tool);
+            Set<String> mappedNames = requirements.mappedNames(providedNames, producedNames);
+            BitSet missing = requirements.missing(providedNames, executedNames, mappedNames);
+            if (!missing.isEmpty()) {
+                missingParameters.put(tool.getId(), requirements.toSet(missing));
+            }
+
+            mappedNames.addAll(requirements.responseNames);
+            producedNames.put(tool.getId(), mappedNames);
+            executedNames.add(tool.getName() + EXECUTED_SUFFIX);
+        }
+
+        if (maxEntries > 0) {
+            synchronized (results) {
+                results.put(key, new Result(versions, missingParameters));
+            }
+        }
+        return copy(missingParameters);
+    }
+
+    /**
+     * Evicts the indexed parameters of a tool and every result computed from it.
+     *
+     * @param toolId The ID of the tool
+     */
+    public void evictTool(String toolId) {
+        tools.remove(toolId);
+        synchronized (results) {
+            results.keySet().removeIf(key -> key.toolIds.contains(toolId));
+        }
+    }
+
+    /**
+     * Gets the number of remembered results.
+     *
+     * @return The number of results
+     */
+    public int size() {
+        synchronized (results) {
+            return results.size();
+        }
+    }
+
+    /**
+     * Copies a remembered result into plain collections, which plans keep and serialize.
+     */
+    private static Map<String, Set<ParameterRequirement>> copy(Map<String, Set<ParameterRequirement>> missingParameters) {
+        Map<String, Set<ParameterRequirement>> copy = new HashMap<>(Math.max(16, missingParameters.size() * 2));
+        missingParameters.forEach((toolId, requirements) -> copy.put(toolId, new HashSet<>(requirements)));
+        return copy;
+    }
+
+    private ToolRequirements requirementsOf(Tool tool) {
+        ToolRequirements cached = tools.get(tool.getId());
+        if (cached != null && cached.version == tool.getVersion()) {
+            return cached;
+        }
+
+        ToolRequirements indexed = new ToolRequirements(tool);
+        tools.put(tool.getId(), indexed);
+        log.debug("Indexed {} parameters of tool {} at version {}",
+                indexed.requirements.length, tool.getId(), tool.getVersion());
+        return indexed;
+    }
+
+    /**
+     * The parameters of one tool at one version, one bit per parameter, with the parameter mappings
+     * of its dependencies.
+     */
+    private static final class ToolRequirements {
+        private final int version;
+        private final ParameterRequirement[] requirements;
+        private final Map<String, BitSet> bitsByName;
+        /** The parameters that are not response parameters, which the tool needs as inputs. */
+        private final BitSet inputs;
+        /** The names of the response parameters the tool extracts from its response. */
+        private final Set<String> responseNames = new HashSet<>();
+        private final List<DependencyMappings> dependencyMappings = new ArrayList<>();
+
+        private ToolRequirements(Tool tool) {
+            List<ToolParameter> parameters = tool.getParameters() != null ? tool.getParameters() : List.of();
+            this.version = tool.getVersion();
+            this.requirements = new ParameterRequirement[parameters.size()];
+            this.bitsByName = new HashMap<>(Math.max(16, parameters.size() * 2));
+            this.inputs = new BitSet(parameters.size());
+
+            for (int i = 0; i < requirements.length; i++) {
+                ToolParameter parameter = parameters.get(i);
+                requirements[i] = new ParameterRequirement(
+                        parameter.getName(),
+                        parameter.isRequired(),
+                        parameter.getPriority(),
+                        parameter.getDescription(),
+                        parameter.getExamples(),
+                        parameter.getDefaultValue());
+                bitsByName.computeIfAbsent(parameter.getName(), name -> new BitSet()).set(i);
+
+                if (parameter.getParameterSource() != ParameterSource.API_RESPONSE) {
+                    inputs.set(i);
+                } else if (parameter.getExtractionPath() != null && !parameter.getExtractionPath().isEmpty()) {
+                    // Only parameters with a path are extracted from the response
+                    responseNames.add(parameter.getName());
+                }
+            }
+
+            if (tool.getDependencies() != null) {
+                for (ToolDependency dependency : tool.getDependencies()) {
+                    if (dependency.getParameterMappings() != null && !dependency.getParameterMappings().isEmpty()) {
+                        dependencyMappings.add(new DependencyMappings(dependency));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Gets the names mapped to this tool from the parameters its dependencies produce.
+         *
+         * @param providedNames The names of the provided parameters, which every tool produces
+         * @param producedNames Tool ID to the other names produced by each tool earlier in the sequence
+         * @return A new set of the mapped target names
+         */
+        private Set<String> mappedNames(Set<String> providedNames, Map<String, Set<String>> producedNames) {
+            Set<String> mapped = new HashSet<>();
+            for (DependencyMappings mappings : dependencyMappings) {
+                Set<String> produced = producedNames.get(mappings.dependencyToolId);
+                if (produced == null) {
+                    // The dependency is not in the sequence, or not before this tool
+                    continue;
+                }
+                for (int i = 0; i < mappings.sources.length; i++) {
+                    if (providedNames.contains(mappings.sources[i]) || produced.contains(mappings.sources[i])) {
+                        mapped.add(mappings.targets[i]);
+                    }
+                }
+            }
+            return mapped;
+        }
+
+        /**
+         * Gets the bits of the input parameters whose names are neither provided nor made available by
+         * an earlier tool. Walks the smaller of the provided names and the parameter names.
+         */
+        private BitSet missing(Set<String> providedNames, List<String> executedNames, Set<String> mappedNames) {
+            BitSet missing = (BitSet) inputs.clone();
+            if (providedNames.size() <= bitsByName.size()) {
+                for (String name : providedNames) {
+                    clear(missing, name);
+                }
+            } else {
+                for (Map.Entry<String, BitSet> entry : bitsByName.entrySet()) {
+                    if (providedNames.contains(entry.getKey())) {
+                        missing.andNot(entry.getValue());
+                    }
+                }
+            }
+            for (String name : executedNames) {
+                clear(missing, name);
+            }
+            for (String name : mappedNames) {
+                clear(missing, name);
+            }
+            return missing;
+        }
+
+        private void clear(BitSet missing, String name) {
+            BitSet bits = bitsByName.get(name);
+            if (bits != null) {
+                missing.andNot(bits);
+            }
+        }
+
+        private Set<ParameterRequirement> toSet(BitSet bits) {
+            Set<ParameterRequirement> set = new HashSet<>(Math.max(16, bits.cardinality() * 2));
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                set.add(requirements[i]);
+            }
+            return set;
+        }
+    }
+
+    /**
+     * The parameter mappings of one dependency, as parallel arrays of source and target names.
+     */
+    private static final class DependencyMappings {
+        private final String dependencyToolId;
+        private final String[] sources;
+        private final String[] targets;
+
+        private DependencyMappings(ToolDependency dependency) {
+            List<ParameterMapping> mappings = dependency.getParameterMappings();
+            this.dependencyToolId = dependency.getDependencyTool().getId();
+            this.sources = new String[mappings.size()];
+            this.targets = new String[mappings.size()];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = mappings.get(i).getSourceParameter();
+                targets[i] = mappings.get(i).getTargetParameter();
+            }
+        }
+    }
+
+    /**
+     * The inputs a result depends on, besides the versions of its tools.
+     */
+    private static final class ResultKey {
+        private final List<String> toolIds;
+        private final Set<String> providedNames;
+
+        private ResultKey(List<String> toolIds, Set<String> providedNames) {
+            this.toolIds = toolIds;
+            this.providedNames = providedNames;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ResultKey other)) return false;
+            return toolIds.equals(other.toolIds) && providedNames.equals(other.providedNames);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * toolIds.hashCode() + providedNames.hashCode();
+        }
+    }
+
+    /**
+     * A remembered result, with the versions of the tools it was computed from.
+     */
+    private static final class Result {
+        private final int[] versions;
+        private final Map<String, Set<ParameterRequirement>> missingParameters;
+
+        private Result(int[] versions, Map<String, Set<ParameterRequirement>> missingParameters) {
+            this.versions = versions;
+            this.missingParameters = missingParameters;
+        }
+    }
+}
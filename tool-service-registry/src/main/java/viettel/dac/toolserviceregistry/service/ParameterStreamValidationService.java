@@ -0,0 +1,276 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.model.dto.RowValidationResult;
+import viettel.dac.toolserviceregistry.model.dto.ValidationResult;
+import viettel.dac.toolserviceregistry.model.dto.ValidationSummary;
+import viettel.dac.toolserviceregistry.model.enums.ValidationErrorType;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Validates streams of parameter rows in parallel.
+ * <p>
+ * The input is NDJSON, one JSON object of parameter values per line, all for the same tool. Lines are
+ * read in chunks, and every chunk is validated with the tool's compiled validators and serialized to
+ * NDJSON on a worker pool sized to the cores. Results are written in input order, one line per row,
+ * followed by a summary line. Only a fixed number of chunks is in flight at a time: reading waits for
+ * the oldest chunk to be written, so memory does not grow with the size of the stream.
+ */
+@Service
+@Slf4j
+public class ParameterStreamValidationService {
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() { };
+
+    private final ParameterValidatorCache validatorCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService workers;
+
+    @Value("${tool.registry.validation.stream-chunk-size:256}")
+    private int chunkSize;
+
+    @Value("${tool.registry.validation.stream-max-rows-in-flight:16384}")
+    private int maxRowsInFlight;
+
+    public ParameterStreamValidationService(ParameterValidatorCache validatorCache,
+                                            ObjectMapper objectMapper,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${tool.registry.validation.stream-threads:0}") int threads) {
+        this.validatorCache = validatorCache;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "parameter-validator-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Gets the validators of a tool, to validate a stream with.
+     *
+     * @param toolId The ID of the tool
+     * @return Map of parameter name to validator
+     */
+    public Map<String, CompiledParameterValidator> prepare(String toolId) {
+        return validatorCache.getToolValidators(toolId);
+    }
+
+    /**
+     * Validates a stream of parameter rows and writes the result of every row, then the summary.
+     *
+     * @param validators The validators of the tool, by parameter name
+     * @param input The NDJSON rows
+     * @param output The stream to write the NDJSON results to
+     * @return The summary
+     * @throws IOException If reading the rows or writing the results fails
+     */
+    public ValidationSummary validate(Map<String, CompiledParameterValidator> validators,
+                                      InputStream input, OutputStream output) throws IOException {
+        long startTime = System.nanoTime();
+        int rowsPerChunk = Math.max(1, chunkSize);
+        int maxChunksInFlight = Math.max(1, maxRowsInFlight / rowsPerChunk);
+
+        Totals totals = new Totals();
+        Deque<CompletableFuture<ChunkResult>> inFlight = new ArrayDeque<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+        try {
+            long lineNumber = 0;
+            long firstLine = 1;
+            List<String> lines = new ArrayList<>(rowsPerChunk);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                lines.add(line);
+                if (lines.size() < rowsPerChunk) {
+                    continue;
+                }
+
+                if (inFlight.size() >= maxChunksInFlight) {
+                    write(inFlight.poll(), output, totals);
+                }
+                inFlight.add(submit(validators, firstLine, lines));
+                firstLine = lineNumber + 1;
+                lines = new ArrayList<>(rowsPerChunk);
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(validators, firstLine, lines));
+            }
+
+            while (!inFlight.isEmpty()) {
+                write(inFlight.poll(), output, totals);
+            }
+        } catch (IOException | RuntimeException e) {
+            inFlight.forEach(chunk -> chunk.cancel(false));
+            throw e;
+        }
+
+        ValidationSummary summary = totals.toSummary((System.nanoTime() - startTime) / 1_000_000);
+        output.write(objectMapper.writeValueAsBytes(Map.of("summary", summary)));
+        output.write('\n');
+        output.flush();
+
+        meterRegistry.counter("parameter.validation.stream.rows", "outcome", "valid")
+                .increment(summary.getValidRows());
+        meterRegistry.counter("parameter.validation.stream.rows", "outcome", "invalid")
+                .increment(summary.getInvalidRows());
+        log.info("Validated {} parameter rows in {} ms, {} invalid",
+                summary.getRows(), summary.getDurationMs(), summary.getInvalidRows());
+        return summary;
+    }
+
+    private CompletableFuture<ChunkResult> submit(Map<String, CompiledParameterValidator> validators,
+                                                  long firstLine, List<String> lines) {
+        return CompletableFuture.supplyAsync(() -> validateChunk(validators, firstLine, lines), workers);
+    }
+
+    private void write(CompletableFuture<ChunkResult> chunk, OutputStream output, Totals totals) throws IOException {
+        ChunkResult result;
+        try {
+            result = chunk.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+
+        output.write(result.ndjson);
+        output.flush();
+        totals.add(result);
+    }
+
+    /**
+     * Validates and serializes one chunk of rows. Runs on a worker.
+     */
+    private ChunkResult validateChunk(Map<String, CompiledParameterValidator> validators,
+                                      long firstLine, List<String> lines) {
+        ChunkResult result = new ChunkResult();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(lines.size() * 32);
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+
+            RowValidationResult row = validateRow(validators, firstLine + i, line, result);
+            try {
+                buffer.write(objectMapper.writeValueAsBytes(row));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            buffer.write('\n');
+        }
+
+        result.ndjson = buffer.toByteArray();
+        return result;
+    }
+
+    private RowValidationResult validateRow(Map<String, CompiledParameterValidator> validators,
+                                            long lineNumber, String line, ChunkResult result) {
+        result.rows++;
+
+        Map<String, Object> values;
+        try {
+            values = objectMapper.readValue(line, ROW_TYPE);
+        } catch (JsonProcessingException e) {
+            result.errorCounts[ValidationErrorType.MALFORMED_ROW.ordinal()]++;
+            return RowValidationResult.builder()
+                    .row(lineNumber)
+                    .valid(false)
+                    .rowError(new ValidationResult(false, "Row is not a JSON object: " + e.getOriginalMessage(),
+                            ValidationErrorType.MALFORMED_ROW))
+                    .build();
+        }
+
+        Map<String, ValidationResult> errors = null;
+        for (Map.Entry<String, CompiledParameterValidator> entry : validators.entrySet()) {
+            Object value = values != null ? values.get(entry.getKey()) : null;
+            ValidationResult validation = entry.getValue().validate(value);
+            if (!validation.isValid()) {
+                if (errors == null) {
+                    errors = new LinkedHashMap<>();
+                }
+                errors.put(entry.getKey(), validation);
+                ValidationErrorType errorType = validation.getErrorType() != null
+                        ? validation.getErrorType() : ValidationErrorType.VALIDATION_ERROR;
+                result.errorCounts[errorType.ordinal()]++;
+            }
+        }
+
+        if (errors == null) {
+            result.validRows++;
+        }
+        return RowValidationResult.builder()
+                .row(lineNumber)
+                .valid(errors == null)
+                .errors(errors)
+                .build();
+    }
+
+    /**
+     * The results of one chunk of rows.
+     */
+    private static final class ChunkResult {
+        private byte[] ndjson;
+        private long rows;
+        private long validRows;
+        private final long[] errorCounts = new long[ValidationErrorType.values().length];
+    }
+
+    /**
+     * The running totals of a stream. Only used by the thread writing the results.
+     */
+    private static final class Totals {
+        private long rows;
+        private long validRows;
+        private final long[] errorCounts = new long[ValidationErrorType.values().length];
+
+        private void add(ChunkResult chunk) {
+            rows += chunk.rows;
+            validRows += chunk.validRows;
+            for (int i = 0; i < errorCounts.length; i++) {
+                errorCounts[i] += chunk.errorCounts[i];
+            }
+        }
+
+        private ValidationSummary toSummary(long durationMs) {
+            Map<ValidationErrorType, Long> counts = new EnumMap<>(ValidationErrorType.class);
+            for (ValidationErrorType type : ValidationErrorType.values()) {
+                if (errorCounts[type.ordinal()] > 0) {
+                    counts.put(type, errorCounts[type.ordinal()]);
+                }
+            }
+
+            return ValidationSummary.builder()
+                    .rows(rows)
+                    .validRows(validRows)
+                    .invalidRows(rows - validRows)
+                    .errorCounts(counts)
+                    .durationMs(durationMs)
+                    .build();
+        }
+    }
+}
@@ -16,7 +16,6 @@ import viettel.dac.toolserviceregistry.repository.ToolParameterRepository;
 import viettel.dac.toolserviceregistry.repository.ToolRepository;
 
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * Service for parameter validation and suggestions.
@@ -29,6 +28,10 @@ public class ParameterValidationService {
     private final ToolParameterRepository toolParameterRepository;
     private final ApiResponseParser apiResponseParser;
     private final ToolRepository toolRepository;
+    private final ParameterValidatorCache validatorCache;
+    private final RegexGuard regexGuard;
+    private final MissingParameterIndex missingParameterIndex;
+    private final ToolCatalog toolCatalog;
 
 
     /**
@@ -39,77 +42,20 @@ public class ParameterValidationService {
      * @return Validation result
      */
     public ValidationResult validateParameterValue(ToolParameterDTO parameter, Object value) {
-        log.debug("Validating parameter {} with value {}", parameter.getName(), value);
-
-        ValidationResult result = new ValidationResult();
-        result.setValid(true);
-
-        // Check if required parameter is missing
-        if (parameter.isRequired() && (value == null || (value instanceof String && ((String) value).isEmpty()))) {
-            result.setValid(false);
-            result.setMessage("Required parameter is missing");
-            return result;
-        }
-
-        // If value is null and parameter is not required, it's valid
-        if (value == null) {
-            return result;
-        }
-
-        try {
-            // Type validation
-            switch (parameter.getParameterType()) {
-                case STRING:
-                    validateString(parameter, value, result);
-                    break;
-                case NUMBER:
-                    validateNumber(parameter, value, result);
-                    break;
-                case BOOLEAN:
-                    validateBoolean(parameter, value, result);
-                    break;
-                case DATE:
-                case DATETIME:
-                    validateDate(parameter, value, result);
-                    break;
-                case EMAIL:
-                    validateEmail(parameter, value, result);
-                    break;
-                case URL:
-                    validateUrl(parameter, value, result);
-                    break;
-                case ENUM:
-                    validateEnum(parameter, value, result);
-                    break;
-                case ARRAY:
-                    validateArray(parameter, value, result);
-                    break;
-                case OBJECT:
-                    validateObject(parameter, value, result);
-                    break;
-                case JSON:
-                    validateJson(parameter, value, result);
-                    break;
-                case XML:
-                    validateXml(parameter, value, result);
-                    break;
-                case FILE:
-                    validateFile(parameter, value, result);
-                    break;
-                case SECRET:
-                    validateSecret(parameter, value, result);
-                    break;
-                default:
-                    // For unknown types, just check custom validation pattern
-                    validateWithCustomPattern(parameter, value, result);
-            }
-        } catch (Exception e) {
-            result.setValid(false);
-            result.setMessage("Validation error: " + e.getMessage());
-            log.warn("Parameter validation error", e);
-        }
+        log.debug("Validating parameter {}", parameter.getName());
+        return CompiledParameterValidator.compile(parameter, objectMapper, regexGuard).validate(value);
+    }
 
-        return result;
+    /**
+     * Validates a value of a stored parameter with its cached validator.
+     *
+     * @param parameterId The ID of the parameter
+     * @param value The value to validate
+     * @return Validation result
+     */
+    public ValidationResult validateParameterValue(String parameterId, Object value) {
+        log.debug("Validating parameter {}", parameterId);
+        return validatorCache.getParameterValidator(parameterId).validate(value);
     }
 
     /**
@@ -210,303 +156,22 @@ public class ParameterValidationService {
         return results;
     }
 
-    // Private validation methods for different parameter types
-
-    private void validateString(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (!(value instanceof String)) {
-            result.setValid(false);
-            result.setMessage("Value must be a string");
-            return;
-        }
-
-        String stringValue = (String) value;
-
-        // Check min length
-        if (parameter.getMinLength() != null && stringValue.length() < parameter.getMinLength()) {
-            result.setValid(false);
-            result.setMessage("Value must be at least " + parameter.getMinLength() + " characters long");
-            return;
-        }
-
-        // Check max length
-        if (parameter.getMaxLength() != null && stringValue.length() > parameter.getMaxLength()) {
-            result.setValid(false);
-            result.setMessage("Value must be at most " + parameter.getMaxLength() + " characters long");
-            return;
-        }
-
-        // Check allowed values
-        if (parameter.getAllowedValues() != null && !parameter.getAllowedValues().isEmpty()
-                && !parameter.getAllowedValues().contains(stringValue)) {
-            result.setValid(false);
-            result.setMessage("Value must be one of: " + String.join(", ", parameter.getAllowedValues()));
-            return;
-        }
-
-        // Check custom validation pattern
-        validateWithCustomPattern(parameter, value, result);
-    }
-
-    private void validateNumber(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        double numValue;
-        if (value instanceof Number) {
-            numValue = ((Number) value).doubleValue();
-        } else if (value instanceof String) {
-            try {
-                numValue = Double.parseDouble((String) value);
-            } catch (NumberFormatException e) {
-                result.setValid(false);
-                result.setMessage("Value must be a valid number");
-                return;
-            }
-        } else {
-            result.setValid(false);
-            result.setMessage("Value must be a number");
-            return;
-        }
-
-        // Check min value
-        if (parameter.getMinValue() != null && !parameter.getMinValue().isEmpty()) {
-            try {
-                double min = Double.parseDouble(parameter.getMinValue());
-                if (numValue < min) {
-                    result.setValid(false);
-                    result.setMessage("Value must be at least " + min);
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                log.warn("Invalid min value in parameter definition", e);
-            }
-        }
-
-        // Check max value
-        if (parameter.getMaxValue() != null && !parameter.getMaxValue().isEmpty()) {
-            try {
-                double max = Double.parseDouble(parameter.getMaxValue());
-                if (numValue > max) {
-                    result.setValid(false);
-                    result.setMessage("Value must be at most " + max);
-                    return;
-                }
-            } catch (NumberFormatException e) {
-                log.warn("Invalid max value in parameter definition", e);
-            }
-        }
-    }
-
-    private void validateBoolean(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (value instanceof Boolean) {
-            return; // Valid boolean
-        }
-
-        if (value instanceof String) {
-            String strValue = ((String) value).toLowerCase();
-            if (strValue.equals("true") || strValue.equals("false")) {
-                return; // Valid boolean string
-            }
-        }
-
-        result.setValid(false);
-        result.setMessage("Value must be a boolean (true or false)");
-    }
-
-    private void validateDate(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (!(value instanceof String)) {
-            result.setValid(false);
-            result.setMessage("Date value must be a string");
-            return;
-        }
-
-        String strValue = (String) value;
-
-        // Define regex patterns for date and datetime
-        String datePattern = "^\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])$";
-        String datetimePattern = "^\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])[T ](0[0-9]|1[0-9]|2[0-3]):[0-5][0-9]:[0-5][0-9](\\.\\d+)?(Z|[+-]\\d{2}:?\\d{2})?$";
-
-        boolean isValid;
-        if (parameter.getParameterType() == ParameterType.DATE) {
-            isValid = Pattern.matches(datePattern, strValue);
-        } else { // DATETIME
-            isValid = Pattern.matches(datetimePattern, strValue);
-        }
-
-        if (!isValid) {
-            result.setValid(false);
-            result.setMessage("Invalid date format. Expected format: " +
-                    (parameter.getParameterType() == ParameterType.DATE ? "YYYY-MM-DD" : "YYYY-MM-DDTHH:MM:SS"));
-        }
-    }
-
-    private void validateEmail(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (!(value instanceof String)) {
-            result.setValid(false);
-            result.setMessage("Email must be a string");
-            return;
-        }
-
-        String emailPattern = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$";
-        if (!Pattern.matches(emailPattern, (String) value)) {
-            result.setValid(false);
-            result.setMessage("Invalid email format");
-        }
-    }
-
-    private void validateUrl(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (!(value instanceof String)) {
-            result.setValid(false);
-            result.setMessage("URL must be a string");
-            return;
-        }
-
-        String urlPattern = "^(https?|ftp)://[^\\s/$.?#].[^\\s]*$";
-        if (!Pattern.matches(urlPattern, (String) value)) {
-            result.setValid(false);
-            result.setMessage("Invalid URL format");
-        }
-    }
-
-    private void validateEnum(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (parameter.getAllowedValues() == null || parameter.getAllowedValues().isEmpty()) {
-            result.setValid(false);
-            result.setMessage("Enum parameter has no allowed values defined");
-            return;
-        }
-
-        String strValue = value.toString();
-        if (!parameter.getAllowedValues().contains(strValue)) {
-            result.setValid(false);
-            result.setMessage("Value must be one of: " + String.join(", ", parameter.getAllowedValues()));
-        }
-    }
-
-    private void validateArray(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (value instanceof List || value instanceof Object[]) {
-            // Valid array type
-            return;
-        }
-
-        if (value instanceof String) {
-            try {
-                List<?> list = objectMapper.readValue((String) value, List.class);
-                // Valid array JSON
-                return;
-            } catch (Exception e) {
-                // Not valid JSON array, check CSV format
-                String[] parts = ((String) value).split(",");
-                if (parts.length > 0) {
-                    // Valid CSV format
-                    return;
-                }
-            }
-        }
-
-        result.setValid(false);
-        result.setMessage("Value must be an array");
-    }
-
-    private void validateObject(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (value instanceof Map) {
-            // Valid object type
-            return;
-        }
-
-        if (value instanceof String) {
-            try {
-                // Try to parse as JSON object
-                Object parsed = objectMapper.readValue((String) value, Object.class);
-                if (parsed instanceof Map) {
-                    // Valid JSON object
-                    if (parameter.getObjectSchema() != null && !parameter.getObjectSchema().isEmpty()) {
-                        // TODO: Implement JSON schema validation
-                    }
-                    return;
-                }
-            } catch (Exception e) {
-                // Not valid JSON
-            }
-        }
-
-        result.setValid(false);
-        result.setMessage("Value must be a valid object");
-    }
-
-    private void validateJson(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (!(value instanceof String)) {
-            result.setValid(false);
-            result.setMessage("JSON must be a string");
-            return;
-        }
-
-        try {
-            objectMapper.readValue((String) value, Object.class);
-            // Valid JSON
-        } catch (Exception e) {
-            result.setValid(false);
-            result.setMessage("Invalid JSON format: " + e.getMessage());
-        }
-    }
-
-    private void validateXml(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (!(value instanceof String)) {
-            result.setValid(false);
-            result.setMessage("XML must be a string");
-            return;
-        }
-
-        String xmlString = (String) value;
-        if (!xmlString.trim().startsWith("<") || !xmlString.trim().endsWith(">")) {
-            result.setValid(false);
-            result.setMessage("Invalid XML format");
-            return;
-        }
-
-        // TODO: Add more comprehensive XML validation if needed
-    }
-
-    private void validateFile(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        // Basic file validation - more comprehensive validation would depend on context
-        if (value == null) {
-            result.setValid(false);
-            result.setMessage("File is required");
-        }
-    }
-
-    private void validateSecret(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (!(value instanceof String)) {
-            result.setValid(false);
-            result.setMessage("Secret must be a string");
-            return;
-        }
-
-        String secret = (String) value;
-
-        // Check min length
-        if (parameter.getMinLength() != null && secret.length() < parameter.getMinLength()) {
-            result.setValid(false);
-            result.setMessage("Secret must be at least " + parameter.getMinLength() + " characters long");
-            return;
-        }
+    /**
+     * Validates a map of parameter values against the parameters of a tool, with their cached validators.
+     *
+     * @param toolId The ID of the tool
+     * @param values Map of parameter values
+     * @return Map of validation results by parameter name
+     */
+    public Map<String, ValidationResult> validateParameters(String toolId, Map<String, Object> values) {
+        Map<String, CompiledParameterValidator> validators = validatorCache.getToolValidators(toolId);
+        Map<String, ValidationResult> results = new HashMap<>(Math.max(16, validators.size() * 2));
 
-        // Check max length
-        if (parameter.getMaxLength() != null && secret.length() > parameter.getMaxLength()) {
-            result.setValid(false);
-            result.setMessage("Secret must be at most " + parameter.getMaxLength() + " characters long");
-            return;
+        for (Map.Entry<String, CompiledParameterValidator> entry : validators.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().validate(values.get(entry.getKey())));
         }
 
-        // Check custom validation pattern
-        validateWithCustomPattern(parameter, value, result);
-    }
-
-    private void validateWithCustomPattern(ToolParameterDTO parameter, Object value, ValidationResult result) {
-        if (parameter.getValidationPattern() != null && !parameter.getValidationPattern().isEmpty()) {
-            String strValue = value.toString();
-            if (!Pattern.matches(parameter.getValidationPattern(), strValue)) {
-                result.setValid(false);
-                result.setMessage(parameter.getValidationMessage() != null ?
-                        parameter.getValidationMessage() : "Value does not match required pattern");
-            }
-        }
+        return results;
     }
 
     /**
@@ -561,42 +226,24 @@ public class ParameterValidationService {
             List<String> toolsInOrder,
             Map<String, Object> providedParameters) {
         log.debug("Identifying missing parameters for tools: {}", toolsInOrder);
+        return missingParameterIndex.identifyMissingParameters(toolsInOrder, providedParameters,
+                toolCatalog.lookup(toolsInOrder).getTools()::get);
+    }
 
-        Map<String, Set<ParameterRequirement>> missingParameters = new HashMap<>();
-        Map<String, Object> availableParameters = new HashMap<>(providedParameters);
-
-        for (String toolId : toolsInOrder) {
-            Tool tool = toolRepository.findById(toolId).orElse(null);
-            if (tool == null) continue;
-
-            Set<ParameterRequirement> missingForTool = new HashSet<>();
-
-            for (ToolParameter param : tool.getParameters()) {
-                String paramName = param.getName();
-
-                // Check if parameter is already provided
-                if (!isParameterProvided(paramName, availableParameters)) {
-                    ParameterRequirement requirement = new ParameterRequirement(
-                            paramName,
-                            param.isRequired(),
-                            param.getPriority(),
-                            param.getDescription(),
-                            param.getExamples(),
-                            param.getDefaultValue()
-                    );
-                    missingForTool.add(requirement);
-                }
-            }
-
-            if (!missingForTool.isEmpty()) {
-                missingParameters.put(toolId, missingForTool);
-            }
-
-            // Add this tool's output parameters to available parameters for next tools
-            availableParameters.put(tool.getName() + "_executed", true);
-        }
-
-        return missingParameters;
+    /**
+     * Identifies missing parameters for a list of tools that are already loaded.
+     *
+     * @param toolsInOrder List of tool IDs in execution order
+     * @param providedParameters Map of parameters already provided
+     * @param tools Map of tool ID to tool with its parameters loaded
+     * @return Map of tool ID to set of missing parameters
+     */
+    public Map<String, Set<ParameterRequirement>> identifyMissingParameters(
+            List<String> toolsInOrder,
+            Map<String, Object> providedParameters,
+            Map<String, Tool> tools) {
+        log.debug("Identifying missing parameters for tools: {}", toolsInOrder);
+        return missingParameterIndex.identifyMissingParameters(toolsInOrder, providedParameters, tools::get);
     }
 
     /**
@@ -612,17 +259,6 @@ public class ParameterValidationService {
                 .anyMatch(ParameterRequirement::isRequired);
     }
 
-    /**
-     * Checks if a parameter is provided.
-     *
-     * @param paramName The name of the parameter
-     * @param providedParameters Map of provided parameters
-     * @return true if the parameter is provided
-     */
-    private boolean isParameterProvided(String paramName, Map<String, Object> providedParameters) {
-        return providedParameters.containsKey(paramName) &&
-                providedParameters.get(paramName) != null;
-    }
     /**
      * Generates formatted parameter prompts for missing parameters.
      *
@@ -0,0 +1,138 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.exception.ToolParameterNotFoundException;
+import viettel.dac.toolserviceregistry.model.dto.ToolParameterDTO;
+import viettel.dac.toolserviceregistry.repository.ToolParameterRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the {@link CompiledParameterValidator compiled validators} of tool parameters.
+ * <p>
+ * The validators of a tool are compiled together and remembered with the
+ * {@link DependencyGraphStore#changeVersion(Collection) change version} of the tool at load time, so a
+ * parameter's validator is cached per parameter ID and tool version. Every change to the tool, on this
+ * or another instance, announces a newer version and the validators are recompiled on their next
+ * lookup. Tool commands also evict a changed tool right away, so removed parameters do not linger.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ParameterValidatorCache {
+    private final ToolParameterService parameterService;
+    private final ToolParameterRepository parameterRepository;
+    private final DependencyGraphStore graphStore;
+    private final ObjectMapper objectMapper;
+    private final RegexGuard regexGuard;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ToolValidators> tools = new ConcurrentHashMap<>();
+    private final Map<String, String> parameterTools = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the validators of all parameters of a tool.
+     *
+     * @param toolId The ID of the tool
+     * @return Map of parameter name to validator
+     */
+    public Map<String, CompiledParameterValidator> getToolValidators(String toolId) {
+        return Collections.unmodifiableMap(lookup(toolId).byName);
+    }
+
+    /**
+     * Gets the validator of a parameter.
+     *
+     * @param parameterId The ID of the parameter
+     * @return The validator
+     */
+    public CompiledParameterValidator getParameterValidator(String parameterId) {
+        String toolId = parameterTools.get(parameterId);
+        if (toolId == null) {
+            toolId = parameterRepository.findToolIdById(parameterId)
+                    .orElseThrow(() -> new ToolParameterNotFoundException(parameterId));
+        }
+
+        CompiledParameterValidator validator = lookup(toolId).byId.get(parameterId);
+        if (validator == null) {
+            throw new ToolParameterNotFoundException(parameterId);
+        }
+        return validator;
+    }
+
+    /**
+     * Evicts the validators of a tool.
+     *
+     * @param toolId The ID of the tool
+     */
+    public void evictTool(String toolId) {
+        tools.computeIfPresent(toolId, (id, evicted) -> {
+            evicted.byId.keySet().forEach(parameterId -> parameterTools.remove(parameterId, toolId));
+            return null;
+        });
+    }
+
+    /**
+     * Gets the number of tools with cached validators.
+     *
+     * @return The number of tools
+     */
+    public int size() {
+        return tools.size();
+    }
+
+    private ToolValidators lookup(String toolId) {
+        // Read before loading, so a change committed while loading leaves the entry stale
+        long version = graphStore.changeVersion(List.of(toolId));
+        ToolValidators cached = tools.get(toolId);
+        if (cached != null && cached.version == version) {
+            return cached;
+        }
+
+        Map<String, ToolParameterDTO> parameters = parameterService.getParametersByToolId(toolId);
+        ToolValidators compiled = new ToolValidators(version, parameters.size());
+        for (ToolParameterDTO parameter : parameters.values()) {
+            CompiledParameterValidator validator = CompiledParameterValidator.compile(parameter, objectMapper, regexGuard);
+            compiled.byName.put(parameter.getName(), validator);
+            if (parameter.getId() != null) {
+                compiled.byId.put(parameter.getId(), validator);
+            }
+        }
+        meterRegistry.counter("parameter.validators.compiled").increment(parameters.size());
+        log.debug("Compiled {} parameter validators for tool {}", parameters.size(), toolId);
+
+        // A concurrent lookup may have stored validators of the same or a newer version meanwhile
+        return tools.compute(toolId, (id, existing) -> {
+            if (existing != null && existing.version >= compiled.version) {
+                return existing;
+            }
+            if (existing != null) {
+                existing.byId.keySet().stream()
+                        .filter(parameterId -> !compiled.byId.containsKey(parameterId))
+                        .forEach(parameterId -> parameterTools.remove(parameterId, toolId));
+            }
+            compiled.byId.keySet().forEach(parameterId -> parameterTools.put(parameterId, toolId));
+            return compiled;
+        });
+    }
+
+    /**
+     * The validators of one tool, compiled at one change version.
+     */
+    private static final class ToolValidators {
+        private final long version;
+        private final Map<String, CompiledParameterValidator> byName;
+        private final Map<String, CompiledParameterValidator> byId;
+
+        private ToolValidators(long version, int size) {
+            this.version = version;
+            this.byName = new HashMap<>(Math.max(16, size * 2));
+            this.byId = new HashMap<>(Math.max(16, size * 2));
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.model.dto.ApiToolMetadataDTO;
+import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
+import viettel.dac.toolserviceregistry.model.dto.PlanExecutionResult;
+import viettel.dac.toolserviceregistry.model.dto.ToolExecutionResult;
+import viettel.dac.toolserviceregistry.model.entity.ParameterMapping;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
+import viettel.dac.toolserviceregistry.model.enums.ExecutionProgressEventType;
+import viettel.dac.toolserviceregistry.model.enums.ExecutionStatus;
+import viettel.dac.toolserviceregistry.model.enums.HttpMethod;
+import viettel.dac.toolserviceregistry.model.enums.ToolType;
+import viettel.dac.toolserviceregistry.model.event.ExecutionProgressEvent;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs execution plans against the APIs of their tools.
+ * <p>
+ * A tool is called as soon as all of its dependencies in the plan have finished, rather than group
+ * by group. Its inputs are the provided parameters, overridden by the outputs of its dependencies
+ * along their {@link ParameterMapping parameter mappings}; its outputs are its inputs plus the
+ * parameters extracted from its response. If a tool fails, the tools that depend on it are cancelled
+ * and the rest of the plan still runs.
+ * <p>
+ * Calls are non-blocking: the HTTP client completes them on a small worker pool, which also prepares
+ * requests and extracts responses, so in-flight calls do not hold threads. Request templates are
+ * loaded once per run, so preparing a call does not query the database. The number of calls in
+ * flight is limited per plan and, across all plans, per base URL. When a limit is reached, the
+ * waiting tools with the least slack in the plan's schedule are called first.
+ * <p>
+ * Failed calls are retried only for idempotent HTTP methods, since sending a POST or PATCH again
+ * could apply it twice.
+ * <p>
+ * Every run reports its progress as {@link ExecutionProgressEvent}s to an optional listener and to
+ * the execution progress topic, keyed by the execution ID.
+ */
+@Service
+@Slf4j
+public class PlanExecutionService {
+    private final ToolCatalog toolCatalog;
+    private final ApiTestService apiTestService;
+    private final ParameterValidationService parameterValidationService;
+    private final MeterRegistry meterRegistry;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ExecutorService workers;
+    private final HttpClient httpClient;
+
+    @Value("${tool.registry.executor.max-concurrency-per-plan:8}")
+    private int maxConcurrencyPerPlan;
+
+    @Value("${tool.registry.executor.max-concurrency-per-base-url:32}")
+    private int maxConcurrencyPerBaseUrl;
+
+    @Value("${tool.registry.executor.publish-progress:true}")
+    private boolean publishProgress;
+
+    @Value("${kafka.topic.execution-progress}")
+    private String executionProgressTopic;
+
+    private final Map<String, AsyncLimiter> baseUrlLimiters = new ConcurrentHashMap<>();
+
+    public PlanExecutionService(ToolCatalog toolCatalog,
+                                ApiTestService apiTestService,
+                                ParameterValidationService parameterValidationService,
+                                MeterRegistry meterRegistry,
+                                KafkaTemplate<String, Object> kafkaTemplate,
+                                @Value("${tool.registry.executor.threads:16}") int threads) {
+        this.toolCatalog = toolCatalog;
+        this.apiTestService = apiTestService;
+        this.parameterValidationService = parameterValidationService;
+        this.meterRegistry = meterRegistry;
+        this.kafkaTemplate = kafkaTemplate;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "plan-executor-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.httpClient = HttpClient.newBuilder()
+                .executor(workers)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Runs an execution plan.
+     *
+     * @param plan The execution plan
+     * @param providedParameters The parameters provided for the plan
+     * @return The outcome, completed when every tool of the plan has finished
+     */
+    public CompletableFuture<PlanExecutionResult> execute(ExecutionPlanView plan, Map<String, Object> providedParameters) {
+        return execute(plan, providedParameters, event -> { });
+    }
+
+    /**
+     * Runs an execution plan and reports its progress to a listener. The listener is called in
+     * sequence order, one event at a time, on a worker thread that does not hold the lock of the run.
+     * The outcome completes after the final event has been reported.
+     *
+     * @param plan The execution plan
+     * @param providedParameters The parameters provided for the plan
+     * @param listener The listener for the progress events of the run
+     * @return The outcome, completed when every tool of the plan has finished
+     */
+    public CompletableFuture<PlanExecutionResult> execute(ExecutionPlanView plan, Map<String, Object> providedParameters,
+                                                          Consumer<ExecutionProgressEvent> listener) {
+        ToolCatalog.CatalogView catalog = toolCatalog.lookup(plan.getToolsInOrder());
+        PlanRun run = new PlanRun(plan, providedParameters != null ? providedParameters : Map.of(),
+                catalog, apiTestService.prepareHttpRequests(catalog.getApiMetadata()), listener);
+        log.info("Starting execution {} of {} tools", run.executionId, run.toolsInOrder.size());
+        meterRegistry.counter("execution.plan.runs.started").increment();
+
+        run.start();
+        return run.result;
+    }
+
+    private AsyncLimiter baseUrlLimiter(String baseUrl) {
+        return baseUrlLimiters.computeIfAbsent(baseUrl, k -> new AsyncLimiter(maxConcurrencyPerBaseUrl, workers));
+    }
+
+    /**
+     * The state of one run of a plan. Guarded by its own monitor.
+     */
+    private final class PlanRun {
+        private final String executionId = UUID.randomUUID().toString();
+        private final List<String> toolsInOrder;
+        private final Map<String, Long> slackTimes;
+        private final Map<String, Long> earliestStartTimes;
+        private final Map<String, Object> providedParameters;
+        private final ToolCatalog.CatalogView catalog;
+        private final Map<String, ApiTestService.HttpRequestTemplate> requestTemplates;
+        private final Consumer<ExecutionProgressEvent> listener;
+        private final AsyncLimiter planLimiter = new AsyncLimiter(maxConcurrencyPerPlan, workers);
+        private final Map<String, Integer> remainingDependencies = new HashMap<>();
+        private final Map<String, List<String>> dependents = new HashMap<>();
+        private final Map<String, ToolExecutionResult> results = new LinkedHashMap<>();
+        private final CompletableFuture<PlanExecutionResult> result = new CompletableFuture<>();
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private final Deque<Runnable> outbox = new ArrayDeque<>();
+        private int unfinished;
+        private long sequence;
+        private boolean delivering;
+
+        private PlanRun(ExecutionPlanView plan, Map<String, Object> providedParameters, ToolCatalog.CatalogView catalog,
+                        Map<String, ApiTestService.HttpRequestTemplate> requestTemplates,
+                        Consumer<ExecutionProgressEvent> listener) {
+            this.toolsInOrder = plan.getToolsInOrder();
+            this.slackTimes = plan.getSlackTimes() != null ? plan.getSlackTimes() : Map.of();
+            this.earliestStartTimes = plan.getEarliestStartTimes() != null ? plan.getEarliestStartTimes() : Map.of();
+            this.providedParameters = providedParameters;
+            this.catalog = catalog;
+            this.requestTemplates = requestTemplates;
+            this.listener = listener;
+        }
+
+        /**
+         * Wires the dependencies between the tools of the plan and launches the tools without any.
+         * Only dependencies that come earlier in the plan count, so the wiring cannot contain a cycle.
+         */
+        private void start() {
+            Map<String, Integer> positions = new HashMap<>();
+            for (String toolId : toolsInOrder) {
+                positions.put(toolId, positions.size());
+            }
+
+            List<String> ready = new ArrayList<>();
+            synchronized (this) {
+                for (String toolId : toolsInOrder) {
+                    int count = 0;
+                    Tool tool = catalog.getTools().get(toolId);
+                    if (tool != null) {
+                        for (ToolDependency dependency : tool.getDependencies()) {
+                            Integer position = positions.get(dependency.getDependencyTool().getId());
+                            if (position != null && position < positions.get(toolId)) {
+                                dependents.computeIfAbsent(dependency.getDependencyTool().getId(),
+                                        k -> new ArrayList<>()).add(toolId);
+                                count++;
+                            }
+                        }
+                    }
+                    remainingDependencies.put(toolId, count);
+                    results.put(toolId, toolResult(toolId, ExecutionStatus.PENDING).build());
+                    if (count == 0) {
+                        ready.add(toolId);
+                    }
+                }
+                unfinished = toolsInOrder.size();
+
+                ExecutionProgressEvent event = event(ExecutionProgressEventType.PLAN_STARTED);
+                event.setToolsInOrder(new ArrayList<>(toolsInOrder));
+                emit(event);
+            }
+
+            if (toolsInOrder.isEmpty()) {
+                complete();
+            }
+            ready.forEach(this::launch);
+        }
+
+        /**
+         * Sends the call of a tool once the concurrency limits allow. Tools waiting for a permit are
+         * ordered by their slack, then by their earliest start in the plan's schedule.
+         */
+        private void launch(String toolId) {
+            workers.execute(() -> {
+                try {
+                    Tool tool = catalog.getTools().get(toolId);
+                    if (tool == null) {
+                        finish(toolResult(toolId, ExecutionStatus.FAILED).error("Tool not found").build());
+                        return;
+                    }
+
+                    ApiTestService.HttpRequestTemplate template = requestTemplates.get(toolId);
+                    if (tool.getToolType() != ToolType.API_TOOL || template == null) {
+                        finish(toolResult(toolId, ExecutionStatus.SKIPPED).outputs(inputsOf(tool)).build());
+                        return;
+                    }
+
+                    long slack = slackTimes.getOrDefault(toolId, 0L);
+                    long earliestStart = earliestStartTimes.getOrDefault(toolId, 0L);
+                    AsyncLimiter urlLimiter = baseUrlLimiter(template.getMetadata().getBaseUrl());
+                    planLimiter.acquire(slack, earliestStart,
+                            () -> urlLimiter.acquire(slack, earliestStart,
+                                    () -> call(toolId, tool, template, urlLimiter),
+                                    error -> {
+                                        planLimiter.release();
+                                        fail(toolId, error);
+                                    }),
+                            error -> fail(toolId, error));
+                } catch (Exception e) {
+                    fail(toolId, e);
+                }
+            });
+        }
+
+        /**
+         * Builds the request of a tool and sends it. Runs with both concurrency permits held.
+         */
+        private void call(String toolId, Tool tool, ApiTestService.HttpRequestTemplate template, AsyncLimiter urlLimiter) {
+            Map<String, Object> inputs = inputsOf(tool);
+            HttpRequest request = apiTestService.buildHttpRequest(template, inputs);
+            synchronized (this) {
+                ToolExecutionResult running = toolResult(toolId, ExecutionStatus.RUNNING).build();
+                results.put(toolId, running);
+                emitTool(ExecutionProgressEventType.TOOL_STARTED, running);
+            }
+            send(toolId, template.getMetadata(), request, inputs, 1, System.nanoTime(), () -> {
+                urlLimiter.release();
+                planLimiter.release();
+            });
+        }
+
+        private void fail(String toolId, Throwable error) {
+            log.warn("Could not prepare tool {} of execution {}: {}", toolId, executionId, error.getMessage());
+            finish(toolResult(toolId, ExecutionStatus.FAILED).error(error.getMessage()).build());
+        }
+
+        /**
+         * Sends the call of a tool, retrying failed attempts with exponential backoff while holding
+         * its concurrency permits.
+         */
+        private void send(String toolId, ApiToolMetadataDTO metadata, HttpRequest request,
+                          Map<String, Object> inputs, int attempt, long callStartNanos, Runnable releasePermits) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .whenCompleteAsync((response, error) -> {
+                        int maxAttempts = 1 + (metadata.getRetryCount() != null ? metadata.getRetryCount() : 0);
+                        boolean retryable = (error != null || response.statusCode() >= 500)
+                                && isIdempotent(metadata.getHttpMethod());
+                        if (retryable && attempt < maxAttempts) {
+                            long delayMs = (long) Math.pow(2, attempt) * 100;
+                            log.warn("Call of tool {} failed (attempt {}/{}), retrying in {}ms",
+                                    toolId, attempt, maxAttempts, delayMs);
+                            CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, workers).execute(() ->
+                                    send(toolId, metadata, request, inputs, attempt + 1, callStartNanos, releasePermits));
+                            return;
+                        }
+
+                        releasePermits.run();
+                        long durationMs = (System.nanoTime() - callStartNanos) / 1_000_000;
+                        if (error != null) {
+                            meterRegistry.counter("api.call.error",
+                                    "tool", toolId,
+                                    "errorType", error.getClass().getSimpleName()).increment();
+                            finish(toolResult(toolId, ExecutionStatus.FAILED)
+                                    .error(error.getMessage()).attempts(attempt).durationMs(durationMs).build());
+                            return;
+                        }
+
+                        sample.stop(meterRegistry.timer("api.call.duration",
+                                "tool", toolId,
+                                "endpoint", metadata.getEndpointPath(),
+                                "method", metadata.getHttpMethod().name(),
+                                "status", String.valueOf(response.statusCode())));
+                        finish(responseResult(toolId, metadata, response, inputs)
+                                .attempts(attempt).durationMs(durationMs).build());
+                    }, workers);
+        }
+
+        private ToolExecutionResult.ToolExecutionResultBuilder responseResult(String toolId, ApiToolMetadataDTO metadata,
+                                                                              HttpResponse<String> response,
+                                                                              Map<String, Object> inputs) {
+            int statusCode = response.statusCode();
+            if (statusCode < 200 || statusCode >= 300) {
+                return toolResult(toolId, ExecutionStatus.FAILED).statusCode(statusCode).error("HTTP status " + statusCode);
+            }
+
+            Map<String, Object> outputs = new HashMap<>(inputs);
+            try {
+                if (response.body() != null) {
+                    outputs.putAll(parameterValidationService.extractResponseParameters(
+                            toolId, response.body(), metadata.getResponseFormat()));
+                }
+            } catch (Exception e) {
+                return toolResult(toolId, ExecutionStatus.FAILED).statusCode(statusCode)
+                        .error("Failed to extract response parameters: " + e.getMessage());
+            }
+            return toolResult(toolId, ExecutionStatus.SUCCEEDED).statusCode(statusCode).outputs(outputs);
+        }
+
+        /**
+         * Gets the inputs of a tool: the provided parameters, overridden by the mapped outputs of its
+         * dependencies in the plan.
+         */
+        private Map<String, Object> inputsOf(Tool tool) {
+            Map<String, Object> inputs = new HashMap<>(providedParameters);
+            synchronized (this) {
+                for (ToolDependency dependency : tool.getDependencies()) {
+                    ToolExecutionResult dependencyResult = results.get(dependency.getDependencyTool().getId());
+                    if (dependencyResult == null) {
+                        continue;
+                    }
+                    for (ParameterMapping mapping : dependency.getParameterMappings()) {
+                        Object value = dependencyResult.getOutputs().get(mapping.getSourceParameter());
+                        if (value != null) {
+                            inputs.put(mapping.getTargetParameter(), value);
+                        }
+                    }
+                }
+            }
+            return inputs;
+        }
+
+        /**
+         * Records the outcome of a tool and launches the dependents that became ready. The dependents
+         * of a failed tool are cancelled, transitively.
+         */
+        private void finish(ToolExecutionResult toolResult) {
+            List<String> ready = new ArrayList<>();
+            boolean done;
+            synchronized (this) {
+                results.put(toolResult.getToolId(), toolResult);
+                unfinished--;
+                emitTool(ExecutionProgressEventType.TOOL_FINISHED, toolResult);
+
+                if (toolResult.getStatus() == ExecutionStatus.FAILED) {
+                    cancelDependents(toolResult.getToolId());
+                } else {
+                    for (String dependent : dependents.getOrDefault(toolResult.getToolId(), List.of())) {
+                        if (remainingDependencies.merge(dependent, -1, Integer::sum) == 0
+                                && results.get(dependent).getStatus() == ExecutionStatus.PENDING) {
+                            ready.add(dependent);
+                        }
+                    }
+                }
+                done = unfinished == 0;
+            }
+
+            ready.forEach(this::launch);
+            if (done) {
+                complete();
+            }
+        }
+
+        /**
+         * Cancels the pending tools that depend on a failed tool. Must hold the monitor.
+         */
+        private void cancelDependents(String failedToolId) {
+            Deque<String> queue = new ArrayDeque<>(dependents.getOrDefault(failedToolId, List.of()));
+            while (!queue.isEmpty()) {
+                String toolId = queue.poll();
+                if (results.get(toolId).getStatus() != ExecutionStatus.PENDING) {
+                    continue;
+                }
+                ToolExecutionResult cancelled = toolResult(toolId, ExecutionStatus.CANCELLED)
+                        .error("Dependency " + failedToolId + " failed").build();
+                results.put(toolId, cancelled);
+                unfinished--;
+                emitTool(ExecutionProgressEventType.TOOL_FINISHED, cancelled);
+                queue.addAll(dependents.getOrDefault(toolId, List.of()));
+            }
+        }
+
+        private void complete() {
+            PlanExecutionResult executionResult;
+            synchronized (this) {
+                boolean failed = results.values().stream()
+                        .anyMatch(r -> r.getStatus() == ExecutionStatus.FAILED || r.getStatus() == ExecutionStatus.CANCELLED);
+                executionResult = PlanExecutionResult.builder()
+                        .executionId(executionId)
+                        .status(failed ? ExecutionStatus.FAILED : ExecutionStatus.SUCCEEDED)
+                        .toolResults(new LinkedHashMap<>(results))
+                        .startedAt(startedAt)
+                        .completedAt(LocalDateTime.now())
+                        .durationMs((System.nanoTime() - startNanos) / 1_000_000)
+                        .build();
+
+                ExecutionProgressEvent event = event(ExecutionProgressEventType.PLAN_COMPLETED);
+                event.setResult(executionResult);
+                emit(event);
+                deliverLater(() -> result.complete(executionResult));
+            }
+
+            meterRegistry.counter("execution.plan.runs.completed", "status", executionResult.getStatus().name()).increment();
+            log.info("Execution {} {} in {}ms", executionId, executionResult.getStatus(), executionResult.getDurationMs());
+        }
+
+        private ExecutionProgressEvent event(ExecutionProgressEventType type) {
+            return new ExecutionProgressEvent(type, executionId, sequence++);
+        }
+
+        /**
+         * Emits the progress event of a tool. Must hold the monitor.
+         */
+        private void emitTool(ExecutionProgressEventType type, ToolExecutionResult toolResult) {
+            ExecutionProgressEvent event = event(type);
+            event.setToolResult(toolResult);
+            emit(event);
+        }
+
+        /**
+         * Queues a progress event for delivery. Must hold the monitor, so events are queued in
+         * sequence order.
+         */
+        private void emit(ExecutionProgressEvent event) {
+            deliverLater(() -> publish(event));
+        }
+
+        /**
+         * Queues a task behind the events queued before it and starts delivery if it is idle. Must
+         * hold the monitor.
+         */
+        private void deliverLater(Runnable task) {
+            outbox.add(task);
+            if (!delivering) {
+                delivering = true;
+                workers.execute(this::deliver);
+            }
+        }
+
+        /**
+         * Runs the queued tasks in order, taking the monitor only to dequeue them, so a slow listener
+         * or producer does not hold up the run.
+         */
+        private void deliver() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    task = outbox.poll();
+                    if (task == null) {
+                        delivering = false;
+                        return;
+                    }
+                }
+                task.run();
+            }
+        }
+
+        /**
+         * Reports a progress event to the listener and the progress topic.
+         */
+        private void publish(ExecutionProgressEvent event) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                log.warn("Progress listener of execution {} failed: {}", executionId, e.getMessage());
+            }
+
+            if (publishProgress) {
+                try {
+                    kafkaTemplate.send(executionProgressTopic, executionId, event);
+                } catch (Exception e) {
+                    log.error("Failed to publish progress of execution {}: {}", executionId, e.getMessage());
+                }
+            }
+        }
+
+        private ToolExecutionResult.ToolExecutionResultBuilder toolResult(String toolId, ExecutionStatus status) {
+            return ToolExecutionResult.builder().toolId(toolId).status(status);
+        }
+    }
+
+    /**
+     * Checks if a call may be sent again after it failed.
+     *
+     * @param method The HTTP method of the call
+     * @return true if the method is idempotent
+     */
+    static boolean isIdempotent(HttpMethod method) {
+        return method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.PUT
+                || method == HttpMethod.DELETE || method == HttpMethod.OPTIONS;
+    }
+
+    /**
+     * Non-blocking counting semaphore: a task that cannot get a permit is queued, instead of blocking
+     * a thread, and handed to the executor by the release that frees one. Queued tasks run in order of
+     * their slack, then their earliest start, then their arrival.
+     */
+    static final class AsyncLimiter {
+        private static final Comparator<Waiter> PRIORITY = Comparator.<Waiter>comparingLong(waiter -> waiter.slack)
+                .thenComparingLong(waiter -> waiter.earliestStart)
+                .thenComparingLong(waiter -> waiter.arrival);
+
+        private final int permits;
+        private final Executor executor;
+        private final PriorityQueue<Waiter> waiting = new PriorityQueue<>(PRIORITY);
+        private long arrivals;
+        private int used;
+
+        AsyncLimiter(int permits, Executor executor) {
+            this.permits = Math.max(1, permits);
+            this.executor = executor;
+        }
+
+        /**
+         * Runs a task once a permit is available. The task owns the permit and must release it,
+         * unless it throws: then the permit is released and the failure handler is called instead.
+         *
+         * @param slack The slack of the task, lower runs first
+         * @param earliestStart The earliest start of the task, lower runs first among equal slack
+         * @param task The task
+         * @param onFailure The handler of a failure of the task
+         */
+        void acquire(long slack, long earliestStart, Runnable task, Consumer<Throwable> onFailure) {
+            synchronized (this) {
+                if (used >= permits) {
+                    waiting.add(new Waiter(slack, earliestStart, arrivals++, task, onFailure));
+                    return;
+                }
+                used++;
+            }
+            run(task, onFailure);
+        }
+
+        /**
+         * Releases a permit, handing it to the first waiting task if there is one.
+         */
+        void release() {
+            Waiter next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    used--;
+                    return;
+                }
+            }
+            executor.execute(() -> run(next.task, next.onFailure));
+        }
+
+        private void run(Runnable task, Consumer<Throwable> onFailure) {
+            try {
+                task.run();
+            } catch (Throwable t) {
+                release();
+                onFailure.accept(t);
+            }
+        }
+
+        private static final class Waiter {
+            private final long slack;
+            private final long earliestStart;
+            private final long arrival;
+            private final Runnable task;
+            private final Consumer<Throwable> onFailure;
+
+            private Waiter(long slack, long earliestStart, long arrival, Runnable task, Consumer<Throwable> onFailure) {
+                this.slack = slack;
+                this.earliestStart = earliestStart;
+                this.arrival = arrival;
+                this.task = task;
+                this.onFailure = onFailure;
+            }
+        }
+    }
+}
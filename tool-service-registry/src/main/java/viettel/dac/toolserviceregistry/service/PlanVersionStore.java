@@ -0,0 +1,258 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Bounded store of the recent versions of every execution plan.
+ * <p>
+ * Every plan key keeps its last versions in a ring buffer, so appending a version and dropping the
+ * oldest one are constant time. Plan keys are kept in least recently used order, and the least
+ * recently used keys are evicted while the store holds more versions than its global bound.
+ * <p>
+ * With the shared tier enabled, version numbers are allocated by Redis and every version is also
+ * written to a Redis hash per plan key, so all replicas number a plan's versions alike and can read
+ * versions generated elsewhere. Redis failures are logged and the local tier is used on its own.
+ * <p>
+ * Stored plans are owned by the store: callers hand over a plan they no longer change, and get copies back.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class PlanVersionStore {
+    private static final String SHARED_KEY_PREFIX = "tool_registry:plan_versions:";
+    private static final String LATEST_FIELD = "latest";
+
+    private final MeterRegistry meterRegistry;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${tool.registry.plan-versions.max-versions-per-plan:10}")
+    private int maxVersionsPerPlan;
+
+    @Value("${tool.registry.plan-versions.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${tool.registry.plan-versions.shared:false}")
+    private boolean shared;
+
+    @Value("${tool.registry.plan-versions.shared-ttl-minutes:120}")
+    private long sharedTtlMinutes;
+
+    /** Access-ordered, so the first key is the least recently used one. */
+    private final Map<String, VersionRing> rings = new LinkedHashMap<>(16, 0.75f, true);
+    private int entryCount;
+
+    /**
+     * Stores a plan as the next version of its key and sets its version number.
+     *
+     * @param planKey The key of the plan
+     * @param plan The plan
+     * @return The version number
+     */
+    public int append(String planKey, ExecutionPlanView plan) {
+        int sharedVersion = shared ? appendShared(planKey, plan) : -1;
+
+        synchronized (rings) {
+            VersionRing ring = rings.computeIfAbsent(planKey, k -> new VersionRing(maxVersionsPerPlan));
+            int version = sharedVersion > 0 ? sharedVersion : ring.latest + 1;
+            plan.setVersion(version);
+            if (ring.put(version, plan)) {
+                entryCount++;
+            }
+            evict();
+            return version;
+        }
+    }
+
+    /**
+     * Gets a specific version of a plan.
+     *
+     * @param planKey The key of the plan
+     * @param version The version
+     * @return A copy of the plan, or null if the version is not stored
+     */
+    public ExecutionPlanView get(String planKey, int version) {
+        synchronized (rings) {
+            VersionRing ring = rings.get(planKey);
+            ExecutionPlanView plan = ring != null ? ring.get(version) : null;
+            if (plan != null || !shared) {
+                return plan != null ? plan.copy() : null;
+            }
+        }
+        return readShared(planKey, version);
+    }
+
+    /**
+     * Gets all stored versions of a plan.
+     *
+     * @param planKey The key of the plan
+     * @return Map of version to a copy of the plan, in ascending version order
+     */
+    public Map<Integer, ExecutionPlanView> getAll(String planKey) {
+        if (shared) {
+            Map<Integer, ExecutionPlanView> versions = readAllShared(planKey);
+            if (versions != null) {
+                return versions;
+            }
+        }
+
+        synchronized (rings) {
+            VersionRing ring = rings.get(planKey);
+            return ring != null ? ring.toMap() : Collections.emptyMap();
+        }
+    }
+
+    /**
+     * Gets the number of versions held by the local tier.
+     *
+     * @return The number of versions
+     */
+    public int size() {
+        synchronized (rings) {
+            return entryCount;
+        }
+    }
+
+    /**
+     * Evicts the least recently used plan keys while the store is over its bound. Must hold the lock.
+     */
+    private void evict() {
+        Iterator<VersionRing> iterator = rings.values().iterator();
+        while (entryCount > maxEntries && iterator.hasNext()) {
+            VersionRing ring = iterator.next();
+            entryCount -= ring.size;
+            iterator.remove();
+            meterRegistry.counter("execution.plan.versions.evicted").increment(ring.size);
+        }
+    }
+
+    /**
+     * Allocates the next version number in Redis and writes the plan under it, dropping the version
+     * that falls out of the window.
+     *
+     * @return The version number, or -1 if Redis is not available
+     */
+    private int appendShared(String planKey, ExecutionPlanView plan) {
+        String key = SHARED_KEY_PREFIX + planKey;
+        try {
+            HashOperations<String, String, Object> hash = redisTemplate.opsForHash();
+            Long version = hash.increment(key, LATEST_FIELD, 1);
+            if (version == null) {
+                return -1;
+            }
+
+            plan.setVersion(version.intValue());
+            hash.put(key, version.toString(), objectMapper.writeValueAsString(plan));
+            if (version > maxVersionsPerPlan) {
+                hash.delete(key, Long.toString(version - maxVersionsPerPlan));
+            }
+            redisTemplate.expire(key, Duration.ofMinutes(sharedTtlMinutes));
+            return version.intValue();
+        } catch (Exception e) {
+            log.warn("Could not store execution plan version in Redis: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private ExecutionPlanView readShared(String planKey, int version) {
+        try {
+            HashOperations<String, String, Object> hash = redisTemplate.opsForHash();
+            Object value = hash.get(SHARED_KEY_PREFIX + planKey, Integer.toString(version));
+            return value != null ? objectMapper.readValue(value.toString(), ExecutionPlanView.class) : null;
+        } catch (Exception e) {
+            log.warn("Could not read execution plan version from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reads all versions of a plan from Redis.
+     *
+     * @return Map of version to plan, or null if Redis is not available
+     */
+    private Map<Integer, ExecutionPlanView> readAllShared(String planKey) {
+        try {
+            HashOperations<String, String, Object> hash = redisTemplate.opsForHash();
+            Map<Integer, ExecutionPlanView> result = new TreeMap<>();
+            for (Map.Entry<String, Object> entry : hash.entries(SHARED_KEY_PREFIX + planKey).entrySet()) {
+                if (!LATEST_FIELD.equals(entry.getKey())) {
+                    result.put(Integer.parseInt(entry.getKey()),
+                            objectMapper.readValue(entry.getValue().toString(), ExecutionPlanView.class));
+                }
+            }
+            return result;
+        } catch (Exception e) {
+            log.warn("Could not read execution plan versions from Redis: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The last versions of one plan, each stored in the slot of its version number.
+     */
+    private static final class VersionRing {
+        private final int[] versions;
+        private final ExecutionPlanView[] plans;
+        private int latest;
+        private int size;
+
+        private VersionRing(int capacity) {
+            this.versions = new int[Math.max(1, capacity)];
+            this.plans = new ExecutionPlanView[versions.length];
+        }
+
+        /**
+         * Stores a version, replacing the version that used its slot.
+         *
+         * @return true if the ring grew
+         */
+        private boolean put(int version, ExecutionPlanView plan) {
+            int slot = version % versions.length;
+            boolean grew = plans[slot] == null;
+            versions[slot] = version;
+            plans[slot] = plan;
+            latest = Math.max(latest, version);
+            if (grew) {
+                size++;
+            }
+            return grew;
+        }
+
+        private ExecutionPlanView get(int version) {
+            if (!inWindow(version)) {
+                return null;
+            }
+            int slot = version % versions.length;
+            return versions[slot] == version ? plans[slot] : null;
+        }
+
+        private Map<Integer, ExecutionPlanView> toMap() {
+            Map<Integer, ExecutionPlanView> result = new TreeMap<>();
+            for (int slot = 0; slot < plans.length; slot++) {
+                if (plans[slot] != null && inWindow(versions[slot])) {
+                    result.put(versions[slot], plans[slot].copy());
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Checks if a version is one of the last versions. Versions numbered by the shared tier can
+         * skip numbers, so a slot may still hold a version that fell out of the window.
+         */
+        private boolean inWindow(int version) {
+            return version > 0 && version > latest - versions.length;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import viettel.dac.toolserviceregistry.exception.RegexBudgetExceededException;
+
+import java.util.regex.Pattern;
+
+/**
+ * Runs regular expression matches with a bounded amount of work.
+ * <p>
+ * The input is wrapped in a character sequence that counts every character the matcher reads, which
+ * is a good measure of the work done by a backtracking matcher. A match that reads more characters
+ * than its budget, which grows with the length of the input, or that runs past its time limit is
+ * aborted with a {@link RegexBudgetExceededException} and counted in the
+ * {@code parameter.validation.regex.aborted} metric. The budget bounds matches of patterns registered
+ * before {@link RegexSafetyAnalyzer} checked them, and polynomial patterns that the analyzer accepts.
+ */
+@Component
+@Slf4j
+public class RegexGuard {
+    /** Reads between two checks of the time limit. Must be a power of two. */
+    private static final int TIME_CHECK_INTERVAL = 1024;
+
+    private final Counter abortedMatches;
+
+    @Value("${tool.registry.validation.regex-steps-per-char:1000}")
+    private long stepsPerChar;
+
+    @Value("${tool.registry.validation.regex-min-steps:100000}")
+    private long minSteps;
+
+    @Value("${tool.registry.validation.regex-timeout-ms:50}")
+    private long timeoutMs;
+
+    public RegexGuard(MeterRegistry meterRegistry) {
+        this.abortedMatches = meterRegistry.counter("parameter.validation.regex.aborted");
+    }
+
+    /**
+     * Checks if an input matches a pattern entirely, within the budget.
+     *
+     * @param pattern The pattern
+     * @param input The input
+     * @return true if the input matches
+     * @throws RegexBudgetExceededException If the match exceeds its budget
+     */
+    public boolean matches(Pattern pattern, CharSequence input) {
+        long budget = Math.max(minSteps, stepsPerChar * (input.length() + 1L));
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000;
+        try {
+            return pattern.matcher(new BudgetedCharSequence(input, budget, deadline)).matches();
+        } catch (RegexBudgetExceededException e) {
+            abortedMatches.increment();
+            log.warn("Aborted match of pattern {} on input of length {}: {}",
+                    pattern.pattern(), input.length(), e.getMessage());
+            throw e;
+        }
+    }
+
+    /**
+     * A character sequence that fails once it has been read too often or for too long. Its
+     * subsequences share the budget of the whole input.
+     */
+    private static final class BudgetedCharSequence implements CharSequence {
+        private final CharSequence text;
+        private final long[] remaining;
+        private final long deadline;
+
+        private BudgetedCharSequence(CharSequence text, long budget, long deadline) {
+            this(text, new long[] {budget}, deadline);
+        }
+
+        private BudgetedCharSequence(CharSequence text, long[] remaining, long deadline) {
+            this.text = text;
+            this.remaining = remaining;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public char charAt(int index) {
+            long left = --remaining[0];
+            if (left < 0) {
+                throw new RegexBudgetExceededException("step budget exceeded");
+            }
+            if ((left & (TIME_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() - deadline > 0) {
+                throw new RegexBudgetExceededException("time limit exceeded");
+            }
+            return text.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BudgetedCharSequence(text.subSequence(start, end), remaining, deadline);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,549 @@
+package viettel.dac.toolserviceregistry.service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Static check of regular expressions for constructs that make {@link java.util.regex} backtrack
+ * exponentially.
+ * <p>
+ * A pattern is rejected if it has a backreference, or if an expression repeated without bound (or
+ * more than {@value #MAX_SAFE_REPEAT} times) can match the same input in more than one way:
+ * alternatives that can start with the same character, or a part inside it that can match a varying
+ * number of times, whether unbounded, bounded or optional, and hand characters over to what follows
+ * it, as in {@code (a+)+}, {@code (a{1,5})+b}, {@code (a?){25}} or {@code (\w+\s?)*}. Character sets are
+ * tracked per ASCII character; any other character is treated as matching every non-ASCII character.
+ * The check is conservative, so some patterns that run in linear time are rejected too. Possessive
+ * quantifiers and atomic groups never give back what they matched and are accepted.
+ * <p>
+ * Patterns that pass can still be polynomial, e.g. {@code .*.*=.*}; matching them is bounded at run
+ * time by {@link RegexGuard}.
+ */
+public final class RegexSafetyAnalyzer {
+    /** Largest bounded repeat count that is not treated as a loop. */
+    static final int MAX_SAFE_REPEAT = 10;
+
+    private static final int UNBOUNDED = Integer.MAX_VALUE;
+    private static final Pattern CASE_INSENSITIVE_FLAG = Pattern.compile("\\(\\?[a-zA-Z]*i[a-zA-Z-]*[:)]");
+
+    private final String regex;
+    private final boolean caseInsensitive;
+    private int pos;
+
+    private RegexSafetyAnalyzer(String regex) {
+        this.regex = regex;
+        this.caseInsensitive = CASE_INSENSITIVE_FLAG.matcher(regex).find();
+    }
+
+    /**
+     * Finds a construct in a pattern that can make matching take exponential time.
+     *
+     * @param regex The pattern, which must compile
+     * @return A description of the construct, or null if the pattern is safe
+     */
+    public static String findUnsafeConstruct(String regex) {
+        RegexSafetyAnalyzer analyzer = new RegexSafetyAnalyzer(regex);
+        try {
+            while (analyzer.pos < regex.length()) {
+                analyzer.parseAlternatives();
+                // Skip an unbalanced closing parenthesis, which only a quoted pattern can contain
+                analyzer.pos++;
+            }
+            return null;
+        } catch (UnsafeConstruct e) {
+            return e.getMessage();
+        }
+    }
+
+    private List<List<Expr>> parseAlternatives() {
+        List<List<Expr>> alternatives = new ArrayList<>();
+        alternatives.add(parseSequence());
+        while (pos < regex.length() && regex.charAt(pos) == '|') {
+            pos++;
+            alternatives.add(parseSequence());
+        }
+        return alternatives;
+    }
+
+    private List<Expr> parseSequence() {
+        List<Expr> items = new ArrayList<>();
+        while (pos < regex.length() && regex.charAt(pos) != '|' && regex.charAt(pos) != ')') {
+            items.add(parseQuantifier(parseAtom()));
+        }
+        return items;
+    }
+
+    private Expr parseAtom() {
+        char c = regex.charAt(pos++);
+        switch (c) {
+            case '(':
+                return parseGroup();
+            case '[':
+                return Expr.of(parseClass());
+            case '\\':
+                return parseEscape();
+            case '.':
+                return Expr.of(CharSet.any());
+            case '^':
+            case '$':
+                return Expr.empty();
+            default:
+                return Expr.of(literal(c));
+        }
+    }
+
+    private Expr parseGroup() {
+        boolean atomic = false;
+        boolean lookaround = false;
+        if (peek() == '?') {
+            pos++;
+            char kind = pos < regex.length() ? regex.charAt(pos) : ')';
+            if (kind == ':' || kind == '=' || kind == '!' || kind == '>') {
+                pos++;
+                lookaround = kind == '=' || kind == '!';
+                atomic = kind == '>';
+            } else if (kind == '<') {
+                pos++;
+                if (peek() == '=' || peek() == '!') {
+                    pos++;
+                    lookaround = true;
+                } else {
+                    // Named group
+                    while (pos < regex.length() && regex.charAt(pos) != '>') {
+                        pos++;
+                    }
+                    pos++;
+                }
+            } else {
+                // Inline flags, either alone or starting a group
+                while (pos < regex.length() && regex.charAt(pos) != ':' && regex.charAt(pos) != ')') {
+                    pos++;
+                }
+                if (pos < regex.length() && regex.charAt(pos++) == ')') {
+                    return Expr.empty();
+                }
+            }
+        }
+
+        List<List<Expr>> alternatives = parseAlternatives();
+        if (pos < regex.length()) {
+            pos++;
+        }
+        if (lookaround) {
+            return Expr.empty();
+        }
+
+        Expr group = new Expr();
+        group.alternatives = alternatives;
+        group.atomic = atomic;
+        group.nullable = false;
+        for (List<Expr> alternative : alternatives) {
+            group.first.addAll(firstOf(alternative));
+            group.nullable |= isNullable(alternative);
+            for (Expr item : alternative) {
+                group.loops |= item.loops && !atomic;
+                group.varies |= item.varies && !atomic;
+            }
+        }
+        return group;
+    }
+
+    private Expr parseEscape() {
+        char c = regex.charAt(pos++);
+        if (c >= '1' && c <= '9' || c == 'k') {
+            throw new UnsafeConstruct("backreferences are not supported");
+        }
+        switch (c) {
+            case 'b':
+            case 'B':
+            case 'A':
+            case 'z':
+            case 'Z':
+            case 'G':
+                return Expr.empty();
+            case 'Q': {
+                int end = regex.indexOf("\\E", pos);
+                String quoted = regex.substring(pos, end < 0 ? regex.length() : end);
+                pos = end < 0 ? regex.length() : end + 2;
+                return quoted.isEmpty() ? Expr.empty() : Expr.of(literal(quoted.charAt(0)));
+            }
+            default:
+                pos--;
+                return Expr.of(parseEscapedSet());
+        }
+    }
+
+    /**
+     * Parses the escape sequence after a backslash into the set of characters it matches.
+     */
+    private CharSet parseEscapedSet() {
+        char c = regex.charAt(pos++);
+        switch (c) {
+            case 'd':
+                return CharSet.range('0', '9');
+            case 'D':
+                return CharSet.range('0', '9').complement();
+            case 'w':
+                return wordChars();
+            case 'W':
+                return wordChars().complement();
+            case 's':
+                return whitespace();
+            case 'S':
+                return whitespace().complement();
+            case 't':
+                return CharSet.of('\t');
+            case 'n':
+                return CharSet.of('\n');
+            case 'r':
+                return CharSet.of('\r');
+            case 'f':
+                return CharSet.of('\f');
+            case 'a':
+                return CharSet.of('\u0007');
+            case 'e':
+                return CharSet.of('\u001B');
+            case 'x':
+                if (peek() == '{') {
+                    skipPast('}');
+                } else {
+                    pos += 2;
+                }
+                return CharSet.any();
+            case 'u':
+                pos += 4;
+                return CharSet.any();
+            case '0':
+                while (pos < regex.length() && regex.charAt(pos) >= '0' && regex.charAt(pos) <= '7') {
+                    pos++;
+                }
+                return CharSet.any();
+            case 'c':
+                pos++;
+                return CharSet.any();
+            case 'p':
+            case 'P':
+                if (peek() == '{') {
+                    skipPast('}');
+                } else {
+                    pos++;
+                }
+                return CharSet.any();
+            default:
+                return Character.isLetterOrDigit(c) ? CharSet.any() : literal(c);
+        }
+    }
+
+    /**
+     * Parses a character class after its opening bracket.
+     */
+    private CharSet parseClass() {
+        boolean negated = peek() == '^';
+        if (negated) {
+            pos++;
+        }
+
+        CharSet set = new CharSet();
+        boolean intersection = false;
+        boolean first = true;
+        while (pos < regex.length() && (first || regex.charAt(pos) != ']')) {
+            first = false;
+            char c = regex.charAt(pos++);
+            if (c == '[') {
+                set.addAll(parseClass());
+                continue;
+            }
+            if (c == '&' && peek() == '&') {
+                pos++;
+                intersection = true;
+                continue;
+            }
+
+            CharSet item;
+            char low = c;
+            if (c == '\\') {
+                item = parseEscapedSet();
+                low = item.single();
+            } else {
+                item = CharSet.of(c);
+            }
+
+            if (low != 0 && peek() == '-' && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']') {
+                pos++;
+                char high = regex.charAt(pos++);
+                if (high == '\\') {
+                    high = parseEscapedSet().single();
+                }
+                item = high != 0 ? CharSet.range(low, high) : CharSet.any();
+            }
+            set.addAll(item);
+        }
+        pos++;
+
+        if (intersection) {
+            return CharSet.any();
+        }
+        if (caseInsensitive) {
+            set.addCaseVariants();
+        }
+        return negated ? set.complement() : set;
+    }
+
+    private Expr parseQuantifier(Expr atom) {
+        if (pos >= regex.length()) {
+            return atom;
+        }
+
+        int min;
+        int max;
+        char c = regex.charAt(pos);
+        if (c == '*') {
+            min = 0;
+            max = UNBOUNDED;
+        } else if (c == '+') {
+            min = 1;
+            max = UNBOUNDED;
+        } else if (c == '?') {
+            min = 0;
+            max = 1;
+        } else if (c == '{') {
+            int end = regex.indexOf('}', pos);
+            if (end < 0) {
+                return atom;
+            }
+            String[] bounds = regex.substring(pos + 1, end).split(",", -1);
+            min = parseCount(bounds[0]);
+            max = bounds.length == 1 ? min : bounds[1].isEmpty() ? UNBOUNDED : parseCount(bounds[1]);
+            pos = end;
+        } else {
+            return atom;
+        }
+        pos++;
+
+        boolean possessive = false;
+        if (peek() == '+') {
+            pos++;
+            possessive = true;
+        } else if (peek() == '?') {
+            pos++;
+        }
+
+        boolean loops = (max == UNBOUNDED || max > MAX_SAFE_REPEAT) && !possessive && !atom.atomic;
+        if (loops) {
+            checkRepeatedBody(atom);
+        }
+
+        Expr quantified = new Expr();
+        quantified.first.addAll(atom.first);
+        quantified.nullable = min == 0 || atom.nullable;
+        quantified.loops = !possessive && (loops || atom.loops);
+        quantified.varies = !possessive && !atom.atomic && (min != max || atom.varies);
+        return quantified;
+    }
+
+    /**
+     * Rejects the body of a loop if it can match the same input in more than one way.
+     */
+    private void checkRepeatedBody(Expr body) {
+        if (body.alternatives == null) {
+            return;
+        }
+
+        List<List<Expr>> alternatives = body.alternatives;
+        for (int i = 0; i < alternatives.size(); i++) {
+            for (int j = i + 1; j < alternatives.size(); j++) {
+                if (firstOf(alternatives.get(i)).intersects(firstOf(alternatives.get(j)))) {
+                    throw new UnsafeConstruct("a repeated group has alternatives that can match the same input");
+                }
+            }
+        }
+
+        for (List<Expr> alternative : alternatives) {
+            for (int i = 0; i < alternative.size(); i++) {
+                Expr item = alternative.get(i);
+                if (!item.loops && !item.varies) {
+                    continue;
+                }
+
+                // What can follow one more repetition of the item, wrapping around to the next iteration
+                CharSet follow = new CharSet();
+                boolean reachedEnd = true;
+                for (int j = i + 1; j < alternative.size() && reachedEnd; j++) {
+                    follow.addAll(alternative.get(j).first);
+                    reachedEnd = alternative.get(j).nullable;
+                }
+                if (reachedEnd) {
+                    follow.addAll(body.first);
+                }
+
+                if (item.first.intersects(follow)) {
+                    throw new UnsafeConstruct("a repeated group contains a nested or optional repetition that can match the same input");
+                }
+            }
+        }
+    }
+
+    private CharSet literal(char c) {
+        CharSet set = CharSet.of(c);
+        if (caseInsensitive) {
+            set.addCaseVariants();
+        }
+        return set;
+    }
+
+    private CharSet wordChars() {
+        CharSet set = CharSet.range('a', 'z');
+        set.addAll(CharSet.range('A', 'Z'));
+        set.addAll(CharSet.range('0', '9'));
+        set.addAll(CharSet.of('_'));
+        return set;
+    }
+
+    private CharSet whitespace() {
+        CharSet set = CharSet.range('\t', '\r');
+        set.addAll(CharSet.of(' '));
+        return set;
+    }
+
+    private char peek() {
+        return pos < regex.length() ? regex.charAt(pos) : 0;
+    }
+
+    private void skipPast(char c) {
+        int end = regex.indexOf(c, pos);
+        pos = end < 0 ? regex.length() : end + 1;
+    }
+
+    private static int parseCount(String count) {
+        try {
+            return Integer.parseInt(count.trim());
+        } catch (NumberFormatException e) {
+            return UNBOUNDED;
+        }
+    }
+
+    private static CharSet firstOf(List<Expr> sequence) {
+        CharSet first = new CharSet();
+        for (Expr item : sequence) {
+            first.addAll(item.first);
+            if (!item.nullable) {
+                break;
+            }
+        }
+        return first;
+    }
+
+    private static boolean isNullable(List<Expr> sequence) {
+        for (Expr item : sequence) {
+            if (!item.nullable) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A parsed part of a pattern.
+     */
+    private static final class Expr {
+        /** The characters a non-empty match can start with. */
+        private final CharSet first = new CharSet();
+        private boolean nullable;
+        /** Whether it contains a loop that can give back characters. */
+        private boolean loops;
+        /** Whether it contains a repeat, even a bounded or optional one, that can give back characters. */
+        private boolean varies;
+        /** The alternatives of a group, or null. */
+        private List<List<Expr>> alternatives;
+        private boolean atomic;
+
+        private static Expr of(CharSet chars) {
+            Expr expr = new Expr();
+            expr.first.addAll(chars);
+            return expr;
+        }
+
+        private static Expr empty() {
+            Expr expr = new Expr();
+            expr.nullable = true;
+            return expr;
+        }
+    }
+
+    /**
+     * A set of characters: exact for ASCII, and a single flag for all other characters.
+     */
+    private static final class CharSet {
+        private final BitSet ascii = new BitSet(128);
+        private boolean other;
+
+        private static CharSet of(char c) {
+            CharSet set = new CharSet();
+            if (c < 128) {
+                set.ascii.set(c);
+            } else {
+                set.other = true;
+            }
+            return set;
+        }
+
+        private static CharSet range(char low, char high) {
+            CharSet set = new CharSet();
+            if (low < 128) {
+                set.ascii.set(low, Math.min(high, 127) + 1);
+            }
+            set.other = high >= 128;
+            return set;
+        }
+
+        private static CharSet any() {
+            CharSet set = new CharSet();
+            set.ascii.set(0, 128);
+            set.other = true;
+            return set;
+        }
+
+        private void addAll(CharSet set) {
+            ascii.or(set.ascii);
+            other |= set.other;
+        }
+
+        private boolean intersects(CharSet set) {
+            return ascii.intersects(set.ascii) || (other && set.other);
+        }
+
+        private CharSet complement() {
+            CharSet set = new CharSet();
+            set.ascii.set(0, 128);
+            set.ascii.andNot(ascii);
+            // A negated set still matches most other characters
+            set.other = true;
+            return set;
+        }
+
+        private void addCaseVariants() {
+            for (char c = 'a'; c <= 'z'; c++) {
+                char upper = Character.toUpperCase(c);
+                if (ascii.get(c) || ascii.get(upper)) {
+                    ascii.set(c);
+                    ascii.set(upper);
+                }
+            }
+        }
+
+        /**
+         * Gets the only character of the set, or 0 if it has more or is not ASCII.
+         */
+        private char single() {
+            return ascii.cardinality() == 1 && !other ? (char) ascii.nextSetBit(0) : 0;
+        }
+    }
+
+    private static final class UnsafeConstruct extends RuntimeException {
+        private UnsafeConstruct(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
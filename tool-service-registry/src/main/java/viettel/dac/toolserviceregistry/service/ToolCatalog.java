@@ -0,0 +1,161 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import viettel.dac.toolserviceregistry.model.dto.ApiToolMetadataDTO;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.model.enums.ToolType;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-optimized, in-memory catalog of the tools used to compile execution plans.
+ * <p>
+ * Every entry holds a detached tool with its parameters, dependencies and parameter mappings
+ * initialized, together with its API metadata. Tools that are missing or stale are loaded together
+ * by {@link ExecutionPlanToolLoader} with a fixed number of queries. An entry remembers the
+ * {@link DependencyGraphStore#changeVersion(Collection) change version} of its tool at load time;
+ * every change to the tool, on this or another instance, announces a newer version, so the entry is
+ * reloaded on its next lookup. The tools of an entry are shared and must not be modified.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ToolCatalog {
+    private final ExecutionPlanToolLoader toolLoader;
+    private final ApiToolService apiToolService;
+    private final DependencyGraphStore graphStore;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the current catalog entries of a set of tools, loading the missing and stale ones together.
+     *
+     * @param toolIds The IDs of the tools
+     * @return The tools and API metadata, for the tools that exist
+     */
+    public CatalogView lookup(Collection<String> toolIds) {
+        Map<String, Tool> tools = new HashMap<>();
+        Map<String, ApiToolMetadataDTO> apiMetadata = new HashMap<>();
+        Map<String, Long> staleVersions = new HashMap<>();
+
+        for (String toolId : toolIds) {
+            long version = graphStore.changeVersion(List.of(toolId));
+            Entry entry = entries.get(toolId);
+            if (entry != null && entry.version == version) {
+                entry.addTo(tools, apiMetadata);
+            } else {
+                staleVersions.put(toolId, version);
+            }
+        }
+
+        if (!staleVersions.isEmpty()) {
+            load(staleVersions, tools, apiMetadata);
+        }
+
+        return new CatalogView(tools, apiMetadata);
+    }
+
+    /**
+     * Loads tools and their API metadata into the catalog.
+     *
+     * @param versions Map of tool ID to its change version, read before loading
+     * @param tools The tools found so far, to add the loaded tools to
+     * @param apiMetadata The API metadata found so far, to add the loaded metadata to
+     */
+    private void load(Map<String, Long> versions, Map<String, Tool> tools, Map<String, ApiToolMetadataDTO> apiMetadata) {
+        Map<String, Tool> loadedTools = toolLoader.load(versions.keySet());
+
+        Set<String> apiToolIds = new HashSet<>();
+        for (Tool tool : loadedTools.values()) {
+            if (tool.getToolType() == ToolType.API_TOOL) {
+                apiToolIds.add(tool.getId());
+            }
+        }
+        Map<String, ApiToolMetadataDTO> loadedMetadata = apiToolIds.isEmpty()
+                ? Map.of() : apiToolService.getApiToolMetadataDTOs(apiToolIds);
+
+        for (Map.Entry<String, Long> version : versions.entrySet()) {
+            String toolId = version.getKey();
+            Tool tool = loadedTools.get(toolId);
+            if (tool == null) {
+                entries.remove(toolId);
+                continue;
+            }
+
+            // A change committed while loading has a newer version, so the entry is reloaded next time
+            Entry entry = new Entry(tool, loadedMetadata.get(toolId), version.getValue());
+            entries.put(toolId, entry);
+            entry.addTo(tools, apiMetadata);
+        }
+
+        meterRegistry.counter("tool.catalog.loads").increment(versions.size());
+        log.debug("Loaded {} of {} requested tools into the tool catalog", loadedTools.size(), versions.size());
+    }
+
+    /**
+     * Gets the number of tools in the catalog.
+     *
+     * @return The number of tools
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * A tool as loaded at one change version.
+     */
+    private static final class Entry {
+        private final Tool tool;
+        private final ApiToolMetadataDTO apiMetadata;
+        private final long version;
+
+        private Entry(Tool tool, ApiToolMetadataDTO apiMetadata, long version) {
+            this.tool = tool;
+            this.apiMetadata = apiMetadata;
+            this.version = version;
+        }
+
+        private void addTo(Map<String, Tool> tools, Map<String, ApiToolMetadataDTO> apiMetadata) {
+            tools.put(tool.getId(), tool);
+            if (this.apiMetadata != null) {
+                apiMetadata.put(tool.getId(), this.apiMetadata);
+            }
+        }
+    }
+
+    /**
+     * The catalog entries of a set of tools.
+     */
+    public static final class CatalogView {
+        private final Map<String, Tool> tools;
+        private final Map<String, ApiToolMetadataDTO> apiMetadata;
+
+        CatalogView(Map<String, Tool> tools, Map<String, ApiToolMetadataDTO> apiMetadata) {
+            this.tools = Collections.unmodifiableMap(tools);
+            this.apiMetadata = Collections.unmodifiableMap(apiMetadata);
+        }
+
+        /**
+         * Gets the tools that exist.
+         *
+         * @return Map of tool ID to tool
+         */
+        public Map<String, Tool> getTools() {
+            return tools;
+        }
+
+        /**
+         * Gets the API metadata of the API tools that have it.
+         *
+         * @return Map of tool ID to API metadata
+         */
+        public Map<String, ApiToolMetadataDTO> getApiMetadata() {
+            return apiMetadata;
+        }
+    }
+}
@@ -41,7 +41,9 @@ public class ToolCommandService {
     private final ToolValidator toolValidator;
     private final DependencyValidator dependencyValidator;
     private final ObjectMapper objectMapper;
-    private final ToolDependencyGraphService graphService;
+    private final DependencyGraphStore graphStore;
+    private final ParameterValidatorCache validatorCache;
+    private final MissingParameterIndex missingParameterIndex;
     private final ToolMapper toolMapper;
     private final ApiToolMetadataRepository apiToolMetadataRepository;
     private final ApiToolService apiToolService;
@@ -87,6 +89,7 @@ public class ToolCommandService {
                 if (!paramNames.add(paramReq.getName())) {
                     throw new DuplicateParameterNameException(paramReq.getName());
                 }
+                toolValidator.validateValidationPattern(paramReq.getName(), paramReq.getValidationPattern());
 
                 ToolParameter param = mapToToolParameter(paramReq);
                 param.setId(UUID.randomUUID().toString());
@@ -166,6 +169,9 @@ public class ToolCommandService {
             savedTool = toolRepository.save(savedTool);
         }
 
+        // Add the tool and its dependencies to the in-memory graph
+        graphStore.toolSaved(savedTool);
+
         // Publish tool created event
         publishToolEvent(savedTool, ToolEventType.TOOL_CREATED);
 
@@ -202,6 +208,7 @@ public class ToolCommandService {
                 if (!paramNames.add(paramReq.getName())) {
                     throw new DuplicateParameterNameException(paramReq.getName());
                 }
+                toolValidator.validateValidationPattern(paramReq.getName(), paramReq.getValidationPattern());
 
                 ToolParameter param = mapToToolParameter(paramReq);
                 param.setId(paramReq.getId() != null ?
@@ -289,6 +296,11 @@ public class ToolCommandService {
             savedTool = toolRepository.save(savedTool);
         }
 
+        // Replace the tool's dependencies in the in-memory graph
+        graphStore.toolSaved(savedTool);
+        validatorCache.evictTool(id);
+        missingParameterIndex.evictTool(id);
+
         // Publish tool updated event
         publishToolEvent(savedTool, ToolEventType.TOOL_UPDATED);
 
@@ -323,6 +335,11 @@ public class ToolCommandService {
 
         // Delete the tool
         toolRepository.delete(tool);
+
+        // Remove the tool from the in-memory graph
+        graphStore.toolDeleted(id);
+        validatorCache.evictTool(id);
+        missingParameterIndex.evictTool(id);
     }
 
     /**
@@ -350,7 +367,7 @@ public class ToolCommandService {
                         event.setApiMetadata(apiToolService.mapToApiToolMetadataDTO(apiMetadata));
                     });
         }
-        eventPublisher.publish(toolEventsTopic, tool.getId(), event);
+        eventPublisher.publishEvent(toolEventsTopic, tool.getId(), event);
     }
 
     /**
@@ -474,12 +491,12 @@ public class ToolCommandService {
         // Save the updated tool
         Tool savedTool = toolRepository.save(tool);
 
+        // Apply the state change to the in-memory graph
+        graphStore.toolActiveChanged(id, active);
+
         // Publish tool updated event
         publishToolEvent(savedTool, ToolEventType.TOOL_UPDATED);
 
-        // Publish graph update event
-        graphService.publishGraphUpdate(id);
-
         return savedTool.getVersion();
     }
 
@@ -524,6 +541,11 @@ public class ToolCommandService {
         // Save the updated tool
         Tool savedTool = toolRepository.save(tool);
 
+        // Parameters do not change the graph, but plans, validators and missing parameters of the tool are stale
+        graphStore.toolChanged(id);
+        validatorCache.evictTool(id);
+        missingParameterIndex.evictTool(id);
+
         // Publish tool updated event
         publishToolEvent(savedTool, ToolEventType.TOOL_UPDATED);
 
@@ -573,6 +595,11 @@ public class ToolCommandService {
         // Delete the parameter entity
         parameterRepository.deleteById(parameterId);
 
+        // Parameters do not change the graph, but plans, validators and missing parameters of the tool are stale
+        graphStore.toolChanged(id);
+        validatorCache.evictTool(id);
+        missingParameterIndex.evictTool(id);
+
         // Publish tool updated event
         publishToolEvent(savedTool, ToolEventType.TOOL_UPDATED);
 
@@ -635,12 +662,12 @@ public class ToolCommandService {
         // Save the updated tool
         Tool savedTool = toolRepository.save(tool);
 
+        // Add the edge to the in-memory graph
+        graphStore.dependencyAdded(id, dependencyTool.getId(), dependency.getDependencyType());
+
         // Publish tool updated event
         publishToolEvent(savedTool, ToolEventType.TOOL_UPDATED);
 
-        // Publish graph update event
-        graphService.publishGraphUpdate(id);
-
         return savedTool.getVersion();
     }
 
@@ -678,12 +705,12 @@ public class ToolCommandService {
         // Delete the dependency entity
         dependencyRepository.deleteById(dependencyId);
 
+        // Remove the edge from the in-memory graph
+        graphStore.dependencyRemoved(id, dependency.getDependencyTool().getId());
+
         // Publish tool updated event
         publishToolEvent(savedTool, ToolEventType.TOOL_UPDATED);
 
-        // Publish graph update event
-        graphService.publishGraphUpdate(id);
-
         return savedTool.getVersion();
     }
 
@@ -4,22 +4,10 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.CacheConfig;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import viettel.dac.toolserviceregistry.graph.DirectedGraph;
-import viettel.dac.toolserviceregistry.model.entity.Tool;
-import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
-import viettel.dac.toolserviceregistry.model.enums.DependencyType;
-import viettel.dac.toolserviceregistry.model.event.GraphEdge;
-import viettel.dac.toolserviceregistry.model.event.GraphUpdateEvent;
-import viettel.dac.toolserviceregistry.repository.ToolDependencyRepository;
-import viettel.dac.toolserviceregistry.repository.ToolRepository;
-
-import java.time.LocalDateTime;
+import viettel.dac.toolserviceregistry.graph.NodeBitSet;
+
 import java.util.*;
 
 /**
@@ -28,52 +16,58 @@ import java.util.*;
 @Service
 @Slf4j
 @RequiredArgsConstructor
-@CacheConfig(cacheNames = "toolGraph")
 public class ToolDependencyGraphService {
-    private final ToolRepository toolRepository;
-    private final ToolDependencyRepository dependencyRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final DependencyGraphStore graphStore;
     private final MeterRegistry meterRegistry;
 
-    @Value("${kafka.topic.tool-dependency-events}")
-    private String toolDependencyEventsTopic;
-
     /**
-     * Builds a directed graph of tool dependencies.
+     * Gets the directed graph of tool dependencies from the current in-memory snapshot.
+     * The returned graph is shared and must not be modified.
      *
      * @param requiredOnly Flag to include only required dependencies
      * @return The directed graph
      */
-    @Cacheable(key = "'graph-' + #requiredOnly")
     public DirectedGraph<String> buildDependencyGraph(boolean requiredOnly) {
-        log.debug("Building dependency graph, requiredOnly: {}", requiredOnly);
-        Timer.Sample sample = Timer.start(meterRegistry);
-
-        DirectedGraph<String> graph = new DirectedGraph<>();
-
-        // Get all active tools
-        List<Tool> tools = toolRepository.findAllByActiveTrue();
-
-        // Add all tools as nodes
-        tools.forEach(tool -> graph.addNode(tool.getId()));
+        return graphStore.snapshot().getGraph(requiredOnly);
+    }
 
-        // Add edges for dependencies
-        for (Tool tool : tools) {
-            for (ToolDependency dep : tool.getDependencies()) {
-                if (!requiredOnly || dep.getDependencyType() == DependencyType.REQUIRED) {
-                    // Edge direction: dependency -> tool (means tool depends on dependency)
-                    graph.addEdge(dep.getDependencyTool().getId(), tool.getId());
-                }
-            }
-        }
+    /**
+     * Gets the current versioned snapshot of the dependency graph.
+     *
+     * @return The graph snapshot
+     */
+    public DependencyGraphStore.Snapshot getGraphSnapshot() {
+        return graphStore.snapshot();
+    }
 
-        long elapsedTime = sample.stop(meterRegistry.timer("dependency.graph.build.time"));
-        log.debug("Built dependency graph with {} nodes in {}ms", graph.getAllNodes().size(), elapsedTime / 1_000_000);
+    /**
+     * Gets the graph version at which any of the given tools last changed.
+     *
+     * @param toolIds The IDs of the tools
+     * @return The change version
+     */
+    public long getChangeVersion(Collection<String> toolIds) {
+        return graphStore.changeVersion(toolIds);
+    }
 
-        // Record metrics
-        meterRegistry.gauge("dependency.graph.nodes", graph.getAllNodes().size());
+    /**
+     * Checks whether a tool depends on another tool, directly or indirectly.
+     *
+     * @param dependencyToolId The ID of the possible dependency
+     * @param toolId The ID of the dependent tool
+     * @param requiredOnly Flag to follow only required dependencies
+     * @return true if the dependency tool is upstream of the tool
+     */
+    public boolean isUpstreamOf(String dependencyToolId, String toolId, boolean requiredOnly) {
+        return buildDependencyGraph(requiredOnly).isReachable(dependencyToolId, toolId);
+    }
 
-        return graph;
+    /**
+     * Rebuilds the in-memory dependency graph from the database.
+     * Only needed to repair the graph; regular changes are applied incrementally.
+     */
+    public void rebuildDependencyGraph() {
+        graphStore.rebuild();
     }
 
     /**
@@ -83,18 +77,34 @@ public class ToolDependencyGraphService {
      * @return List of tool IDs in topological order
      */
     public List<String> topologicalSort(List<String> selectedToolIds) {
+        return topologicalSort(buildDependencyGraph(true), selectedToolIds);
+    }
+
+    /**
+     * Performs a topological sort of the tools on a given snapshot of the required dependency graph.
+     *
+     * @param graph The required dependency graph
+     * @param selectedToolIds The IDs of the selected tools
+     * @return List of tool IDs in topological order
+     */
+    public List<String> topologicalSort(DirectedGraph<String> graph, List<String> selectedToolIds) {
         log.debug("Performing topological sort for tools: {}", selectedToolIds);
         Timer.Sample sample = Timer.start(meterRegistry);
 
         // Get dependency closure to include all required dependencies
-        Set<String> allToolIds = getDependencyClosure(selectedToolIds);
-
-        // Build subgraph with these tools
-        DirectedGraph<String> fullGraph = buildDependencyGraph(true);
-        DirectedGraph<String> subgraph = fullGraph.subgraphWithNodes(allToolIds);
+        NodeBitSet<String> allToolIds = graph.reverseClosureBits(selectedToolIds)
+                .union(graph.nodeBits(selectedToolIds));
+
+        // Tools that are not in the graph have no dependencies and can go first
+        List<String> result = new ArrayList<>();
+        for (String toolId : new LinkedHashSet<>(selectedToolIds)) {
+            if (!graph.containsNode(toolId)) {
+                result.add(toolId);
+            }
+        }
 
-        // Perform topological sort
-        List<String> result = subgraph.topologicalSort();
+        // Sort the closure in place instead of building a subgraph
+        result.addAll(graph.topologicalSort(allToolIds));
 
         long elapsedTime = sample.stop(meterRegistry.timer("dependency.graph.topological.sort.time"));
         log.debug("Completed topological sort in {}ms", elapsedTime / 1_000_000);
@@ -109,79 +119,27 @@ public class ToolDependencyGraphService {
      * @return Set of all tool IDs in the dependency closure
      */
     public Set<String> getDependencyClosure(List<String> toolIds) {
-        log.debug("Calculating dependency closure for tools: {}", toolIds);
-        Timer.Sample sample = Timer.start(meterRegistry);
-
-        Set<String> closure = new HashSet<>(toolIds);
-        DirectedGraph<String> graph = buildDependencyGraph(true);
-
-        // Process each tool
-        Queue<String> queue = new LinkedList<>(toolIds);
-        while (!queue.isEmpty()) {
-            String current = queue.poll();
-
-            // Get direct dependencies (incoming edges in the graph)
-            for (String dep : graph.getIncomingEdges(current)) {
-                if (closure.add(dep)) {
-                    // If this is a new dependency, add it to the queue
-                    queue.add(dep);
-                }
-            }
-        }
-
-        long elapsedTime = sample.stop(meterRegistry.timer("dependency.graph.closure.time"));
-        log.debug("Calculated dependency closure with {} tools in {}ms", closure.size(), elapsedTime / 1_000_000);
-
-        return closure;
+        return getDependencyClosure(buildDependencyGraph(true), toolIds);
     }
 
     /**
-     * Publishes a graph update event to Kafka.
+     * Gets the dependency closure for a set of tools on a given snapshot of the required dependency graph.
      *
-     * @param toolId The ID of the tool that triggered the update
+     * @param graph The required dependency graph
+     * @param toolIds The IDs of the tools
+     * @return Set of all tool IDs in the dependency closure
      */
-    @CacheEvict(allEntries = true)
-    public void publishGraphUpdate(String toolId) {
-        log.debug("Publishing graph update for tool: {}", toolId);
+    public Set<String> getDependencyClosure(DirectedGraph<String> graph, List<String> toolIds) {
+        log.debug("Calculating dependency closure for tools: {}", toolIds);
         Timer.Sample sample = Timer.start(meterRegistry);
 
-        DirectedGraph<String> graph = buildDependencyGraph(false);
-
-        GraphUpdateEvent event = new GraphUpdateEvent();
-        event.setToolId(toolId);
-        event.setTimestamp(LocalDateTime.now());
-        event.setNodes(new ArrayList<>(graph.getAllNodes()));
-        event.setEdges(convertGraphToEdges(graph));
-
-        kafkaTemplate.send(toolDependencyEventsTopic, toolId, event);
+        // Direct and indirect dependencies are the nodes that can reach the tools
+        Set<String> closure = graph.reverseClosureBits(toolIds).toSet();
+        closure.addAll(toolIds);
 
-        long elapsedTime = sample.stop(meterRegistry.timer("dependency.graph.publish.time"));
-        log.debug("Published graph update in {}ms", elapsedTime / 1_000_000);
-
-        meterRegistry.counter("dependency.graph.publish.count").increment();
-    }
-
-    /**
-     * Converts the graph to a list of edges.
-     *
-     * @param graph The directed graph
-     * @return List of graph edges
-     */
-    private List<GraphEdge> convertGraphToEdges(DirectedGraph<String> graph) {
-        List<GraphEdge> edges = new ArrayList<>();
-
-        for (String from : graph.getAllNodes()) {
-            for (String to : graph.getOutgoingEdges(from)) {
-                GraphEdge edge = new GraphEdge();
-                edge.setFrom(from);
-                edge.setTo(to);
-                // Determine dependency type (requires querying the database)
-                ToolDependency dependency = dependencyRepository.findByToolIdAndDependencyToolId(to, from);
-                edge.setType(dependency != null ? dependency.getDependencyType() : DependencyType.REQUIRED);
-                edges.add(edge);
-            }
-        }
+        long elapsedTime = sample.stop(meterRegistry.timer("dependency.graph.closure.time"));
+        log.debug("Calculated dependency closure with {} tools in {}ms", closure.size(), elapsedTime / 1_000_000);
 
-        return edges;
+        return closure;
     }
-}
\ No newline at end of file
+}
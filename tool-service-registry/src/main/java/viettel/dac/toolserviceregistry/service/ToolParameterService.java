@@ -4,6 +4,7 @@ package viettel.dac.toolserviceregistry.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import viettel.dac.toolserviceregistry.exception.ToolNotFoundException;
 import viettel.dac.toolserviceregistry.exception.ToolParameterNotFoundException;
 import viettel.dac.toolserviceregistry.model.dto.ToolParameterDTO;
@@ -35,6 +36,7 @@ public class ToolParameterService {
      * @param parameterId The ID of the parameter
      * @return The parameter DTO
      */
+    @Transactional(readOnly = true)
     public ToolParameterDTO getParameter(String parameterId) {
         log.debug("Getting parameter: {}", parameterId);
 
@@ -50,6 +52,7 @@ public class ToolParameterService {
      * @param toolId The ID of the tool
      * @return Map of parameter DTOs by name
      */
+    @Transactional(readOnly = true)
     public Map<String, ToolParameterDTO> getParametersByToolId(String toolId) {
         log.debug("Getting parameters for tool: {}", toolId);
 
@@ -72,6 +75,7 @@ public class ToolParameterService {
      * @param source The parameter source
      * @return List of parameter DTOs
      */
+    @Transactional(readOnly = true)
     public List<ToolParameterDTO> getParametersBySource(String toolId, ParameterSource source) {
         log.debug("Getting parameters with source {} for tool: {}", source, toolId);
 
@@ -39,7 +39,8 @@ public class ToolValidator {
     }
 
     /**
-     * Validates a validation pattern.
+     * Validates a validation pattern. Patterns that can take exponential time to match, as found by
+     * {@link RegexSafetyAnalyzer}, are rejected.
      *
      * @param name The parameter name
      * @param pattern The validation pattern
@@ -51,6 +52,12 @@ public class ToolValidator {
             } catch (PatternSyntaxException e) {
                 throw new InvalidValidationPatternException(name, e.getMessage());
             }
+
+            String unsafeConstruct = RegexSafetyAnalyzer.findUnsafeConstruct(pattern);
+            if (unsafeConstruct != null) {
+                throw new InvalidValidationPatternException(name,
+                        "Pattern cannot be matched in bounded time: " + unsafeConstruct);
+            }
         }
     }
 }
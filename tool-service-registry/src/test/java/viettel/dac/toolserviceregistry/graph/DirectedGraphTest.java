@@ -0,0 +1,210 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DirectedGraphTest {
+
+    private DirectedGraph<String> graph;
+
+    @BeforeEach
+    void setUp() {
+        // Edges point from a dependency to the tool that depends on it
+        graph = new DirectedGraph<>();
+        graph.addEdge("tool1", "tool2");
+        graph.addEdge("tool2", "tool3");
+        graph.addEdge("tool1", "tool4");
+        graph.addNode("tool5");
+    }
+
+    @Test
+    void testTopologicalSort_DependenciesFirst() {
+        List<String> order = graph.topologicalSort();
+
+        assertEquals(5, order.size());
+        assertTrue(order.indexOf("tool1") < order.indexOf("tool2"));
+        assertTrue(order.indexOf("tool2") < order.indexOf("tool3"));
+        assertTrue(order.indexOf("tool1") < order.indexOf("tool4"));
+    }
+
+    @Test
+    void testClosures() {
+        assertEquals(Set.of("tool2", "tool3", "tool4"), graph.getTransitiveClosure("tool1"));
+        assertEquals(Set.of("tool1", "tool2"), graph.getReverseTransitiveClosure("tool3"));
+        assertTrue(graph.getReverseTransitiveClosure("tool5").isEmpty());
+    }
+
+    @Test
+    void testRemoveNodeAndEdge() {
+        graph.removeEdge("tool1", "tool4");
+        assertEquals(2, graph.getEdgeCount());
+        assertFalse(graph.containsEdge("tool1", "tool4"));
+
+        graph.removeNode("tool2");
+        assertEquals(4, graph.getNodeCount());
+        assertEquals(0, graph.getEdgeCount());
+        assertTrue(graph.getIncomingEdges("tool3").isEmpty());
+        assertEquals(Set.of("tool1", "tool3", "tool4", "tool5"), graph.getAllNodes());
+    }
+
+    @Test
+    void testCycleDetection() {
+        assertFalse(graph.hasCycles());
+
+        graph.addEdge("tool3", "tool1");
+
+        assertTrue(graph.hasCycles());
+        assertThrows(IllegalStateException.class, () -> graph.topologicalSort());
+        assertTrue(graph.findStronglyConnectedComponents().contains(Set.of("tool1", "tool2", "tool3")));
+    }
+
+    @Test
+    void testClosureBits_SetOperations() {
+        NodeBitSet<String> upstreamOf3 = graph.reverseClosureBits(List.of("tool3"));
+        NodeBitSet<String> upstreamOf4 = graph.reverseClosureBits(List.of("tool4"));
+
+        assertEquals(Set.of("tool1"), upstreamOf3.intersection(upstreamOf4).toSet());
+        assertEquals(Set.of("tool1", "tool2"), upstreamOf3.union(upstreamOf4).toSet());
+        assertEquals(Set.of("tool2"), upstreamOf3.difference(upstreamOf4).toSet());
+        assertEquals(Set.of("tool2"), graph.reverseClosureBits(List.of("tool3"), 1).toSet());
+        assertEquals(List.of("tool2", "tool3"), graph.topologicalSort(
+                graph.nodeBits(List.of("tool3", "tool2"))));
+    }
+
+    @Test
+    void testLongChain_DoesNotOverflowStack() {
+        DirectedGraph<Integer> chain = new DirectedGraph<>();
+        int length = 100_000;
+        for (int i = 0; i < length; i++) {
+            chain.addEdge(i, i + 1);
+        }
+
+        assertEquals(length - 1, chain.findArticulationPoints().size());
+        assertEquals(1, chain.getAllPaths(0, length).size());
+        assertEquals(length + 1, chain.findStronglyConnectedComponents().size());
+
+        chain.addEdge(length, 0);
+        assertEquals(1, chain.findAllCycles().size());
+        assertEquals(1, chain.findStronglyConnectedComponents().size());
+    }
+
+    @Test
+    void testFindAllCycles_ReportsEachCycleOnce() {
+        graph.addEdge("tool3", "tool1");
+        graph.addEdge("tool2", "tool1");
+
+        List<List<String>> cycles = graph.findAllCycles();
+
+        assertEquals(2, cycles.size());
+        assertTrue(cycles.contains(List.of("tool1", "tool2", "tool3")));
+        assertTrue(cycles.contains(List.of("tool1", "tool2")));
+    }
+
+    @Test
+    void testForEachCycleThrough_RespectsLimits() {
+        graph.addEdge("tool3", "tool1");
+        graph.addEdge("tool2", "tool1");
+        graph.addEdge("tool4", "tool5");
+        graph.addEdge("tool5", "tool4");
+
+        List<List<String>> cycles = new ArrayList<>();
+        CycleSearchOutcome outcome = graph.forEachCycleThrough("tool2", CycleSearchLimits.unbounded(), cycles::add);
+        assertEquals(CycleSearchOutcome.COMPLETE, outcome);
+        assertEquals(2, cycles.size());
+        assertTrue(cycles.contains(List.of("tool2", "tool3", "tool1")));
+        assertTrue(cycles.contains(List.of("tool2", "tool1")));
+
+        cycles.clear();
+        graph.forEachCycleThrough("tool2", new CycleSearchLimits(10, 2, Duration.ZERO), cycles::add);
+        assertEquals(List.of(List.of("tool2", "tool1")), cycles);
+
+        cycles.clear();
+        outcome = graph.forEachCycleThrough("tool1", new CycleSearchLimits(1, 10, Duration.ZERO), cycles::add);
+        assertEquals(CycleSearchOutcome.STOPPED, outcome);
+        assertEquals(1, cycles.size());
+
+        assertEquals(CycleSearchOutcome.COMPLETE,
+                graph.forEachCycleThrough("tool3", new CycleSearchLimits(1, 10, Duration.ZERO), cycles::add));
+    }
+
+    @Test
+    void testSnapshot_IsIsolatedFromLaterWrites() {
+        DirectedGraph<String> snapshot = graph.snapshot();
+
+        graph.removeEdge("tool1", "tool2");
+        graph.addEdge("tool3", "tool6");
+        graph.removeNode("tool4");
+        graph.addNode("tool4");
+
+        assertTrue(snapshot.isImmutable());
+        assertEquals(5, snapshot.getNodeCount());
+        assertEquals(3, snapshot.getEdgeCount());
+        assertEquals(Set.of("tool2", "tool4"), snapshot.getOutgoingEdges("tool1"));
+        assertFalse(snapshot.containsNode("tool6"));
+        assertEquals(Set.of("tool2", "tool3", "tool4"), snapshot.getTransitiveClosure("tool1"));
+
+        assertEquals(Set.of("tool1", "tool2", "tool3", "tool4", "tool5", "tool6"), graph.getAllNodes());
+        assertTrue(graph.getOutgoingEdges("tool1").isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.addEdge("tool5", "tool1"));
+    }
+
+    @Test
+    void testEdgeAttributes_AndFilteredView() {
+        graph.addEdge("tool1", "tool4", 1, 2.5, 3);
+        graph.addEdge("tool5", "tool3", 1, 1.0, 1);
+        DirectedGraph<String> required = graph.filtered(0);
+
+        assertEquals(1, graph.getEdgeLabel("tool1", "tool4"));
+        assertEquals(2.5, graph.getEdgeWeight("tool1", "tool4"));
+        assertEquals(3, graph.getEdgeMultiplicity("tool1", "tool4"));
+        assertEquals(-1, graph.getEdgeLabel("tool4", "tool1"));
+        assertEquals(2.5, graph.shortestPathsFromSource("tool1").get("tool4"));
+
+        assertEquals(4, graph.getEdgeCount());
+        assertEquals(2, required.getEdgeCount());
+        assertEquals(5, required.getNodeCount());
+        assertFalse(required.containsEdge("tool1", "tool4"));
+        assertEquals(Set.of("tool2"), required.getOutgoingEdges("tool1"));
+        assertEquals(Set.of("tool2"), required.getIncomingEdges("tool3"));
+        assertEquals(Set.of("tool2", "tool3"), required.getTransitiveClosure("tool1"));
+        assertEquals(Set.of("tool1", "tool2", "tool5"), graph.getReverseTransitiveClosure("tool3"));
+        assertEquals(Set.of("tool1", "tool2"), required.getReverseTransitiveClosure("tool3"));
+        assertTrue(required.findIsolatedNodes().containsAll(Set.of("tool4", "tool5")));
+        assertThrows(UnsupportedOperationException.class, () -> required.addEdge("tool1", "tool5"));
+
+        // Changing the label of an edge does not leak into views taken before
+        graph.addEdge("tool1", "tool2", 1, 1.0, 0);
+        assertTrue(required.containsEdge("tool1", "tool2"));
+        assertFalse(graph.filtered(0).containsEdge("tool1", "tool2"));
+        assertEquals(1, new DirectedGraph<>(graph.filtered(0)).getEdgeCount());
+    }
+
+    @Test
+    void testCriticalPathSchedule_UsesDurations() {
+        // tool4 is slower than tool2 and tool3 together, so it is on the critical path
+        List<String> plan = List.of("tool1", "tool2", "tool3", "tool4", "tool6");
+        CriticalPathSchedule<String> schedule =
+                CriticalPathSchedule.compute(graph.compact(), plan, new long[]{10, 20, 30, 100, 5});
+
+        assertEquals(110L, schedule.makespan());
+        assertEquals(List.of("tool1", "tool4"), schedule.criticalPath());
+        assertEquals(Map.of("tool1", 0L, "tool2", 10L, "tool3", 30L, "tool4", 10L, "tool6", 0L),
+                schedule.earliestStartTimes());
+        assertEquals(Map.of("tool1", 0L, "tool2", 50L, "tool3", 50L, "tool4", 0L, "tool6", 105L),
+                schedule.slackTimes());
+        assertEquals(List.of(List.of("tool1", "tool6"), List.of("tool4", "tool2"), List.of("tool3")),
+                schedule.groups().stream().map(List::copyOf).toList());
+
+        graph.addEdge("tool3", "tool1");
+        assertThrows(IllegalStateException.class,
+                () -> CriticalPathSchedule.compute(graph.compact(), plan, new long[5]));
+    }
+}
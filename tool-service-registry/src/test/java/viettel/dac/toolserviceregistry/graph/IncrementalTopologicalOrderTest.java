@@ -0,0 +1,91 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalTopologicalOrderTest {
+
+    @Test
+    void testWouldCreateCycle_AfterReordering() {
+        IncrementalTopologicalOrder<String> order = new IncrementalTopologicalOrder<>(new DirectedGraph<>());
+        order.addNode("tool3");
+        order.addNode("tool2");
+        order.addNode("tool1");
+
+        // Inserted against the initial ranks, forcing a reorder each time
+        order.addEdge("tool1", "tool2");
+        order.addEdge("tool2", "tool3");
+
+        assertTrue(order.isAcyclic());
+        assertTrue(order.wouldCreateCycle("tool3", "tool1"));
+        assertTrue(order.wouldCreateCycle("tool2", "tool2"));
+        assertFalse(order.wouldCreateCycle("tool1", "tool3"));
+        assertFalse(order.wouldCreateCycle("tool4", "tool1"));
+        assertTrue(order.wouldCreateCycle(List.of("tool4", "tool3"), "tool2"));
+    }
+
+    @Test
+    void testRemoveEdge_AllowsReverseEdge() {
+        DirectedGraph<String> graph = new DirectedGraph<>();
+        graph.addEdge("tool1", "tool2");
+        IncrementalTopologicalOrder<String> order = new IncrementalTopologicalOrder<>(graph);
+
+        assertTrue(order.wouldCreateCycle("tool2", "tool1"));
+
+        order.removeEdge("tool1", "tool2");
+        order.addEdge("tool2", "tool1");
+
+        assertTrue(order.isAcyclic());
+        assertTrue(order.wouldCreateCycle("tool1", "tool2"));
+    }
+
+    @Test
+    void testExistingCycle_FallsBackToFullSearch() {
+        DirectedGraph<String> graph = new DirectedGraph<>();
+        graph.addEdge("tool1", "tool2");
+        graph.addEdge("tool2", "tool1");
+        graph.addEdge("tool2", "tool3");
+        IncrementalTopologicalOrder<String> order = new IncrementalTopologicalOrder<>(graph);
+
+        assertFalse(order.isAcyclic());
+        assertTrue(order.wouldCreateCycle("tool3", "tool1"));
+        assertFalse(order.wouldCreateCycle("tool1", "tool3"));
+    }
+
+    @Test
+    void testReset_RestoresOrderOnceCycleIsRemoved() {
+        IncrementalTopologicalOrder<String> order = new IncrementalTopologicalOrder<>(new DirectedGraph<>());
+        order.addEdge("tool1", "tool2");
+        order.addEdge("tool2", "tool3");
+
+        // Closing a cycle invalidates the order, and removing an edge alone does not restore it
+        order.addEdge("tool3", "tool1");
+        assertFalse(order.isAcyclic());
+        order.removeEdge("tool3", "tool1");
+        assertFalse(order.isAcyclic());
+
+        order.reset();
+
+        assertTrue(order.isAcyclic());
+        assertTrue(order.wouldCreateCycle("tool3", "tool1"));
+        assertFalse(order.wouldCreateCycle("tool1", "tool3"));
+        order.addEdge("tool4", "tool1");
+        assertTrue(order.isAcyclic());
+        assertTrue(order.wouldCreateCycle("tool3", "tool4"));
+    }
+
+    @Test
+    void testReset_KeepsFallbackWhileCycleRemains() {
+        IncrementalTopologicalOrder<String> order = new IncrementalTopologicalOrder<>(new DirectedGraph<>());
+        order.addEdge("tool1", "tool2");
+        order.addEdge("tool2", "tool1");
+
+        order.reset();
+
+        assertFalse(order.isAcyclic());
+        assertTrue(order.wouldCreateCycle("tool2", "tool1"));
+    }
+}
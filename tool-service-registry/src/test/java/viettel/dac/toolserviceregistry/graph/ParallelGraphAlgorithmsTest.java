@@ -0,0 +1,102 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParallelGraphAlgorithmsTest {
+
+    private static ForkJoinPool pool;
+    private static ParallelGraphAlgorithms parallel;
+    private static ParallelGraphAlgorithms sequential;
+
+    @BeforeAll
+    static void setUpPool() {
+        pool = new ForkJoinPool(4);
+        parallel = new ParallelGraphAlgorithms(pool, 1);
+        sequential = new ParallelGraphAlgorithms(pool, Integer.MAX_VALUE);
+    }
+
+    @AfterAll
+    static void shutdownPool() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void testNodeLayers_GroupsIndependentNodes() {
+        DirectedGraph<String> graph = new DirectedGraph<>();
+        graph.addEdge("tool1", "tool2");
+        graph.addEdge("tool1", "tool3");
+        graph.addEdge("tool2", "tool4");
+        graph.addEdge("tool3", "tool4");
+        graph.addNode("tool5");
+
+        List<List<String>> layers = parallel.nodeLayers(graph.compact());
+
+        assertEquals(3, layers.size());
+        assertEquals(List.of("tool1", "tool5"), layers.get(0).stream().sorted().toList());
+        assertEquals(List.of("tool2", "tool3"), layers.get(1).stream().sorted().toList());
+        assertEquals(List.of("tool4"), layers.get(2));
+    }
+
+    @Test
+    void testLayers_RejectsCycles() {
+        DirectedGraph<String> graph = new DirectedGraph<>();
+        graph.addEdge("tool1", "tool2");
+        graph.addEdge("tool2", "tool1");
+
+        assertThrows(IllegalStateException.class, () -> parallel.layers(graph.compact()));
+    }
+
+    @Test
+    void testLevels_StopsAtMaxDepth() {
+        DirectedGraph<String> graph = new DirectedGraph<>();
+        graph.addEdge("tool1", "tool2");
+        graph.addEdge("tool2", "tool3");
+        CompactGraph<String> compact = graph.compact();
+        BitSet sources = compact.toBits(List.of("tool3"));
+
+        int[] levels = parallel.levels(compact, sources, true, 1);
+
+        assertEquals(0, levels[compact.indexOf("tool3")]);
+        assertEquals(1, levels[compact.indexOf("tool2")]);
+        assertEquals(-1, levels[compact.indexOf("tool1")]);
+    }
+
+    @Test
+    void testParallelResults_MatchSequentialResults() {
+        // Wide enough for frontiers to be split into several tasks
+        CompactGraph<Integer> graph = randomDag(20_000, 3, new Random(7)).compact();
+        assertTrue(parallel.isParallel(graph));
+        assertFalse(sequential.isParallel(graph));
+
+        assertArrayEquals(sequential.degrees(graph, true), parallel.degrees(graph, true));
+        assertArrayEquals(sequential.degrees(graph, false), parallel.degrees(graph, false));
+        assertArrayEquals(sequential.layers(graph), parallel.layers(graph));
+
+        BitSet sources = new BitSet();
+        sources.set(0, 50);
+        assertArrayEquals(sequential.levels(graph, sources, false, 0), parallel.levels(graph, sources, false, 0));
+        assertArrayEquals(sequential.levels(graph, sources, true, 3), parallel.levels(graph, sources, true, 3));
+    }
+
+    private DirectedGraph<Integer> randomDag(int nodes, int edgesPerNode, Random random) {
+        DirectedGraph<Integer> graph = new DirectedGraph<>(nodes);
+        for (int node = 0; node < nodes; node++) {
+            graph.addNode(node);
+        }
+        for (int node = 1; node < nodes; node++) {
+            for (int edge = 0; edge < edgesPerNode; edge++) {
+                graph.addEdge(random.nextInt(node), node);
+            }
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,101 @@
+package viettel.dac.toolserviceregistry.graph;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReachabilityIndexTest {
+
+    private DirectedGraph<String> graph;
+
+    @BeforeEach
+    void setUp() {
+        // tool1 -> tool2 -> tool3 -> tool1 is one component, tool5 has a self-loop
+        graph = new DirectedGraph<>();
+        graph.addEdge("tool1", "tool2");
+        graph.addEdge("tool2", "tool3");
+        graph.addEdge("tool3", "tool1");
+        graph.addEdge("tool3", "tool4");
+        graph.addEdge("tool5", "tool5");
+        graph.addNode("tool6");
+    }
+
+    @Test
+    void testCondensation_CollapsesCycles() {
+        CompactGraph<String> compact = graph.compact();
+        ReachabilityIndex index = compact.reachability();
+
+        assertEquals(4, index.componentCount());
+        assertEquals(index.componentOf(compact.indexOf("tool1")), index.componentOf(compact.indexOf("tool3")));
+        assertNotEquals(index.componentOf(compact.indexOf("tool1")), index.componentOf(compact.indexOf("tool4")));
+    }
+
+    @Test
+    void testIsReachable_NodeReachesItselfOnlyOnACycle() {
+        assertTrue(graph.isReachable("tool1", "tool1"));
+        assertTrue(graph.isReachable("tool5", "tool5"));
+        assertFalse(graph.isReachable("tool4", "tool4"));
+        assertFalse(graph.isReachable("tool6", "tool6"));
+        assertTrue(graph.isReachable("tool2", "tool4"));
+        assertFalse(graph.isReachable("tool4", "tool1"));
+        assertFalse(graph.isReachable("tool1", "unknown"));
+    }
+
+    @Test
+    void testClosureSizes_CountComponentMembers() {
+        assertEquals(Set.of("tool1", "tool2", "tool3", "tool4"), graph.getTransitiveClosure("tool2"));
+        assertEquals(4, graph.getTransitiveClosureSize("tool2"));
+        assertEquals(3, graph.getReverseTransitiveClosureSize("tool4"));
+        assertEquals(1, graph.getTransitiveClosureSize("tool5"));
+        assertEquals(0, graph.getTransitiveClosureSize("tool4"));
+        assertEquals(0, graph.getTransitiveClosureSize("unknown"));
+    }
+
+    @Test
+    void testIndex_FollowsGraphChanges() {
+        assertFalse(graph.isReachable("tool4", "tool6"));
+
+        graph.addEdge("tool4", "tool6");
+
+        assertTrue(graph.isReachable("tool1", "tool6"));
+        assertEquals(5, graph.getTransitiveClosureSize("tool1"));
+    }
+
+    @Test
+    void testClosures_MatchTraversalOnRandomGraphs() {
+        Random random = new Random(42);
+        for (int round = 0; round < 5; round++) {
+            DirectedGraph<Integer> randomGraph = new DirectedGraph<>();
+            int nodes = 150;
+            for (int node = 0; node < nodes; node++) {
+                randomGraph.addNode(node);
+            }
+            for (int edge = 0; edge < nodes * 2; edge++) {
+                randomGraph.addEdge(random.nextInt(nodes), random.nextInt(nodes));
+            }
+
+            CompactGraph<Integer> compact = randomGraph.compact();
+            ReachabilityIndex index = compact.reachability();
+            for (int id = 0; id < compact.nodeCount(); id++) {
+                BitSet node = new BitSet();
+                node.set(id);
+                BitSet expectedDescendants = compact.reachableFrom(node, false);
+                BitSet expectedAncestors = compact.reachableFrom(node, true);
+
+                assertEquals(expectedDescendants, index.descendants(node));
+                assertEquals(expectedAncestors, index.ancestors(node));
+                assertEquals(expectedDescendants.cardinality(), index.descendantCount(id));
+                assertEquals(expectedAncestors.cardinality(), index.ancestorCount(id));
+                for (int other : List.of(0, id, compact.nodeCount() - 1)) {
+                    assertEquals(expectedDescendants.get(other), index.reaches(id, other));
+                }
+            }
+        }
+    }
+}
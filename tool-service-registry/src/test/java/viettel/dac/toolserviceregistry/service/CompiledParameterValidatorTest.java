@@ -0,0 +1,181 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import viettel.dac.toolserviceregistry.model.dto.ToolParameterDTO;
+import viettel.dac.toolserviceregistry.model.dto.ValidationResult;
+import viettel.dac.toolserviceregistry.model.enums.ParameterType;
+import viettel.dac.toolserviceregistry.model.enums.ValidationErrorType;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledParameterValidatorTest {
+
+    private ObjectMapper objectMapper;
+    private RegexGuard regexGuard;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        regexGuard = new RegexGuard(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(regexGuard, "stepsPerChar", 1000L);
+        ReflectionTestUtils.setField(regexGuard, "minSteps", 100_000L);
+        ReflectionTestUtils.setField(regexGuard, "timeoutMs", 1000L);
+    }
+
+    @Test
+    void testValidate_MissingValues() {
+        CompiledParameterValidator required = compile(createParameter(ParameterType.STRING).required(true));
+        CompiledParameterValidator optional = compile(createParameter(ParameterType.NUMBER));
+
+        assertInvalid(required.validate(null), ValidationErrorType.MISSING_REQUIRED, "Required parameter is missing");
+        assertInvalid(required.validate(""), ValidationErrorType.MISSING_REQUIRED, "Required parameter is missing");
+        assertValid(optional.validate(null));
+        assertInvalid(optional.validate(""), ValidationErrorType.INVALID_TYPE, "Value must be a valid number");
+    }
+
+    @Test
+    void testValidate_StringConstraintsKeepMessages() {
+        CompiledParameterValidator validator = compile(createParameter(ParameterType.STRING)
+                .minLength(2).maxLength(4).allowedValues(List.of("ab", "abc", "abcd", "abcx"))
+                .validationPattern("^ab.*c$").validationMessage("Must end with c"));
+
+        assertValid(validator.validate("abc"));
+        assertInvalid(validator.validate(5), ValidationErrorType.INVALID_TYPE, "Value must be a string");
+        assertInvalid(validator.validate("a"), ValidationErrorType.INVALID_LENGTH,
+                "Value must be at least 2 characters long");
+        assertInvalid(validator.validate("abcde"), ValidationErrorType.INVALID_LENGTH,
+                "Value must be at most 4 characters long");
+        assertInvalid(validator.validate("abd"), ValidationErrorType.NOT_ALLOWED,
+                "Value must be one of: ab, abc, abcd, abcx");
+        assertInvalid(validator.validate("abcx"), ValidationErrorType.PATTERN_MISMATCH, "Must end with c");
+    }
+
+    @Test
+    void testValidate_SecretUsesSecretMessages() {
+        CompiledParameterValidator validator = compile(createParameter(ParameterType.SECRET).minLength(8));
+
+        assertInvalid(validator.validate(12345678), ValidationErrorType.INVALID_TYPE, "Secret must be a string");
+        assertInvalid(validator.validate("short"), ValidationErrorType.INVALID_LENGTH,
+                "Secret must be at least 8 characters long");
+        assertValid(validator.validate("long enough"));
+    }
+
+    @Test
+    void testValidate_NumberBounds() {
+        CompiledParameterValidator validator = compile(createParameter(ParameterType.NUMBER)
+                .minValue("1").maxValue("10.5"));
+
+        assertValid(validator.validate(3));
+        assertValid(validator.validate("10.5"));
+        assertInvalid(validator.validate("ten"), ValidationErrorType.INVALID_TYPE, "Value must be a valid number");
+        assertInvalid(validator.validate(List.of()), ValidationErrorType.INVALID_TYPE, "Value must be a number");
+        assertInvalid(validator.validate(0), ValidationErrorType.OUT_OF_RANGE, "Value must be at least 1.0");
+        assertInvalid(validator.validate(11L), ValidationErrorType.OUT_OF_RANGE, "Value must be at most 10.5");
+    }
+
+    @Test
+    void testValidate_IgnoresInvalidBounds() {
+        CompiledParameterValidator validator = compile(createParameter(ParameterType.NUMBER).minValue("low"));
+
+        assertValid(validator.validate(-100));
+    }
+
+    @Test
+    void testValidate_Formats() {
+        assertValid(compile(createParameter(ParameterType.DATE)).validate("2024-02-29"));
+        assertInvalid(compile(createParameter(ParameterType.DATE)).validate("2024-13-01"),
+                ValidationErrorType.INVALID_FORMAT, "Invalid date format. Expected format: YYYY-MM-DD");
+        assertInvalid(compile(createParameter(ParameterType.DATE)).validate(20240101),
+                ValidationErrorType.INVALID_TYPE, "Date value must be a string");
+        assertValid(compile(createParameter(ParameterType.DATETIME)).validate("2024-01-01T10:15:30Z"));
+        assertInvalid(compile(createParameter(ParameterType.DATETIME)).validate("2024-01-01"),
+                ValidationErrorType.INVALID_FORMAT, "Invalid date format. Expected format: YYYY-MM-DDTHH:MM:SS");
+        assertInvalid(compile(createParameter(ParameterType.EMAIL)).validate("alice@"),
+                ValidationErrorType.INVALID_FORMAT, "Invalid email format");
+        assertInvalid(compile(createParameter(ParameterType.URL)).validate("example.com"),
+                ValidationErrorType.INVALID_FORMAT, "Invalid URL format");
+        assertInvalid(compile(createParameter(ParameterType.URL)).validate(1),
+                ValidationErrorType.INVALID_TYPE, "URL must be a string");
+    }
+
+    @Test
+    void testValidate_StructuredTypes() {
+        CompiledParameterValidator array = compile(createParameter(ParameterType.ARRAY));
+        CompiledParameterValidator object = compile(createParameter(ParameterType.OBJECT));
+        CompiledParameterValidator json = compile(createParameter(ParameterType.JSON));
+        CompiledParameterValidator xml = compile(createParameter(ParameterType.XML));
+
+        assertValid(array.validate(List.of(1, 2)));
+        assertValid(array.validate("a,b"));
+        assertInvalid(array.validate(",,"), ValidationErrorType.INVALID_TYPE, "Value must be an array");
+        assertInvalid(array.validate(5), ValidationErrorType.INVALID_TYPE, "Value must be an array");
+        assertValid(object.validate(Map.of("a", 1)));
+        assertValid(object.validate("{\"a\":1}"));
+        assertInvalid(object.validate("[1]"), ValidationErrorType.INVALID_TYPE, "Value must be a valid object");
+        assertValid(json.validate("[1, 2]"));
+        ValidationResult badJson = json.validate("{");
+        assertEquals(ValidationErrorType.INVALID_FORMAT, badJson.getErrorType());
+        assertTrue(badJson.getMessage().startsWith("Invalid JSON format: "));
+        assertValid(xml.validate(" <a/> "));
+        assertInvalid(xml.validate("a"), ValidationErrorType.INVALID_FORMAT, "Invalid XML format");
+    }
+
+    @Test
+    void testValidate_EnumAndBoolean() {
+        CompiledParameterValidator colors = compile(createParameter(ParameterType.ENUM)
+                .allowedValues(List.of("RED", "GREEN")));
+
+        assertValid(colors.validate("RED"));
+        assertInvalid(colors.validate("BLUE"), ValidationErrorType.NOT_ALLOWED, "Value must be one of: RED, GREEN");
+        assertInvalid(compile(createParameter(ParameterType.ENUM)).validate("RED"), ValidationErrorType.NOT_ALLOWED,
+                "Enum parameter has no allowed values defined");
+        assertValid(compile(createParameter(ParameterType.BOOLEAN)).validate("TRUE"));
+        assertInvalid(compile(createParameter(ParameterType.BOOLEAN)).validate("yes"), ValidationErrorType.INVALID_TYPE,
+                "Value must be a boolean (true or false)");
+    }
+
+    @Test
+    void testValidate_InvalidPatternFailsValues() {
+        CompiledParameterValidator validator = compile(createParameter(ParameterType.STRING).validationPattern("(a"));
+
+        ValidationResult result = validator.validate("a");
+
+        assertEquals(ValidationErrorType.VALIDATION_ERROR, result.getErrorType());
+        assertTrue(result.getMessage().startsWith("Validation error: "));
+    }
+
+    @Test
+    void testValidate_AbortsCatastrophicBacktracking() {
+        CompiledParameterValidator validator = compile(createParameter(ParameterType.STRING).validationPattern("(.*a){12}"));
+
+        assertInvalid(validator.validate("a".repeat(30) + "!"), ValidationErrorType.VALIDATION_ERROR,
+                "Value could not be matched against the pattern in time");
+        assertValid(validator.validate("a".repeat(12)));
+    }
+
+    private CompiledParameterValidator compile(ToolParameterDTO.ToolParameterDTOBuilder parameter) {
+        return CompiledParameterValidator.compile(parameter.build(), objectMapper, regexGuard);
+    }
+
+    private ToolParameterDTO.ToolParameterDTOBuilder createParameter(ParameterType parameterType) {
+        return ToolParameterDTO.builder().id("param1").name("param1").parameterType(parameterType);
+    }
+
+    private void assertValid(ValidationResult result) {
+        assertTrue(result.isValid(), result.getMessage());
+        assertNull(result.getErrorType());
+    }
+
+    private void assertInvalid(ValidationResult result, ValidationErrorType errorType, String message) {
+        assertFalse(result.isValid());
+        assertEquals(errorType, result.getErrorType());
+        assertEquals(message, result.getMessage());
+    }
+}
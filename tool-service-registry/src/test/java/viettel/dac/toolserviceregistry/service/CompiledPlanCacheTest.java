@@ -0,0 +1,109 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
+import viettel.dac.toolserviceregistry.model.dto.ParameterRequirement;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompiledPlanCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompiledPlanCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CompiledPlanCache(meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+    }
+
+    @Test
+    void testKey_IgnoresOrder() {
+        assertEquals(CompiledPlanCache.key(List.of("tool1", "tool2"), List.of("a", "b"), 3),
+                CompiledPlanCache.key(List.of("tool2", "tool1", "tool2"), Set.of("b", "a"), 3));
+    }
+
+    @Test
+    void testKey_DiffersByEveryInput() {
+        String key = CompiledPlanCache.key(List.of("tool1", "tool2"), List.of("a"), 3);
+
+        assertEquals(32, key.length());
+        assertNotEquals(key, CompiledPlanCache.key(List.of("tool1", "tool2"), List.of("a"), 4));
+        assertNotEquals(key, CompiledPlanCache.key(List.of("tool1"), List.of("a"), 3));
+        assertNotEquals(key, CompiledPlanCache.key(List.of("tool1", "tool2"), List.of("a", "b"), 3));
+    }
+
+    @Test
+    void testKey_DoesNotConfuseSetBoundaries() {
+        assertNotEquals(CompiledPlanCache.key(List.of("tool1tool2"), List.of(), 1),
+                CompiledPlanCache.key(List.of("tool1", "tool2"), List.of(), 1));
+        assertNotEquals(CompiledPlanCache.key(List.of("tool1"), List.of("tool2"), 1),
+                CompiledPlanCache.key(List.of("tool1", "tool2"), List.of(), 1));
+    }
+
+    @Test
+    void testProvidedNames_SkipsNullValues() {
+        Map<String, Object> provided = new HashMap<>();
+        provided.put("username", "alice");
+        provided.put("password", null);
+
+        assertEquals(Set.of("username"), CompiledPlanCache.providedNames(provided));
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedPlan() {
+        cache.put("plan1", createPlan("tool1"));
+        cache.put("plan2", createPlan("tool2"));
+        cache.get("plan1");
+
+        cache.put("plan3", createPlan("tool3"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("plan1"));
+        assertNull(cache.get("plan2"));
+        assertNotNull(cache.get("plan3"));
+        assertEquals(3.0, meterRegistry.counter("execution.plan.cache.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("execution.plan.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void testPutAndGet_UseCopies() {
+        ExecutionPlanView plan = createPlan("tool1");
+        cache.put("plan1", plan);
+        plan.getToolsInOrder().add("tool2");
+
+        ExecutionPlanView cached = cache.get("plan1");
+        cached.getToolsInOrder().add("tool3");
+        cached.getMissingParameters().get("tool1").clear();
+
+        ExecutionPlanView again = cache.get("plan1");
+        assertEquals(List.of("tool1"), again.getToolsInOrder());
+        assertEquals(1, again.getMissingParameters().get("tool1").size());
+        assertNotSame(cached, again);
+    }
+
+    @Test
+    void testPut_DisabledWithoutEntries() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 0);
+
+        cache.put("plan1", createPlan("tool1"));
+
+        assertEquals(0, cache.size());
+        assertNull(cache.get("plan1"));
+    }
+
+    private ExecutionPlanView createPlan(String toolId) {
+        ExecutionPlanView plan = new ExecutionPlanView();
+        plan.setToolsInOrder(new ArrayList<>(List.of(toolId)));
+        Set<ParameterRequirement> missing = new HashSet<>();
+        missing.add(new ParameterRequirement("param1", true, 1, null, null, null));
+        plan.getMissingParameters().put(toolId, missing);
+        return plan;
+    }
+}
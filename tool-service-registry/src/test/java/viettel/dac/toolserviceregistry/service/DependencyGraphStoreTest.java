@@ -0,0 +1,326 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import viettel.dac.toolserviceregistry.graph.DirectedGraph;
+import viettel.dac.toolserviceregistry.model.dto.graph.DependencyGraphStateDTO;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
+import viettel.dac.toolserviceregistry.model.enums.DependencyType;
+import viettel.dac.toolserviceregistry.model.event.GraphDeltaEvent;
+import viettel.dac.toolserviceregistry.model.event.GraphEdge;
+import viettel.dac.toolserviceregistry.model.event.GraphSnapshotEvent;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DependencyGraphStoreTest {
+    private static final String EVENTS_TOPIC = "tool-dependency-events";
+    private static final String SNAPSHOTS_TOPIC = "tool-dependency-snapshots";
+
+    @Mock
+    private DependencyGraphLoader graphLoader;
+
+    @Mock
+    private GraphSnapshotCache graphCache;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private DependencyGraphStore store;
+    private DependencyGraphStateDTO initialState;
+
+    @BeforeEach
+    void setUp() {
+        store = new DependencyGraphStore(graphLoader, graphCache, kafkaTemplate, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "toolDependencyEventsTopic", EVENTS_TOPIC);
+        ReflectionTestUtils.setField(store, "toolDependencySnapshotsTopic", SNAPSHOTS_TOPIC);
+        ReflectionTestUtils.setField(store, "snapshotInterval", 2L);
+
+        // login -> profile (required), profile -> report (optional), report is inactive
+        initialState = createState(0, List.of("login", "profile", "report"), List.of("login", "profile"),
+                new GraphEdge("login", "profile", DependencyType.REQUIRED),
+                new GraphEdge("profile", "report", DependencyType.OPTIONAL));
+        when(graphLoader.load(0L)).thenReturn(initialState);
+    }
+
+    @Test
+    void testSnapshot_LoadsFromDatabaseOnce() {
+        DirectedGraph<String> graph = store.snapshot().getGraph(false);
+        store.snapshot();
+
+        assertEquals(Set.of("login", "profile"), graph.getAllNodes());
+        assertTrue(graph.containsEdge("login", "profile"));
+        verify(graphLoader, times(1)).load(0L);
+        verify(graphCache).store(initialState);
+    }
+
+    @Test
+    void testToolSaved_AppliesDependenciesWithTheirTypes() {
+        long version = store.snapshot().getVersion();
+
+        store.toolSaved(createTool("audit", true,
+                Map.of("login", DependencyType.REQUIRED, "profile", DependencyType.OPTIONAL)));
+
+        DependencyGraphStore.Snapshot snapshot = store.snapshot();
+        assertEquals(version + 1, snapshot.getVersion());
+        DirectedGraph<String> graph = snapshot.getGraph(false);
+        assertTrue(graph.containsEdge("login", "audit"));
+        assertEquals(DependencyType.OPTIONAL.ordinal(), graph.getEdgeLabel("profile", "audit"));
+        DirectedGraph<String> requiredGraph = snapshot.getGraph(true);
+        assertTrue(requiredGraph.containsEdge("login", "audit"));
+        assertFalse(requiredGraph.containsEdge("profile", "audit"));
+    }
+
+    @Test
+    void testToolActiveChanged_AddsAndPrunesTheTool() {
+        store.snapshot();
+
+        store.toolActiveChanged("report", true);
+        assertTrue(store.snapshot().getGraph(false).containsEdge("profile", "report"));
+
+        store.toolActiveChanged("report", false);
+        DirectedGraph<String> graph = store.snapshot().getGraph(false);
+        assertFalse(graph.containsNode("report"));
+        assertTrue(graph.containsNode("profile"));
+    }
+
+    @Test
+    void testDependencyRemoved_PrunesOrphanedInactiveDependency() {
+        store.snapshot();
+        store.toolSaved(createTool("audit", true, Map.of("report", DependencyType.REQUIRED)));
+        assertTrue(store.snapshot().getGraph(false).containsEdge("report", "audit"));
+
+        store.dependencyRemoved("audit", "report");
+
+        DirectedGraph<String> graph = store.snapshot().getGraph(false);
+        assertFalse(graph.containsNode("report"));
+        assertTrue(graph.containsNode("audit"));
+    }
+
+    @Test
+    void testChangeVersion_GrowsOnlyForChangedTools() {
+        store.snapshot();
+        long loginVersion = store.changeVersion(List.of("login"));
+
+        store.toolChanged("profile");
+
+        assertEquals(loginVersion, store.changeVersion(List.of("login")));
+        assertTrue(store.changeVersion(List.of("profile")) > loginVersion);
+        assertEquals(store.changeVersion(List.of("profile")), store.changeVersion(List.of("login", "profile")));
+    }
+
+    @Test
+    void testWouldCreateCycle_IncludesDependenciesOfInactiveTools() {
+        assertTrue(store.wouldCreateCycle("login", List.of("report")));
+        assertFalse(store.wouldCreateCycle("report", List.of("login")));
+    }
+
+    @Test
+    void testToolSaved_StoresStateWhenCurrentWithPreviousGeneration() {
+        store.snapshot();
+        when(graphCache.nextGeneration()).thenReturn(1L);
+
+        store.toolSaved(createTool("audit", true, Map.of("login", DependencyType.REQUIRED)));
+
+        assertEquals(1, store.getGeneration());
+        verify(graphCache).store(argThat(state -> state.getGeneration() == 1
+                && state.getActiveToolIds().contains("audit")
+                && state.getDependencies().contains(new GraphEdge("login", "audit", DependencyType.REQUIRED))));
+    }
+
+    @Test
+    void testToolSaved_DoesNotStoreStateAfterMissedGenerations() {
+        store.snapshot();
+        when(graphCache.nextGeneration()).thenReturn(3L);
+
+        store.toolSaved(createTool("audit", true, Map.of("login", DependencyType.REQUIRED)));
+
+        assertEquals(0, store.getGeneration());
+        verify(graphCache, times(1)).store(any());
+    }
+
+    @Test
+    void testOnRemoteDelta_AppliesNextVersionInPlace() {
+        long version = store.snapshot().getVersion();
+
+        store.onRemoteDelta(createDelta("other", 1, "report", true,
+                new GraphEdge("profile", "report", DependencyType.OPTIONAL)));
+
+        assertEquals(1, store.getGeneration());
+        assertEquals(version + 1, store.snapshot().getVersion());
+        assertTrue(store.snapshot().getGraph(false).containsEdge("profile", "report"));
+        assertTrue(store.changeVersion(List.of("report")) > store.changeVersion(List.of("login")));
+        verify(graphCache, never()).load(1L);
+        verify(graphLoader, times(1)).load(anyLong());
+    }
+
+    @Test
+    void testOnRemoteDelta_SkipsOwnAndOldDeltas() {
+        long version = store.snapshot().getVersion();
+
+        store.onRemoteDelta(createDelta(store.getInstanceId(), 1, "report", true));
+        store.onRemoteDelta(createDelta("other", 0, "report", true));
+
+        assertEquals(version, store.snapshot().getVersion());
+        assertEquals(0, store.getGeneration());
+        assertFalse(store.snapshot().getGraph(false).containsNode("report"));
+    }
+
+    @Test
+    void testOnRemoteDelta_ReloadsFromCacheAfterGap() {
+        when(graphCache.currentGeneration()).thenReturn(0L, 3L);
+        store.snapshot();
+        when(graphCache.load(3L)).thenReturn(createState(3, List.of("login", "profile", "report"),
+                List.of("login", "profile", "report"),
+                new GraphEdge("login", "profile", DependencyType.REQUIRED),
+                new GraphEdge("profile", "report", DependencyType.OPTIONAL)));
+
+        store.onRemoteDelta(createDelta("other", 3, "report", true,
+                new GraphEdge("profile", "report", DependencyType.OPTIONAL)));
+
+        assertEquals(3, store.getGeneration());
+        assertTrue(store.snapshot().getGraph(false).containsEdge("profile", "report"));
+        verify(graphLoader, times(1)).load(anyLong());
+    }
+
+    @Test
+    void testOnRemoteDelta_ReloadsFromDatabaseWhenCacheHasNoState() {
+        when(graphCache.currentGeneration()).thenReturn(0L, 2L);
+        store.snapshot();
+        when(graphLoader.load(2L)).thenReturn(createState(2, List.of("login"), List.of("login")));
+
+        store.onRemoteDelta(createDelta("other", 2, "profile", false));
+
+        assertEquals(2, store.getGeneration());
+        assertEquals(Set.of("login"), store.snapshot().getGraph(false).getAllNodes());
+        verify(graphCache).load(2L);
+        verify(graphLoader).load(2L);
+    }
+
+    @Test
+    void testReload_SkipsWhenCurrent() {
+        store.snapshot();
+
+        store.reload();
+
+        verify(graphLoader, times(1)).load(anyLong());
+    }
+
+    @Test
+    void testToolSaved_AnnouncesDelta() {
+        store.snapshot();
+        when(graphCache.nextGeneration()).thenReturn(1L);
+
+        store.toolSaved(createTool("audit", true, Map.of("login", DependencyType.REQUIRED)));
+
+        GraphDeltaEvent event = sentDeltas().get(0);
+        assertEquals("GRAPH_DELTA", event.getEventType());
+        assertEquals(store.getInstanceId(), event.getSourceInstanceId());
+        assertEquals(1, event.getGraphVersion());
+        assertEquals("audit", event.getToolId());
+        assertEquals(List.of("audit"), event.getAddedNodes());
+        assertEquals(List.of(new GraphEdge("login", "audit", DependencyType.REQUIRED)), event.getAddedEdges());
+        assertTrue(event.isToolActive());
+        assertFalse(event.isToolDeleted());
+        assertEquals(event.getAddedEdges(), event.getToolDependencies());
+    }
+
+    @Test
+    void testDependencyRemoved_AnnouncesRemovedEdgeAndPrunedNode() {
+        store.snapshot();
+        store.toolSaved(createTool("audit", true, Map.of("report", DependencyType.OPTIONAL)));
+
+        store.dependencyRemoved("audit", "report");
+
+        GraphDeltaEvent event = sentDeltas().get(1);
+        assertEquals(List.of(new GraphEdge("report", "audit", DependencyType.OPTIONAL)), event.getRemovedEdges());
+        assertEquals(List.of("report"), event.getRemovedNodes());
+        assertTrue(event.getAddedEdges().isEmpty());
+        assertTrue(event.getToolDependencies().isEmpty());
+    }
+
+    @Test
+    void testToolSaved_PublishesSnapshotEveryInterval() {
+        store.snapshot();
+        when(graphCache.nextGeneration()).thenReturn(1L, 2L);
+
+        store.toolSaved(createTool("audit", true, Map.of("login", DependencyType.REQUIRED)));
+        verify(kafkaTemplate, never()).send(eq(SNAPSHOTS_TOPIC), anyString(), any());
+        store.toolChanged("audit");
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq(SNAPSHOTS_TOPIC), anyString(), captor.capture());
+        GraphSnapshotEvent event = (GraphSnapshotEvent) captor.getValue();
+        assertEquals(2, event.getGraphVersion());
+        assertEquals(Set.of("login", "profile", "audit"), new HashSet<>(event.getNodes()));
+        assertEquals(Set.of(new GraphEdge("login", "profile", DependencyType.REQUIRED),
+                new GraphEdge("login", "audit", DependencyType.REQUIRED)), new HashSet<>(event.getEdges()));
+    }
+
+    @Test
+    void testRebuild_PublishesSnapshot() {
+        store.rebuild();
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate).send(eq(SNAPSHOTS_TOPIC), anyString(), captor.capture());
+        assertEquals(0, ((GraphSnapshotEvent) captor.getValue()).getGraphVersion());
+    }
+
+    private List<GraphDeltaEvent> sentDeltas() {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, atLeastOnce()).send(eq(EVENTS_TOPIC), anyString(), captor.capture());
+        return captor.getAllValues().stream().map(GraphDeltaEvent.class::cast).toList();
+    }
+
+    private DependencyGraphStateDTO createState(long generation, List<String> toolIds, List<String> activeToolIds,
+                                                GraphEdge... dependencies) {
+        return DependencyGraphStateDTO.builder()
+                .generation(generation)
+                .toolIds(new ArrayList<>(toolIds))
+                .activeToolIds(new ArrayList<>(activeToolIds))
+                .dependencies(new ArrayList<>(List.of(dependencies)))
+                .build();
+    }
+
+    private GraphDeltaEvent createDelta(String sourceInstanceId, long graphVersion, String toolId, boolean active,
+                                        GraphEdge... toolDependencies) {
+        GraphDeltaEvent event = new GraphDeltaEvent();
+        event.setSourceInstanceId(sourceInstanceId);
+        event.setGraphVersion(graphVersion);
+        event.setToolId(toolId);
+        event.setToolActive(active);
+        event.setToolDependencies(new ArrayList<>(List.of(toolDependencies)));
+        return event;
+    }
+
+    private Tool createTool(String id, boolean active, Map<String, DependencyType> dependencies) {
+        Tool tool = new Tool();
+        tool.setId(id);
+        tool.setName(id);
+        tool.setActive(active);
+        tool.setDependencies(new ArrayList<>());
+        dependencies.forEach((dependencyToolId, type) -> {
+            Tool dependencyTool = new Tool();
+            dependencyTool.setId(dependencyToolId);
+
+            ToolDependency dependency = new ToolDependency();
+            dependency.setTool(tool);
+            dependency.setDependencyTool(dependencyTool);
+            dependency.setDependencyType(type);
+            tool.getDependencies().add(dependency);
+        });
+        return tool;
+    }
+}
@@ -1,13 +1,22 @@
 package viettel.dac.toolserviceregistry.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.test.util.ReflectionTestUtils;
+import viettel.dac.toolserviceregistry.exception.InvalidParameterException;
+import viettel.dac.toolserviceregistry.exception.ToolNotFoundException;
 import viettel.dac.toolserviceregistry.graph.DirectedGraph;
 import viettel.dac.toolserviceregistry.mapper.ParameterMappingMapper;
 import viettel.dac.toolserviceregistry.model.dto.ApiToolMetadataDTO;
@@ -18,16 +27,18 @@ import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
 import viettel.dac.toolserviceregistry.model.entity.ToolParameter;
 import viettel.dac.toolserviceregistry.model.enums.DependencyType;
 import viettel.dac.toolserviceregistry.model.enums.ToolType;
-import viettel.dac.toolserviceregistry.repository.ToolRepository;
+import viettel.dac.toolserviceregistry.model.reponse.ExecutionPlanResponse;
+import viettel.dac.toolserviceregistry.model.request.ExecutionPlanRequest;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class ExecutionPlanServiceTest {
+    private static final String RESPONSES_TOPIC = "execution-plan-responses";
 
     @Mock
     private ToolDependencyGraphService graphService;
@@ -35,9 +46,6 @@ public class ExecutionPlanServiceTest {
     @Mock
     private ParameterValidationService parameterValidationService;
 
-    @Mock
-    private ToolRepository toolRepository;
-
     @Mock
     private ParameterMappingMapper parameterMappingMapper;
 
@@ -45,13 +53,25 @@ public class ExecutionPlanServiceTest {
     private KafkaTemplate<String, Object> kafkaTemplate;
 
     @Mock
-    private ApiToolService apiToolService;
+    private ApiMetricsService apiMetricsService;
+
+    @Mock
+    private CompiledPlanCache compiledPlanCache;
+
+    @Mock
+    private ToolCatalog toolCatalog;
+
+    @Spy
+    private PlanVersionStore planVersionStore = new PlanVersionStore(new SimpleMeterRegistry(), null, null);
 
     @InjectMocks
     private ExecutionPlanService executionPlanService;
 
-    @Mock
-    private MeterRegistry meterRegistry;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     private Tool tool1, tool2, tool3, tool4;
     private DirectedGraph<String> mockGraph;
@@ -61,8 +81,10 @@ public class ExecutionPlanServiceTest {
 
     @BeforeEach
     void setUp() {
-
-
+        ReflectionTestUtils.setField(planVersionStore, "maxVersionsPerPlan", 10);
+        ReflectionTestUtils.setField(planVersionStore, "maxEntries", 100);
+        ReflectionTestUtils.setField(executionPlanService, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(executionPlanService, "executionPlanResponsesTopic", RESPONSES_TOPIC);
 
         // Set up test data
         tool1 = createTool("tool1", "Tool 1", ToolType.API_TOOL);
@@ -121,16 +143,14 @@ public class ExecutionPlanServiceTest {
         Set<String> dependencyClosure = new HashSet<>(Arrays.asList("tool1", "tool2", "tool3", "tool4"));
         Map<String, Object> providedParameters = new HashMap<>();
 
-        when(graphService.getDependencyClosure(requestedTools)).thenReturn(dependencyClosure);
-        when(graphService.topologicalSort(anyList())).thenReturn(toolsInOrder);
-        when(graphService.buildDependencyGraph(anyBoolean())).thenReturn(mockGraph);
-        when(parameterValidationService.identifyMissingParameters(eq(toolsInOrder), eq(providedParameters)))
+        when(graphService.getDependencyClosure(mockGraph, requestedTools)).thenReturn(dependencyClosure);
+        when(graphService.topologicalSort(eq(mockGraph), anyList())).thenReturn(toolsInOrder);
+        stubSnapshot(0);
+        when(parameterValidationService.identifyMissingParameters(eq(toolsInOrder), eq(providedParameters), anyMap()))
                 .thenReturn(missingParameters);
         when(parameterValidationService.hasRequiredParametersMissing(missingParameters)).thenReturn(true);
-        when(toolRepository.findById("tool1")).thenReturn(Optional.of(tool1));
-        when(toolRepository.findById("tool2")).thenReturn(Optional.of(tool2));
-        when(toolRepository.findById("tool3")).thenReturn(Optional.of(tool3));
-        when(toolRepository.findById("tool4")).thenReturn(Optional.of(tool4));
+        when(toolCatalog.lookup(dependencyClosure)).thenReturn(new ToolCatalog.CatalogView(
+                Map.of("tool1", tool1, "tool2", tool2, "tool3", tool3, "tool4", tool4), Map.of()));
 
         // Act
         ExecutionPlanView plan = executionPlanService.generateExecutionPlan(requestedTools, providedParameters);
@@ -145,6 +165,42 @@ public class ExecutionPlanServiceTest {
         assertEquals(1, plan.getVersion());
     }
 
+    @Test
+    void testGenerateExecutionPlan_PlansFromOneSnapshot() {
+        List<String> requestedTools = List.of("tool3");
+        Set<String> dependencyClosure = Set.of("tool1", "tool2", "tool3");
+        stubSnapshot(4);
+        when(graphService.getDependencyClosure(mockGraph, requestedTools)).thenReturn(dependencyClosure);
+        when(graphService.topologicalSort(eq(mockGraph), anyList())).thenReturn(List.of("tool1", "tool2", "tool3"));
+        when(parameterValidationService.identifyMissingParameters(any(), any(), anyMap())).thenReturn(new HashMap<>());
+        when(toolCatalog.lookup(dependencyClosure)).thenReturn(new ToolCatalog.CatalogView(
+                Map.of("tool1", tool1, "tool2", tool2, "tool3", tool3), Map.of()));
+
+        // A tool of the closure changed after the snapshot was taken
+        when(graphService.getChangeVersion(dependencyClosure)).thenReturn(5L);
+        ExecutionPlanView stale = executionPlanService.generateExecutionPlan(requestedTools, Map.of());
+
+        assertEquals(List.of("tool1", "tool2", "tool3"), stale.getToolsInOrder());
+        verify(compiledPlanCache, never()).put(anyString(), any());
+
+        when(graphService.getChangeVersion(dependencyClosure)).thenReturn(4L);
+        ExecutionPlanView current = executionPlanService.generateExecutionPlan(requestedTools, Map.of());
+
+        verify(compiledPlanCache).put(anyString(), same(current));
+        verify(graphService, never()).buildDependencyGraph(anyBoolean());
+        verify(graphService, never()).getDependencyClosure(anyList());
+        verify(graphService, never()).topologicalSort(anyList());
+    }
+
+    @Test
+    void testGenerateExecutionPlan_ThrowsForUnknownTool() {
+        stubBatchPlanning();
+
+        assertThrows(ToolNotFoundException.class,
+                () -> executionPlanService.generateExecutionPlan(List.of("tool2", "unknown"), Map.of()));
+        verify(compiledPlanCache, never()).put(anyString(), any());
+    }
+
     @Test
     void testIdentifyParallelExecutionGroups() {
         // Arrange
@@ -194,20 +250,21 @@ public class ExecutionPlanServiceTest {
         Set<String> dependencyClosure = new HashSet<>(Arrays.asList("tool1", "tool2", "tool3"));
         Map<String, Object> providedParameters = new HashMap<>();
 
-        when(graphService.getDependencyClosure(requestedTools)).thenReturn(dependencyClosure);
-        when(graphService.topologicalSort(anyList())).thenReturn(List.of("tool1", "tool2", "tool3"));
-        when(graphService.buildDependencyGraph(anyBoolean())).thenReturn(mockGraph);
-        when(parameterValidationService.identifyMissingParameters(any(), any()))
+        when(graphService.getDependencyClosure(mockGraph, requestedTools)).thenReturn(dependencyClosure);
+        when(graphService.topologicalSort(eq(mockGraph), anyList())).thenReturn(List.of("tool1", "tool2", "tool3"));
+        stubSnapshot(0);
+        when(parameterValidationService.identifyMissingParameters(any(), any(), anyMap()))
                 .thenReturn(new HashMap<>());
         when(parameterValidationService.hasRequiredParametersMissing(any())).thenReturn(false);
-        when(toolRepository.findById(anyString())).thenReturn(Optional.of(tool1));
+        when(toolCatalog.lookup(dependencyClosure)).thenReturn(new ToolCatalog.CatalogView(
+                Map.of("tool1", tool1, "tool2", tool2, "tool3", tool3), Map.of()));
 
         // Act - Generate initial plan
         ExecutionPlanView plan1 = executionPlanService.generateExecutionPlan(requestedTools, providedParameters);
 
         // Update parameters and generate a new plan
         providedParameters.put("newParam", "value");
-        when(parameterValidationService.identifyMissingParameters(any(), eq(providedParameters)))
+        when(parameterValidationService.identifyMissingParameters(any(), eq(providedParameters), anyMap()))
                 .thenReturn(Collections.singletonMap("tool1", Collections.singleton(
                         new ParameterRequirement("diffParam", true, 1, "Different", "example", null))));
         when(parameterValidationService.hasRequiredParametersMissing(any())).thenReturn(true);
@@ -243,20 +300,19 @@ public class ExecutionPlanServiceTest {
         Set<String> dependencyClosure = new HashSet<>(requestedTools);
         Map<String, Object> providedParameters = new HashMap<>();
 
-        when(graphService.getDependencyClosure(requestedTools)).thenReturn(dependencyClosure);
-        when(graphService.topologicalSort(anyList())).thenReturn(requestedTools);
-        when(graphService.buildDependencyGraph(anyBoolean())).thenReturn(mockGraph);
-        when(parameterValidationService.identifyMissingParameters(any(), any()))
+        when(graphService.getDependencyClosure(mockGraph, requestedTools)).thenReturn(dependencyClosure);
+        when(graphService.topologicalSort(eq(mockGraph), anyList())).thenReturn(requestedTools);
+        stubSnapshot(0);
+        when(parameterValidationService.identifyMissingParameters(any(), any(), anyMap()))
                 .thenReturn(new HashMap<>());
         when(parameterValidationService.hasRequiredParametersMissing(any())).thenReturn(false);
-        when(toolRepository.findById("tool1")).thenReturn(Optional.of(tool1));
-        when(toolRepository.findById("tool2")).thenReturn(Optional.of(tool2));
-        when(toolRepository.findById("tool4")).thenReturn(Optional.of(tool4));
 
-        // Mock API metadata retrieval
-        when(apiToolService.getApiToolMetadataDTO("tool1")).thenReturn(createApiMetadataDTO("https://api1.example.com"));
-        when(apiToolService.getApiToolMetadataDTO("tool2")).thenReturn(createApiMetadataDTO("https://api1.example.com"));
-        when(apiToolService.getApiToolMetadataDTO("tool4")).thenReturn(createApiMetadataDTO("https://api2.example.com"));
+        // Mock catalog lookup, including API metadata
+        when(toolCatalog.lookup(dependencyClosure)).thenReturn(new ToolCatalog.CatalogView(
+                Map.of("tool1", tool1, "tool2", tool2, "tool4", tool4),
+                Map.of("tool1", createApiMetadataDTO("https://api1.example.com"),
+                        "tool2", createApiMetadataDTO("https://api1.example.com"),
+                        "tool4", createApiMetadataDTO("https://api2.example.com"))));
 
         // Act
         ExecutionPlanView plan = executionPlanService.generateExecutionPlan(requestedTools, providedParameters);
@@ -280,6 +336,145 @@ public class ExecutionPlanServiceTest {
         assertTrue(plan.isOptimized());
     }
 
+    @Test
+    void testGenerateExecutionPlans_PlansEqualRequestsOnce() {
+        stubBatchPlanning();
+
+        List<ExecutionPlanView> plans = executionPlanService.generateExecutionPlans(List.of(
+                createRequest(List.of("tool3", "tool4"), Map.of("param1", "a")),
+                createRequest(List.of("tool4", "tool3"), Map.of("param1", "b")),
+                createRequest(List.of("tool2"), Map.of())));
+
+        assertEquals(3, plans.size());
+        assertEquals(toolsInOrder, plans.get(0).getToolsInOrder());
+        assertEquals(toolsInOrder, plans.get(1).getToolsInOrder());
+        assertEquals(List.of("tool1", "tool2"), plans.get(2).getToolsInOrder());
+        verify(graphService, times(1)).getGraphSnapshot();
+        verify(graphService, times(2)).topologicalSort(eq(mockGraph), anyList());
+        verify(toolCatalog, times(1)).lookup(anyCollection());
+    }
+
+    @Test
+    void testGenerateExecutionPlans_ReusesCompiledPlans() {
+        stubBatchPlanning();
+        ExecutionPlanView cached = ExecutionPlanView.builder().toolsInOrder(List.of("tool1", "tool2")).build();
+        when(compiledPlanCache.get(anyString())).thenReturn(cached);
+
+        List<ExecutionPlanView> plans = executionPlanService.generateExecutionPlans(
+                List.of(createRequest(List.of("tool2"), Map.of())));
+
+        assertSame(cached, plans.get(0));
+        verify(toolCatalog, never()).lookup(anyCollection());
+    }
+
+    @Test
+    void testGenerateExecutionPlans_ThrowsErrorOfFailedRequest() {
+        stubBatchPlanning();
+
+        assertThrows(ToolNotFoundException.class, () -> executionPlanService.generateExecutionPlans(List.of(
+                createRequest(List.of("tool2"), Map.of()),
+                createRequest(List.of("unknown"), Map.of()))));
+    }
+
+    @Test
+    void testGenerateExecutionPlans_RejectsOversizedBatch() {
+        ReflectionTestUtils.setField(executionPlanService, "maxBatchSize", 1);
+
+        assertThrows(InvalidParameterException.class, () -> executionPlanService.generateExecutionPlans(List.of(
+                createRequest(List.of("tool1"), Map.of()),
+                createRequest(List.of("tool2"), Map.of()))));
+    }
+
+    @Test
+    void testHandleExecutionPlanRequests_AnswersEveryRequest() throws Exception {
+        stubBatchPlanning();
+        Acknowledgment ack = mock(Acknowledgment.class);
+
+        executionPlanService.handleExecutionPlanRequests(List.of(
+                createRecord(0, "request1", createRequest(List.of("tool2"), Map.of())),
+                new ConsumerRecord<>("execution-plan-requests", 0, 1, "request2", "{not json"),
+                createRecord(2, "request3", createRequest(List.of("unknown"), Map.of()))), ack);
+
+        Map<String, ExecutionPlanResponse> responses = sentResponses(3);
+        assertNull(responses.get("request1").getError());
+        assertEquals(List.of("tool1", "tool2"), responses.get("request1").getToolsInOrder());
+        assertTrue(responses.get("request2").getError().startsWith("Unreadable execution plan request"));
+        assertNotNull(responses.get("request3").getError());
+        assertTrue(responses.get("request3").getToolsInOrder().isEmpty());
+        verify(ack).acknowledge();
+    }
+
+    @Test
+    void testHandleExecutionPlanRequests_SplitsLargeBatches() throws Exception {
+        ReflectionTestUtils.setField(executionPlanService, "maxBatchSize", 2);
+        stubBatchPlanning();
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(createRecord(i, "request" + i, createRequest(List.of("tool2"), Map.of())));
+        }
+
+        executionPlanService.handleExecutionPlanRequests(records, mock(Acknowledgment.class));
+
+        Map<String, ExecutionPlanResponse> responses = sentResponses(5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals("request" + i, responses.get("request" + i).getRequestId());
+            assertNull(responses.get("request" + i).getError());
+        }
+        verify(graphService, times(3)).getGraphSnapshot();
+    }
+
+    /**
+     * Stubs a graph snapshot of the mock graph at a version.
+     */
+    private void stubSnapshot(long version) {
+        DependencyGraphStore.Snapshot snapshot = mock(DependencyGraphStore.Snapshot.class);
+        lenient().when(snapshot.getGraph(true)).thenReturn(mockGraph);
+        lenient().when(snapshot.getVersion()).thenReturn(version);
+        when(graphService.getGraphSnapshot()).thenReturn(snapshot);
+    }
+
+    /**
+     * Stubs the graph and catalog for planning. As in the graph service, the closure of a tool is the
+     * tool and its dependencies in the mock graph, and a tool that is not in the graph is its own
+     * closure; the catalog only knows the four test tools.
+     */
+    private void stubBatchPlanning() {
+        stubSnapshot(0);
+        when(graphService.getDependencyClosure(eq(mockGraph), anyList())).thenAnswer(invocation -> {
+            List<String> toolIds = invocation.getArgument(1);
+            Set<String> closure = new HashSet<>(toolIds);
+            closure.addAll(mockGraph.getReverseTransitiveClosure(toolIds));
+            return closure;
+        });
+        lenient().when(graphService.topologicalSort(eq(mockGraph), anyList())).thenAnswer(invocation -> {
+            List<String> closure = new ArrayList<>(invocation.<List<String>>getArgument(1));
+            closure.sort(Comparator.comparingInt(toolsInOrder::indexOf));
+            return closure;
+        });
+        lenient().when(toolCatalog.lookup(anyCollection())).thenReturn(new ToolCatalog.CatalogView(
+                Map.of("tool1", tool1, "tool2", tool2, "tool3", tool3, "tool4", tool4), Map.of()));
+    }
+
+    private Map<String, ExecutionPlanResponse> sentResponses(int count) {
+        ArgumentCaptor<Object> responses = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, times(count)).send(eq(RESPONSES_TOPIC), anyString(), responses.capture());
+        Map<String, ExecutionPlanResponse> result = new HashMap<>();
+        for (Object response : responses.getAllValues()) {
+            ExecutionPlanResponse planResponse = (ExecutionPlanResponse) response;
+            result.put(planResponse.getRequestId(), planResponse);
+        }
+        return result;
+    }
+
+    private ExecutionPlanRequest createRequest(List<String> toolIds, Map<String, Object> providedParameters) {
+        return new ExecutionPlanRequest(new ArrayList<>(toolIds), new HashMap<>(providedParameters));
+    }
+
+    private ConsumerRecord<String, String> createRecord(long offset, String key, ExecutionPlanRequest request)
+            throws Exception {
+        return new ConsumerRecord<>("execution-plan-requests", 0, offset, key, objectMapper.writeValueAsString(request));
+    }
+
     private Tool createTool(String id, String name, ToolType toolType) {
         Tool tool = new Tool();
         tool.setId(id);
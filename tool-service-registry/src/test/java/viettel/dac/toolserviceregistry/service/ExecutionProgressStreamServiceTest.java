@@ -0,0 +1,136 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
+import viettel.dac.toolserviceregistry.model.enums.ExecutionProgressEventType;
+import viettel.dac.toolserviceregistry.model.event.ExecutionProgressEvent;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExecutionProgressStreamServiceTest {
+
+    @Mock
+    private PlanExecutionService planExecutionService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutionProgressStreamService streamService;
+    private final List<Consumer<ExecutionProgressEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // A single sender, so a client that blocks it would stall every other stream
+        streamService = new ExecutionProgressStreamService(planExecutionService, meterRegistry, 1);
+        ReflectionTestUtils.setField(streamService, "bufferSize", 16);
+        ReflectionTestUtils.setField(streamService, "sendTimeoutMs", 200L);
+
+        when(planExecutionService.execute(any(), anyMap(), any())).thenAnswer(invocation -> {
+            listeners.add(invocation.getArgument(2));
+            return new CompletableFuture<>();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        streamService.shutdown();
+    }
+
+    @Test
+    void testStream_DeliversEventsAndCompletes() throws Exception {
+        RecordingEmitter emitter = new RecordingEmitter();
+        streamService.stream(plan(), Map.of(), emitter);
+
+        listeners.get(0).accept(event(ExecutionProgressEventType.PLAN_STARTED, 0));
+        listeners.get(0).accept(event(ExecutionProgressEventType.PLAN_COMPLETED, 1));
+
+        emitter.completed.get(5, TimeUnit.SECONDS);
+        assertEquals(2, emitter.sent.size());
+    }
+
+    @Test
+    void testStream_ClosesStalledClientWithoutStallingOthers() throws Exception {
+        BlockingEmitter stalled = new BlockingEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        streamService.stream(plan(), Map.of(), stalled);
+        streamService.stream(plan(), Map.of(), healthy);
+
+        listeners.get(0).accept(event(ExecutionProgressEventType.PLAN_STARTED, 0));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        listeners.get(1).accept(event(ExecutionProgressEventType.PLAN_STARTED, 0));
+        listeners.get(1).accept(event(ExecutionProgressEventType.PLAN_COMPLETED, 1));
+
+        healthy.completed.get(5, TimeUnit.SECONDS);
+        assertEquals(2, healthy.sent.size());
+        assertInstanceOf(TimeoutException.class, stalled.failed.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.counter("execution.progress.streams.timed_out").count());
+
+        // Events of a closed stream are dropped instead of queued for the stalled client
+        listeners.get(0).accept(event(ExecutionProgressEventType.PLAN_COMPLETED, 1));
+        assertEquals(1, stalled.attempts);
+    }
+
+    private ExecutionPlanView plan() {
+        return ExecutionPlanView.builder().toolsInOrder(List.of("tool1")).build();
+    }
+
+    private ExecutionProgressEvent event(ExecutionProgressEventType type, long sequence) {
+        return new ExecutionProgressEvent(type, "execution1", sequence);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<SseEventBuilder> sent = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder);
+        }
+
+        @Override
+        public void complete() {
+            completed.complete(null);
+        }
+    }
+
+    private class BlockingEmitter extends SseEmitter {
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CompletableFuture<Throwable> failed = new CompletableFuture<>();
+        private volatile int attempts;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            attempts++;
+            sending.countDown();
+            try {
+                unblock.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing", e);
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            failed.complete(ex);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import viettel.dac.toolserviceregistry.model.dto.ParameterRequirement;
+import viettel.dac.toolserviceregistry.model.entity.ParameterMapping;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
+import viettel.dac.toolserviceregistry.model.entity.ToolParameter;
+import viettel.dac.toolserviceregistry.model.enums.DependencyType;
+import viettel.dac.toolserviceregistry.model.enums.ParameterSource;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MissingParameterIndexTest {
+
+    private MissingParameterIndex index;
+    private Tool login, profile, report;
+    private Map<String, Tool> tools;
+
+    @BeforeEach
+    void setUp() {
+        index = new MissingParameterIndex(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(index, "maxEntries", 100);
+
+        // login(username, password) -> token
+        login = createTool("login", "Login");
+        addParameter(login, "username", ParameterSource.USER_INPUT);
+        addParameter(login, "password", ParameterSource.USER_INPUT);
+        addParameter(login, "token", ParameterSource.API_RESPONSE);
+
+        // profile(authToken <- login.token, username <- login.username) -> userId
+        profile = createTool("profile", "Profile");
+        addParameter(profile, "authToken", ParameterSource.USER_INPUT);
+        addParameter(profile, "username", ParameterSource.USER_INPUT);
+        addParameter(profile, "userId", ParameterSource.API_RESPONSE);
+        addDependency(profile, login, Map.of("token", "authToken", "username", "username"));
+
+        // report(owner <- profile.userId, format)
+        report = createTool("report", "Report");
+        addParameter(report, "owner", ParameterSource.USER_INPUT);
+        addParameter(report, "format", ParameterSource.USER_INPUT);
+        addDependency(report, profile, Map.of("userId", "owner"));
+
+        tools = Map.of("login", login, "profile", profile, "report", report);
+    }
+
+    @Test
+    void testIdentifyMissingParameters_FollowsMappingsOfProducedParameters() {
+        Map<String, Set<ParameterRequirement>> missing = index.identifyMissingParameters(
+                List.of("login", "profile", "report"), Map.of("username", "alice"), tools::get);
+
+        assertEquals(Map.of("login", Set.of("password"), "report", Set.of("format")), names(missing));
+    }
+
+    @Test
+    void testIdentifyMissingParameters_IgnoresMappingsFromToolsOutsideTheSequence() {
+        Map<String, Set<ParameterRequirement>> missing = index.identifyMissingParameters(
+                List.of("profile", "report"), Map.of("username", "alice"), tools::get);
+
+        assertEquals(Map.of("profile", Set.of("authToken"), "report", Set.of("format")), names(missing));
+    }
+
+    @Test
+    void testIdentifyMissingParameters_TreatsNullValuesAsMissing() {
+        Map<String, Object> provided = new HashMap<>();
+        provided.put("username", null);
+        provided.put("password", "secret");
+
+        Map<String, Set<ParameterRequirement>> missing = index.identifyMissingParameters(
+                List.of("login", "profile", "report"), provided, tools::get);
+
+        assertEquals(Map.of("login", Set.of("username"), "profile", Set.of("username"), "report", Set.of("format")),
+                names(missing));
+    }
+
+    @Test
+    void testIdentifyMissingParameters_RecomputesAfterToolVersionChange() {
+        List<String> toolsInOrder = List.of("login", "profile", "report");
+        Map<String, Object> provided = Map.of("username", "alice", "password", "secret");
+        assertEquals(Map.of("report", Set.of("format")),
+                names(index.identifyMissingParameters(toolsInOrder, provided, tools::get)));
+
+        addParameter(report, "pageSize", ParameterSource.USER_INPUT);
+        report.setVersion(report.getVersion() + 1);
+
+        assertEquals(Map.of("report", Set.of("format", "pageSize")),
+                names(index.identifyMissingParameters(toolsInOrder, provided, tools::get)));
+    }
+
+    private Map<String, Set<String>> names(Map<String, Set<ParameterRequirement>> missing) {
+        return missing.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey,
+                entry -> entry.getValue().stream().map(ParameterRequirement::getName).collect(Collectors.toSet())));
+    }
+
+    private Tool createTool(String id, String name) {
+        Tool tool = new Tool();
+        tool.setId(id);
+        tool.setName(name);
+        tool.setVersion(1);
+        tool.setParameters(new ArrayList<>());
+        tool.setDependencies(new ArrayList<>());
+        return tool;
+    }
+
+    private void addParameter(Tool tool, String name, ParameterSource source) {
+        ToolParameter parameter = new ToolParameter();
+        parameter.setId(tool.getId() + "-" + name);
+        parameter.setTool(tool);
+        parameter.setName(name);
+        parameter.setRequired(true);
+        parameter.setParameterSource(source);
+        if (source == ParameterSource.API_RESPONSE) {
+            parameter.setExtractionPath("$." + name);
+        }
+        tool.getParameters().add(parameter);
+    }
+
+    private void addDependency(Tool tool, Tool dependencyTool, Map<String, String> mappings) {
+        ToolDependency dependency = new ToolDependency();
+        dependency.setId(tool.getId() + "-" + dependencyTool.getId());
+        dependency.setTool(tool);
+        dependency.setDependencyTool(dependencyTool);
+        dependency.setDependencyType(DependencyType.REQUIRED);
+        dependency.setParameterMappings(new ArrayList<>());
+        mappings.forEach((source, target) -> {
+            ParameterMapping mapping = new ParameterMapping();
+            mapping.setId(dependency.getId() + "-" + target);
+            mapping.setSourceParameter(source);
+            mapping.setTargetParameter(target);
+            dependency.addParameterMapping(mapping);
+        });
+        tool.getDependencies().add(dependency);
+    }
+}
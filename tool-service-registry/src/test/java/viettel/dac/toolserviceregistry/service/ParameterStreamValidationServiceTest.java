@@ -0,0 +1,150 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import viettel.dac.toolserviceregistry.model.dto.ToolParameterDTO;
+import viettel.dac.toolserviceregistry.model.dto.ValidationSummary;
+import viettel.dac.toolserviceregistry.model.enums.ParameterType;
+import viettel.dac.toolserviceregistry.model.enums.ValidationErrorType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ParameterStreamValidationServiceTest {
+
+    @Mock
+    private ParameterValidatorCache validatorCache;
+
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+    private ParameterStreamValidationService streamValidationService;
+    private Map<String, CompiledParameterValidator> validators;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        meterRegistry = new SimpleMeterRegistry();
+        streamValidationService = new ParameterStreamValidationService(validatorCache, objectMapper, meterRegistry, 4);
+        ReflectionTestUtils.setField(streamValidationService, "chunkSize", 2);
+        ReflectionTestUtils.setField(streamValidationService, "maxRowsInFlight", 4);
+
+        RegexGuard regexGuard = new RegexGuard(meterRegistry);
+        validators = new LinkedHashMap<>();
+        validators.put("username", CompiledParameterValidator.compile(ToolParameterDTO.builder()
+                .id("param1").name("username").parameterType(ParameterType.STRING).required(true).build(),
+                objectMapper, regexGuard));
+        validators.put("age", CompiledParameterValidator.compile(ToolParameterDTO.builder()
+                .id("param2").name("age").parameterType(ParameterType.NUMBER).minValue("0").build(),
+                objectMapper, regexGuard));
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamValidationService.shutdown();
+    }
+
+    @Test
+    void testPrepare_UsesCachedValidators() {
+        when(validatorCache.getToolValidators("tool1")).thenReturn(validators);
+
+        assertSame(validators, streamValidationService.prepare("tool1"));
+    }
+
+    @Test
+    void testValidate_WritesOneResultPerRowThenSummary() throws IOException {
+        String input = String.join("\n",
+                "{\"username\":\"alice\",\"age\":30}",
+                "{\"age\":-1}",
+                "",
+                "not json",
+                "[1, 2]",
+                "{\"username\":\"bob\"}");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ValidationSummary summary = streamValidationService.validate(validators, stream(input), output);
+
+        List<JsonNode> lines = readLines(output);
+        assertEquals(6, lines.size());
+        assertEquals(List.of(1L, 2L, 4L, 5L, 6L), lines.subList(0, 5).stream().map(line -> line.get("row").asLong()).toList());
+
+        assertTrue(lines.get(0).get("valid").asBoolean());
+        assertFalse(lines.get(0).has("errors"));
+        JsonNode errors = lines.get(1).get("errors");
+        assertEquals("MISSING_REQUIRED", errors.get("username").get("errorType").asText());
+        assertEquals("Value must be at least 0.0", errors.get("age").get("message").asText());
+        assertEquals("MALFORMED_ROW", lines.get(2).get("rowError").get("errorType").asText());
+        assertTrue(lines.get(2).get("rowError").get("message").asText().startsWith("Row is not a JSON object: "));
+        assertEquals("MALFORMED_ROW", lines.get(3).get("rowError").get("errorType").asText());
+        assertTrue(lines.get(4).get("valid").asBoolean());
+
+        assertEquals(5, summary.getRows());
+        assertEquals(2, summary.getValidRows());
+        assertEquals(3, summary.getInvalidRows());
+        assertEquals(Map.of(ValidationErrorType.MISSING_REQUIRED, 1L, ValidationErrorType.OUT_OF_RANGE, 1L,
+                ValidationErrorType.MALFORMED_ROW, 2L), summary.getErrorCounts());
+        assertEquals(5, lines.get(5).get("summary").get("rows").asLong());
+        assertEquals(3.0, meterRegistry.counter("parameter.validation.stream.rows", "outcome", "invalid").count());
+    }
+
+    @Test
+    void testValidate_KeepsInputOrderAcrossChunks() throws IOException {
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= 1000; i++) {
+            input.append(i % 7 == 0 ? "{\"age\":1}" : "{\"username\":\"user" + i + "\"}").append('\n');
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ValidationSummary summary = streamValidationService.validate(validators, stream(input.toString()), output);
+
+        List<JsonNode> lines = readLines(output);
+        assertEquals(1001, lines.size());
+        for (int i = 1; i <= 1000; i++) {
+            JsonNode line = lines.get(i - 1);
+            assertEquals(i, line.get("row").asLong());
+            assertEquals(i % 7 != 0, line.get("valid").asBoolean());
+        }
+        assertEquals(1000, summary.getRows());
+        assertEquals(142, summary.getInvalidRows());
+    }
+
+    @Test
+    void testValidate_EmptyStreamWritesSummaryOnly() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        ValidationSummary summary = streamValidationService.validate(validators, stream(""), output);
+
+        List<JsonNode> lines = readLines(output);
+        assertEquals(1, lines.size());
+        assertEquals(0, lines.get(0).get("summary").get("rows").asLong());
+        assertEquals(0, summary.getRows());
+        assertTrue(summary.getErrorCounts().isEmpty());
+    }
+
+    private InputStream stream(String input) {
+        return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<JsonNode> readLines(ByteArrayOutputStream output) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
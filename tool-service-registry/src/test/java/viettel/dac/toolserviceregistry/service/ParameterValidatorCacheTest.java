@@ -0,0 +1,148 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import viettel.dac.toolserviceregistry.exception.ToolParameterNotFoundException;
+import viettel.dac.toolserviceregistry.model.dto.ToolParameterDTO;
+import viettel.dac.toolserviceregistry.model.enums.ParameterType;
+import viettel.dac.toolserviceregistry.repository.ToolParameterRepository;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ParameterValidatorCacheTest {
+
+    @Mock
+    private ToolParameterService parameterService;
+
+    @Mock
+    private ToolParameterRepository parameterRepository;
+
+    @Mock
+    private DependencyGraphStore graphStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ParameterValidatorCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ParameterValidatorCache(parameterService, parameterRepository, graphStore, new ObjectMapper(),
+                new RegexGuard(meterRegistry), meterRegistry);
+    }
+
+    @Test
+    void testGetToolValidators_CompilesOncePerVersion() {
+        when(parameterService.getParametersByToolId("tool1"))
+                .thenReturn(createParameters(createParameter("param1", "username")));
+
+        Map<String, CompiledParameterValidator> first = cache.getToolValidators("tool1");
+        Map<String, CompiledParameterValidator> second = cache.getToolValidators("tool1");
+
+        assertEquals(Set.of("username"), first.keySet());
+        assertSame(first.get("username"), second.get("username"));
+        assertEquals(1, cache.size());
+        assertEquals(1.0, meterRegistry.counter("parameter.validators.compiled").count());
+        verify(parameterService, times(1)).getParametersByToolId("tool1");
+        assertThrows(UnsupportedOperationException.class, () -> first.remove("username"));
+    }
+
+    @Test
+    void testGetToolValidators_RecompilesOnNewerVersion() {
+        when(parameterService.getParametersByToolId("tool1"))
+                .thenReturn(createParameters(createParameter("param1", "username")))
+                .thenReturn(createParameters(createParameter("param2", "email")));
+        CompiledParameterValidator before = cache.getToolValidators("tool1").get("username");
+
+        when(graphStore.changeVersion(anyCollection())).thenReturn(3L);
+        Map<String, CompiledParameterValidator> after = cache.getToolValidators("tool1");
+
+        assertNotNull(before);
+        assertEquals(Set.of("email"), after.keySet());
+        // The removed parameter no longer resolves to the tool
+        when(parameterRepository.findToolIdById("param1")).thenReturn(Optional.empty());
+        assertThrows(ToolParameterNotFoundException.class, () -> cache.getParameterValidator("param1"));
+        assertEquals("email", cache.getParameterValidator("param2").getName());
+    }
+
+    @Test
+    void testGetParameterValidator_ResolvesToolOfUnknownParameter() {
+        when(parameterRepository.findToolIdById("param1")).thenReturn(Optional.of("tool1"));
+        when(parameterService.getParametersByToolId("tool1"))
+                .thenReturn(createParameters(createParameter("param1", "username"), createParameter("param2", "email")));
+
+        CompiledParameterValidator validator = cache.getParameterValidator("param1");
+        CompiledParameterValidator sibling = cache.getParameterValidator("param2");
+
+        assertEquals("username", validator.getName());
+        assertEquals("email", sibling.getName());
+        verify(parameterRepository, times(1)).findToolIdById(anyString());
+    }
+
+    @Test
+    void testGetParameterValidator_ThrowsForUnknownParameter() {
+        when(parameterRepository.findToolIdById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(ToolParameterNotFoundException.class, () -> cache.getParameterValidator("missing"));
+    }
+
+    @Test
+    void testEvictTool_ForgetsValidatorsAndParameters() {
+        when(parameterService.getParametersByToolId("tool1"))
+                .thenReturn(createParameters(createParameter("param1", "username")));
+        cache.getToolValidators("tool1");
+
+        cache.evictTool("tool1");
+
+        assertEquals(0, cache.size());
+        when(parameterRepository.findToolIdById("param1")).thenReturn(Optional.of("tool1"));
+        cache.getParameterValidator("param1");
+        verify(parameterRepository).findToolIdById("param1");
+        verify(parameterService, times(2)).getParametersByToolId("tool1");
+    }
+
+    @Test
+    void testGetToolValidators_OlderCompileDoesNotReplaceNewerOne() {
+        // The first lookup reads version 1, and a second lookup caches version 2 while the first compiles
+        when(graphStore.changeVersion(anyCollection())).thenReturn(1L, 2L, 2L);
+        when(parameterService.getParametersByToolId("tool1")).thenAnswer(invocation -> {
+            if (cache.size() == 0 && mockingDetails(parameterService).getInvocations().size() == 1) {
+                cache.getToolValidators("tool1");
+                return createParameters(createParameter("param1", "stale"));
+            }
+            return createParameters(createParameter("param1", "current"));
+        });
+
+        Map<String, CompiledParameterValidator> returned = cache.getToolValidators("tool1");
+
+        assertEquals(Set.of("current"), returned.keySet());
+        assertEquals(Set.of("current"), cache.getToolValidators("tool1").keySet());
+        assertEquals("current", cache.getParameterValidator("param1").getName());
+        verify(parameterService, times(2)).getParametersByToolId("tool1");
+    }
+
+    private Map<String, ToolParameterDTO> createParameters(ToolParameterDTO... parameters) {
+        Map<String, ToolParameterDTO> byName = new LinkedHashMap<>();
+        for (ToolParameterDTO parameter : parameters) {
+            byName.put(parameter.getName(), parameter);
+        }
+        return byName;
+    }
+
+    private ToolParameterDTO createParameter(String id, String name) {
+        return ToolParameterDTO.builder()
+                .id(id)
+                .name(name)
+                .parameterType(ParameterType.STRING)
+                .build();
+    }
+}
@@ -0,0 +1,435 @@
+package viettel.dac.toolserviceregistry.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import viettel.dac.toolserviceregistry.exception.ApiCallException;
+import viettel.dac.toolserviceregistry.model.dto.ApiToolMetadataDTO;
+import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
+import viettel.dac.toolserviceregistry.model.dto.PlanExecutionResult;
+import viettel.dac.toolserviceregistry.model.dto.ToolExecutionResult;
+import viettel.dac.toolserviceregistry.model.entity.ParameterMapping;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.model.entity.ToolDependency;
+import viettel.dac.toolserviceregistry.model.enums.DependencyType;
+import viettel.dac.toolserviceregistry.model.enums.ExecutionStatus;
+import viettel.dac.toolserviceregistry.model.enums.HttpMethod;
+import viettel.dac.toolserviceregistry.model.enums.ToolType;
+import viettel.dac.toolserviceregistry.model.event.ExecutionProgressEvent;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PlanExecutionServiceTest {
+
+    @Mock
+    private ToolCatalog toolCatalog;
+
+    @Mock
+    private ApiTestService apiTestService;
+
+    @Mock
+    private ParameterValidationService parameterValidationService;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final CountDownLatch concurrentCalls = new CountDownLatch(4);
+
+    private HttpServer server;
+    private String baseUrl;
+    private PlanExecutionService executionService;
+    private Map<String, Tool> tools;
+    private Map<String, ApiToolMetadataDTO> apiMetadata;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        // Echoes the query parameters and adds the output "<path>Output"
+        server.createContext("/echo", exchange -> {
+            String tool = exchange.getRequestURI().getPath().substring("/echo/".length());
+            Map<String, Object> body = new HashMap<>(query(exchange));
+            body.put(tool + "Output", tool + "-" + body.getOrDefault("input", "none"));
+            respond(exchange, 200, body);
+        });
+        server.createContext("/slow", exchange -> {
+            track(() -> sleep(100));
+            respond(exchange, 200, Map.of());
+        });
+        server.createContext("/together", exchange -> {
+            concurrentCalls.countDown();
+            boolean together = await(concurrentCalls);
+            respond(exchange, together ? 200 : 504, Map.of());
+        });
+        server.createContext("/unavailable", exchange -> respond(exchange, 503, Map.of()));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        executionService = new PlanExecutionService(toolCatalog, apiTestService, parameterValidationService,
+                new SimpleMeterRegistry(), kafkaTemplate, 4);
+        ReflectionTestUtils.setField(executionService, "maxConcurrencyPerPlan", 8);
+        ReflectionTestUtils.setField(executionService, "maxConcurrencyPerBaseUrl", 8);
+        ReflectionTestUtils.setField(executionService, "publishProgress", false);
+
+        tools = new HashMap<>();
+        apiMetadata = new HashMap<>();
+        lenient().when(toolCatalog.lookup(anyCollection())).thenAnswer(invocation -> new ToolCatalog.CatalogView(tools, apiMetadata));
+        lenient().when(apiTestService.prepareHttpRequests(anyMap())).thenAnswer(invocation -> {
+            Map<String, ApiTestService.HttpRequestTemplate> templates = new HashMap<>();
+            invocation.<Map<String, ApiToolMetadataDTO>>getArgument(0).forEach((toolId, metadata) ->
+                    templates.put(toolId, new ApiTestService.HttpRequestTemplate(metadata, List.of(), new HttpHeaders())));
+            return templates;
+        });
+        lenient().when(apiTestService.buildHttpRequest(any(ApiTestService.HttpRequestTemplate.class), anyMap())).thenAnswer(invocation -> {
+            ApiToolMetadataDTO metadata = invocation.<ApiTestService.HttpRequestTemplate>getArgument(0).getMetadata();
+            Map<String, Object> inputs = invocation.getArgument(1);
+            if (metadata.getEndpointPath().equals("/broken")) {
+                throw new ApiCallException("Failed to serialize request body: broken");
+            }
+            String query = inputs.entrySet().stream()
+                    .map(entry -> entry.getKey() + "=" + entry.getValue())
+                    .sorted()
+                    .collect(Collectors.joining("&"));
+            return HttpRequest.newBuilder(URI.create(metadata.getBaseUrl() + metadata.getEndpointPath() + "?" + query))
+                    .method(metadata.getHttpMethod().name(), HttpRequest.BodyPublishers.noBody())
+                    .build();
+        });
+        lenient().when(parameterValidationService.extractResponseParameters(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> objectMapper.readValue(invocation.<String>getArgument(1), Map.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executionService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void testExecute_PassesOutputsAlongParameterMappings() throws Exception {
+        Tool login = addApiTool("login", "/echo/login", HttpMethod.GET, 0);
+        Tool profile = addApiTool("profile", "/echo/profile", HttpMethod.GET, 0);
+        addDependency(profile, login, Map.of("loginOutput", "input"));
+
+        PlanExecutionResult result = execute(List.of("login", "profile"), Map.of("input", "alice"));
+
+        assertEquals(ExecutionStatus.SUCCEEDED, result.getStatus());
+        ToolExecutionResult profileResult = result.getToolResults().get("profile");
+        assertEquals("login-alice", profileResult.getOutputs().get("input"));
+        assertEquals("profile-login-alice", profileResult.getOutputs().get("profileOutput"));
+        assertEquals(200, profileResult.getStatusCode());
+    }
+
+    @Test
+    void testExecute_SkipsToolsWithoutApiAndRunsTheirDependents() throws Exception {
+        Tool manual = addTool("manual", ToolType.OTHER);
+        Tool report = addApiTool("report", "/echo/report", HttpMethod.GET, 0);
+        addDependency(report, manual, Map.of("input", "input"));
+
+        PlanExecutionResult result = execute(List.of("manual", "report"), Map.of("input", "bob"));
+
+        assertEquals(ExecutionStatus.SKIPPED, result.getToolResults().get("manual").getStatus());
+        assertEquals(ExecutionStatus.SUCCEEDED, result.getToolResults().get("report").getStatus());
+        assertEquals("report-bob", result.getToolResults().get("report").getOutputs().get("reportOutput"));
+    }
+
+    @Test
+    void testExecute_RunsReadyToolsConcurrently() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            addApiTool("tool" + i, "/together", HttpMethod.GET, 0);
+        }
+
+        PlanExecutionResult result = execute(List.of("tool1", "tool2", "tool3", "tool4"), Map.of());
+
+        assertEquals(ExecutionStatus.SUCCEEDED, result.getStatus());
+    }
+
+    @Test
+    void testExecute_LimitsCallsPerBaseUrl() throws Exception {
+        ReflectionTestUtils.setField(executionService, "maxConcurrencyPerBaseUrl", 2);
+        List<String> toolIds = new ArrayList<>();
+        for (int i = 1; i <= 6; i++) {
+            addApiTool("tool" + i, "/slow", HttpMethod.GET, 0);
+            toolIds.add("tool" + i);
+        }
+
+        PlanExecutionResult result = execute(toolIds, Map.of());
+
+        assertEquals(ExecutionStatus.SUCCEEDED, result.getStatus());
+        assertTrue(maxInFlight.get() <= 2, "At most 2 calls per base URL, saw " + maxInFlight.get());
+    }
+
+    @Test
+    void testExecute_CancelsDependentsOfFailedTool() throws Exception {
+        Tool source = addApiTool("source", "/unavailable", HttpMethod.GET, 0);
+        Tool dependent = addApiTool("dependent", "/echo/dependent", HttpMethod.GET, 0);
+        Tool transitive = addApiTool("transitive", "/echo/transitive", HttpMethod.GET, 0);
+        addApiTool("independent", "/echo/independent", HttpMethod.GET, 0);
+        addDependency(dependent, source, Map.of());
+        addDependency(transitive, dependent, Map.of());
+
+        PlanExecutionResult result = execute(List.of("source", "independent", "dependent", "transitive"), Map.of());
+
+        assertEquals(ExecutionStatus.FAILED, result.getStatus());
+        assertEquals(ExecutionStatus.FAILED, result.getToolResults().get("source").getStatus());
+        assertEquals(503, result.getToolResults().get("source").getStatusCode());
+        assertEquals(ExecutionStatus.CANCELLED, result.getToolResults().get("dependent").getStatus());
+        assertEquals(ExecutionStatus.CANCELLED, result.getToolResults().get("transitive").getStatus());
+        assertEquals(ExecutionStatus.SUCCEEDED, result.getToolResults().get("independent").getStatus());
+        assertNull(calls.get("/echo/dependent"));
+    }
+
+    @Test
+    void testExecute_RetriesOnlyIdempotentMethods() throws Exception {
+        addApiTool("read", "/unavailable", HttpMethod.GET, 2);
+        PlanExecutionResult read = execute(List.of("read"), Map.of());
+
+        assertEquals(3, read.getToolResults().get("read").getAttempts());
+        assertEquals(3, calls.get("/unavailable").get());
+
+        calls.clear();
+        tools.clear();
+        apiMetadata.clear();
+        addApiTool("write", "/unavailable", HttpMethod.POST, 2);
+        PlanExecutionResult write = execute(List.of("write"), Map.of());
+
+        assertEquals(1, write.getToolResults().get("write").getAttempts());
+        assertEquals(1, calls.get("/unavailable").get());
+    }
+
+    @Test
+    void testExecute_FailsQueuedToolWhoseRequestCannotBeBuilt() throws Exception {
+        ReflectionTestUtils.setField(executionService, "maxConcurrencyPerPlan", 1);
+        addApiTool("first", "/slow", HttpMethod.GET, 0);
+        addApiTool("broken", "/broken", HttpMethod.GET, 0);
+        addApiTool("last", "/echo/last", HttpMethod.GET, 0);
+
+        PlanExecutionResult result = execute(List.of("first", "broken", "last"), Map.of());
+
+        assertEquals(ExecutionStatus.FAILED, result.getStatus());
+        assertEquals(ExecutionStatus.SUCCEEDED, result.getToolResults().get("first").getStatus());
+        assertEquals(ExecutionStatus.FAILED, result.getToolResults().get("broken").getStatus());
+        assertEquals("Failed to serialize request body: broken", result.getToolResults().get("broken").getError());
+        assertEquals(ExecutionStatus.SUCCEEDED, result.getToolResults().get("last").getStatus());
+        verify(apiTestService, times(1)).prepareHttpRequests(anyMap());
+    }
+
+    @Test
+    void testAsyncLimiter_RunsWaitingTasksBySlackThenEarliestStart() {
+        PlanExecutionService.AsyncLimiter limiter = new PlanExecutionService.AsyncLimiter(1, Runnable::run);
+        List<String> order = new ArrayList<>();
+        limiter.acquire(0, 0, () -> order.add("holder"), error -> fail(error));
+
+        limiter.acquire(5, 0, () -> order.add("slack5"), error -> fail(error));
+        limiter.acquire(1, 3, () -> order.add("start3"), error -> fail(error));
+        limiter.acquire(1, 2, () -> order.add("first"), error -> fail(error));
+        limiter.acquire(1, 2, () -> order.add("second"), error -> fail(error));
+        for (int i = 0; i < 4; i++) {
+            limiter.release();
+        }
+
+        assertEquals(List.of("holder", "first", "second", "start3", "slack5"), order);
+    }
+
+    @Test
+    void testAsyncLimiter_QueuedTaskFailureReleasesItsPermit() {
+        List<Runnable> handedOff = new ArrayList<>();
+        PlanExecutionService.AsyncLimiter limiter = new PlanExecutionService.AsyncLimiter(1, handedOff::add);
+        List<Throwable> failures = new ArrayList<>();
+        limiter.acquire(0, 0, () -> { }, error -> fail(error));
+        limiter.acquire(0, 0, () -> {
+            throw new IllegalStateException("broken");
+        }, failures::add);
+
+        // The releasing thread only hands the queued task over, so its failure cannot reach the caller
+        limiter.release();
+        assertEquals(1, handedOff.size());
+        handedOff.get(0).run();
+
+        assertEquals(1, failures.size());
+        assertEquals("broken", failures.get(0).getMessage());
+        List<String> ran = new ArrayList<>();
+        limiter.acquire(0, 0, () -> ran.add("next"), error -> fail(error));
+        assertEquals(List.of("next"), ran);
+    }
+
+    @Test
+    void testIsIdempotent() {
+        assertTrue(PlanExecutionService.isIdempotent(HttpMethod.GET));
+        assertTrue(PlanExecutionService.isIdempotent(HttpMethod.PUT));
+        assertTrue(PlanExecutionService.isIdempotent(HttpMethod.DELETE));
+        assertFalse(PlanExecutionService.isIdempotent(HttpMethod.POST));
+        assertFalse(PlanExecutionService.isIdempotent(HttpMethod.PATCH));
+    }
+
+    @Test
+    void testExecute_ReportsProgressInOrder() throws Exception {
+        Tool login = addApiTool("login", "/echo/login", HttpMethod.GET, 0);
+        Tool profile = addApiTool("profile", "/echo/profile", HttpMethod.GET, 0);
+        addDependency(profile, login, Map.of());
+        List<ExecutionProgressEvent> events = new CopyOnWriteArrayList<>();
+
+        PlanExecutionResult result = executionService.execute(
+                ExecutionPlanView.builder().toolsInOrder(List.of("login", "profile")).build(), Map.of(), events::add)
+                .get(10, TimeUnit.SECONDS);
+
+        // The result is only handed out after the final event was delivered
+        assertEquals(List.of("PLAN_STARTED", "TOOL_STARTED", "TOOL_FINISHED", "TOOL_STARTED", "TOOL_FINISHED",
+                "PLAN_COMPLETED"), events.stream().map(ExecutionProgressEvent::getEventType).toList());
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i).getSequence() > events.get(i - 1).getSequence());
+            assertEquals(result.getExecutionId(), events.get(i).getExecutionId());
+        }
+        assertEquals(List.of("login", "profile"), events.get(0).getToolsInOrder());
+        assertEquals("login", events.get(2).getToolResult().getToolId());
+        assertEquals(ExecutionStatus.SUCCEEDED, events.get(2).getToolResult().getStatus());
+        assertEquals(ExecutionStatus.SUCCEEDED, events.get(events.size() - 1).getResult().getStatus());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void testExecute_SurvivesFailingProgressListener() throws Exception {
+        addApiTool("login", "/echo/login", HttpMethod.GET, 0);
+        AtomicInteger delivered = new AtomicInteger();
+
+        PlanExecutionResult result = executionService.execute(
+                ExecutionPlanView.builder().toolsInOrder(List.of("login")).build(), Map.of(), event -> {
+                    delivered.incrementAndGet();
+                    throw new IllegalStateException("Client went away");
+                }).get(10, TimeUnit.SECONDS);
+
+        assertEquals(ExecutionStatus.SUCCEEDED, result.getStatus());
+        assertEquals(4, delivered.get());
+    }
+
+    @Test
+    void testExecute_PublishesProgressToKafka() throws Exception {
+        ReflectionTestUtils.setField(executionService, "publishProgress", true);
+        ReflectionTestUtils.setField(executionService, "executionProgressTopic", "execution-progress");
+        addApiTool("login", "/echo/login", HttpMethod.GET, 0);
+
+        PlanExecutionResult result = execute(List.of("login"), Map.of());
+
+        verify(kafkaTemplate, times(4)).send(eq("execution-progress"), eq(result.getExecutionId()),
+                any(ExecutionProgressEvent.class));
+    }
+
+    private PlanExecutionResult execute(List<String> toolsInOrder, Map<String, Object> providedParameters)
+            throws Exception {
+        ExecutionPlanView plan = ExecutionPlanView.builder().toolsInOrder(toolsInOrder).build();
+        return executionService.execute(plan, providedParameters).get(10, TimeUnit.SECONDS);
+    }
+
+    private Tool addApiTool(String id, String endpointPath, HttpMethod method, int retryCount) {
+        Tool tool = addTool(id, ToolType.API_TOOL);
+        apiMetadata.put(id, ApiToolMetadataDTO.builder()
+                .id(id + "-metadata")
+                .baseUrl(baseUrl)
+                .endpointPath(endpointPath)
+                .httpMethod(method)
+                .responseFormat("JSON")
+                .retryCount(retryCount)
+                .build());
+        return tool;
+    }
+
+    private Tool addTool(String id, ToolType toolType) {
+        Tool tool = new Tool();
+        tool.setId(id);
+        tool.setName(id);
+        tool.setToolType(toolType);
+        tool.setParameters(new ArrayList<>());
+        tool.setDependencies(new ArrayList<>());
+        tools.put(id, tool);
+        return tool;
+    }
+
+    private void addDependency(Tool tool, Tool dependencyTool, Map<String, String> mappings) {
+        ToolDependency dependency = new ToolDependency();
+        dependency.setId(tool.getId() + "-" + dependencyTool.getId());
+        dependency.setTool(tool);
+        dependency.setDependencyTool(dependencyTool);
+        dependency.setDependencyType(DependencyType.REQUIRED);
+        dependency.setParameterMappings(new ArrayList<>());
+        mappings.forEach((source, target) -> {
+            ParameterMapping mapping = new ParameterMapping();
+            mapping.setSourceParameter(source);
+            mapping.setTargetParameter(target);
+            dependency.addParameterMapping(mapping);
+        });
+        tool.getDependencies().add(dependency);
+    }
+
+    private Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            for (String pair : query.split("&")) {
+                String[] parts = pair.split("=", 2);
+                parameters.put(parts[0], parts.length > 1 ? URLDecoder.decode(parts[1], StandardCharsets.UTF_8) : "");
+            }
+        }
+        return parameters;
+    }
+
+    private void respond(HttpExchange exchange, int status, Map<String, Object> body) throws IOException {
+        calls.computeIfAbsent(exchange.getRequestURI().getPath(), k -> new AtomicInteger()).incrementAndGet();
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+        exchange.close();
+    }
+
+    private void track(Runnable call) {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            call.run();
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import viettel.dac.toolserviceregistry.model.dto.ExecutionPlanView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PlanVersionStoreTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PlanVersionStore store;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        store = new PlanVersionStore(meterRegistry, null, null);
+        ReflectionTestUtils.setField(store, "maxVersionsPerPlan", 3);
+        ReflectionTestUtils.setField(store, "maxEntries", 5);
+    }
+
+    @Test
+    void testAppend_NumbersVersionsPerPlanKey() {
+        assertEquals(1, store.append("a", createPlan("a1")));
+        assertEquals(2, store.append("a", createPlan("a2")));
+        assertEquals(1, store.append("b", createPlan("b1")));
+        assertEquals(3, store.append("a", createPlan("a3")));
+
+        assertEquals(List.of("a2"), store.get("a", 2).getToolsInOrder());
+        assertEquals(3, store.get("a", 3).getVersion());
+        assertEquals(List.of("b1"), store.get("b", 1).getToolsInOrder());
+    }
+
+    @Test
+    void testAppend_KeepsOnlyTheLastVersionsOfAPlan() {
+        for (int i = 1; i <= 5; i++) {
+            store.append("a", createPlan("a" + i));
+        }
+
+        assertNull(store.get("a", 1));
+        assertNull(store.get("a", 2));
+        Map<Integer, ExecutionPlanView> versions = store.getAll("a");
+        assertEquals(List.of(3, 4, 5), List.copyOf(versions.keySet()));
+        assertEquals(List.of("a5"), versions.get(5).getToolsInOrder());
+        assertEquals(3, store.size());
+    }
+
+    @Test
+    void testAppend_EvictsLeastRecentlyUsedPlanKeys() {
+        store.append("a", createPlan("a1"));
+        store.append("a", createPlan("a2"));
+        store.append("b", createPlan("b1"));
+        store.append("b", createPlan("b2"));
+        store.get("a", 1);
+
+        store.append("c", createPlan("c1"));
+        store.append("c", createPlan("c2"));
+
+        assertTrue(store.getAll("b").isEmpty());
+        assertEquals(2, store.getAll("a").size());
+        assertEquals(2, store.getAll("c").size());
+        assertEquals(4, store.size());
+        assertEquals(2.0, meterRegistry.counter("execution.plan.versions.evicted").count());
+    }
+
+    @Test
+    void testGet_ReturnsCopies() {
+        store.append("a", createPlan("a1"));
+
+        store.get("a", 1).getToolsInOrder().add("changed");
+
+        assertEquals(List.of("a1"), store.get("a", 1).getToolsInOrder());
+    }
+
+    private ExecutionPlanView createPlan(String toolId) {
+        ExecutionPlanView plan = new ExecutionPlanView();
+        plan.setToolsInOrder(new ArrayList<>(List.of(toolId)));
+        return plan;
+    }
+}
@@ -0,0 +1,50 @@
+package viettel.dac.toolserviceregistry.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegexSafetyAnalyzerTest {
+
+    @Test
+    void testFindUnsafeConstruct_AcceptsCommonPatterns() {
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("^\\d{4}-(0[1-9]|1[0-2])-(0[1-9]|[12][0-9]|3[01])$"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("^([a-z0-9]+\\.)+[a-z]{2,}$"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("^(\\w+,)*\\w+$"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("(\\d{1,3}\\.){3}\\d{1,3}"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("^(?<code>[A-Z]{3})-\\d+$"));
+    }
+
+    @Test
+    void testFindUnsafeConstruct_AcceptsPossessiveAndAtomicLoops() {
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("(a+)++b"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("(?>a+)+b"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("\\Q(a+)+\\E"));
+    }
+
+    @Test
+    void testFindUnsafeConstruct_RejectsNestedRepetition() {
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("(a+)+b"));
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("^(\\w+\\s?)*$"));
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("(.*a){20}"));
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("([a-z]+[0-9]*)+"));
+    }
+
+    @Test
+    void testFindUnsafeConstruct_RejectsBoundedAndOptionalRepetitionInLoops() {
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("(a{1,5})+b"));
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("(a?){25}a{25}"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("(a{2})+b"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("(ab?)+"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("(\\d{1,3}\\.)+\\d{1,3}"));
+    }
+
+    @Test
+    void testFindUnsafeConstruct_RejectsOverlappingAlternativesAndBackreferences() {
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("(a|ab)*c"));
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("(?i)(A|a)+"));
+        assertNotNull(RegexSafetyAnalyzer.findUnsafeConstruct("(a)\\1"));
+        assertNull(RegexSafetyAnalyzer.findUnsafeConstruct("(ab|cd)*"));
+    }
+}
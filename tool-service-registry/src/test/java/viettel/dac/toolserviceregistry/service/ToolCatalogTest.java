@@ -0,0 +1,111 @@
+package viettel.dac.toolserviceregistry.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import viettel.dac.toolserviceregistry.model.dto.ApiToolMetadataDTO;
+import viettel.dac.toolserviceregistry.model.entity.Tool;
+import viettel.dac.toolserviceregistry.model.enums.ToolType;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ToolCatalogTest {
+
+    @Mock
+    private ExecutionPlanToolLoader toolLoader;
+
+    @Mock
+    private ApiToolService apiToolService;
+
+    @Mock
+    private DependencyGraphStore graphStore;
+
+    private ToolCatalog catalog;
+    private Tool tool1, tool2;
+    private ApiToolMetadataDTO metadata1;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new ToolCatalog(toolLoader, apiToolService, graphStore, new SimpleMeterRegistry());
+        tool1 = createTool("tool1", ToolType.API_TOOL);
+        tool2 = createTool("tool2", ToolType.OTHER);
+        metadata1 = ApiToolMetadataDTO.builder().id("metadata1").baseUrl("https://api.example.com").build();
+    }
+
+    @Test
+    void testLookup_LoadsMissingToolsTogetherOnce() {
+        when(toolLoader.load(anyCollection())).thenReturn(Map.of("tool1", tool1, "tool2", tool2));
+        when(apiToolService.getApiToolMetadataDTOs(Set.of("tool1"))).thenReturn(Map.of("tool1", metadata1));
+
+        ToolCatalog.CatalogView first = catalog.lookup(List.of("tool1", "tool2"));
+        ToolCatalog.CatalogView second = catalog.lookup(List.of("tool2", "tool1"));
+
+        assertEquals(Map.of("tool1", tool1, "tool2", tool2), first.getTools());
+        assertEquals(Map.of("tool1", metadata1), first.getApiMetadata());
+        assertEquals(first.getTools(), second.getTools());
+        assertEquals(first.getApiMetadata(), second.getApiMetadata());
+        assertEquals(2, catalog.size());
+        verify(toolLoader, times(1)).load(anyCollection());
+        verify(apiToolService, times(1)).getApiToolMetadataDTOs(anyCollection());
+    }
+
+    @Test
+    void testLookup_ReloadsOnlyChangedTools() {
+        when(toolLoader.load(anyCollection())).thenReturn(Map.of("tool1", tool1, "tool2", tool2));
+        when(apiToolService.getApiToolMetadataDTOs(anyCollection())).thenReturn(Map.of("tool1", metadata1));
+        catalog.lookup(List.of("tool1", "tool2"));
+
+        Tool changed = createTool("tool2", ToolType.OTHER);
+        when(graphStore.changeVersion(anyCollection()))
+                .thenAnswer(invocation -> invocation.<Collection<String>>getArgument(0).contains("tool2") ? 5L : 0L);
+        when(toolLoader.load(Set.of("tool2"))).thenReturn(Map.of("tool2", changed));
+
+        ToolCatalog.CatalogView view = catalog.lookup(List.of("tool1", "tool2"));
+
+        assertSame(tool1, view.getTools().get("tool1"));
+        assertSame(changed, view.getTools().get("tool2"));
+        verify(toolLoader).load(Set.of("tool2"));
+        verify(apiToolService, times(1)).getApiToolMetadataDTOs(anyCollection());
+    }
+
+    @Test
+    void testLookup_OmitsUnknownTools() {
+        when(toolLoader.load(anyCollection())).thenReturn(Map.of("tool2", tool2));
+
+        ToolCatalog.CatalogView view = catalog.lookup(List.of("tool2", "unknown"));
+        catalog.lookup(List.of("unknown"));
+
+        assertEquals(Set.of("tool2"), view.getTools().keySet());
+        assertTrue(view.getApiMetadata().isEmpty());
+        assertEquals(1, catalog.size());
+        verify(toolLoader, times(2)).load(anyCollection());
+        verifyNoInteractions(apiToolService);
+    }
+
+    @Test
+    void testCatalogView_IsReadOnly() {
+        when(toolLoader.load(anyCollection())).thenReturn(Map.of("tool2", tool2));
+
+        ToolCatalog.CatalogView view = catalog.lookup(List.of("tool2"));
+
+        assertThrows(UnsupportedOperationException.class, () -> view.getTools().put("tool1", tool1));
+    }
+
+    private Tool createTool(String id, ToolType toolType) {
+        Tool tool = new Tool();
+        tool.setId(id);
+        tool.setName(id);
+        tool.setToolType(toolType);
+        tool.setParameters(new ArrayList<>());
+        tool.setDependencies(new ArrayList<>());
+        return tool;
+    }
+}